@@ -0,0 +1,326 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+/**
+ * Adaptive precision geometric predicates after J. R. Shewchuk, "Adaptive
+ * Precision Floating-Point Arithmetic and Fast Robust Geometric Predicates".
+ * The result is computed with plain doubles first, and the precision is
+ * increased only when the error bound does not allow to tell the sign. The
+ * signs are exact.
+ * 
+ * The class is strictfp, because the error free transformations need the
+ * double rounding of each operation.
+ */
+final strictfp class AdaptivePredicates {
+	private static final double s_epsilon = 1.1102230246251565e-16; // 2^-53
+	private static final double s_splitter = 134217729.0; // 2^27 + 1
+	private static final double s_resultErrBound = (3.0 + 8.0 * s_epsilon)
+			* s_epsilon;
+	private static final double s_ccwErrBoundA = (3.0 + 16.0 * s_epsilon)
+			* s_epsilon;
+	private static final double s_ccwErrBoundB = (2.0 + 12.0 * s_epsilon)
+			* s_epsilon;
+	private static final double s_ccwErrBoundC = (9.0 + 64.0 * s_epsilon)
+			* s_epsilon * s_epsilon;
+	private static final double s_iccErrBoundA = (10.0 + 96.0 * s_epsilon)
+			* s_epsilon;
+
+	private AdaptivePredicates() {
+	}
+
+	/**
+	 * Returns 1 if the points a, b, c are in the counter-clockwise order, -1
+	 * if clockwise, and 0 if they are collinear. Same as
+	 * Point2D.orientationRobust.
+	 */
+	static int orientation(double ax, double ay, double bx, double by,
+			double cx, double cy) {
+		double det = orient2d(ax, ay, bx, by, cx, cy);
+		return det > 0 ? 1 : (det < 0 ? -1 : 0);
+	}
+
+	/**
+	 * Returns a value, which has the sign of the determinant
+	 * (a - c) x (b - c). The value is the approximate determinant.
+	 */
+	static double orient2d(double ax, double ay, double bx, double by,
+			double cx, double cy) {
+		double detleft = (ax - cx) * (by - cy);
+		double detright = (ay - cy) * (bx - cx);
+		double det = detleft - detright;
+		double detsum;
+		if (detleft > 0.0) {
+			if (detright <= 0.0)
+				return det;
+			detsum = detleft + detright;
+		} else if (detleft < 0.0) {
+			if (detright >= 0.0)
+				return det;
+			detsum = -detleft - detright;
+		} else
+			return det;
+
+		double errbound = s_ccwErrBoundA * detsum;
+		if (det >= errbound || -det >= errbound)
+			return det;
+
+		return orient2dAdapt_(ax, ay, bx, by, cx, cy, detsum);
+	}
+
+	private static double orient2dAdapt_(double ax, double ay, double bx,
+			double by, double cx, double cy, double detsum) {
+		double acx = ax - cx;
+		double bcx = bx - cx;
+		double acy = ay - cy;
+		double bcy = by - cy;
+
+		double detleft = acx * bcy;
+		double detlefttail = twoProductTail_(acx, bcy, detleft);
+		double detright = acy * bcx;
+		double detrighttail = twoProductTail_(acy, bcx, detright);
+		double[] b = new double[4];
+		twoTwoDiff_(detleft, detlefttail, detright, detrighttail, b);
+
+		double det = estimate_(4, b);
+		double errbound = s_ccwErrBoundB * detsum;
+		if (det >= errbound || -det >= errbound)
+			return det;
+
+		double acxtail = twoDiffTail_(ax, cx, acx);
+		double bcxtail = twoDiffTail_(bx, cx, bcx);
+		double acytail = twoDiffTail_(ay, cy, acy);
+		double bcytail = twoDiffTail_(by, cy, bcy);
+		if (acxtail == 0.0 && acytail == 0.0 && bcxtail == 0.0
+				&& bcytail == 0.0)
+			return det;
+
+		errbound = s_ccwErrBoundC * detsum + s_resultErrBound * Math.abs(det);
+		det += (acx * bcytail + bcy * acxtail)
+				- (acy * bcxtail + bcx * acytail);
+		if (det >= errbound || -det >= errbound)
+			return det;
+
+		double[] u = new double[4];
+		double[] c1 = new double[8];
+		double[] c2 = new double[12];
+		double[] d = new double[16];
+
+		double s1 = acxtail * bcy;
+		double s0 = twoProductTail_(acxtail, bcy, s1);
+		double t1 = acytail * bcx;
+		double t0 = twoProductTail_(acytail, bcx, t1);
+		twoTwoDiff_(s1, s0, t1, t0, u);
+		int c1length = fastExpansionSumZeroElim_(4, b, 4, u, c1);
+
+		s1 = acx * bcytail;
+		s0 = twoProductTail_(acx, bcytail, s1);
+		t1 = acy * bcxtail;
+		t0 = twoProductTail_(acy, bcxtail, t1);
+		twoTwoDiff_(s1, s0, t1, t0, u);
+		int c2length = fastExpansionSumZeroElim_(c1length, c1, 4, u, c2);
+
+		s1 = acxtail * bcytail;
+		s0 = twoProductTail_(acxtail, bcytail, s1);
+		t1 = acytail * bcxtail;
+		t0 = twoProductTail_(acytail, bcxtail, t1);
+		twoTwoDiff_(s1, s0, t1, t0, u);
+		int dlength = fastExpansionSumZeroElim_(c2length, c2, 4, u, d);
+
+		return d[dlength - 1];
+	}
+
+	/**
+	 * Returns the sign of the in-circle determinant of the points p, q, r and
+	 * s, same as Point2D.inCircleRobust, when it can be told from the double
+	 * precision result. Returns 2 when the exact evaluation is needed.
+	 */
+	static int inCircleFiltered(double px, double py, double qx, double qy,
+			double rx, double ry, double sx, double sy) {
+		double adx = px - sx;
+		double bdx = qx - sx;
+		double cdx = rx - sx;
+		double ady = py - sy;
+		double bdy = qy - sy;
+		double cdy = ry - sy;
+
+		double bdxcdy = bdx * cdy;
+		double cdxbdy = cdx * bdy;
+		double alift = adx * adx + ady * ady;
+
+		double cdxady = cdx * ady;
+		double adxcdy = adx * cdy;
+		double blift = bdx * bdx + bdy * bdy;
+
+		double adxbdy = adx * bdy;
+		double bdxady = bdx * ady;
+		double clift = cdx * cdx + cdy * cdy;
+
+		double det = alift * (bdxcdy - cdxbdy) + blift * (cdxady - adxcdy)
+				+ clift * (adxbdy - bdxady);
+
+		double permanent = (Math.abs(bdxcdy) + Math.abs(cdxbdy)) * alift
+				+ (Math.abs(cdxady) + Math.abs(adxcdy)) * blift
+				+ (Math.abs(adxbdy) + Math.abs(bdxady)) * clift;
+		double errbound = s_iccErrBoundA * permanent;
+		if (det > errbound)
+			return 1;
+		if (-det > errbound)
+			return -1;
+
+		return 2;
+	}
+
+	// The error free transformations. The expansions are stored with the
+	// smallest magnitude component first.
+
+	private static double twoDiffTail_(double a, double b, double x) {
+		double bvirt = a - x;
+		double avirt = x + bvirt;
+		double bround = bvirt - b;
+		double around = a - avirt;
+		return around + bround;
+	}
+
+	private static double twoProductTail_(double a, double b, double x) {
+		double c = s_splitter * a;
+		double abig = c - a;
+		double ahi = c - abig;
+		double alo = a - ahi;
+		c = s_splitter * b;
+		double bbig = c - b;
+		double bhi = c - bbig;
+		double blo = b - bhi;
+		double err1 = x - (ahi * bhi);
+		double err2 = err1 - (alo * bhi);
+		double err3 = err2 - (ahi * blo);
+		return (alo * blo) - err3;
+	}
+
+	/**
+	 * Computes the four component expansion of (a1 + a0) - (b1 + b0).
+	 */
+	private static void twoTwoDiff_(double a1, double a0, double b1,
+			double b0, double[] x) {
+		// Two_One_Diff(a1, a0, b0, j, _0, x0)
+		double i = a0 - b0;
+		x[0] = twoDiffTail_(a0, b0, i);
+		double j = a1 + i;
+		double zero = twoSumTail_(a1, i, j);
+		// Two_One_Diff(j, _0, b1, x3, x2, x1)
+		i = zero - b1;
+		x[1] = twoDiffTail_(zero, b1, i);
+		x[3] = j + i;
+		x[2] = twoSumTail_(j, i, x[3]);
+	}
+
+	private static double twoSumTail_(double a, double b, double x) {
+		double bvirt = x - a;
+		double avirt = x - bvirt;
+		double bround = b - bvirt;
+		double around = a - avirt;
+		return around + bround;
+	}
+
+	private static double estimate_(int elen, double[] e) {
+		double q = e[0];
+		for (int i = 1; i < elen; i++)
+			q += e[i];
+
+		return q;
+	}
+
+	private static int fastExpansionSumZeroElim_(int elen, double[] e,
+			int flen, double[] f, double[] h) {
+		double enow = e[0];
+		double fnow = f[0];
+		int eindex = 0;
+		int findex = 0;
+		double q;
+		if ((fnow > enow) == (fnow > -enow)) {
+			q = enow;
+			enow = ++eindex < elen ? e[eindex] : 0;
+		} else {
+			q = fnow;
+			fnow = ++findex < flen ? f[findex] : 0;
+		}
+
+		int hindex = 0;
+		double qnew;
+		double hh;
+		if (eindex < elen && findex < flen) {
+			if ((fnow > enow) == (fnow > -enow)) {
+				qnew = enow + q;
+				hh = q - (qnew - enow);
+				enow = ++eindex < elen ? e[eindex] : 0;
+			} else {
+				qnew = fnow + q;
+				hh = q - (qnew - fnow);
+				fnow = ++findex < flen ? f[findex] : 0;
+			}
+			q = qnew;
+			if (hh != 0.0)
+				h[hindex++] = hh;
+
+			while (eindex < elen && findex < flen) {
+				if ((fnow > enow) == (fnow > -enow)) {
+					qnew = q + enow;
+					hh = twoSumTail_(q, enow, qnew);
+					enow = ++eindex < elen ? e[eindex] : 0;
+				} else {
+					qnew = q + fnow;
+					hh = twoSumTail_(q, fnow, qnew);
+					fnow = ++findex < flen ? f[findex] : 0;
+				}
+				q = qnew;
+				if (hh != 0.0)
+					h[hindex++] = hh;
+			}
+		}
+
+		while (eindex < elen) {
+			qnew = q + enow;
+			hh = twoSumTail_(q, enow, qnew);
+			enow = ++eindex < elen ? e[eindex] : 0;
+			q = qnew;
+			if (hh != 0.0)
+				h[hindex++] = hh;
+		}
+
+		while (findex < flen) {
+			qnew = q + fnow;
+			hh = twoSumTail_(q, fnow, qnew);
+			fnow = ++findex < flen ? f[findex] : 0;
+			q = qnew;
+			if (hh != 0.0)
+				h[hindex++] = hh;
+		}
+
+		if (q != 0.0 || hindex == 0)
+			h[hindex++] = q;
+
+		return hindex;
+	}
+}
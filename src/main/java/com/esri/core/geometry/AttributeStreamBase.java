@@ -506,6 +506,58 @@ abstract class AttributeStreamBase {
 		return newStream;
 	}
 
+	/**
+	 * Creates a new attribute stream of given persistence type that reads its
+	 * elements from the given buffer instead of the heap. The buffer can be
+	 * direct or memory mapped. The elements start at the current position of
+	 * the buffer and use its byte order. The buffer is never written to: the
+	 * stream copies the elements to the heap on the first modification.
+	 * 
+	 * @param persistence
+	 *            The persistence type of the stream (see VertexDescription).
+	 *            Only double and 32 bit integer streams are supported.
+	 * @param buffer
+	 *            The buffer holding the elements.
+	 * @param size
+	 *            The number of elements of the given type in the stream.
+	 */
+	public static AttributeStreamBase createDirectAttributeStreamWithPersistence(
+			int persistence, ByteBuffer buffer, int size) {
+		AttributeStreamBase newStream;
+		switch (persistence) {
+		case (Persistence.enumDouble):
+			newStream = new AttributeStreamOfDbl(buffer.asDoubleBuffer(), size);
+			break;
+		case (Persistence.enumInt32):
+			newStream = new AttributeStreamOfInt32(buffer.asIntBuffer(), size);
+			break;
+		default:
+			throw new GeometryException("not implemented");
+		}
+		return newStream;
+	}
+
+	/**
+	 * Creates a new attribute stream for the given semantics and vertex count
+	 * that reads its elements from the given buffer instead of the heap (see
+	 * createDirectAttributeStreamWithPersistence).
+	 * 
+	 * @param semantics
+	 *            The semantics of the attribute (see VertexDescription).
+	 * @param buffer
+	 *            The buffer holding the elements.
+	 * @param vertexCount
+	 *            The number of vertices in the geometry. The actual number of
+	 *            elements in the stream is vertexCount * ncomponents.
+	 */
+	public static AttributeStreamBase createDirectAttributeStreamWithSemantics(
+			int semantics, ByteBuffer buffer, int vertexCount) {
+		int ncomps = VertexDescription.getComponentCount(semantics);
+		int persistence = VertexDescription.getPersistence(semantics);
+		return createDirectAttributeStreamWithPersistence(persistence, buffer,
+				vertexCount * ncomps);
+	}
+
 	public abstract int calculateHashImpl(int hashCode, int start, int end);
 
 	public abstract boolean equals(AttributeStreamBase other, int start, int end);
@@ -28,6 +28,7 @@ package com.esri.core.geometry;
 import com.esri.core.geometry.VertexDescription.Persistence;
 
 import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
 import java.util.Arrays;
 
 import static com.esri.core.geometry.SizeOf.SIZE_OF_ATTRIBUTE_STREAM_OF_DBL;
@@ -37,6 +38,7 @@ import static com.esri.core.geometry.SizeOf.sizeOfDoubleArray;
 final class AttributeStreamOfDbl extends AttributeStreamBase {
 
 	private double[] m_buffer = null;
+	private DoubleBuffer m_direct = null; // when not null, holds the elements instead of m_buffer
 	private int m_size;
 
 	public int size() {
@@ -47,6 +49,7 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 	{
 		if (reserve <= 0)
 			return;
+		_materialize();
 		if (m_buffer == null)
 			m_buffer = new double[reserve];
 		else {
@@ -60,6 +63,9 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 	}
 
 	public int capacity() {
+		if (m_direct != null)
+			return m_direct.capacity();
+
 		return m_buffer != null ? m_buffer.length : 0;
 	}
 	
@@ -80,15 +86,38 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		Arrays.fill(m_buffer, 0, size, defaultValue);
 	}
 
+	/**
+	 * Creates a stream that reads its elements from the given buffer, which
+	 * can be direct or memory mapped. The buffer is never written to. The
+	 * elements are copied to the heap on the first modification of the stream.
+	 */
+	public AttributeStreamOfDbl(DoubleBuffer direct, int size) {
+		if (size < 0 || size > direct.capacity())
+			throw new IllegalArgumentException();
+
+		m_direct = direct;
+		m_size = size;
+	}
+
 	public AttributeStreamOfDbl(AttributeStreamOfDbl other) {
-		m_buffer = other.m_buffer.clone();
 		m_size = other.m_size;
+		if (other.m_direct != null) {
+			m_direct = other.m_direct;// the buffer is shared, it is read only
+			return;
+		}
+
+		m_buffer = other.m_buffer.clone();
 	}
 
 	public AttributeStreamOfDbl(AttributeStreamOfDbl other, int maxSize) {
 		m_size = other.size();
 		if (m_size > maxSize)
 			m_size = maxSize;
+		if (other.m_direct != null) {
+			m_direct = other.m_direct;
+			return;
+		}
+
 		int sz = m_size;
 		if (sz < 2)
 			sz = 2;
@@ -96,6 +125,49 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		System.arraycopy(other.m_buffer, 0, m_buffer, 0, m_size);
 	}
 
+	/**
+	 * Returns True if the stream reads its elements from an off-heap buffer.
+	 */
+	public boolean isDirect() {
+		return m_direct != null;
+	}
+
+	/**
+	 * Returns the heap array holding the elements, or null when the stream is
+	 * off-heap. The array can be longer than the stream. The caller must not
+	 * modify it.
+	 */
+	double[] _getHeapBuffer() {
+		return m_direct == null ? m_buffer : null;
+	}
+
+	/**
+	 * Copies the elements of the off-heap buffer to the heap. Called before
+	 * any modification of the stream.
+	 */
+	private void _materialize() {
+		if (m_direct == null)
+			return;
+
+		double[] buf = new double[Math.max(m_size, 2)];
+		_copyRange(this, 0, buf, 0, m_size);
+		m_buffer = buf;
+		m_direct = null;
+	}
+
+	private static void _copyRange(AttributeStreamOfDbl src, int srcStart,
+			double[] dst, int dstStart, int count) {
+		if (src.m_direct == null) {
+			System.arraycopy(src.m_buffer, srcStart, dst, dstStart, count);
+			return;
+		}
+
+		DoubleBuffer buf = src.m_direct.duplicate();
+		buf.clear();
+		buf.position(srcStart);
+		buf.get(dst, dstStart, count);
+	}
+
 	/**
 	 * Reads a value from the buffer at given offset.
 	 *
@@ -103,11 +175,11 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 	 *            is the element number in the stream.
 	 */
 	public double read(int offset) {
-		return m_buffer[offset];
+		return m_direct == null ? m_buffer[offset] : m_direct.get(offset);
 	}
 
 	public double get(int offset) {
-		return m_buffer[offset];
+		return read(offset);
 	}
 
 	/**
@@ -122,6 +194,7 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		if (m_bReadonly) {
 			throw new RuntimeException("invalid_call");
 		}
+		_materialize();
 		m_buffer[offset] = value;
 	}
 
@@ -129,6 +202,7 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		if (m_bReadonly) {
 			throw new RuntimeException("invalid_call");
 		}
+		_materialize();
 		m_buffer[offset] = value;
 	}
 
@@ -139,6 +213,12 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 	 *            is the element number in the stream.
 	 */
 	public void read(int offset, Point2D outPoint) {
+		if (m_direct != null) {
+			outPoint.x = m_direct.get(offset);
+			outPoint.y = m_direct.get(offset + 1);
+			return;
+		}
+
 		outPoint.x = m_buffer[offset];
 		outPoint.y = m_buffer[offset + 1];
 	}
@@ -155,6 +235,7 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		if (m_bReadonly) {
 			throw new RuntimeException("invalid_call");
 		}
+		_materialize();
 		m_buffer[offset] = point.x;
 		m_buffer[offset + 1] = point.y;
 	}
@@ -181,6 +262,9 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 	@Override
 	public long estimateMemorySize()
 	{
+		if (m_direct != null)
+			return SIZE_OF_ATTRIBUTE_STREAM_OF_DBL;// the elements are off-heap
+
 		return SIZE_OF_ATTRIBUTE_STREAM_OF_DBL + sizeOfDoubleArray(m_buffer.length);
 	}
 
@@ -226,6 +310,7 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 			throw new GeometryException(
 					"invalid call. Attribute Stream is locked and cannot be resized.");
 
+		_materialize();
 		if (newSize <= m_size) {
 			if ((newSize * 5) / 4 < m_buffer.length) {// decrease when the 25%
 				// margin is exceeded
@@ -250,6 +335,7 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 	@Override
 	public void resizePreserveCapacity(int newSize)// java only method
 	{
+		_materialize();
 		if (m_buffer == null || newSize > m_buffer.length)
 			resize(newSize);
 		if (m_bLockedInSize)
@@ -264,6 +350,7 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		if (m_bLockedInSize)
 			throw new GeometryException(
 					"invalid call. Attribute Stream is locked and cannot be resized.");
+		_materialize();
 		if (newSize <= m_size) {
 			if ((newSize * 5) / 4 < m_buffer.length) {// decrease when the 25%
 				// margin is exceeded
@@ -372,8 +459,8 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		resize(newSize);
 
 		if (bForward) {
-			System.arraycopy(((AttributeStreamOfDbl) src).m_buffer, start,
-					m_buffer, oldSize, count);
+			_copyRange((AttributeStreamOfDbl) src, start, m_buffer, oldSize,
+					count);
 		} else {
 			int n = count;
 
@@ -381,8 +468,8 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 				n -= stride;
 
 				for (int s = 0; s < stride; s++) {
-					m_buffer[oldSize + i + s] = ((AttributeStreamOfDbl) src).m_buffer[start
-							+ n + s];
+					m_buffer[oldSize + i + s] = ((AttributeStreamOfDbl) src).read(start
+							+ n + s);
 				}
 			}
 		}
@@ -420,6 +507,7 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		if (!bForward && (stride < 1 || count % stride != 0))
 			throw new IllegalArgumentException();
 
+		_materialize();
 		int excess_space = m_size - validSize;
 
 		if (excess_space < count) {
@@ -436,8 +524,8 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		}
 
 		if (bForward) {
-			System.arraycopy(((AttributeStreamOfDbl) src).m_buffer, srcStart,
-					m_buffer, start, count);
+			_copyRange((AttributeStreamOfDbl) src, srcStart, m_buffer, start,
+					count);
 		} else {
 			int n = count;
 
@@ -445,8 +533,8 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 				n -= stride;
 
 				for (int s = 0; s < stride; s++) {
-					m_buffer[start + i + s] = ((AttributeStreamOfDbl) src).m_buffer[srcStart
-							+ n + s];
+					m_buffer[start + i + s] = ((AttributeStreamOfDbl) src).read(srcStart
+							+ n + s);
 				}
 			}
 		}
@@ -457,6 +545,7 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		if (m_bReadonly)
 			throw new GeometryException("invalid_call");
 
+		_materialize();
 		System.arraycopy(m_buffer, start, m_buffer, start + count, validSize
 				- start);
 
@@ -471,6 +560,7 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		if (m_bReadonly)
 			throw new GeometryException("invalid_call");
 
+		_materialize();
 		int comp = VertexDescription.getComponentCount(semantics);
 
 		System.arraycopy(m_buffer, start, m_buffer, start + comp, validSize
@@ -485,6 +575,7 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		if (m_bReadonly)
 			throw new GeometryException("invalid_call");
 
+		_materialize();
 		System.arraycopy(m_buffer, index, m_buffer, index + 2, validSize
 				- index);
 		m_buffer[index] = point.x;
@@ -509,6 +600,8 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		if (size() < count + streamOffset)
 			resize(count + streamOffset);
 
+		_materialize();
+
 		int j = streamOffset;
 		if (!bForward)
 			j += count - 1;
@@ -536,6 +629,8 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		if (size() < count + streamOffset)
 			resize(count + streamOffset);
 
+		_materialize();
+
 		if (bForward) {
 			System.arraycopy(src, arrayOffset, m_buffer, streamOffset, count);
 		} else {
@@ -578,8 +673,8 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 
 		int end = arrayOffset + (count >> 1);
 		for (int i = arrayOffset; i < end; i++) {
-			dst[i][0] = m_buffer[j];
-			dst[i][1] = m_buffer[j + 1];
+			dst[i][0] = read(j);
+			dst[i][1] = read(j + 1);
 			j += dj;
 		}
 
@@ -593,6 +688,7 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		if (index + count > m_size)
 			throw new GeometryException("invalid_call");
 
+		_materialize();
 		if (validSize - (index + count) > 0) {
 			System.arraycopy(m_buffer, index + count, m_buffer, index,
 					validSize - (index + count));
@@ -623,7 +719,7 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 
 		int offset = dstOffset;
 		for (int i = 0; i < count; i++, offset += elmSize) {
-			dst.putDouble(offset, m_buffer[j]);
+			dst.putDouble(offset, read(j));
 			j += dj;
 		}
 	}
@@ -636,6 +732,7 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		if (stride < 1 || count % stride != 0)
 			throw new GeometryException("invalid_call");
 
+		_materialize();
 		int cIterations = count >> 1;
 		int n = count;
 
@@ -655,6 +752,7 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		if (start < 0 || count < 0 || start < 0 || count + start > size())
 			throw new IllegalArgumentException();
 
+		_materialize();
 		double v = value;
 		Arrays.fill(m_buffer, start, start + count, v);
 		// for (int i = start, n = start + count; i < n; i++)
@@ -683,6 +781,8 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		if (size() < count + startElement)
 			resize(count + startElement);
 
+		_materialize();
+
 		if (_src == (AttributeStreamBase) this) {
 			_selfWriteRangeImpl(startElement, count, srcStart, bForward, stride);
 			return;
@@ -692,7 +792,7 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 			int j = startElement;
 			int offset = srcStart;
 			for (int i = 0; i < count; i++) {
-				m_buffer[j] = src.m_buffer[offset];
+				m_buffer[j] = src.read(offset);
 				j++;
 				offset++;
 			}
@@ -701,14 +801,14 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 			int offset = srcStart + count - stride;
 			if (stride == 1) {
 				for (int i = 0; i < count; i++) {
-					m_buffer[j] = src.m_buffer[offset];
+					m_buffer[j] = src.read(offset);
 					j++;
 					offset--;
 				}
 			} else {
 				for (int i = 0, n = count / stride; i < n; i++) {
 					for (int k = 0; k < stride; k++)
-						m_buffer[j + k] = src.m_buffer[offset + k];
+						m_buffer[j + k] = src.read(offset + k);
 
 					j += stride;
 					offset -= stride;
@@ -762,6 +862,8 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		if (size() < count + startElement)
 			resize(count + startElement);
 
+		_materialize();
+
 		int j = startElement;
 		if (!bForward)
 			j += count - 1;
@@ -791,6 +893,8 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 		if (size() < (pointCount << 1) + streamOffset)
 			resize((pointCount << 1) + streamOffset);
 
+		_materialize();
+
 		int j = streamOffset;
 		if (!bForward)
 			j += (pointCount - 1) << 1;
@@ -818,17 +922,18 @@ final class AttributeStreamOfDbl extends AttributeStreamBase {
 			throw new IllegalArgumentException();
 
 		if (bForward)
-			System.arraycopy(m_buffer, srcStart, dst, dstOffset, count);
+			_copyRange(this, srcStart, dst, dstOffset, count);
 		else {
 			int j = dstOffset + count - 1;
 			for (int i = srcStart; i < count; i++) {
-				dst[j] = m_buffer[i];
+				dst[j] = read(i);
 				j--;
 			}
 		}
 	}
 
 	public void sort(int start, int end) {
+		_materialize();
 		Arrays.sort(m_buffer, start, end);
 	}
 }
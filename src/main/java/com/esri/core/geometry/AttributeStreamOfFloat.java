@@ -134,13 +134,8 @@ final class AttributeStreamOfFloat extends AttributeStreamBase {
 
 	@Override
 	public AttributeStreamBase restrictedClone(int maxsize) {
-		int len = m_size;
-		int newSize = maxsize < len ? maxsize : len;
-		float[] newBuffer = new float[newSize];
-		System.arraycopy(m_buffer, 0, newBuffer, 0, newSize);
-		m_buffer = newBuffer;
-		m_size = newSize;
-		return this;
+		AttributeStreamOfFloat clone = new AttributeStreamOfFloat(this, maxsize);
+		return clone;
 	}
 
 	@Override
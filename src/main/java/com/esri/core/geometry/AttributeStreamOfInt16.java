@@ -134,13 +134,8 @@ final class AttributeStreamOfInt16 extends AttributeStreamBase {
 
 	@Override
 	public AttributeStreamBase restrictedClone(int maxsize) {
-		int len = m_size;
-		int newSize = maxsize < len ? maxsize : len;
-		short[] newBuffer = new short[newSize];
-		System.arraycopy(m_buffer, 0, newBuffer, 0, newSize);
-		m_buffer = newBuffer;
-		m_size = newSize;
-		return this;
+		AttributeStreamOfInt16 clone = new AttributeStreamOfInt16(this, maxsize);
+		return clone;
 	}
 
 	@Override
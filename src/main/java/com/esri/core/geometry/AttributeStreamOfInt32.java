@@ -41,12 +41,14 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 	private static final long serialVersionUID = 1L;
 	
 	transient private int[] m_buffer = null;
+	transient private IntBuffer m_direct = null; // when not null, holds the elements instead of m_buffer
 	private int m_size;
 
 	public void reserve(int reserve)
 	{
 		if (reserve <= 0)
 			return;
+		_materialize();
 		if (m_buffer == null)
 			m_buffer = new int[reserve];
 		else {
@@ -64,6 +66,9 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 	}
 
 	public int capacity() {
+		if (m_direct != null)
+			return m_direct.capacity();
+
 		return m_buffer != null ? m_buffer.length : 0;
 	}
 	
@@ -86,15 +91,38 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 		// m_buffer[i] = defaultValue;
 	}
 
+	/**
+	 * Creates a stream that reads its elements from the given buffer, which
+	 * can be direct or memory mapped. The buffer is never written to. The
+	 * elements are copied to the heap on the first modification of the stream.
+	 */
+	public AttributeStreamOfInt32(IntBuffer direct, int size) {
+		if (size < 0 || size > direct.capacity())
+			throw new IllegalArgumentException();
+
+		m_direct = direct;
+		m_size = size;
+	}
+
 	public AttributeStreamOfInt32(AttributeStreamOfInt32 other) {
-		m_buffer = other.m_buffer.clone();
 		m_size = other.m_size;
+		if (other.m_direct != null) {
+			m_direct = other.m_direct;// the buffer is shared, it is read only
+			return;
+		}
+
+		m_buffer = other.m_buffer.clone();
 	}
 
 	public AttributeStreamOfInt32(AttributeStreamOfInt32 other, int maxSize) {
 		m_size = other.size();
 		if (m_size > maxSize)
 			m_size = maxSize;
+		if (other.m_direct != null) {
+			m_direct = other.m_direct;
+			return;
+		}
+
 		int sz = m_size;
 		if (sz < 2)
 			sz = 2;
@@ -102,6 +130,40 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 		System.arraycopy(other.m_buffer, 0, m_buffer, 0, m_size);
 	}
 
+	/**
+	 * Returns True if the stream reads its elements from an off-heap buffer.
+	 */
+	public boolean isDirect() {
+		return m_direct != null;
+	}
+
+	/**
+	 * Copies the elements of the off-heap buffer to the heap. Called before
+	 * any modification of the stream.
+	 */
+	private void _materialize() {
+		if (m_direct == null)
+			return;
+
+		int[] buf = new int[Math.max(m_size, 2)];
+		_copyRange(this, 0, buf, 0, m_size);
+		m_buffer = buf;
+		m_direct = null;
+	}
+
+	private static void _copyRange(AttributeStreamOfInt32 src, int srcStart,
+			int[] dst, int dstStart, int count) {
+		if (src.m_direct == null) {
+			System.arraycopy(src.m_buffer, srcStart, dst, dstStart, count);
+			return;
+		}
+
+		IntBuffer buf = src.m_direct.duplicate();
+		buf.clear();
+		buf.position(srcStart);
+		buf.get(dst, dstStart, count);
+	}
+
 	/**
 	 * Reads a value from the buffer at given offset.
 	 * 
@@ -109,11 +171,11 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 	 *            is the element number in the stream.
 	 */
 	public int read(int offset) {
-		return m_buffer[offset];
+		return m_direct == null ? m_buffer[offset] : m_direct.get(offset);
 	}
 
 	public int get(int offset) {
-		return m_buffer[offset];
+		return read(offset);
 	}
 
 	/**
@@ -128,6 +190,7 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 		if (m_bReadonly) {
 			throw new RuntimeException("invalid_call");
 		}
+		_materialize();
 		m_buffer[offset] = value;
 	}
 
@@ -135,6 +198,7 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 		if (m_bReadonly) {
 			throw new RuntimeException("invalid_call");
 		}
+		_materialize();
 		m_buffer[offset] = value;
 	}
 
@@ -153,13 +217,8 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 
 	@Override
 	public AttributeStreamBase restrictedClone(int maxsize) {
-		int len = m_size;
-		int newSize = maxsize < len ? maxsize : len;
-		int[] newBuffer = new int[newSize];
-		System.arraycopy(m_buffer, 0, newBuffer, 0, newSize);
-		m_buffer = newBuffer;
-		m_size = newSize;
-		return this;
+		AttributeStreamOfInt32 clone = new AttributeStreamOfInt32(this, maxsize);
+		return clone;
 	}
 
 	@Override
@@ -170,6 +229,9 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 	@Override
 	public long estimateMemorySize()
 	{
+		if (m_direct != null)
+			return SIZE_OF_ATTRIBUTE_STREAM_OF_INT32;// the elements are off-heap
+
 		return SIZE_OF_ATTRIBUTE_STREAM_OF_INT32 + sizeOfIntArray(m_buffer.length);
 	}
 
@@ -199,6 +261,7 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 			throw new GeometryException(
 					"invalid call. Attribute Stream is locked and cannot be resized.");
 
+		_materialize();
 		if (newSize <= m_size) {
 			if ((newSize * 5) / 4 < m_buffer.length) {// decrease when the 25%
 														// margin is exceeded
@@ -223,6 +286,7 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 	@Override
 	public void resizePreserveCapacity(int newSize)// java only method
 	{
+		_materialize();
 		if (m_buffer == null || newSize > m_buffer.length)
 			resize(newSize);
 		if (m_bLockedInSize)
@@ -237,6 +301,7 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 		if (m_bLockedInSize)
 			throw new GeometryException(
 					"invalid call. Attribute Stream is locked and cannot be resized.");
+		_materialize();
 		if (newSize <= m_size) {
 			if ((newSize * 5) / 4 < m_buffer.length) {// decrease when the 25%
 														// margin is exceeded
@@ -319,10 +384,11 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 	}
 
 	public int getLast() {
-		return m_buffer[m_size - 1];
+		return read(m_size - 1);
 	}
 
 	public void setLast(int v) {
+		_materialize();
 		m_buffer[m_size - 1] = v;
 	}
 	
@@ -334,7 +400,7 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 	// the element could not be found.
 	int findElement(int value) {
 		for (int i = 0, n = m_size; i < n; i++) {
-			if (m_buffer[i] == value)
+			if (read(i) == value)
 				return i;
 		}
 		return -1;
@@ -350,6 +416,7 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 	// array size by 1.
 	void popElement(int index) {
 		assert (index >= 0 && index < m_size);
+		_materialize();
 		if (index < m_size - 1) {
 			m_buffer[index] = m_buffer[m_size - 1];
 		}
@@ -371,8 +438,8 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 		resize(newSize);
 
 		if (bForward) {
-			System.arraycopy(((AttributeStreamOfInt32) src).m_buffer, start,
-					m_buffer, oldSize, count);
+			_copyRange((AttributeStreamOfInt32) src, start, m_buffer, oldSize,
+					count);
 		} else {
 			int n = count;
 
@@ -380,8 +447,8 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 				n -= stride;
 
 				for (int s = 0; s < stride; s++) {
-					m_buffer[oldSize + i + s] = ((AttributeStreamOfInt32) src).m_buffer[start
-							+ n + s];
+					m_buffer[oldSize + i + s] = ((AttributeStreamOfInt32) src).read(start
+							+ n + s);
 				}
 			}
 		}
@@ -396,6 +463,7 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 		if (!bForward && (stride < 1 || count % stride != 0))
 			throw new IllegalArgumentException();
 
+		_materialize();
 		System.arraycopy(m_buffer, start, m_buffer, start + count, validSize
 				- start);
 
@@ -405,8 +473,8 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 		}
 
 		if (bForward) {
-			System.arraycopy(((AttributeStreamOfInt32) src).m_buffer, srcStart,
-					m_buffer, start, count);
+			_copyRange((AttributeStreamOfInt32) src, srcStart, m_buffer, start,
+					count);
 		} else {
 			int n = count;
 
@@ -414,8 +482,8 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 				n -= stride;
 
 				for (int s = 0; s < stride; s++) {
-					m_buffer[start + i + s] = ((AttributeStreamOfInt32) src).m_buffer[srcStart
-							+ n + s];
+					m_buffer[start + i + s] = ((AttributeStreamOfInt32) src).read(srcStart
+							+ n + s);
 				}
 			}
 		}
@@ -426,6 +494,7 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 		if (m_bReadonly)
 			throw new GeometryException("invalid_call");
 
+		_materialize();
 		System.arraycopy(m_buffer, start, m_buffer, start + count, validSize
 				- start);
 
@@ -443,6 +512,7 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 		if (m_bReadonly)
 			throw new GeometryException("invalid_call");
 
+		_materialize();
 		int comp = VertexDescription.getComponentCount(semantics);
 
 		System.arraycopy(m_buffer, start, m_buffer, start + comp, validSize
@@ -461,6 +531,7 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 		if (index + count > m_size)
 			throw new GeometryException("invalid_call");
 
+		_materialize();
 		System.arraycopy(m_buffer, index + count, m_buffer, index, validSize
 				- (index + count));
 		m_size -= count;
@@ -487,7 +558,7 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 		final int dj = bForward ? 1 : -1;
 		int offset = dstOffset;
 		for (int i = 0; i < count; i++, offset += elmSize) {
-			dst.putInt(offset, m_buffer[j]);
+			dst.putInt(offset, read(j));
 			j += dj;
 		}
 	}
@@ -500,6 +571,7 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 		if (stride < 1 || count % stride != 0)
 			throw new GeometryException("invalid_call");
 
+		_materialize();
 		int cIterations = count >> 1;
 		int n = count;
 
@@ -519,6 +591,7 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 		if (start < 0 || count < 0 || start < 0 || count + start > size())
 			throw new IllegalArgumentException();
 
+		_materialize();
 		int v = (int) value;
 		Arrays.fill(m_buffer, start, start + count, v);
 		// for (int i = start, n = start + count; i < n; i++)
@@ -547,14 +620,15 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 		if (size() < count + startElement)
 			resize(count + startElement);
 
+		_materialize();
+
 		if (_src == (AttributeStreamBase) this) {
 			_selfWriteRangeImpl(startElement, count, srcStart, bForward, stride);
 			return;
 		}
 
 		if (bForward) {
-			System.arraycopy(src.m_buffer, srcStart, m_buffer, startElement,
-					count);
+			_copyRange(src, srcStart, m_buffer, startElement, count);
 			// int j = startElement;
 			// int offset = srcStart;
 			// for (int i = 0; i < count; i++)
@@ -568,14 +642,14 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 			int offset = srcStart + count - stride;
 			if (stride == 1) {
 				for (int i = 0; i < count; i++) {
-					m_buffer[j] = src.m_buffer[offset];
+					m_buffer[j] = src.read(offset);
 					j++;
 					offset--;
 				}
 			} else {
 				for (int i = 0, n = count / stride; i < n; i++) {
 					for (int k = 0; k < stride; k++)
-						m_buffer[j + k] = src.m_buffer[offset + k];
+						m_buffer[j + k] = src.read(offset + k);
 
 					j += stride;
 					offset -= stride;
@@ -627,6 +701,8 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 		if (size() < count + startElement)
 			resize(count + startElement);
 
+		_materialize();
+
 		int j = startElement;
 		if (!bForward)
 			j += count - 1;
@@ -654,6 +730,7 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 	}
 
 	public void Sort(int start, int end, IntComparator compare) {
+		_materialize();
 		if (end - start < 10)
 			insertionsort(start, end, compare);
 		else {
@@ -731,11 +808,13 @@ final class AttributeStreamOfInt32 extends AttributeStreamBase implements Serial
 	}
 
 	public void sort(int start, int end) {
+		_materialize();
 		Arrays.sort(m_buffer, start, end);
 	}
 	
 	private void writeObject(java.io.ObjectOutputStream stream)
 			throws IOException {
+		_materialize();
 		stream.defaultWriteObject();
 		IntBuffer intBuf = null;
 		byte[] bytes = null;
@@ -134,13 +134,8 @@ final class AttributeStreamOfInt64 extends AttributeStreamBase {
 
 	@Override
 	public AttributeStreamBase restrictedClone(int maxsize) {
-		int len = m_size;
-		int newSize = maxsize < len ? maxsize : len;
-		long[] newBuffer = new long[newSize];
-		System.arraycopy(m_buffer, 0, newBuffer, 0, newSize);
-		m_buffer = newBuffer;
-		m_size = newSize;
-		return this;
+		AttributeStreamOfInt64 clone = new AttributeStreamOfInt64(this, maxsize);
+		return clone;
 	}
 
 	@Override
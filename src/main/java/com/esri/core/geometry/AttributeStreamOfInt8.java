@@ -142,13 +142,8 @@ final class AttributeStreamOfInt8 extends AttributeStreamBase {
 
 	@Override
 	public AttributeStreamBase restrictedClone(int maxsize) {
-		int len = m_size;
-		int newSize = maxsize < len ? maxsize : len;
-		byte[] newBuffer = new byte[newSize];
-		System.arraycopy(m_buffer, 0, newBuffer, 0, newSize);
-		m_buffer = newBuffer;
-		m_size = newSize;
-		return this;
+		AttributeStreamOfInt8 clone = new AttributeStreamOfInt8(this, maxsize);
+		return clone;
 	}
 
 	@Override
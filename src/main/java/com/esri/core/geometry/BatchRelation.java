@@ -0,0 +1,116 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.ArrayList;
+
+import com.esri.core.geometry.Geometry.GeometryAccelerationDegree;
+
+/**
+ * Relates one geometry to each geometry of a cursor, for the batch execute
+ * methods of the relational operators. The left geometry is accelerated once
+ * for the batch, and the cursor geometries are split between threads.
+ */
+final class BatchRelation {
+	interface Predicate {
+		boolean execute(Geometry geom_a, Geometry geom_b);
+	}
+
+	// The geometry count from which the left geometry is accelerated.
+	static final int ACCELERATION_THRESHOLD = 8;
+
+	private BatchRelation() {
+	}
+
+	/**
+	 * Reads all geometries of the cursor, and calls predicate.execute for
+	 * the left geometry, or an accelerated copy of it, and each of them.
+	 * 
+	 * @param operator
+	 *            The operator used to accelerate the left geometry.
+	 * @param threadCount
+	 *            The max number of threads to use. 1 runs on the calling
+	 *            thread, 0 uses the number of processors.
+	 * @return Returns the results of the predicate in the cursor order.
+	 */
+	static boolean[] execute(Operator operator, Geometry geom_a,
+			GeometryCursor geoms_b, SpatialReference sr, int threadCount,
+			final Predicate predicate) {
+		if (threadCount < 0)
+			throw new IllegalArgumentException();
+
+		if (threadCount == 0)
+			threadCount = ParallelTasks.getDefaultThreadCount();
+
+		final ArrayList<Geometry> geoms = new ArrayList<Geometry>();
+		Geometry geom;
+		while ((geom = geoms_b.next()) != null)
+			geoms.add(geom);
+
+		final boolean[] results = new boolean[geoms.size()];
+		if (results.length == 0)
+			return results;
+
+		final Geometry shared = prepare_(operator, geom_a, sr,
+				results.length, threadCount);
+		ParallelTasks.execute(results.length, threadCount,
+				new ParallelTasks.Task() {
+					@Override
+					public void run(int index) {
+						results[index] = predicate.execute(shared,
+								geoms.get(index));
+					}
+				});
+
+		return results;
+	}
+
+	// Returns the geometry to relate the batch against: geom_a itself, or an
+	// accelerated copy of it. The copy is frozen, so that it can be shared
+	// between threads. The copy is accelerated when the batch is large
+	// enough, unless geom_a already has accelerators and is used as is.
+	private static Geometry prepare_(Operator operator, Geometry geom_a,
+			SpatialReference sr, int count, int threadCount) {
+		if (!(geom_a instanceof MultiVertexGeometry))
+			return geom_a;
+
+		MultiVertexGeometry mvg = (MultiVertexGeometry) geom_a;
+		boolean bAccelerate = count >= ACCELERATION_THRESHOLD
+				&& operator.canAccelerateGeometry(mvg);
+		boolean bCopy = (bAccelerate && ((MultiVertexGeometryImpl) mvg
+				._getImpl())._getAccelerators() == null)
+				|| (threadCount > 1 && count > 1 && !mvg.isFrozen());
+		if (!bCopy)
+			return geom_a;
+
+		MultiVertexGeometry copy = (MultiVertexGeometry) mvg.copy();
+		if (bAccelerate)
+			operator.accelerateGeometry(copy, sr,
+					GeometryAccelerationDegree.enumMedium);
+
+		copy.freeze();
+		return copy;
+	}
+}
@@ -25,10 +25,11 @@ package com.esri.core.geometry;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 class Bufferer {
 	Bufferer() {
-		m_buffer_commands = new ArrayList<BufferCommand>(128);
+		m_command_count = 0;
 		m_progress_tracker = null;
 		m_tolerance = 0;
 		m_small_tolerance = 0;
@@ -140,7 +141,7 @@ class Bufferer {
 			// we have an optimization for this method to be called several
 			// times. Here we detected too many changes and need to regenerate
 			// the data.
-			m_circle_template.clear();
+			m_circle_template = null;
 			m_old_circle_template_size = m_circle_template_size;
 		}
 
@@ -151,48 +152,21 @@ class Bufferer {
 
 	private Geometry m_geometry;
 
-	private static final class BufferCommand {
-		private interface Flags {
-			static final int enum_line = 1;
-			static final int enum_arc = 2;
-			static final int enum_connection = enum_arc | enum_line;
-		}
-
-		private Point2D m_from;
-		private Point2D m_to;
-		private Point2D m_center;
-		private int m_next;
-		private int m_prev;
-		private int m_type;
-
-		private BufferCommand(Point2D from, Point2D to, Point2D center,
-				int type, int next, int prev) {
-			m_from = new Point2D();
-			m_to = new Point2D();
-			m_center = new Point2D();
-			m_from.setCoords(from);
-			m_to.setCoords(to);
-			m_center.setCoords(center);
-			m_type = type;
-			m_next = next;
-			m_prev = prev;
-		}
-
-		private BufferCommand(Point2D from, Point2D to, int next, int prev,
-				String dummy) {
-			m_from = new Point2D();
-			m_to = new Point2D();
-			m_center = new Point2D();
-			m_from.setCoords(from);
-			m_to.setCoords(to);
-			m_center.setNaN();
-			m_type = 4;
-			m_next = next;
-			m_prev = prev;
-		}
+	private interface BufferCommandFlags {
+		static final int enum_line = 1;
+		static final int enum_arc = 2;
+		static final int enum_connection = enum_arc | enum_line;
+		static final int enum_vertex = 4;// goes through the path vertex
 	}
 
-	private ArrayList<BufferCommand> m_buffer_commands;
+	// The buffer commands of a path are kept in parallel arrays, to avoid
+	// allocating an object with three points for each command. m_command_xy
+	// holds the from, to and center points of each command.
+	private double[] m_command_xy;
+	private int[] m_command_type;
+	private int[] m_command_next;
+	private int[] m_command_prev;
+	private int m_command_count;
 
 	private int m_original_geom_type;
 	private ProgressTracker m_progress_tracker;
@@ -208,7 +182,10 @@ class Bufferer {
 	private double m_dA;
 	private boolean m_b_output_loops;
 	private boolean m_bfilter;
-	private ArrayList<Point2D> m_circle_template = new ArrayList<Point2D>(0);
+	// The unit circle template as xy pairs, shared through
+	// s_circle_templates. Null until needed.
+	private double[] m_circle_template;
+	private int m_circle_template_count;// the number of points in the template
 	private ArrayList<Point2D> m_left_stack;
 	private ArrayList<Point2D> m_middle_stack;
 	private Line m_helper_line_1;
@@ -218,8 +195,14 @@ class Bufferer {
 	private int m_circle_template_size;
 	private int m_old_circle_template_size;
 
+	// The circle templates depend only on the number of the vertices in the
+	// circle, so they are shared by all Bufferer instances. The templates are
+	// never modified once created.
+	private static final ConcurrentHashMap<Integer, double[]> s_circle_templates = new ConcurrentHashMap<Integer, double[]>();
+	private static final int c_max_cached_circle_templates = 64;
+
 	private void generateCircleTemplate_() {
-		if (!m_circle_template.isEmpty()) {
+		if (m_circle_template != null) {
 			return;
 		}
 
@@ -227,26 +210,51 @@ class Bufferer {
 
 		assert (N >= 4);
 		int real_size = (N + 3) / 4;
-		double dA = (Math.PI * 0.5) / real_size;
-		m_dA = dA;
+		m_dA = (Math.PI * 0.5) / real_size;
+		m_circle_template_count = real_size * 4;
+		m_circle_template = s_circle_templates.get(N);
+		if (m_circle_template != null)
+			return;
 
-		for (int i = 0; i < real_size * 4; i++)
-			m_circle_template.add(null);
+		m_circle_template = createCircleTemplate_(real_size);
+		if (s_circle_templates.size() >= c_max_cached_circle_templates)
+			s_circle_templates.clear();// the sizes are too diverse to cache
 
+		s_circle_templates.putIfAbsent(N, m_circle_template);
+	}
+
+	private static double[] createCircleTemplate_(int real_size) {
+		double dA = (Math.PI * 0.5) / real_size;
+		double[] template = new double[real_size * 4 * 2];
 		double dcos = Math.cos(dA);
 		double dsin = Math.sin(dA);
 		Point2D pt = new Point2D(0.0, 1.0);
 
 		for (int i = 0; i < real_size; i++) {
-			m_circle_template.set(i + real_size * 0, new Point2D(pt.y, -pt.x));
-			m_circle_template.set(i + real_size * 1, new Point2D(-pt.x, -pt.y));
-			m_circle_template.set(i + real_size * 2, new Point2D(-pt.y, pt.x));
-			m_circle_template.set(i + real_size * 3, pt);
-			pt = new Point2D(pt.x, pt.y);
+			setTemplatePoint_(template, i + real_size * 0, pt.y, -pt.x);
+			setTemplatePoint_(template, i + real_size * 1, -pt.x, -pt.y);
+			setTemplatePoint_(template, i + real_size * 2, -pt.y, pt.x);
+			setTemplatePoint_(template, i + real_size * 3, pt.x, pt.y);
 			pt.rotateReverse(dcos, dsin);
 		}
 		// the template is filled with the index 0 corresponding to the point
-		// (0, 0), following clockwise direction (0, -1), (-1, 0), (1, 0)
+		// (1, 0), following clockwise direction (0, -1), (-1, 0), (0, 1)
+		return template;
+	}
+
+	private static void setTemplatePoint_(double[] template, int index,
+			double x, double y) {
+		template[index * 2] = x;
+		template[index * 2 + 1] = y;
+	}
+
+	/**
+	 * Sets p to the template point at the index, scaled by the buffer
+	 * distance and moved to the center.
+	 */
+	private void getCirclePoint_(int index, Point2D center, Point2D p) {
+		p.x = m_circle_template[index * 2] * m_abs_distance + center.x;
+		p.y = m_circle_template[index * 2 + 1] * m_abs_distance + center.y;
 	}
 
 	private static final class GeometryCursorForMultiPoint extends
@@ -820,8 +828,51 @@ class Bufferer {
 
 	private Geometry bufferMultiPoint_() {
 		assert (m_distance > 0);
+		MultiPoint mp = (MultiPoint) (m_geometry);
+		boolean[] isolated = findIsolatedPoints_(mp);
+		if (isolated == null)
+			return bufferMultiPointUnion_(mp);
+
+		// The circles of the isolated points are stamped from the template
+		// directly, and only the other points go through the union.
+		Polygon resultPolygon = new Polygon(mp.getDescription());
+		MultiPathImpl result_mp = (MultiPathImpl) resultPolygon._getImpl();
+		MultiPointImpl mp_impl = (MultiPointImpl) mp._getImpl();
+		MultiPoint clustered = null;
+		Point2D pt = new Point2D();
+		for (int i = 0, n = mp_impl.getPointCount(); i < n;) {
+			if (isolated[i]) {
+				mp_impl.getXY(i, pt);
+				addCircle_(result_mp, pt.x, pt.y);
+				i++;
+				continue;
+			}
+
+			int run_start = i;
+			while (i < n && !isolated[i])
+				i++;
+
+			if (clustered == null)
+				clustered = new MultiPoint(mp.getDescription());
+
+			clustered.add(mp, run_start, i);
+		}
+
+		// The union below buffers with this instance and resets the members.
+		double tolerance = m_tolerance;
+		if (clustered != null)
+			resultPolygon.add((MultiPath) bufferMultiPointUnion_(clustered),
+					false);
+
+		result_mp.setIsSimple(MultiVertexGeometryImpl.GeometryXSimple.Strong,
+				tolerance, false);
+		result_mp._updateOGCFlags();
+		return resultPolygon;
+	}
+
+	private Geometry bufferMultiPointUnion_(MultiPoint mp) {
 		GeometryCursorForMultiPoint mpCursor = new GeometryCursorForMultiPoint(this,
-				(MultiPoint) (m_geometry), m_distance, m_spatialReference,
+				mp, m_distance, m_spatialReference,
 				m_densify_dist, m_max_vertex_in_complete_circle,
 				m_progress_tracker);
 		GeometryCursor c = ((OperatorUnion) OperatorFactoryLocal.getInstance()
@@ -830,6 +881,60 @@ class Bufferer {
 		return c.next();
 	}
 
+	/**
+	 * Marks the points that are farther than twice the buffer distance from
+	 * all other points. The circles of these points do not overlap any other
+	 * circle. Returns null when there are no such points, or when the
+	 * multipoint has empty points.
+	 */
+	private boolean[] findIsolatedPoints_(MultiPoint mp) {
+		MultiPointImpl mp_impl = (MultiPointImpl) mp._getImpl();
+		int n = mp_impl.getPointCount();
+		Point2D pt = new Point2D();
+		for (int i = 0; i < n; i++) {
+			mp_impl.getXY(i, pt);
+			if (pt.isNaN())
+				return null;
+		}
+
+		if (n == 1)
+			return new boolean[] { true };
+
+		// keep a gap between the circles, so that the result is simple.
+		double reach = m_abs_distance * 2 + m_tolerance * 10;
+		double sqr_reach = reach * reach;
+		QuadTreeImpl quad_tree = InternalUtils.buildQuadTree(mp_impl);
+		QuadTreeImpl.QuadTreeIteratorImpl iterator = quad_tree.getIterator();
+		Envelope2D env = new Envelope2D();
+		Point2D other = new Point2D();
+		boolean[] isolated = new boolean[n];
+		int isolated_count = 0;
+		for (int i = 0; i < n; i++) {
+			mp_impl.getXY(i, pt);
+			env.setCoords(pt);
+			env.inflate(reach, reach);
+			iterator.resetIterator(env, 0);
+			boolean b_isolated = true;
+			for (int h = iterator.next(); h != -1; h = iterator.next()) {
+				int j = quad_tree.getElement(h);
+				if (j == i)
+					continue;
+
+				mp_impl.getXY(j, other);
+				if (Point2D.sqrDistance(pt, other) <= sqr_reach) {
+					b_isolated = false;
+					break;
+				}
+			}
+
+			isolated[i] = b_isolated;
+			if (b_isolated)
+				isolated_count++;
+		}
+
+		return isolated_count > 0 ? isolated : null;
+	}
+
 	private Geometry bufferEnvelope_() {
 		Polygon polygon = new Polygon(m_geometry.getDescription());
 		if (m_distance <= 0) {
@@ -857,7 +962,7 @@ class Bufferer {
 		Polygon resultPolygon = new Polygon(src.getDescription());
 		MultiPathImpl result_mp = (MultiPathImpl) resultPolygon._getImpl();
 
-		// resultPolygon.reserve((m_circle_template.size() / 10 + 4) *
+		// resultPolygon.reserve((m_circle_template_count / 10 + 4) *
 		// src.getPathSize(ipath));
 
 		Point2D pt_1_tmp = new Point2D(), pt_1 = new Point2D();
@@ -1008,22 +1113,23 @@ class Bufferer {
 		Point2D v_2 = new Point2D();
 		v_2.sub(toPt, center);
 		v_2.scale(m_abs_distance_reversed);
+		int template_count = m_circle_template_count;
 		double angle_from = Math.atan2(v_1.y, v_1.x);
 		double dindex_from = angle_from / m_dA;
 		if (dindex_from < 0)
-			dindex_from = (double) m_circle_template.size() + dindex_from;
+			dindex_from = (double) template_count + dindex_from;
 
-		dindex_from = (double) m_circle_template.size() - dindex_from;
+		dindex_from = (double) template_count - dindex_from;
 
 		double angle_to = Math.atan2(v_2.y, v_2.x);
 		double dindex_to = angle_to / m_dA;
 		if (dindex_to < 0)
-			dindex_to = (double) m_circle_template.size() + dindex_to;
+			dindex_to = (double) template_count + dindex_to;
 
-		dindex_to = (double) m_circle_template.size() - dindex_to;
+		dindex_to = (double) template_count - dindex_to;
 
 		if (dindex_to < dindex_from)
-			dindex_to += (double) m_circle_template.size();
+			dindex_to += (double) template_count;
 		assert (dindex_to >= dindex_from);
 
 		int index_to = (int) dindex_to;
@@ -1035,16 +1141,14 @@ class Bufferer {
 		}
 
 		Point2D p = new Point2D();
-		p.setCoords(m_circle_template.get(index_from % m_circle_template.size()));
-		p.scaleAdd(m_abs_distance, center);
+		getCirclePoint_(index_from % template_count, center, p);
 		double ddd = m_tolerance * 10;
 		p.sub(fromPt);
 		if (p.length() < ddd)// if too close to the fromPt, then use the next
 								// point
 			index_from += 1;
 
-		p.setCoords(m_circle_template.get(index_to % m_circle_template.size()));
-		p.scaleAdd(m_abs_distance, center);
+		getCirclePoint_(index_to % template_count, center, p);
 		p.sub(toPt);
 		if (p.length() < ddd)// if too close to the toPt, then use the prev
 								// point
@@ -1053,10 +1157,9 @@ class Bufferer {
 		int count = index_to - index_from;
 		count++;
 
-		for (int i = 0, j = index_from % m_circle_template.size(); i < count; i++, j = (j + 1)
-				% m_circle_template.size()) {
-			p.setCoords(m_circle_template.get(j));
-			p.scaleAdd(m_abs_distance, center);
+		for (int i = 0, j = index_from % template_count; i < count; i++, j = (j + 1)
+				% template_count) {
+			getCirclePoint_(j, center, p);
 			dst.lineTo(p);
 			progress_();
 		}
@@ -1118,7 +1221,7 @@ class Bufferer {
 			}
 		}
 
-		m_buffer_commands.clear();
+		m_command_count = 0;
 		int path = edit_shape.getFirstPath(geom);
 		int ivert = edit_shape.getFirstVertex(path);
 		int iprev = dir == 1 ? edit_shape.getPrevVertex(ivert) : edit_shape
@@ -1157,24 +1260,18 @@ class Bufferer {
 			double dot = v_before.dotProduct(v_after);
 			boolean bDoJoin = cross < 0 || (dot < 0 && cross == 0);
 			if (bDoJoin) {
-				m_buffer_commands.add(new BufferCommand(pt_left_prev, pt,
-						pt_current, BufferCommand.Flags.enum_arc,
-						m_buffer_commands.size() + 1,
-						m_buffer_commands.size() - 1));
+				addBufferCommand_(pt_left_prev, pt, pt_current,
+						BufferCommandFlags.enum_arc);
 			} else if (!pt_left_prev.isEqual(pt)) {
-				m_buffer_commands.add(new BufferCommand(pt_left_prev,
-						pt_current, m_buffer_commands.size() + 1,
-						m_buffer_commands.size() - 1, "dummy"));
-				m_buffer_commands.add(new BufferCommand(pt_current, pt,
-						m_buffer_commands.size() + 1,
-						m_buffer_commands.size() - 1, "dummy"));
+				addBufferCommand_(pt_left_prev, pt_current, null,
+						BufferCommandFlags.enum_vertex);
+				addBufferCommand_(pt_current, pt, null,
+						BufferCommandFlags.enum_vertex);
 			}
 
 			pt1.add(pt_after, v_left);
-			m_buffer_commands
-					.add(new BufferCommand(pt, pt1, pt_current,
-							BufferCommand.Flags.enum_line, m_buffer_commands
-									.size() + 1, m_buffer_commands.size() - 1));
+			addBufferCommand_(pt, pt1, pt_current,
+					BufferCommandFlags.enum_line);
 
 			pt_left_prev.setCoords(pt1);
 			v_left_prev.setCoords(v_left);
@@ -1188,35 +1285,72 @@ class Bufferer {
 					.getPrevVertex(ivert);
 		}
 
-		m_buffer_commands.get(m_buffer_commands.size() - 1).m_next = 0;
-		m_buffer_commands.get(0).m_prev = m_buffer_commands.size() - 1;
+		m_command_next[m_command_count - 1] = 0;
+		m_command_prev[0] = m_command_count - 1;
 		processBufferCommands_(result_mp);
 		tr.setShift(origin.x, origin.y);// move the path to improve precision.
 		result_mp.applyTransformation(tr, result_mp.getPathCount() - 1);
 		return 1;
 	}
 
+	/**
+	 * Appends a command linked to the previous and the next commands. The
+	 * center is null for the commands that are not arcs or lines.
+	 */
+	private void addBufferCommand_(Point2D from, Point2D to, Point2D center,
+			int type) {
+		int index = m_command_count;
+		if (m_command_type == null) {
+			m_command_xy = new double[16 * 6];
+			m_command_type = new int[16];
+			m_command_next = new int[16];
+			m_command_prev = new int[16];
+		} else if (index == m_command_type.length) {
+			int capacity = index * 2;
+			m_command_xy = java.util.Arrays.copyOf(m_command_xy, capacity * 6);
+			m_command_type = java.util.Arrays.copyOf(m_command_type, capacity);
+			m_command_next = java.util.Arrays.copyOf(m_command_next, capacity);
+			m_command_prev = java.util.Arrays.copyOf(m_command_prev, capacity);
+		}
+
+		int i = index * 6;
+		m_command_xy[i] = from.x;
+		m_command_xy[i + 1] = from.y;
+		m_command_xy[i + 2] = to.x;
+		m_command_xy[i + 3] = to.y;
+		m_command_xy[i + 4] = center != null ? center.x : NumberUtils.NaN();
+		m_command_xy[i + 5] = center != null ? center.y : NumberUtils.NaN();
+		m_command_type[index] = type;
+		m_command_next[index] = index + 1;
+		m_command_prev[index] = index - 1;
+		m_command_count++;
+	}
+
 	private void processBufferCommands_(MultiPathImpl result_mp) {
 		int ifirst_seg = cleanupBufferCommands_();
 		boolean first = true;
 		int iseg_next = ifirst_seg + 1;
+		Point2D from = new Point2D(), to = new Point2D(), center = new Point2D();
 		for (int iseg = ifirst_seg; iseg_next != ifirst_seg; iseg = iseg_next) {
-			BufferCommand command = m_buffer_commands.get(iseg);
-			iseg_next = command.m_next != -1 ? command.m_next : (iseg + 1)
-					% m_buffer_commands.size();
-			if (command.m_type == 0)
+			iseg_next = m_command_next[iseg] != -1 ? m_command_next[iseg]
+					: (iseg + 1) % m_command_count;
+			int type = m_command_type[iseg];
+			if (type == 0)
 				continue;// deleted segment
 
+			int i = iseg * 6;
 			if (first) {
-				result_mp.startPath(command.m_from);
+				result_mp.startPath(m_command_xy[i], m_command_xy[i + 1]);
 				first = false;
 			}
 
-			if (command.m_type == BufferCommand.Flags.enum_arc) {// arc
-				addJoin_(result_mp, command.m_center, command.m_from,
-						command.m_to, false, true);
+			if (type == BufferCommandFlags.enum_arc) {// arc
+				from.setCoords(m_command_xy[i], m_command_xy[i + 1]);
+				to.setCoords(m_command_xy[i + 2], m_command_xy[i + 3]);
+				center.setCoords(m_command_xy[i + 4], m_command_xy[i + 5]);
+				addJoin_(result_mp, center, from, to, false, true);
 			} else {
-				result_mp.lineTo(command.m_to);
+				result_mp.lineTo(m_command_xy[i + 2], m_command_xy[i + 3]);
 			}
 			first = false;
 		}
@@ -1231,59 +1365,61 @@ class Bufferer {
 			m_helper_array = new Point2D[9];
 
 		int istart = 0;
-		for (int iseg = 0, nseg = m_buffer_commands.size(); iseg < nseg;) {
-			BufferCommand command = m_buffer_commands.get(iseg);
-			if ((command.m_type & BufferCommand.Flags.enum_connection) != 0) {
+		for (int iseg = 0, nseg = m_command_count; iseg < nseg;) {
+			if ((m_command_type[iseg] & BufferCommandFlags.enum_connection) != 0) {
 				istart = iseg;
 				break;
 			}
 
-			iseg = command.m_next;
+			iseg = m_command_next[iseg];
 		}
 
 		int iseg_next = istart + 1;
 		for (int iseg = istart; iseg_next != istart; iseg = iseg_next) {
-			BufferCommand command = m_buffer_commands.get(iseg);
-			iseg_next = command.m_next;
+			iseg_next = m_command_next[iseg];
 			int count = 1;
-			BufferCommand command_next = null;
+			int icommand_next = -1;
 			while (iseg_next != iseg) {// find next segement
-				command_next = m_buffer_commands.get(iseg_next);
-				if ((command_next.m_type & BufferCommand.Flags.enum_connection) != 0)
+				icommand_next = iseg_next;
+				if ((m_command_type[icommand_next] & BufferCommandFlags.enum_connection) != 0)
 					break;
 
-				iseg_next = command_next.m_next;
+				iseg_next = m_command_next[icommand_next];
 				count++;
 			}
 
+			int i = iseg * 6;
 			if (count == 1) {
 				// Next segment starts where this one ends. Skip this case as it
 				// is simple.
-				assert (command.m_to.isEqual(command_next.m_from));
+				assert (m_command_xy[i + 2] == m_command_xy[icommand_next * 6] && m_command_xy[i + 3] == m_command_xy[icommand_next * 6 + 1]);
 				continue;
 			}
 
-			if ((command.m_type & command_next.m_type) == BufferCommand.Flags.enum_line) {// simplest
-																							// cleanup
-																							// -
-																							// intersect
-																							// lines
+			if ((m_command_type[iseg] & m_command_type[icommand_next]) == BufferCommandFlags.enum_line) {// simplest
+																											// cleanup
+																											// -
+																											// intersect
+																											// lines
 				if (m_helper_line_1 == null) {
 					m_helper_line_1 = new Line();
 					m_helper_line_2 = new Line();
 				}
-				m_helper_line_1.setStartXY(command.m_from);
-				m_helper_line_1.setEndXY(command.m_to);
-				m_helper_line_2.setStartXY(command_next.m_from);
-				m_helper_line_2.setEndXY(command_next.m_to);
+				int j = icommand_next * 6;
+				m_helper_line_1.setStartXY(m_command_xy[i], m_command_xy[i + 1]);
+				m_helper_line_1.setEndXY(m_command_xy[i + 2], m_command_xy[i + 3]);
+				m_helper_line_2.setStartXY(m_command_xy[j], m_command_xy[j + 1]);
+				m_helper_line_2.setEndXY(m_command_xy[j + 2], m_command_xy[j + 3]);
 
 				int count_ = m_helper_line_1.intersect(m_helper_line_2,
 						m_helper_array, null, null, m_small_tolerance);
 				if (count_ == 1) {
-					command.m_to.setCoords(m_helper_array[0]);
-					command_next.m_from.setCoords(m_helper_array[0]);
-					command.m_next = iseg_next;// skip until iseg_next
-					command_next.m_prev = iseg;
+					m_command_xy[i + 2] = m_helper_array[0].x;
+					m_command_xy[i + 3] = m_helper_array[0].y;
+					m_command_xy[j] = m_helper_array[0].x;
+					m_command_xy[j + 1] = m_helper_array[0].y;
+					m_command_next[iseg] = iseg_next;// skip until iseg_next
+					m_command_prev[icommand_next] = iseg;
 				} else if (count_ == 2) {// TODO: this case needs improvement
 				}
 			}
@@ -1820,93 +1956,20 @@ class Bufferer {
 	}
 
 	private void addCircle_(MultiPathImpl result_mp, Point point) {
+		addCircle_(result_mp, point.getX(), point.getY());
+	}
+
+	private void addCircle_(MultiPathImpl result_mp, double x, double y) {
 		// Uses same calculations for each of the quadrants, generating a
 		// symmetric distribution of points.
-		Point2D center = point.getXY();
-		if (m_circle_template != null && !m_circle_template.isEmpty()) {// use
-																		// template
-																		// if
-																		// available.
-			Point2D p = new Point2D();
-			p.setCoords(m_circle_template.get(0));
-			p.scaleAdd(m_abs_distance, center);
-			result_mp.startPath(p);
-			for (int i = 1, n = (int) m_circle_template.size(); i < n; i++) {
-				p.setCoords(m_circle_template.get(i));
-				p.scaleAdd(m_abs_distance, center);
-				result_mp.lineTo(p);
-			}
-			return;
-		}
-
-		// avoid unnecessary memory allocation for the circle template. Just do
-		// the point here.
-
-		int N = m_circle_template_size;
-		int real_size = (N + 3) / 4;
-		double dA = (Math.PI * 0.5) / real_size;
-		// result_mp.reserve(real_size * 4);
-
-		double dcos = Math.cos(dA);
-		double dsin = Math.sin(dA);
-		Point2D pt = new Point2D();
-		for (int quadrant = 3; quadrant >= 0; quadrant--) {
-			pt.setCoords(0.0, m_abs_distance);
-			switch (quadrant) {
-			case 0: {// upper left quadrant
-				for (int i = 0; i < real_size; i++) {
-					result_mp.lineTo(pt.x + center.x, pt.y + center.y);
-					pt.rotateReverse(dcos, dsin);
-				}
-				break;
-			}
-			case 1: {// upper left quadrant
-				for (int i = 0; i < real_size; i++) {// m_circle_template.set(i
-														// + real_size * 1,
-														// Point_2D::construct(-pt.y,
-														// pt.x));
-					result_mp.lineTo(-pt.y + center.x, pt.x + center.y);
-					pt.rotateReverse(dcos, dsin);
-				}
-				break;
-			}
-			case 2: {// lower left quadrant
-						// m_circle_template.set(i + real_size * 2,
-						// Point_2D::construct(-pt.x, -pt.y));
-				for (int i = 0; i < real_size; i++) {
-					result_mp.lineTo(-pt.x + center.x, -pt.y + center.y);
-					pt.rotateReverse(dcos, dsin);
-				}
-				break;
-			}
-			default:// case 3:
-			{// lower right quadrant
-				// m_circle_template.set(i + real_size * 3,
-				// Point_2D::construct(pt.y, -pt.x));
-				result_mp.startPath(pt.y + center.x, -pt.x + center.y);// we
-																		// start
-																		// at
-																		// the
-																		// quadrant
-																		// 3.
-																		// The
-																		// first
-																		// point
-																		// is
-																		// (0,
-																		// -m_distance)
-																		// +
-																		// center
-				for (int i = 1; i < real_size; i++) {
-					pt.rotateReverse(dcos, dsin);
-					result_mp.lineTo(pt.y + center.x, -pt.x + center.y);
-				}
-				break;
-			}
-			}
+		generateCircleTemplate_();
+		double[] template = m_circle_template;
+		double r = m_abs_distance;
+		result_mp.startPath(template[0] * r + x, template[1] * r + y);
+		for (int i = 1, n = m_circle_template_count; i < n; i++)
+			result_mp.lineTo(template[i * 2] * r + x, template[i * 2 + 1] * r + y);
 
-			progress_();
-		}
+		progress_();
 	}
 
 	private static Polygon setWeakSimple_(Polygon poly) {
@@ -1246,6 +1246,85 @@ class Clipper {
 		}
 	}
 
+	/**
+	 * Clips the geometry to each tile of a regular grid. The tile in the
+	 * given column and row has the extent [origin_x + column * tile_width,
+	 * origin_x + (column + 1) * tile_width] by [origin_y + row * tile_height,
+	 * origin_y + (row + 1) * tile_height], and its clipped geometry is
+	 * stored in result[row * column_count + column].
+	 * 
+	 * The range of tiles is halved recursively, and each half is clipped
+	 * from the clip result of the whole range. Each segment is processed
+	 * once per level instead of once per tile, and the tiles outside of
+	 * the clipped geometry are skipped. Each clip uses the tolerance
+	 * calculated from its own extent, so the last clip of each tile uses
+	 * the same tolerance as a separate clip to that tile.
+	 */
+	static void clipToTiles(Geometry geometry, double origin_x,
+			double origin_y, double tile_width, double tile_height,
+			int column_count, int row_count, SpatialReference spatial_ref,
+			ProgressTracker progress_tracker, Geometry[] result) {
+		Envelope2D extent = new Envelope2D();
+		clipToTiles_(geometry, origin_x, origin_y, tile_width, tile_height,
+				column_count, 0, column_count, 0, row_count, spatial_ref,
+				progress_tracker, extent, result);
+	}
+
+	private static void clipToTiles_(Geometry geometry, double origin_x,
+			double origin_y, double tile_width, double tile_height,
+			int column_count, int column_from, int column_to, int row_from,
+			int row_to, SpatialReference spatial_ref,
+			ProgressTracker progress_tracker, Envelope2D extent,
+			Geometry[] result) {
+		ProgressTracker.checkAndThrow(progress_tracker);
+		// The extent of the range is calculated the same way as the extent
+		// of a single tile, so that the shared edges match exactly.
+		extent.setCoords(origin_x + column_from * tile_width, origin_y
+				+ row_from * tile_height, origin_x + column_to * tile_width,
+				origin_y + row_to * tile_height);
+		double tolerance = InternalUtils.calculateToleranceFromGeometry(
+				spatial_ref, extent, false);
+		Geometry clipped = clip(geometry, extent, tolerance, 0.0);
+		if (clipped.isEmpty()) {
+			for (int row = row_from; row < row_to; row++) {
+				for (int column = column_from; column < column_to; column++)
+					result[row * column_count + column] = clipped
+							.createInstance();
+			}
+
+			return;
+		}
+
+		int columns = column_to - column_from;
+		int rows = row_to - row_from;
+		if (columns == 1 && rows == 1) {
+			result[row_from * column_count + column_from] = clipped;
+			return;
+		}
+
+		if (columns >= rows) {
+			int column_mid = column_from + columns / 2;
+			clipToTiles_(clipped, origin_x, origin_y, tile_width,
+					tile_height, column_count, column_from, column_mid,
+					row_from, row_to, spatial_ref, progress_tracker, extent,
+					result);
+			clipToTiles_(clipped, origin_x, origin_y, tile_width,
+					tile_height, column_count, column_mid, column_to,
+					row_from, row_to, spatial_ref, progress_tracker, extent,
+					result);
+		} else {
+			int row_mid = row_from + rows / 2;
+			clipToTiles_(clipped, origin_x, origin_y, tile_width,
+					tile_height, column_count, column_from, column_to,
+					row_from, row_mid, spatial_ref, progress_tracker, extent,
+					result);
+			clipToTiles_(clipped, origin_x, origin_y, tile_width,
+					tile_height, column_count, column_from, column_to,
+					row_mid, row_to, spatial_ref, progress_tracker, extent,
+					result);
+		}
+	}
+
 	int compareVertices_(int v_1, int v_2) {
 		Point2D pt_1 = new Point2D();
 		m_shape.getXY(v_1, pt_1);
@@ -47,6 +47,27 @@ final class Clusterer {
 	// Uses non-reciprocal clustering (cluster any vertices that are closer than
 	// the tolerance in the first-found-first-clustered order)
 	static boolean executeNonReciprocal(EditShape shape, double tolerance) {
+		return executeNonReciprocal(shape, tolerance, 1);
+	}
+
+	// Same as above, with the max number of threads to cluster with. 1
+	// clusters on the calling thread, 0 uses the number of processors.
+	// The parallel clustering is not equivalent to the sequential one: the
+	// clusters near the strip boundaries are formed in a different order,
+	// which can split or join a few of them, and move their vertices
+	// differently, within twice the tolerance.
+	static boolean executeNonReciprocal(EditShape shape, double tolerance,
+			int threadCount) {
+		if (threadCount < 0)
+			throw new IllegalArgumentException();
+
+		if (threadCount == 0)
+			threadCount = ParallelTasks.getDefaultThreadCount();
+
+		if (threadCount > 1)
+			return new ParallelClusterer(shape, tolerance)
+					.execute(threadCount);
+
 		Clusterer clusterer = new Clusterer();
 		clusterer.m_shape = shape;
 		clusterer.m_tolerance = tolerance;
@@ -65,6 +86,11 @@ final class Clusterer {
 		return dx * dx + dy * dy <= sqr_tolerance;
 	}
 
+	// The number of vertical strips per thread for the parallel clustering.
+	private static final int c_strips_per_thread = 4;
+	// The min number of vertices in a strip for the parallel clustering.
+	private static final int c_min_strip_point_count = 4096;
+
 	Point2D m_origin = new Point2D();
 	double m_tolerance;
 	double m_sqr_tolerance;
@@ -581,4 +607,276 @@ final class Clusterer {
 	Clusterer() {
 	}
 
+	// The parallel version of the non-reciprocal clustering. The vertices are
+	// copied to arrays and sharded into vertical strips of the grid cells.
+	// Each strip clusters its vertices on a worker, the same way as
+	// clusterNonReciprocal_ does. The vertices close to the strip boundaries
+	// are left out of the strips and clustered in the merge phase, together
+	// with the strip clusters that ended close to the boundaries. The merged
+	// coordinates are written back to the shape on the calling thread.
+	static final class ParallelClusterer {
+		private EditShape m_shape;
+		private double m_sqr_tolerance;
+		private double m_cell_size;
+		private double m_inv_cell_size;
+		private Point2D m_origin;
+		private int[] m_vertices;
+		private double[] m_xy;
+		private double[] m_weights;
+		private int[] m_member_next;
+		private int[] m_member_last;
+		private boolean[] m_merged;
+
+		ParallelClusterer(EditShape shape, double tolerance) {
+			m_shape = shape;
+			m_sqr_tolerance = tolerance * tolerance;
+			m_cell_size = 2 * tolerance;
+		}
+
+		boolean execute(int thread_count) {
+			final int point_count = m_shape.getTotalPointCount();
+			if (point_count < 2)
+				return false;
+
+			Envelope2D env = m_shape.getEnvelope2D();
+			m_origin = env.getLowerLeft();
+			double dim = Math.max(env.getHeight(), env.getWidth());
+			double mincell = dim / (NumberUtils.intMax() - 1);
+			if (m_cell_size < mincell)
+				m_cell_size = mincell;
+			m_inv_cell_size = 1.0 / m_cell_size;
+
+			// Copy the vertices in the order clusterNonReciprocal_ visits
+			// them.
+			m_vertices = new int[point_count];
+			m_xy = new double[point_count * 2];
+			m_weights = new double[point_count];
+			m_member_next = new int[point_count];
+			m_member_last = new int[point_count];
+			m_merged = new boolean[point_count];
+			Point2D pt = new Point2D();
+			int i = 0;
+			for (int geometry = m_shape.getFirstGeometry(); geometry != -1; geometry = m_shape
+					.getNextGeometry(geometry)) {
+				for (int path = m_shape.getFirstPath(geometry); path != -1; path = m_shape
+						.getNextPath(path)) {
+					int vertex = m_shape.getFirstVertex(path);
+					for (int index = 0, nindex = m_shape.getPathSize(path); index < nindex; index++) {
+						m_shape.getXY(vertex, pt);
+						m_vertices[i] = vertex;
+						m_xy[2 * i] = pt.x;
+						m_xy[2 * i + 1] = pt.y;
+						m_weights[i] = m_shape.getWeight(vertex);
+						m_member_next[i] = -1;
+						m_member_last[i] = i;
+						i++;
+						vertex = m_shape.getNextVertex(vertex);
+					}
+				}
+			}
+
+			int column_count = (int) (env.getWidth() * m_inv_cell_size) + 1;
+			final int strip_count = Math.max(1, Math.min(Math.min(
+					thread_count * c_strips_per_thread, point_count
+							/ c_min_strip_point_count), column_count / 8));
+			// x coordinates of the strip boundaries, including the outer
+			// ones.
+			double[] boundaries = new double[strip_count + 1];
+			for (int strip = 0; strip <= strip_count; strip++)
+				boundaries[strip] = m_origin.x
+						+ (double) (column_count * strip / strip_count)
+						* m_cell_size;
+
+			// The vertices that are closer than the margin to an inner
+			// boundary are clustered in the merge phase.
+			double margin = 2 * m_cell_size;
+			final AttributeStreamOfInt32[] strip_items = new AttributeStreamOfInt32[strip_count];
+			for (int strip = 0; strip < strip_count; strip++)
+				strip_items[strip] = new AttributeStreamOfInt32(0);
+			AttributeStreamOfInt32 boundary_items = new AttributeStreamOfInt32(
+					0);
+			boolean[] b_boundary = new boolean[point_count];
+			for (i = 0; i < point_count; i++) {
+				if (getBoundaryDistance_(m_xy[2 * i], boundaries) < margin) {
+					b_boundary[i] = true;
+					continue;
+				}
+
+				strip_items[getStrip_(m_xy[2 * i], boundaries)].add(i);
+			}
+
+			final boolean[] b_clustered = new boolean[strip_count + 1];
+			ParallelTasks.execute(strip_count, thread_count,
+					new ParallelTasks.Task() {
+						@Override
+						public void run(int strip) {
+							b_clustered[strip] = clusterItems_(strip_items[strip]);
+						}
+					});
+
+			// The strip clusters may have moved toward the boundaries, so
+			// they are taken to the merge phase from a wider margin.
+			for (i = 0; i < point_count; i++) {
+				if (!m_merged[i]
+						&& (b_boundary[i] || getBoundaryDistance_(m_xy[2 * i],
+								boundaries) < 2 * margin))
+					boundary_items.add(i);
+			}
+			b_clustered[strip_count] = clusterItems_(boundary_items);
+
+			boolean b_any_clustered = false;
+			for (int strip = 0; strip <= strip_count; strip++)
+				b_any_clustered |= b_clustered[strip];
+
+			for (i = 0; i < point_count; i++) {
+				if (m_merged[i] || m_member_next[i] == -1)
+					continue;
+
+				for (int member = i; member != -1; member = m_member_next[member])
+					m_shape.setXY(m_vertices[member], m_xy[2 * i],
+							m_xy[2 * i + 1]);
+
+				m_shape.setWeight(m_vertices[i], m_weights[i]);
+			}
+
+			return b_any_clustered;
+		}
+
+		private static int getStrip_(double x, double[] boundaries) {
+			int strip_count = boundaries.length - 1;
+			int strip = 0;
+			int hi = strip_count - 1;
+			while (strip < hi) {
+				int mid = (strip + hi + 1) >> 1;
+				if (boundaries[mid] <= x)
+					strip = mid;
+				else
+					hi = mid - 1;
+			}
+
+			return strip;
+		}
+
+		private static double getBoundaryDistance_(double x,
+				double[] boundaries) {
+			int strip = getStrip_(x, boundaries);
+			double d = NumberUtils.doubleMax();
+			if (strip > 0)
+				d = x - boundaries[strip];
+			if (strip < boundaries.length - 2)
+				d = Math.min(d, boundaries[strip + 1] - x);
+			return d;
+		}
+
+		private int getHash_(int item, boolean b_round) {
+			double x = (m_xy[2 * item] - m_origin.x) * m_inv_cell_size;
+			double y = (m_xy[2 * item + 1] - m_origin.y) * m_inv_cell_size;
+			if (b_round)
+				return hashFunction_((int) (x + 0.5), (int) (y + 0.5));
+
+			return hashFunction_((int) x, (int) y);
+		}
+
+		// Clusters the given items in their order, same as
+		// clusterNonReciprocal_ clusters the vertices of the shape. Only
+		// touches the items of the list and the items merged into them.
+		private boolean clusterItems_(AttributeStreamOfInt32 items) {
+			int n = items.size();
+			if (n < 2)
+				return false;
+
+			int bucket_count = 4 * n / 3 + 1;
+			int[] buckets = new int[bucket_count];
+			for (int i = 0; i < bucket_count; i++)
+				buckets[i] = -1;
+			int[] next_in_bucket = new int[n];
+			boolean[] deleted = new boolean[n];
+			for (int k = 0; k < n; k++) {
+				int bucket = getHash_(items.get(k), true) % bucket_count;
+				next_in_bucket[k] = buckets[bucket];
+				buckets[bucket] = k;
+			}
+
+			boolean b_clustered = false;
+			int[] cell_buckets = new int[4];
+			AttributeStreamOfInt32 candidates = new AttributeStreamOfInt32(0);
+			for (int k = 0; k < n; k++) {
+				if (deleted[k])
+					continue;// merged with another cluster
+
+				deleted[k] = true;
+				int item = items.get(k);
+				while (true) {
+					double x = m_xy[2 * item];
+					double y = m_xy[2 * item + 1];
+					int xi = (int) ((x - m_origin.x) * m_inv_cell_size);
+					int yi = (int) ((y - m_origin.y) * m_inv_cell_size);
+					int cell_bucket_count = 0;
+					for (int dx = 0; dx <= 1; dx++) {
+						for (int dy = 0; dy <= 1; dy++) {
+							int bucket = hashFunction_(xi + dx, yi + dy)
+									% bucket_count;
+							boolean b_duplicate = false;
+							for (int j = 0; j < cell_bucket_count; j++)
+								b_duplicate |= cell_buckets[j] == bucket;
+							if (!b_duplicate)
+								cell_buckets[cell_bucket_count++] = bucket;
+						}
+					}
+
+					for (int j = 0; j < cell_bucket_count; j++) {
+						for (int node = buckets[cell_buckets[j]]; node != -1; node = next_in_bucket[node]) {
+							if (deleted[node])
+								continue;
+
+							int other = items.get(node);
+							if (isClusterCandidate_(x, y, m_xy[2 * other],
+									m_xy[2 * other + 1], m_sqr_tolerance))
+								candidates.add(node);
+						}
+					}
+
+					if (candidates.size() == 0)
+						break;
+
+					boolean clustered = false;
+					for (int j = 0, ncandidates = candidates.size(); j < ncandidates; j++) {
+						int node = candidates.get(j);
+						deleted[node] = true;
+						clustered |= mergeItems_(item, items.get(node));
+					}
+
+					b_clustered |= clustered;
+					candidates.clear(false);
+					if (!clustered)
+						break;// positions did not change
+				}
+			}
+
+			return b_clustered;
+		}
+
+		// Merges the second item into the first one, same as mergeVertices_.
+		private boolean mergeItems_(int item_1, int item_2) {
+			m_member_next[m_member_last[item_1]] = item_2;
+			m_member_last[item_1] = m_member_last[item_2];
+			m_merged[item_2] = true;
+
+			double w_1 = m_weights[item_1];
+			double w_2 = m_weights[item_2];
+			double w = w_1 + w_2;
+			m_weights[item_1] = w;
+			int r = 0;
+			for (int i = 0; i < 2; i++) {
+				double v_1 = m_xy[2 * item_1 + i];
+				double v_2 = m_xy[2 * item_2 + i];
+				if (v_1 != v_2) {
+					m_xy[2 * item_1 + i] = (v_1 * w_1 + v_2 * w_2) / w;
+					r++;
+				}
+			}
+
+			return r != 0;
+		}
+	}
 }
@@ -28,12 +28,21 @@ class ConvexHull {
 	 * Constructor for a Convex_hull object. Used for dynamic insertion of geometries to create a convex hull.
 	 */
 	ConvexHull() {
+		this(1);
+	}
+
+	/*
+	 * Constructor for a Convex_hull object that computes the hulls of large multi vertex geometries on thread_count threads.
+	 */
+	ConvexHull(int thread_count) {
 		m_tree_hull = new Treap();
 		m_tree_hull.setCapacity(20);
 		m_shape = new EditShape();
 		m_geometry_handle = m_shape.createGeometry(Geometry.Type.MultiPoint);
 		m_path_handle = m_shape.insertPath(m_geometry_handle, -1);
 		m_call_back = new CallBackShape(this);
+		m_octagon = new Octagon();
+		m_thread_count = thread_count;
 	}
 
 	private ConvexHull(AttributeStreamOfDbl stream, int n) {
@@ -43,6 +52,13 @@ class ConvexHull {
 		m_call_back = new CallBackStream(this);
 	}
 
+	private ConvexHull(MultiVertexGeometryImpl mvg_impl, int n) {
+		m_tree_hull = new Treap();
+		m_tree_hull.setCapacity(Math.min(20, n));
+		m_mvg_impl = mvg_impl;
+		m_call_back = new CallBackGeometry(this);
+	}
+
 	private ConvexHull(Point2D[] points, int n) {
 		m_tree_hull = new Treap();
 		m_tree_hull.setCapacity(Math.min(20, n));
@@ -287,9 +303,7 @@ class ConvexHull {
 		position.read(position_start + 4, pt_pivot);
 
 		// Initial inductive step
-		ECoordinate det_ec = determinant_(pt_m, pt_pivot, pt_0);
-
-		if (det_ec.isFuzzyZero() || !isClockwise_(det_ec.value()))
+		if (!isClockwise_(Point2D.orientationRobust(pt_m, pt_pivot, pt_0)))
 			return false;
 
 		Point2D pt_1 = new Point2D(pt_m.x, pt_m.y);
@@ -301,19 +315,13 @@ class ConvexHull {
 			pt_m.setCoords(pt_pivot);
 			position.read(i, pt_pivot);
 
-			det_ec = determinant_(pt_m, pt_pivot, pt_0);
-
-			if (det_ec.isFuzzyZero() || !isClockwise_(det_ec.value()))
+			if (!isClockwise_(Point2D.orientationRobust(pt_m, pt_pivot, pt_0)))
 				return false;
 
-			det_ec = determinant_(pt_1, pt_pivot, pt_0);
-
-			if (det_ec.isFuzzyZero() || !isClockwise_(det_ec.value()))
+			if (!isClockwise_(Point2D.orientationRobust(pt_1, pt_pivot, pt_0)))
 				return false;
 
-			det_ec = determinant_(pt_m, pt_pivot, pt_m_prev);
-
-			if (det_ec.isFuzzyZero() || !isClockwise_(det_ec.value()))
+			if (!isClockwise_(Point2D.orientationRobust(pt_m, pt_pivot, pt_m_prev)))
 				return false;
 		}
 
@@ -321,20 +329,121 @@ class ConvexHull {
 	}
 
 	// Dynamically inserts each geometry into the convex hull.
+	// Large geometries are split into parts, and the hull of each part is
+	// computed directly on the vertices, so that only the hull
+	// vertices of the parts are inserted into the shape.
 	private void addMultiVertexGeometry_(MultiVertexGeometry mvg) {
 		Point point = new Point();
 		Point2D pt_p = new Point2D();
+		final int point_count = mvg.getPointCount();
 
-		for (int i = 0; i < mvg.getPointCount(); i++) {
-			mvg.getXY(i, pt_p);
-			int p = addPoint_(pt_p);
+		if (point_count < c_min_points_for_parts) {
+			for (int i = 0; i < point_count; i++)
+				addVertex_(mvg, i, point, pt_p);
 
-			if (p != -1) {
-				mvg.getPointByVal(i, point);
-				int tp = m_shape.addPoint(m_path_handle, point);
-				m_tree_hull.setElement(p, tp); // reset the place holder to tp
+			return;
+		}
+
+		final MultiVertexGeometryImpl mvg_impl = (MultiVertexGeometryImpl) mvg._getImpl();
+		// Verify the streams before the parts read them concurrently, and
+		// keep compact XY storage in place.
+		mvg_impl._verifyStreamsKeepCompactXY();
+		final int part_count = Math.max(1, Math.min(m_thread_count, point_count / c_min_points_per_thread));
+		final int[][] part_hulls = new int[part_count][];
+
+		ParallelTasks.execute(part_count, m_thread_count, new ParallelTasks.Task() {
+			@Override
+			public void run(int index) {
+				int start = (int) ((long) point_count * index / part_count);
+				int end = (int) ((long) point_count * (index + 1) / part_count);
+				part_hulls[index] = constructRange_(mvg_impl, start, end);
 			}
+		});
+
+		for (int i = 0; i < part_count; i++) {
+			int[] part_hull = part_hulls[i];
+
+			for (int j = 0; j < part_hull.length; j++)
+				addVertex_(mvg, part_hull[j], point, pt_p);
+		}
+	}
+
+	private void addVertex_(MultiVertexGeometry mvg, int i, Point point, Point2D pt_p) {
+		mvg.getXY(i, pt_p);
+		int p = addPoint_(pt_p);
+
+		if (p != -1) {
+			mvg.getPointByVal(i, point);
+			int tp = m_shape.addPoint(m_path_handle, point);
+			m_tree_hull.setElement(p, tp); // reset the place holder to tp
+		}
+	}
+
+	// Returns the indices of the convex hull vertices of the points [start, end) of the geometry.
+	// The vertices of the Akl-Toussaint octagon of the points are inserted first, then the points that are not strictly inside of the octagon.
+	private static int[] constructRange_(MultiVertexGeometryImpl mvg_impl, int start, int end) {
+		Octagon octagon = new Octagon();
+		Point2D pt = new Point2D();
+
+		for (int i = start; i < end; i++) {
+			readXY_(mvg_impl, i, pt);
+			octagon.add(pt, i);
+		}
+
+		ConvexHull convex_hull = new ConvexHull(mvg_impl, end - start);
+
+		for (int k = 0; k < 8; k++) {
+			int ti = octagon.getIndex(k);
+			if (k > 0 && ti == octagon.getIndex(k - 1))
+				continue;
+
+			readXY_(mvg_impl, ti, pt);
+			convex_hull.addIndex_(ti, pt);
+		}
+
+		for (int i = start; i < end; i++) {
+			readXY_(mvg_impl, i, pt);
+			if (!octagon.contains(pt))
+				convex_hull.addIndex_(i, pt);
+		}
+
+		int[] hull = new int[convex_hull.m_tree_hull.size(-1)];
+		int count = 0;
+		for (int i = convex_hull.m_tree_hull.getFirst(-1); i != -1; i = convex_hull.m_tree_hull.getNext(i))
+			hull[count++] = convex_hull.m_tree_hull.getElement(i);
+
+		return hull;
+	}
+
+	// Reads the XY of the vertex without verifying the streams or expanding compact XY storage.
+	private static void readXY_(MultiVertexGeometryImpl mvg_impl, int i, Point2D pt) {
+		pt.x = mvg_impl._readAsDbl(0, i << 1);
+		pt.y = mvg_impl._readAsDbl(0, (i << 1) + 1);
+	}
+
+	// Inserts the point with the index ti into the hull of a stream, geometry or point array.
+	private void addIndex_(int ti, Point2D pt_p) {
+		int size = m_tree_hull.size(-1);
+
+		if (size == 0) {
+			m_tree_hull.addElement(ti, -1);
+			return;
+		}
+
+		if (size == 1) {
+			Point2D pt_0 = new Point2D();
+			m_call_back.getXY(m_tree_hull.getElement(m_tree_hull.getFirst(-1)), pt_0);
+
+			if (!pt_p.isEqual(pt_0, NumberUtils.doubleEps())) // We don't want to close the gap between t0 and tm.
+				m_tree_hull.addBiggestElement(ti, -1);
+
+			return;
 		}
+
+		int p = treeHull_(pt_p);
+
+		if (p != -1)
+			m_tree_hull.setElement(p, ti); // reset the place holder to the point index.
 	}
 
 	private void addEnvelope_(Envelope envelope) {
@@ -388,24 +497,28 @@ class ConvexHull {
 	}
 
 	private int addPoint_(Point2D pt_p) {
+		// The octagon is built from the inserted points, so the points
+		// strictly inside of it are strictly inside of the hull.
+		if (m_octagon.contains(pt_p))
+			return -1;
+
 		int p = -1;
 
 		if (m_tree_hull.size(-1) == 0) {
 			p = m_tree_hull.addElement(-4, -1); // reset the place holder to tp
-			return p;
-		}
-
-		if (m_tree_hull.size(-1) == 1) {
+		} else if (m_tree_hull.size(-1) == 1) {
 			int t0 = m_tree_hull.getElement(m_tree_hull.getFirst(-1));
 			Point2D pt_0 = m_shape.getXY(t0);
 
 			if (!pt_p.isEqual(pt_0, NumberUtils.doubleEps())) // We don't want to close the gap between t0 and tm.
 				p = m_tree_hull.addBiggestElement(-5, -1); // set place holder to -5 to indicate the second element being added (tm).
-
-			return p;
+		} else {
+			p = treeHull_(pt_p);
 		}
 
-		p = treeHull_(pt_p);
+		if (p != -1)
+			m_octagon.add(pt_p, -1);
+
 		return p;
 	}
 
@@ -490,12 +603,12 @@ class ConvexHull {
 
 				if (between == -1) {
 					int l = m_tree_hull.getPrev(last);
-					m_tree_hull.deleteNode(last, -1);
+					m_call_back.deleteNode(last);
 					p = m_tree_hull.addBiggestElement(-3, -1); // set place holder to -3 for case 3.
 					treeHullWalkBackward_(pt_pivot, l, first);
 				} else if (between == 1) {
 					int j = m_tree_hull.getNext(first);
-					m_tree_hull.deleteNode(first, -1);
+					m_call_back.deleteNode(first);
 					p = m_tree_hull.addElementAtPosition(-1, j, -3, true, false, -1); // set place holder to -3 for case 3.
 					treeHullWalkForward_(pt_pivot, j, last);
 				}
@@ -573,29 +686,6 @@ class ConvexHull {
 	}
 
 	// Orientation predicates
-	private static ECoordinate determinant_(Point2D p, Point2D q, Point2D r) {
-		ECoordinate det_ec = new ECoordinate();
-		det_ec.set(q.x);
-		det_ec.sub(p.x);
-
-		ECoordinate rp_y_ec = new ECoordinate();
-		rp_y_ec.set(r.y);
-		rp_y_ec.sub(p.y);
-
-		ECoordinate qp_y_ec = new ECoordinate();
-		qp_y_ec.set(q.y);
-		qp_y_ec.sub(p.y);
-
-		ECoordinate rp_x_ec = new ECoordinate();
-		rp_x_ec.set(r.x);
-		rp_x_ec.sub(p.x);
-
-		det_ec.mul(rp_y_ec);
-		qp_y_ec.mul(rp_x_ec);
-		det_ec.sub(qp_y_ec);
-		return det_ec;
-	}
-
 	private static boolean isClockwise_(double det) {
 		return det < 0.0;
 	}
@@ -729,6 +819,24 @@ class ConvexHull {
 		}
 	}
 
+	private static final class CallBackGeometry extends CallBack {
+		private ConvexHull m_convex_hull;
+
+		CallBackGeometry(ConvexHull convex_hull) {
+			m_convex_hull = convex_hull;
+		}
+
+		@Override
+		void getXY(int ti, Point2D pt) {
+			readXY_(m_convex_hull.m_mvg_impl, ti, pt);
+		}
+
+		@Override
+		void deleteNode(int i) {
+			m_convex_hull.m_tree_hull.deleteNode(i, -1);
+		}
+	}
+
 	private static final class CallBackPoints extends CallBack {
 		private ConvexHull m_convex_hull;
 
@@ -747,13 +855,104 @@ class ConvexHull {
 		}
 	}
 
+	// The Akl-Toussaint octagon of a set of points: the points that are
+	// extreme in the directions of y, x - y, x, x + y and their opposites.
+	// A point strictly inside of the octagon is strictly inside of the convex
+	// hull of the set.
+	private static final class Octagon {
+		// The extreme points in counterclockwise order, starting at the
+		// lowest one.
+		private double[] m_xy = new double[16];
+		private int[] m_index = new int[8];
+		private boolean m_b_empty = true;
+		private Point2D m_pt_k = new Point2D();
+		private Point2D m_pt_next = new Point2D();
+
+		void add(Point2D pt, int index) {
+			if (m_b_empty) {
+				for (int k = 0; k < 8; k++)
+					set_(k, pt, index);
+
+				m_b_empty = false;
+				return;
+			}
+
+			double x = pt.x;
+			double y = pt.y;
+			if (y < m_xy[1])
+				set_(0, pt, index);
+			if (x - y > m_xy[2] - m_xy[3])
+				set_(1, pt, index);
+			if (x > m_xy[4])
+				set_(2, pt, index);
+			if (x + y > m_xy[6] + m_xy[7])
+				set_(3, pt, index);
+			if (y > m_xy[9])
+				set_(4, pt, index);
+			if (y - x > m_xy[11] - m_xy[10])
+				set_(5, pt, index);
+			if (x < m_xy[12])
+				set_(6, pt, index);
+			if (x + y < m_xy[14] + m_xy[15])
+				set_(7, pt, index);
+		}
+
+		int getIndex(int k) {
+			return m_index[k];
+		}
+
+		// Returns true if the point is to the left of each nondegenerate
+		// edge of the octagon. That makes the winding number of the octagon
+		// around the point positive, which can only happen strictly inside
+		// of the convex hull of its vertices.
+		boolean contains(Point2D pt) {
+			if (m_b_empty)
+				return false;
+
+			if (!(pt.y > m_xy[1] && pt.x < m_xy[4] && pt.y < m_xy[9] && pt.x > m_xy[12]))
+				return false;
+
+			Point2D pt_k = m_pt_k;
+			Point2D pt_next = m_pt_next;
+			pt_k.setCoords(m_xy[14], m_xy[15]);
+			boolean b_edge = false;
+			for (int k = 0; k < 8; k++) {
+				pt_next.setCoords(m_xy[2 * k], m_xy[2 * k + 1]);
+				if (!pt_k.isEqual(pt_next)) {
+					if (Point2D.orientationRobust(pt_k, pt_next, pt) <= 0)
+						return false;
+
+					b_edge = true;
+				}
+
+				pt_k.setCoords(pt_next);
+			}
+
+			return b_edge;
+		}
+
+		private void set_(int k, Point2D pt, int index) {
+			m_xy[2 * k] = pt.x;
+			m_xy[2 * k + 1] = pt.y;
+			m_index[k] = index;
+		}
+	}
+
 	// Members
 	private Treap m_tree_hull;
 	private EditShape m_shape;
 	private AttributeStreamOfDbl m_stream;
+	private MultiVertexGeometryImpl m_mvg_impl;
 	private Point2D[] m_points;
 	private int m_geometry_handle;
 	private int m_path_handle;
 	private Line m_line;
 	private CallBack m_call_back;
+	private Octagon m_octagon;
+	private int m_thread_count;
+
+	// The multi vertex geometries with fewer points are inserted point by point.
+	private static final int c_min_points_for_parts = 64;
+	// The minimum number of points in a part computed on a separate thread.
+	private static final int c_min_points_per_thread = 16384;
 }
@@ -31,6 +31,7 @@ final class CrackAndCluster {
 	private ProgressTracker m_progressTracker = null;
 	private double m_tolerance;
 	private boolean m_filter_degenerate_segments = true;
+	private int m_thread_count = 1;
 
 	private CrackAndCluster(ProgressTracker progressTracker) {
 		m_progressTracker = progressTracker;
@@ -62,20 +63,32 @@ final class CrackAndCluster {
 	
 	public static boolean execute(EditShape shape, double tolerance,
 			ProgressTracker progressTracker, boolean filter_degenerate_segments) {
+		return execute(shape, tolerance, progressTracker,
+				filter_degenerate_segments, 1);
+	}
+
+	// thread_count is passed to the Cracker and the Clusterer. 1 cracks and
+	// clusters on the calling thread.
+	static boolean execute(EditShape shape, double tolerance,
+			ProgressTracker progressTracker, boolean filter_degenerate_segments,
+			int thread_count) {
 		CrackAndCluster cracker = new CrackAndCluster(progressTracker);
 		cracker.m_shape = shape;
 		cracker.m_tolerance = tolerance;
 		cracker.m_filter_degenerate_segments = filter_degenerate_segments;
+		cracker.m_thread_count = thread_count;
 		return cracker._do();
 	}
 
 	private boolean _cluster(double toleranceCluster) {
-		boolean res = Clusterer.executeNonReciprocal(m_shape, toleranceCluster);
+		boolean res = Clusterer.executeNonReciprocal(m_shape, toleranceCluster,
+				m_thread_count);
 		return res;
 	}
 
 	private boolean _crack(double tolerance_for_cracking) {
-		boolean res = Cracker.execute(m_shape, tolerance_for_cracking, m_progressTracker);
+		boolean res = Cracker.execute(m_shape, tolerance_for_cracking,
+				m_thread_count, m_progressTracker);
 		return res;
 	}
 
@@ -39,6 +39,11 @@ final class Cracker {
 	private SweepComparator m_sweep_comparator;
 	private boolean m_bAllowCoincident;
 
+	// The number of vertical strips per thread for the parallel cracking.
+	private static final int c_strips_per_thread = 4;
+	// The min number of segments in a strip for the parallel cracking.
+	private static final int c_min_strip_segment_count = 1024;
+
 	private Segment getSegment_(int vertex, Line lineHelper) {
 		Segment seg = m_shape.getSegment(vertex);
 		if (seg == null) {
@@ -266,6 +271,261 @@ final class Cracker {
 		return b_cracked;
 	}
 
+	// Finds the intersecting segments in vertical strips of the shape extent,
+	// one strip per task, and splits them on the calling thread. A pair of
+	// segments is tested only in the strip that contains the left side of
+	// the intersection of their envelopes, so each pair is tested once. Both
+	// segments of a pair get a vertex with the same coordinates at their
+	// intersection. The vertices may differ slightly from what the sequential
+	// sweep creates; the clustering in CrackAndCluster merges them.
+	// Only used for the shapes without curves and point features.
+	boolean crackParallel_(int thread_count) {
+		final int vertex_count = m_shape.getTotalPointCount();
+		final AttributeStreamOfInt32 seg_vertices = new AttributeStreamOfInt32(
+				0);
+		seg_vertices.reserve(vertex_count);
+		final double[] seg_xy = new double[vertex_count * 4];
+		Line line = new Line();
+		Envelope2D extent = new Envelope2D();
+		extent.setEmpty();
+		EditShape.VertexIterator iter = m_shape.queryVertexIterator();
+		for (int vertex = iter.next(); vertex != -1; vertex = iter.next()) {
+			if (!m_shape.queryLineConnector(vertex, line))
+				continue;
+
+			if (line.isDegenerate(m_tolerance))// do not crack with degenerate
+												// segments
+				continue;
+
+			int i = seg_vertices.size() * 4;
+			seg_xy[i] = line.getStartX();
+			seg_xy[i + 1] = line.getStartY();
+			seg_xy[i + 2] = line.getEndX();
+			seg_xy[i + 3] = line.getEndY();
+			extent.merge(seg_xy[i], seg_xy[i + 1]);
+			extent.merge(seg_xy[i + 2], seg_xy[i + 3]);
+			seg_vertices.add(vertex);
+		}
+
+		final int seg_count = seg_vertices.size();
+		if (seg_count < 2)
+			return false;
+
+		final int strip_count = Math.max(1, Math.min(thread_count
+				* c_strips_per_thread, seg_count / c_min_strip_segment_count));
+		final double strip_origin = extent.xmin;
+		final double strip_width = extent.getWidth() / strip_count;
+		final AttributeStreamOfInt32[] strip_segments = new AttributeStreamOfInt32[strip_count];
+		for (int i = 0; i < strip_count; i++)
+			strip_segments[i] = new AttributeStreamOfInt32(0);
+
+		// A segment goes to the strips that may contain the left side of the
+		// intersection with another segment.
+		for (int iseg = 0; iseg < seg_count; iseg++) {
+			int i = iseg * 4;
+			double xmin = Math.min(seg_xy[i], seg_xy[i + 2]);
+			double xmax = Math.max(seg_xy[i], seg_xy[i + 2]) + 2 * m_tolerance;
+			int last = getStrip_(xmax, strip_origin, strip_width, strip_count);
+			for (int strip = getStrip_(xmin, strip_origin, strip_width,
+					strip_count); strip <= last; strip++)
+				strip_segments[strip].add(iseg);
+		}
+
+		// Each strip outputs the split records as the segment index, the
+		// split parameter, and the split point.
+		final AttributeStreamOfInt32[] split_segments = new AttributeStreamOfInt32[strip_count];
+		final AttributeStreamOfDbl[] split_values = new AttributeStreamOfDbl[strip_count];
+		ParallelTasks.execute(strip_count, thread_count,
+				new ParallelTasks.Task() {
+					@Override
+					public void run(int strip) {
+						split_segments[strip] = new AttributeStreamOfInt32(0);
+						split_values[strip] = new AttributeStreamOfDbl(0);
+						crackStrip_(strip, strip_origin, strip_width,
+								strip_count, strip_segments[strip], seg_xy,
+								split_segments[strip], split_values[strip]);
+					}
+				});
+
+		// Group the split records by segment.
+		int[] split_offsets = new int[seg_count + 1];
+		int split_count = 0;
+		for (int strip = 0; strip < strip_count; strip++) {
+			AttributeStreamOfInt32 segs = split_segments[strip];
+			for (int i = 0, n = segs.size(); i < n; i++)
+				split_offsets[segs.get(i) + 1]++;
+			split_count += segs.size();
+		}
+
+		if (split_count == 0)
+			return false;
+
+		for (int iseg = 0; iseg < seg_count; iseg++)
+			split_offsets[iseg + 1] += split_offsets[iseg];
+
+		int[] positions = new int[seg_count];
+		System.arraycopy(split_offsets, 0, positions, 0, seg_count);
+		double[] splits = new double[split_count * 3];
+		for (int strip = 0; strip < strip_count; strip++) {
+			AttributeStreamOfInt32 segs = split_segments[strip];
+			AttributeStreamOfDbl values = split_values[strip];
+			for (int i = 0, n = segs.size(); i < n; i++) {
+				int j = positions[segs.get(i)]++ * 3;
+				splits[j] = values.get(i * 3);
+				splits[j + 1] = values.get(i * 3 + 1);
+				splits[j + 2] = values.get(i * 3 + 2);
+			}
+		}
+
+		double[] scalars = new double[16];
+		for (int iseg = 0; iseg < seg_count; iseg++) {
+			int start = split_offsets[iseg];
+			int end = split_offsets[iseg + 1];
+			if (start == end)
+				continue;
+
+			ProgressTracker.checkAndThrow(m_progress_tracker);
+			sortSplits_(splits, start, end);
+			if (scalars.length < end - start)
+				scalars = new double[end - start];
+
+			int count = 0;
+			for (int i = start; i < end; i++) {
+				if (count == 0 || scalars[count - 1] != splits[i * 3])
+					scalars[count++] = splits[i * 3];
+			}
+
+			int origin_vertex = seg_vertices.get(iseg);
+			int actual_splits = m_shape.splitSegment(origin_vertex, scalars,
+					count);
+			assert (actual_splits == count);
+			// Move the inserted vertices to the intersection points.
+			int vertex = m_shape.getNextVertex(origin_vertex);
+			double t_prev = -1;
+			for (int i = start; i < end; i++) {
+				if (splits[i * 3] == t_prev)
+					continue;
+
+				t_prev = splits[i * 3];
+				m_shape.setXY(vertex, splits[i * 3 + 1], splits[i * 3 + 2]);
+				vertex = m_shape.getNextVertex(vertex);
+			}
+		}
+
+		return true;
+	}
+
+	private void crackStrip_(int strip, double strip_origin,
+			double strip_width, int strip_count, AttributeStreamOfInt32 segs,
+			double[] seg_xy, AttributeStreamOfInt32 split_segments,
+			AttributeStreamOfDbl split_values) {
+		if (segs.size() < 2)
+			return;
+
+		Envelope2DIntersectorImpl intersector = new Envelope2DIntersectorImpl();
+		intersector.setTolerance(m_tolerance);
+		intersector.startConstruction();
+		Envelope2D env = new Envelope2D();
+		for (int i = 0, n = segs.size(); i < n; i++) {
+			int j = segs.get(i) * 4;
+			env.setCoords(seg_xy[j], seg_xy[j + 1], seg_xy[j + 2], seg_xy[j + 3]);
+			intersector.addEnvelope(segs.get(i), env);
+		}
+		intersector.endConstruction();
+
+		Line line_1 = new Line();
+		Line line_2 = new Line();
+		Point2D pt_1 = new Point2D();
+		Point2D pt_2 = new Point2D();
+		Point2D pt = new Point2D();
+		double[] param_1 = new double[15];
+		double[] param_2 = new double[15];
+		int pair_count = 0;
+		while (intersector.next()) {
+			if ((++pair_count & 0xFFF) == 0)
+				ProgressTracker.checkAndThrow(m_progress_tracker);
+
+			int seg_1 = intersector.getElement(intersector.getHandleA());
+			int seg_2 = intersector.getElement(intersector.getHandleB());
+			double left = Math.max(intersector.getEnvelope(
+					intersector.getHandleA()).xmin, intersector.getEnvelope(
+					intersector.getHandleB()).xmin);
+			if (getStrip_(left, strip_origin, strip_width, strip_count) != strip)
+				continue;// the pair is tested in another strip
+
+			int j = seg_1 * 4;
+			line_1.setStartXY(seg_xy[j], seg_xy[j + 1]);
+			line_1.setEndXY(seg_xy[j + 2], seg_xy[j + 3]);
+			j = seg_2 * 4;
+			line_2.setStartXY(seg_xy[j], seg_xy[j + 1]);
+			line_2.setEndXY(seg_xy[j + 2], seg_xy[j + 3]);
+			int count = Line._intersectLineLine(line_1, line_2, null, param_1,
+					param_2, m_tolerance);
+			for (int i = 0; i < count; i++) {
+				double t_1 = param_1[i];
+				double t_2 = param_2[i];
+				boolean b_split_1 = t_1 > 0 && t_1 < 1.0;
+				boolean b_split_2 = t_2 > 0 && t_2 < 1.0;
+				if (!b_split_1 && !b_split_2)
+					continue;
+
+				// An end point of a segment wins over the interior of the
+				// other one, two interior points meet in the middle.
+				if (!b_split_1)
+					line_1.getCoord2D(t_1, pt);
+				else if (!b_split_2)
+					line_2.getCoord2D(t_2, pt);
+				else {
+					line_1.getCoord2D(t_1, pt_1);
+					line_2.getCoord2D(t_2, pt_2);
+					MathUtils.lerp(pt_1, pt_2, 0.5, pt);
+				}
+
+				if (b_split_1)
+					addSplit_(seg_1, t_1, pt, split_segments, split_values);
+				if (b_split_2)
+					addSplit_(seg_2, t_2, pt, split_segments, split_values);
+			}
+		}
+	}
+
+	private static void addSplit_(int seg, double t, Point2D pt,
+			AttributeStreamOfInt32 split_segments,
+			AttributeStreamOfDbl split_values) {
+		split_segments.add(seg);
+		split_values.add(t);
+		split_values.add(pt.x);
+		split_values.add(pt.y);
+	}
+
+	private static int getStrip_(double x, double strip_origin,
+			double strip_width, int strip_count) {
+		if (!(strip_width > 0))
+			return 0;
+
+		int strip = (int) ((x - strip_origin) / strip_width);
+		return Math.max(0, Math.min(strip, strip_count - 1));
+	}
+
+	// Sorts the split records [start, end) by the split parameter. There are
+	// few splits per segment, so an insertion sort is used.
+	private static void sortSplits_(double[] splits, int start, int end) {
+		for (int i = start + 1; i < end; i++) {
+			double t = splits[i * 3];
+			double x = splits[i * 3 + 1];
+			double y = splits[i * 3 + 2];
+			int j = i - 1;
+			for (; j >= start && splits[j * 3] > t; j--) {
+				splits[j * 3 + 3] = splits[j * 3];
+				splits[j * 3 + 4] = splits[j * 3 + 1];
+				splits[j * 3 + 5] = splits[j * 3 + 2];
+			}
+			splits[j * 3 + 3] = t;
+			splits[j * 3 + 4] = x;
+			splits[j * 3 + 5] = y;
+		}
+	}
+
 	boolean needsCrackingImpl_() {
 		boolean b_needs_cracking = false;
 		
@@ -485,6 +745,28 @@ final class Cracker {
 
 	static boolean execute(EditShape shape, Envelope2D extent,
 			double tolerance, ProgressTracker progress_tracker) {
+		return execute(shape, tolerance, 1, progress_tracker);
+	}
+
+	/**
+	 * Cracks the shape.
+	 * 
+	 * @param threadCount
+	 *            The max number of threads to crack the shape with. 1 cracks
+	 *            on the calling thread, 0 uses the number of processors. The
+	 *            shapes with curves or point features are always cracked on
+	 *            the calling thread. With more than one thread, the split
+	 *            points of shallow crossings can be placed differently than
+	 *            the sequential sweep places them.
+	 */
+	static boolean execute(EditShape shape, double tolerance, int threadCount,
+			ProgressTracker progress_tracker) {
+		if (threadCount < 0)
+			throw new IllegalArgumentException();
+
+		if (threadCount == 0)
+			threadCount = ParallelTasks.getDefaultThreadCount();
+
 		if (!canBeCracked(shape)) // make sure it contains some segments,
 									// otherwise no need to crack.
 			return false;
@@ -498,6 +780,9 @@ final class Cracker {
 		if (shape.getTotalPointCount() < 15) // what is a good number?
 		{
 			b_cracked = cracker.crackBruteForce_();
+		} else if (threadCount > 1 && !shape.hasCurves()
+				&& !shape.hasPointFeatures()) {
+			b_cracked = cracker.crackParallel_(threadCount);
 		} else {
 			boolean b_cracked_1 = cracker.crackerPlaneSweep_();
 			return b_cracked_1;
@@ -540,6 +540,78 @@ final class EditShape {
 		m_vertex_description = null;
 	}
 
+	// Removes all geometries and user indices, so that the instance can be
+	// reused. Keeps the memory of the index collections and, when it has no
+	// attributes other than XY, of the vertex storage.
+	void clear() {
+		m_geometryCount = 0;
+		m_path_count = 0;
+		m_point_count = 0;
+		m_first_geometry = -1;
+		m_last_geometry = -1;
+		if (m_geometry_index_list != null)
+			m_geometry_index_list.deleteAll(false);
+		if (m_path_index_list != null)
+			m_path_index_list.deleteAll(false);
+		if (m_vertex_index_list != null)
+			m_vertex_index_list.deleteAll(false);
+
+		if (m_vertices != null
+				&& m_vertex_description == VertexDescriptionDesignerImpl
+						.getDefaultDescriptor2D()) {
+			m_vertices.resize(0);
+			m_xy_stream = null;// set again when the vertices are added
+		} else {
+			m_vertices_mp = null;
+			m_vertices = null;
+			m_xy_stream = null;
+			m_vertex_description = null;
+			m_helper_point = null;
+		}
+
+		m_b_has_attributes = false;
+		m_segments = null;
+		m_weights = null;
+		m_indices = null;
+		m_pathindices = null;
+		m_geometry_indices = null;
+	}
+
+	// Returns the estimate of the memory held by the instance.
+	long estimateMemorySize() {
+		long size = 0;
+		if (m_geometry_index_list != null)
+			size += m_geometry_index_list.estimateMemorySize();
+		if (m_path_index_list != null)
+			size += m_path_index_list.estimateMemorySize();
+		if (m_vertex_index_list != null)
+			size += m_vertex_index_list.estimateMemorySize();
+		if (m_path_areas != null)
+			size += m_path_areas.estimateMemorySize()
+					+ m_path_lengths.estimateMemorySize();
+		if (m_vertices != null)
+			size += m_vertices.estimateMemorySize();
+		if (m_weights != null)
+			size += m_weights.estimateMemorySize();
+		size += estimateMemorySize_(m_indices);
+		size += estimateMemorySize_(m_pathindices);
+		size += estimateMemorySize_(m_geometry_indices);
+		return size;
+	}
+
+	private static long estimateMemorySize_(
+			ArrayList<AttributeStreamOfInt32> indices) {
+		long size = 0;
+		if (indices != null) {
+			for (int i = 0, n = indices.size(); i < n; i++) {
+				if (indices.get(i) != null)
+					size += indices.get(i).estimateMemorySize();
+			}
+		}
+
+		return size;
+	}
+
 	// Total point count in all geometries
 	int getTotalPointCount() {
 		return m_point_count;
@@ -2304,6 +2376,11 @@ final class EditShape {
 	// The estimated size can be very slightly less than the actual size.
 	// int estimate_memory_size() const;
 
+	// Returns false when all segments of the shape are lines.
+	boolean hasCurves() {
+		return m_segments != null;
+	}
+
     boolean hasPointFeatures()
     {
       for (int geometry = getFirstGeometry(); geometry != -1; geometry = getNextGeometry(geometry))
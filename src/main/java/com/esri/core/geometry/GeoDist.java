@@ -464,4 +464,119 @@ final class GeoDist {
 			}
 		}
 	}
+
+	static public void geodesic_coordinate_ngs(double a, double e2, double lam1,
+			double phi1, double dist, double az12, PeDouble p_lam2,
+			PeDouble p_phi2) {
+		/*
+		 * Direct problem: the point at the given distance and azimuth from
+		 * point 1. Vincenty's 1975 iteration (Rapp Part II, 1.120 - 1.126).
+		 * latitude positive north, longitude positive east, azimuth clockwise
+		 * from north, radians. The result longitude is not reduced, so that
+		 * lam2 - lam1 stays continuous across the antimeridian.
+		 */
+
+		double tol = 1.0e-14;
+
+		if (p_lam2 == null && p_phi2 == null) {
+			return;
+		}
+
+		if (PE_ZERO(dist)) {
+			if (p_lam2 != null)
+				p_lam2.val = lam1;
+			if (p_phi2 != null)
+				p_phi2.val = phi1;
+
+			return;
+		}
+
+		double sin_az12 = Math.sin(az12);
+		double cos_az12 = Math.cos(az12);
+
+		if (PE_ZERO(e2)) /* Sphere */
+		{
+			double sigma = dist / a;
+			double sin_sigma = Math.sin(sigma);
+			double cos_sigma = Math.cos(sigma);
+			double sin_phi1 = Math.sin(phi1);
+			double cos_phi1 = Math.cos(phi1);
+			double sin_phi2 = sin_phi1 * cos_sigma + cos_phi1 * sin_sigma
+					* cos_az12;
+
+			if (p_phi2 != null)
+				p_phi2.val = Math.asin(sin_phi2 > 1.0 ? 1.0
+						: (sin_phi2 < -1.0 ? -1.0 : sin_phi2));
+			if (p_lam2 != null)
+				p_lam2.val = lam1
+						+ Math.atan2(sin_az12 * sin_sigma * cos_phi1,
+								cos_sigma - sin_phi1 * sin_phi2);
+
+			return;
+		}
+
+		double f = 1.0 - Math.sqrt(1.0 - e2);
+		double boa = 1.0 - f;
+		double b = boa * a;
+
+		double eta1 = Math.atan(boa * Math.tan(phi1)); /* reduced latitude */
+		double sin_eta1 = Math.sin(eta1);
+		double cos_eta1 = Math.cos(eta1);
+
+		double sigma1 = Math.atan2(sin_eta1, cos_eta1 * cos_az12);
+		double sin_azeq = cos_eta1 * sin_az12;
+		double cos2_azeq = 1.0 - sin_azeq * sin_azeq;
+		double u2 = cos2_azeq * (1.0 / (boa * boa) - 1.0);
+		double biga = 1.0 + u2 / 16384.0
+				* (4096.0 + u2 * (-768.0 + u2 * (320.0 - 175.0 * u2)));
+		double bigb = u2 / 1024.0
+				* (256.0 + u2 * (-128.0 + u2 * (74.0 - 47.0 * u2)));
+
+		double sigma0 = dist / (b * biga);
+		double sigma = sigma0;
+		double sin_sigma = 0.0, cos_sigma = 0.0, costm = 0.0, costm2 = 0.0;
+		for (int it = 0; it < 100; it++) {
+			costm = Math.cos(2.0 * sigma1 + sigma);
+			costm2 = costm * costm;
+			sin_sigma = Math.sin(sigma);
+			cos_sigma = Math.cos(sigma);
+			double dsigma = bigb
+					* sin_sigma
+					* (costm + bigb
+							/ 4.0
+							* (cos_sigma * (-1.0 + 2.0 * costm2) - bigb / 6.0
+									* costm
+									* (-3.0 + 4.0 * sin_sigma * sin_sigma)
+									* (-3.0 + 4.0 * costm2)));
+			double prev = sigma;
+			sigma = sigma0 + dsigma;
+			if (PE_ABS(sigma - prev) < tol)
+				break;
+		}
+
+		costm = Math.cos(2.0 * sigma1 + sigma);
+		costm2 = costm * costm;
+		sin_sigma = Math.sin(sigma);
+		cos_sigma = Math.cos(sigma);
+
+		double temp = sin_eta1 * sin_sigma - cos_eta1 * cos_sigma * cos_az12;
+
+		if (p_phi2 != null) {
+			p_phi2.val = Math.atan2(sin_eta1 * cos_sigma + cos_eta1 * sin_sigma
+					* cos_az12, boa * Math.sqrt(sin_azeq * sin_azeq + temp * temp));
+		}
+
+		if (p_lam2 != null) {
+			double lam_sph = Math.atan2(sin_sigma * sin_az12, cos_eta1
+					* cos_sigma - sin_eta1 * sin_sigma * cos_az12);
+			double c = ((-3.0 * cos2_azeq + 4.0) * f + 4.0) * cos2_azeq * f
+					/ 16.0; /* v10 (Rapp 1.83) */
+			double d = (1.0 - c)
+					* f
+					* sin_azeq
+					* (sigma + c * sin_sigma
+							* (costm + c * cos_sigma * (-1.0 + 2.0 * costm2)));
+			p_lam2.val = lam1 + lam_sph - d;
+		}
+	}
 }
@@ -0,0 +1,539 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.ArrayList;
+
+/**
+ * Geodesic buffer on the WGS84 ellipsoid. The input is expected in a
+ * geographic coordinate system with coordinates in degrees.
+ * 
+ * The geometry is split into vertex ranges, each short enough to be projected
+ * into a local azimuthal equidistant frame centered on the range, with the
+ * projection distortion below the requested deviation. Each range is buffered
+ * in its frame by the planar Bufferer, which takes care of joins, caps and
+ * cleanup, then mapped back to degrees with the direct geodesic problem. The
+ * ranges are independent and are processed in parallel, then unioned.
+ * 
+ * The output longitudes are unwrapped to stay continuous with the input. A
+ * point circle around a pole is closed along the pole. Other buffers around
+ * a pole are not supported and throw.
+ */
+final class GeodesicBufferer {
+	private static final double c_a = 6378137.0; // WGS84 semi-major axis
+	private static final double c_e2 = 0.0066943799901413165; // WGS84 eccentricity squared
+	private static final double c_rpu = Math.PI / 180.0;
+	private static final double c_meters_per_degree = 111319.49079327357;
+	private static final double c_max_frame_radius = 2000000.0;
+	private static final int c_max_range_vertices = 1024;
+	private static final int c_parallel_vertex_threshold = 4096;
+
+	private SpatialReference m_spatial_reference;
+	private ProgressTracker m_progress_tracker;
+	private int m_curve_type;
+	private double m_max_deviation;
+	private int m_thread_count;
+
+	private double m_distance;
+	private double m_abs_distance;
+	private double m_deviation;
+	private double m_frame_radius;
+	private double m_range_radius;
+	private double m_densify_step;
+	private int m_circle_vertex_count;
+
+	/**
+	 * A vertex range, or the whole geometry, projected into the azimuthal
+	 * equidistant frame centered at (m_lam, m_phi).
+	 */
+	private static final class Frame {
+		double m_lam;
+		double m_phi;
+		MultiPath m_projected;
+		Geometry m_result;
+
+		Frame(double lam, double phi, MultiPath projected) {
+			m_lam = lam;
+			m_phi = phi;
+			m_projected = projected;
+		}
+	}
+
+	GeodesicBufferer(SpatialReference sr, int curveType,
+			double maxDeviationMeters, int threadCount,
+			ProgressTracker progressTracker) {
+		if (curveType != GeodeticCurveType.Geodesic
+				&& curveType != GeodeticCurveType.ShapePreserving)
+			throw new GeometryException("not implemented");
+
+		m_spatial_reference = sr;
+		m_curve_type = curveType;
+		m_max_deviation = maxDeviationMeters;
+		m_thread_count = threadCount;
+		m_progress_tracker = progressTracker;
+	}
+
+	/**
+	 * Result is always a polygon. For non positive distance and non-areas
+	 * returns an empty polygon. For points returns geodesic circles.
+	 */
+	Geometry buffer(Geometry geometry, double distanceMeters) {
+		if (geometry == null)
+			throw new IllegalArgumentException();
+
+		if (NumberUtils.isNaN(distanceMeters))
+			throw new IllegalArgumentException();
+
+		if (geometry.isEmpty())
+			return new Polygon(geometry.getDescription());
+
+		int gt = geometry.getType().value();
+		if (Geometry.isSegment(gt)) {
+			Polyline polyline = new Polyline(geometry.getDescription());
+			polyline.addSegment((Segment) geometry, true);
+			geometry = polyline;
+		} else if (gt == Geometry.GeometryType.Envelope) {
+			Polygon polygon = new Polygon(geometry.getDescription());
+			polygon.addEnvelope((Envelope) geometry, false);
+			geometry = polygon;
+		}
+
+		if (distanceMeters <= 0) {
+			if (geometry.getDimension() < 2)
+				return new Polygon(geometry.getDescription());
+
+			if (distanceMeters == 0)
+				return OperatorSimplify.local().execute(geometry,
+						m_spatial_reference, false, m_progress_tracker);
+		}
+
+		setDistance_(distanceMeters);
+
+		switch (geometry.getType().value()) {
+		case Geometry.GeometryType.Point:
+			return circle_((Point) geometry);
+		case Geometry.GeometryType.MultiPoint:
+			return bufferMultiPoint_((MultiPoint) geometry);
+		case Geometry.GeometryType.Polyline:
+		case Geometry.GeometryType.Polygon:
+			return bufferMultiPath_((MultiPath) geometry);
+		default:
+			throw GeometryException.GeometryInternalError();
+		}
+	}
+
+	private void setDistance_(double distance) {
+		m_distance = distance;
+		m_abs_distance = Math.abs(distance);
+
+		double deviation = m_max_deviation;
+		if (NumberUtils.isNaN(deviation) || deviation <= 0)
+			deviation = m_abs_distance * (1 - Math.cos(Math.PI / 96));// same as the planar buffer default
+
+		if (deviation > m_abs_distance * 0.5)
+			deviation = m_abs_distance * 0.5;
+
+		m_deviation = deviation;
+
+		double vertex_count = Math.PI
+				/ Math.acos(1.0 - deviation / m_abs_distance);
+		m_circle_vertex_count = (int) Math.min(Math.max(Math.ceil(vertex_count), 12), 10000);
+
+		// The azimuthal equidistant frame stretches distances across the
+		// radius by about rho^2 / (6 R^2). Keep the frame small enough for
+		// that to stay below the deviation.
+		double frame_radius = c_a * Math.sqrt(6.0 * deviation / m_abs_distance);
+		frame_radius = Math.min(frame_radius, c_max_frame_radius);
+		frame_radius = Math.max(frame_radius, 1.5 * m_abs_distance);
+		m_frame_radius = frame_radius;
+		m_range_radius = m_frame_radius - m_abs_distance;
+
+		// A geodesic that does not pass through the frame center is slightly
+		// curved in the frame. Densify so that the chords stay within the
+		// deviation.
+		double step = c_a * Math.sqrt(8.0 * deviation / m_frame_radius);
+		m_densify_step = Math.min(step, m_range_radius * 0.5);
+	}
+
+	private Polygon circle_(Point point) {
+		Polygon polygon = new Polygon();
+		addCircle_(polygon, point.getX(), point.getY());
+		return polygon;
+	}
+
+	private void addCircle_(Polygon polygon, double x, double y) {
+		PeDouble lam = new PeDouble();
+		PeDouble phi = new PeDouble();
+		PeDouble dist = new PeDouble();
+		double lam1 = x * c_rpu;
+		double phi1 = y * c_rpu;
+		double pole = 0;
+		double az0 = 0;
+		for (int sign = -1; sign <= 1; sign += 2) {
+			GeoDist.geodesic_distance_ngs(c_a, c_e2, lam1, phi1, lam1, sign
+					* Math.PI / 2, dist, null, null);
+			if (dist.val < m_abs_distance) {
+				if (pole != 0)
+					throw new GeometryException(
+							"geodesic buffer covering both poles is not supported");
+
+				pole = sign * 90.0;
+				// start at the vertex beyond the pole, so that the ring
+				// spans the longitudes x - 180 to x + 180.
+				az0 = sign > 0 ? 0 : Math.PI;
+			}
+		}
+
+		int n = m_circle_vertex_count;
+		double da = 2 * Math.PI / n;
+		int path_start = polygon.getPointCount();
+		double px_first = 0;
+		double py_first = 0;
+		double px = x;
+		for (int i = 0; i < n; i++) {
+			// azimuth grows clockwise, which produces a clockwise ring
+			GeoDist.geodesic_coordinate_ngs(c_a, c_e2, lam1, phi1,
+					m_abs_distance, az0 + i * da, lam, phi);
+			px = unwrapLongitude_(x + (lam.val - lam1) / c_rpu, px);
+			double py = phi.val / c_rpu;
+			if (i == 0) {
+				polygon.startPath(px, py);
+				px_first = px;
+				py_first = py;
+			} else
+				polygon.lineTo(px, py);
+		}
+
+		if (pole == 0)
+			return;
+
+		// The ring goes once around the pole, so in degrees it ends 360
+		// degrees away from where it started. Close it along the pole.
+		double px_close = unwrapLongitude_(px_first, px);
+		polygon.lineTo(px_close, py_first);
+		polygon.lineTo(px_close, pole);
+		polygon.lineTo(px_first, pole);
+
+		// Center the ring on the longitude of the point.
+		double shift = 360.0 * Math.rint((x - (px_first + px_close) * 0.5) / 360.0);
+		if (shift != 0) {
+			Point2D pt = new Point2D();
+			for (int i = path_start, end = polygon.getPointCount(); i < end; i++) {
+				polygon.getXY(i, pt);
+				pt.x += shift;
+				polygon.setXY(i, pt);
+			}
+		}
+	}
+
+	/**
+	 * Returns the longitude that equals lon modulo 360 degrees and is the
+	 * closest to the reference longitude.
+	 */
+	private static double unwrapLongitude_(double lon, double reference) {
+		double d = lon - reference;
+		return reference + d - 360.0 * Math.floor((d + 180.0) / 360.0);
+	}
+
+	private Geometry bufferMultiPoint_(final MultiPoint multipoint) {
+		final int point_count = multipoint.getPointCount();
+		final int chunk = 256;
+		final int chunk_count = (point_count + chunk - 1) / chunk;
+		final Polygon[] circles = new Polygon[chunk_count];
+		ParallelTasks.execute(chunk_count, getThreadCount_(point_count
+				* m_circle_vertex_count), new ParallelTasks.Task() {
+			@Override
+			public void run(int index) {
+				ProgressTracker.checkAndThrow(m_progress_tracker);
+				Polygon polygon = new Polygon();
+				Point2D pt = new Point2D();
+				int end = Math.min(point_count, (index + 1) * chunk);
+				for (int i = index * chunk; i < end; i++) {
+					multipoint.getXY(i, pt);
+					addCircle_(polygon, pt.x, pt.y);
+				}
+				circles[index] = (Polygon) OperatorSimplify.local().execute(
+						polygon, m_spatial_reference, false,
+						m_progress_tracker);
+			}
+		});
+
+		return union_(circles);
+	}
+
+	private Geometry bufferMultiPath_(MultiPath multipath) {
+		MultiPath densified = densify_(multipath);
+		boolean b_polygon = densified.getType() == Geometry.Type.Polygon;
+
+		Frame whole = projectWhole_(densified);
+		if (whole != null) {
+			bufferFrames_(new Frame[] { whole }, m_distance);
+			return whole.m_result;
+		}
+
+		Frame[] frames = projectRanges_(densified);
+		bufferFrames_(frames, m_abs_distance);
+		Geometry[] results = new Geometry[frames.length];
+		for (int i = 0; i < frames.length; i++)
+			results[i] = frames[i].m_result;
+
+		Geometry boundary_buffer = union_(results);
+		if (!b_polygon)
+			return boundary_buffer;
+
+		if (m_distance > 0)
+			return OperatorUnion.local().execute(densified, boundary_buffer,
+					m_spatial_reference, m_progress_tracker);
+
+		return OperatorDifference.local().execute(
+				OperatorSimplify.local().execute(densified,
+						m_spatial_reference, false, m_progress_tracker),
+				boundary_buffer, m_spatial_reference, m_progress_tracker);
+	}
+
+	/**
+	 * Densifies the input so that each segment, once projected into a frame,
+	 * is close to the curve it represents.
+	 */
+	private MultiPath densify_(MultiPath multipath) {
+		if (m_curve_type == GeodeticCurveType.ShapePreserving) {
+			// The segments are straight lines in degrees. A degree is never
+			// longer than c_meters_per_degree, so the step is conservative.
+			return (MultiPath) OperatorDensifyByLength.local().execute(
+					multipath, m_densify_step / c_meters_per_degree,
+					m_progress_tracker);
+		}
+
+		MultiPath densified = (MultiPath) multipath.createInstance();
+		PeDouble dist = new PeDouble();
+		PeDouble az12 = new PeDouble();
+		PeDouble lam = new PeDouble();
+		PeDouble phi = new PeDouble();
+		Point2D pt_1 = new Point2D();
+		Point2D pt_2 = new Point2D();
+		for (int ipath = 0, npaths = multipath.getPathCount(); ipath < npaths; ipath++) {
+			int path_start = multipath.getPathStart(ipath);
+			int path_end = multipath.getPathEnd(ipath);
+			boolean b_closed = multipath.isClosedPath(ipath);
+			multipath.getXY(path_start, pt_1);
+			densified.startPath(pt_1);
+			int segment_end = b_closed ? path_end + 1 : path_end;
+			for (int i = path_start + 1; i < segment_end; i++) {
+				multipath.getXY(i < path_end ? i : path_start, pt_2);
+				double lam1 = pt_1.x * c_rpu;
+				double phi1 = pt_1.y * c_rpu;
+				GeoDist.geodesic_distance_ngs(c_a, c_e2, lam1, phi1, pt_2.x
+						* c_rpu, pt_2.y * c_rpu, dist, az12, null);
+				int n = (int) Math.ceil(dist.val / m_densify_step);
+				for (int k = 1; k < n; k++) {
+					GeoDist.geodesic_coordinate_ngs(c_a, c_e2, lam1, phi1,
+							dist.val * k / n, az12.val, lam, phi);
+					densified.lineTo(pt_1.x + (lam.val - lam1) / c_rpu,
+							phi.val / c_rpu);
+				}
+
+				if (i < path_end)
+					densified.lineTo(pt_2);
+
+				pt_1.setCoords(pt_2);
+			}
+
+			if (b_closed && multipath.getType() == Geometry.Type.Polyline)
+				densified.closePathWithLine();
+		}
+
+		return densified;
+	}
+
+	/**
+	 * Projects the whole geometry into one frame around its envelope center.
+	 * Returns null when some vertex falls outside of the frame.
+	 */
+	private Frame projectWhole_(MultiPath multipath) {
+		Envelope2D env = new Envelope2D();
+		multipath.queryEnvelope2D(env);
+		Point2D center = env.getCenter();
+		double lam_c = center.x * c_rpu;
+		double phi_c = center.y * c_rpu;
+		MultiPath projected = (MultiPath) multipath.createInstance();
+		projected.add(multipath, false);
+		PeDouble dist = new PeDouble();
+		PeDouble az = new PeDouble();
+		Point2D pt = new Point2D();
+		for (int i = 0, n = multipath.getPointCount(); i < n; i++) {
+			multipath.getXY(i, pt);
+			GeoDist.geodesic_distance_ngs(c_a, c_e2, lam_c, phi_c, pt.x
+					* c_rpu, pt.y * c_rpu, dist, az, null);
+			if (dist.val > m_range_radius)
+				return null;
+
+			pt.setCoords(dist.val * Math.sin(az.val), dist.val
+					* Math.cos(az.val));
+			projected.setXY(i, pt);
+		}
+
+		return new Frame(lam_c, phi_c, projected);
+	}
+
+	/**
+	 * Splits the paths into vertex ranges, each fitting into a frame centered
+	 * at its first vertex. Consecutive ranges share a vertex.
+	 */
+	private Frame[] projectRanges_(MultiPath multipath) {
+		ArrayList<Frame> frames = new ArrayList<Frame>();
+		PeDouble dist = new PeDouble();
+		PeDouble az = new PeDouble();
+		Point2D pt = new Point2D();
+		Point2D pt_c = new Point2D();
+		for (int ipath = 0, npaths = multipath.getPathCount(); ipath < npaths; ipath++) {
+			int path_start = multipath.getPathStart(ipath);
+			int path_end = multipath.getPathEnd(ipath);
+			int segment_end = multipath.isClosedPath(ipath) ? path_end + 1
+					: path_end;
+			if (path_end - path_start == 1) {
+				// a degenerate path buffers as a point
+				multipath.getXY(path_start, pt_c);
+				Polyline polyline = new Polyline();
+				polyline.startPath(0, 0);
+				polyline.lineTo(0, 0);
+				frames.add(new Frame(pt_c.x * c_rpu, pt_c.y * c_rpu, polyline));
+				continue;
+			}
+
+			int range_start = path_start;
+			while (range_start < segment_end - 1) {
+				multipath.getXY(range_start, pt_c);
+				double lam_c = pt_c.x * c_rpu;
+				double phi_c = pt_c.y * c_rpu;
+				Polyline projected = new Polyline();
+				projected.startPath(0, 0);
+				int i = range_start + 1;
+				for (; i < segment_end; i++) {
+					multipath.getXY(i < path_end ? i : path_start, pt);
+					GeoDist.geodesic_distance_ngs(c_a, c_e2, lam_c, phi_c,
+							pt.x * c_rpu, pt.y * c_rpu, dist, az, null);
+					if (i > range_start + 1
+							&& (dist.val > m_range_radius || i - range_start > c_max_range_vertices))
+						break;
+
+					projected.lineTo(dist.val * Math.sin(az.val), dist.val
+							* Math.cos(az.val));
+				}
+
+				frames.add(new Frame(lam_c, phi_c, projected));
+				range_start = i - 1;
+			}
+		}
+
+		return frames.toArray(new Frame[frames.size()]);
+	}
+
+	private void bufferFrames_(final Frame[] frames, final double distance) {
+		long vertex_count = 0;
+		for (int i = 0; i < frames.length; i++)
+			vertex_count += frames[i].m_projected.getPointCount();
+
+		int max_vertices = NumberUtils.isNaN(m_max_deviation) ? 96 : 10000;
+		final int max_vertices_in_full_circle = Math.max(max_vertices,
+				m_circle_vertex_count);
+		ParallelTasks.execute(frames.length, getThreadCount_(vertex_count),
+				new ParallelTasks.Task() {
+					@Override
+					public void run(int index) {
+						ProgressTracker.checkAndThrow(m_progress_tracker);
+						Frame frame = frames[index];
+						Bufferer bufferer = new Bufferer();
+						Geometry result = bufferer.buffer(frame.m_projected,
+								distance, null, m_deviation,
+								max_vertices_in_full_circle, m_progress_tracker);
+						frame.m_projected = null;
+						result = OperatorDensifyByLength.local().execute(
+								result, getOutputStep_(frame),
+								m_progress_tracker);
+						unproject_(frame, (MultiPath) result);
+						frame.m_result = result;
+					}
+				});
+	}
+
+	/**
+	 * The output segments are straight lines in degrees. A geodesic is bent
+	 * in degrees by about tan(latitude) / R, so the output is densified
+	 * enough for such chords to stay within the deviation.
+	 */
+	private double getOutputStep_(Frame frame) {
+		double max_lat = Math.abs(frame.m_phi) + m_frame_radius / c_a;
+		double tan_lat = Math.tan(Math.min(max_lat, 89.0 * c_rpu));
+		double step = m_densify_step;
+		if (tan_lat * step * step > 8.0 * m_deviation * c_a)
+			step = Math.sqrt(8.0 * m_deviation * c_a / tan_lat);
+
+		return step;
+	}
+
+	private void unproject_(Frame frame, MultiPath geometry) {
+		PeDouble lam = new PeDouble();
+		PeDouble phi = new PeDouble();
+		Point2D pt = new Point2D();
+		double x_c = frame.m_lam / c_rpu;
+		for (int ipath = 0, npaths = geometry.getPathCount(); ipath < npaths; ipath++) {
+			double x_first = 0;
+			double x = x_c;
+			for (int i = geometry.getPathStart(ipath), end = geometry
+					.getPathEnd(ipath); i < end; i++) {
+				geometry.getXY(i, pt);
+				double dist = Math.sqrt(pt.x * pt.x + pt.y * pt.y);
+				GeoDist.geodesic_coordinate_ngs(c_a, c_e2, frame.m_lam,
+						frame.m_phi, dist, Math.atan2(pt.x, pt.y), lam, phi);
+				x = unwrapLongitude_(lam.val / c_rpu, x);
+				if (i == geometry.getPathStart(ipath))
+					x_first = x;
+
+				pt.setCoords(x, phi.val / c_rpu);
+				geometry.setXY(i, pt);
+			}
+
+			// A ring that ends 360 degrees away from its start goes around a
+			// pole, which cannot be represented in degrees.
+			if (Math.abs(unwrapLongitude_(x_first, x) - x_first) > 180.0)
+				throw new GeometryException(
+						"geodesic buffer of a polyline or polygon covering a pole is not supported");
+		}
+	}
+
+	private Geometry union_(Geometry[] geometries) {
+		if (geometries.length == 1)
+			return geometries[0];
+
+		return OperatorUnion.local()
+				.execute(new SimpleGeometryCursor(geometries),
+						m_spatial_reference, m_progress_tracker).next();
+	}
+
+	private int getThreadCount_(long work_vertex_count) {
+		return work_vertex_count < c_parallel_vertex_threshold ? 1
+				: m_thread_count;
+	}
+}
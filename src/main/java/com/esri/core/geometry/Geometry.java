@@ -27,6 +27,7 @@ package com.esri.core.geometry;
 
 import java.io.ObjectStreamException;
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import static com.esri.core.geometry.SizeOf.sizeOfDoubleArray;
 
@@ -36,8 +37,13 @@ import static com.esri.core.geometry.SizeOf.sizeOfDoubleArray;
  */
 public abstract class Geometry implements Serializable {
 	VertexDescription m_description;
+	// The low 31 bits are the state counter. The high bit is set when the
+	// geometry has been changed after the last call to getStateFlag.
 	volatile int m_touchFlag;
 
+	private static final AtomicIntegerFieldUpdater<Geometry> s_touchFlagUpdater = AtomicIntegerFieldUpdater
+			.newUpdater(Geometry.class, "m_touchFlag");
+
 	Geometry() {
 		m_description = null;
 		m_touchFlag = 0;
@@ -180,10 +186,10 @@ public abstract class Geometry implements Serializable {
 	 * @param src VertexDescription to assign.
 	 */
 	public void assignVertexDescription(VertexDescription src) {
-		_touch();
 		if (src == m_description)
 			return;
 
+		_touch();
 		_assignVertexDescriptionImpl(src);
 	}
 	
@@ -196,7 +202,6 @@ public abstract class Geometry implements Serializable {
 	 * @param src VertexDescription to merge.
 	 */
 	public void mergeVertexDescription(VertexDescription src) {
-		_touch();
 		if (src == m_description)
 			return;
 
@@ -205,6 +210,7 @@ public abstract class Geometry implements Serializable {
 		if (newdescription == m_description)
 			return;
 		
+		_touch();
 		_assignVertexDescriptionImpl(newdescription);
 	}
 
@@ -223,10 +229,10 @@ public abstract class Geometry implements Serializable {
 	 * @param semantics The VertexDescription.Semantics to add.
 	 */
 	public void addAttribute(int semantics) {
-		_touch();
 		if (m_description.hasAttribute(semantics))
 			return;
 		
+		_touch();
 		VertexDescription newvd = VertexDescriptionDesignerImpl.getMergedVertexDescription(m_description, semantics);
 		_assignVertexDescriptionImpl(newvd);
 	}
@@ -239,10 +245,10 @@ public abstract class Geometry implements Serializable {
 	 * @param semantics The VertexDescription.Semantics to drop.
 	 */
 	public void dropAttribute(int semantics) {
-		_touch();
 		if (!m_description.hasAttribute(semantics))
 			return;
 
+		_touch();
 		VertexDescription newvd = VertexDescriptionDesignerImpl.removeSemanticsFromVertexDescription(m_description, semantics);
 		_assignVertexDescriptionImpl(newvd);
 	}
@@ -566,17 +572,30 @@ public abstract class Geometry implements Serializable {
 	 * The stateFlag value changes with changes applied to this geometry. This
 	 * allows the user to keep track of the geometry's state.
 	 * 
+	 * The value is a counter that is incremented once by the first change
+	 * after each call to getStateFlag, so consecutive changes in between
+	 * increment it only once. It wraps around to zero after Integer.MAX_VALUE.
+	 * 
 	 * @return The state of the geometry.
 	 */
 	public int getStateFlag() {
-		m_touchFlag &= 0x7FFFFFFF;
-		return m_touchFlag;
+		int flag = m_touchFlag;
+		if (flag < 0) {
+			flag &= 0x7FFFFFFF;
+			m_touchFlag = flag;// write only when changed, to keep reading from many threads cheap
+		}
+
+		return flag;
 	}
 
-	// Called whenever geometry changes
-	synchronized void _touch() {
-		if (m_touchFlag >= 0) {
-			m_touchFlag += 0x80000001;
+	// Called whenever geometry changes. Lock free: after the first change
+	// only reads the flag. A failed compareAndSet means that a concurrent
+	// call has already incremented the counter.
+	void _touch() {
+		int flag = m_touchFlag;
+		if (flag >= 0) {
+			s_touchFlagUpdater.compareAndSet(this, flag,
+					((flag + 1) & 0x7FFFFFFF) | 0x80000000);
 		}
 	}
 
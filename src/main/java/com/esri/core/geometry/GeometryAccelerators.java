@@ -29,6 +29,21 @@ class GeometryAccelerators {
 	private QuadTreeImpl m_quad_tree;
     private QuadTreeImpl m_quad_tree_for_paths;
 
+	GeometryAccelerators() {
+	}
+
+	/**
+	 * Creates a copy that shares the accelerators of the other instance. Null
+	 * other creates an empty instance.
+	 */
+	GeometryAccelerators(GeometryAccelerators other) {
+		if (other != null) {
+			m_rasterizedGeometry = other.m_rasterizedGeometry;
+			m_quad_tree = other.m_quad_tree;
+			m_quad_tree_for_paths = other.m_quad_tree_for_paths;
+		}
+	}
+
 	public RasterizedGeometry2D getRasterizedGeometry() {
 		return m_rasterizedGeometry;
 	}
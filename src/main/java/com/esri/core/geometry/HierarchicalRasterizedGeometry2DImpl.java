@@ -0,0 +1,536 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import static com.esri.core.geometry.SizeOf.SIZE_OF_HIERARCHICAL_RASTERIZED_GEOMETRY_2D_IMPL;
+import static com.esri.core.geometry.SizeOf.sizeOfIntArray;
+
+/**
+ * A multi-resolution rasterized geometry. The raster is a quad tree over the
+ * extent of the geometry, where only the cells that are closer to the
+ * boundary of the geometry than the tolerance are subdivided. The
+ * subdivision stops at the max depth or when the next level does not fit
+ * into the byte budget. Point and envelope queries take O(depth) steps.
+ */
+final class HierarchicalRasterizedGeometry2DImpl extends RasterizedGeometry2D {
+	// Max depth of the tree, when the depth is not given explicitly.
+	static final int MAX_DEPTH = 24;
+
+	// The leaf node values. Non negative node values are the index of the
+	// first of the four children.
+	static final int OUTSIDE = -1;
+	static final int INSIDE = -2;
+	static final int BORDER = -3;
+
+	// Fractions of the cell size used to pick a reference point of a cell.
+	// The first one is the center, the others are used when the center lies
+	// exactly on the boundary.
+	private static final double[] s_refFractions = { 0.5, 0.5, 0.3125, 0.6875,
+			0.6875, 0.3125, 0.1875, 0.8125 };
+
+	int[] m_nodes;
+	double m_xmin;
+	double m_ymin;
+	double m_xmax;
+	double m_ymax;
+	double m_toleranceXY;
+	int m_rasterSizeBytes;
+	int m_maxDepth;
+	int m_depth;
+
+	// The build state.
+	private double[] m_segments;// x1, y1, x2, y2 for each segment
+	private boolean m_bPolygon;
+	private double m_inflate;
+	private int m_nodeCount;
+
+	private HierarchicalRasterizedGeometry2DImpl(MultiPathImpl geom,
+			double toleranceXY, int rasterSizeBytes, int maxDepth) {
+		m_toleranceXY = toleranceXY;
+		m_rasterSizeBytes = rasterSizeBytes;
+		init(geom, maxDepth);
+	}
+
+	static HierarchicalRasterizedGeometry2DImpl createImpl(
+			MultiVertexGeometryImpl geom, double toleranceXY,
+			int rasterSizeBytes, int maxDepth) {
+		return new HierarchicalRasterizedGeometry2DImpl((MultiPathImpl) geom,
+				toleranceXY, rasterSizeBytes, maxDepth);
+	}
+
+	void init(MultiPathImpl geom, int maxDepth) {
+		m_bPolygon = geom.getType() == Geometry.Type.Polygon;
+		Envelope2D env = new Envelope2D();
+		geom.queryEnvelope2D(env);
+		m_inflate = m_toleranceXY + env._calculateToleranceFromEnvelope();
+
+		// The root cell is a square, that is larger than the geometry
+		// envelope inflated by the tolerance. Its lower left corner is the
+		// reference point of the root, and it is always outside.
+		double halfSize = Math.max(env.getWidth(), env.getHeight()) * 0.5
+				+ m_inflate * 2;
+		Point2D center = env.getCenter();
+		m_xmin = center.x - halfSize;
+		m_xmax = center.x + halfSize;
+		m_ymin = center.y - halfSize;
+		m_ymax = center.y + halfSize;
+
+		if (maxDepth <= 0) {
+			// Go down to the cells of the tolerance size.
+			double ratio = 2 * halfSize / Math.max(m_inflate, NumberUtils.doubleEps());
+			maxDepth = 1;
+			while (maxDepth < MAX_DEPTH && ratio > 1) {
+				ratio *= 0.5;
+				maxDepth++;
+			}
+		}
+		m_maxDepth = maxDepth;
+
+		m_segments = new double[geom.getSegmentCount() * 4];
+		int segCount = 0;
+		SegmentIteratorImpl segIter = geom.querySegmentIterator();
+		while (segIter.nextPath()) {
+			while (segIter.hasNextSegment()) {
+				Segment seg = segIter.nextSegment();
+				if (seg.getType() != Geometry.Type.Line)
+					throw GeometryException.GeometryInternalError();// curves are not rasterized
+				int i = segCount * 4;
+				m_segments[i] = seg.getStartX();
+				m_segments[i + 1] = seg.getStartY();
+				m_segments[i + 2] = seg.getEndX();
+				m_segments[i + 3] = seg.getEndY();
+				segCount++;
+			}
+		}
+
+		build_(segCount);
+		m_segments = null;
+	}
+
+	private void build_(int segCount) {
+		int maxNodes = Math.max(m_rasterSizeBytes / 4, 1);
+		m_nodes = new int[Math.min(maxNodes, 1024)];
+		m_nodeCount = 1;
+
+		int[] rootSegments = new int[segCount];
+		int rootCount = 0;
+		for (int i = 0; i < segCount; i++) {
+			if (isSegmentInCell_(i, m_xmin, m_ymin, m_xmax, m_ymax))
+				rootSegments[rootCount++] = i;
+		}
+
+		if (rootCount == 0) {
+			m_nodes[0] = OUTSIDE;
+			m_nodes = trim_(m_nodes, m_nodeCount);
+			return;
+		}
+
+		m_nodes[0] = BORDER;
+		// The cells to subdivide on the current and on the next level.
+		Level level = new Level();
+		Level nextLevel = new Level();
+		level.addCell(0, m_xmin, m_ymin, m_xmax, m_ymax, m_xmin, m_ymin,
+				false, rootSegments, rootCount);
+
+		int[] childSegments = new int[rootCount];
+		double[] refXY = new double[2];
+		for (int depth = 0; depth < m_maxDepth && level.m_count > 0; depth++) {
+			double cellSize = (m_xmax - m_xmin) / (1 << Math.min(depth + 1, 30));
+			if (depth + 1 >= 31 || cellSize <= m_inflate - m_toleranceXY)
+				break;// too small to be subdivided further
+
+			nextLevel.clear();
+			for (int icell = 0; icell < level.m_count; icell++) {
+				if (m_nodeCount + 4 > maxNodes)
+					break;
+
+				int base = m_nodeCount;
+				if (base + 4 > m_nodes.length)
+					m_nodes = trim_(m_nodes, Math.min(Math.max(m_nodes.length * 2, base + 4), maxNodes));
+
+				m_nodeCount += 4;
+				m_nodes[level.m_node[icell]] = base;
+				m_depth = depth + 1;
+
+				int c4 = icell * 4;
+				double x0 = level.m_box[c4];
+				double y0 = level.m_box[c4 + 1];
+				double x1 = level.m_box[c4 + 2];
+				double y1 = level.m_box[c4 + 3];
+				double midx = (x0 + x1) * 0.5;
+				double midy = (y0 + y1) * 0.5;
+				double refx = level.m_ref[icell * 2];
+				double refy = level.m_ref[icell * 2 + 1];
+				boolean refInside = level.m_refInside[icell];
+				int segStart = level.m_segStart[icell];
+				int segEnd = level.m_segStart[icell + 1];
+
+				if (childSegments.length < segEnd - segStart)
+					childSegments = new int[segEnd - segStart];
+
+				for (int iquad = 0; iquad < 4; iquad++) {
+					double cx0 = (iquad & 1) == 0 ? x0 : midx;
+					double cx1 = (iquad & 1) == 0 ? midx : x1;
+					double cy0 = (iquad & 2) == 0 ? y0 : midy;
+					double cy1 = (iquad & 2) == 0 ? midy : y1;
+					int childCount = 0;
+					for (int i = segStart; i < segEnd; i++) {
+						int iseg = level.m_segments[i];
+						if (isSegmentInCell_(iseg, cx0, cy0, cx1, cy1))
+							childSegments[childCount++] = iseg;
+					}
+
+					boolean inside = false;
+					boolean bValidRef = true;
+					if (m_bPolygon) {
+						bValidRef = false;
+						for (int k = 0; k < s_refFractions.length; k += 2) {
+							refXY[0] = cx0 + (cx1 - cx0) * s_refFractions[k];
+							refXY[1] = cy0 + (cy1 - cy0) * s_refFractions[k + 1];
+							int parity = parity_(refx, refy, refXY[0],
+									refXY[1], level.m_segments, segStart,
+									segEnd);
+							if (parity >= 0) {
+								inside = refInside != (parity == 1);
+								bValidRef = true;
+								break;
+							}
+						}
+					}
+
+					int node = base + iquad;
+					if (childCount == 0 && bValidRef) {
+						m_nodes[node] = inside ? INSIDE : OUTSIDE;
+					} else {
+						m_nodes[node] = BORDER;
+						// A cell without a valid reference point stays on
+						// the border.
+						if (bValidRef)
+							nextLevel.addCell(node, cx0, cy0, cx1, cy1,
+									refXY[0], refXY[1], inside,
+									childSegments, childCount);
+					}
+				}
+			}
+
+			Level tmp = level;
+			level = nextLevel;
+			nextLevel = tmp;
+		}
+
+		m_nodes = trim_(m_nodes, m_nodeCount);
+	}
+
+	private static int[] trim_(int[] nodes, int size) {
+		int[] res = new int[size];
+		System.arraycopy(nodes, 0, res, 0, Math.min(size, nodes.length));
+		return res;
+	}
+
+	/**
+	 * Returns true if the segment intersects the cell inflated by the
+	 * tolerance.
+	 */
+	private boolean isSegmentInCell_(int iseg, double x0, double y0,
+			double x1, double y1) {
+		x0 -= m_inflate;
+		y0 -= m_inflate;
+		x1 += m_inflate;
+		y1 += m_inflate;
+		int i = iseg * 4;
+		double px = m_segments[i];
+		double py = m_segments[i + 1];
+		double qx = m_segments[i + 2];
+		double qy = m_segments[i + 3];
+		if (Math.max(px, qx) < x0 || Math.min(px, qx) > x1
+				|| Math.max(py, qy) < y0 || Math.min(py, qy) > y1)
+			return false;
+
+		// The segment envelope intersects the cell. Check if the cell
+		// corners are on the same side of the segment.
+		double dx = qx - px;
+		double dy = qy - py;
+		double s1 = dx * (y0 - py) - dy * (x0 - px);
+		double s2 = dx * (y0 - py) - dy * (x1 - px);
+		double s3 = dx * (y1 - py) - dy * (x0 - px);
+		double s4 = dx * (y1 - py) - dy * (x1 - px);
+		if (s1 > 0 && s2 > 0 && s3 > 0 && s4 > 0)
+			return false;
+		if (s1 < 0 && s2 < 0 && s3 < 0 && s4 < 0)
+			return false;
+
+		return true;
+	}
+
+	/**
+	 * Returns the parity of the number of crossings of the segment from r to c
+	 * with the given segments, or -1 if the point c lies on one of them. The
+	 * point r must not lie on any of the segments.
+	 * Vertices lying exactly on the line through r and c are counted as being
+	 * on its right side, so that the crossings at the vertices are counted
+	 * once.
+	 */
+	private int parity_(double rx, double ry, double cx, double cy,
+			int[] segments, int start, int end) {
+		int parity = 0;
+		double minx = Math.min(rx, cx);
+		double maxx = Math.max(rx, cx);
+		double miny = Math.min(ry, cy);
+		double maxy = Math.max(ry, cy);
+		for (int j = start; j < end; j++) {
+			int i = segments[j] * 4;
+			double px = m_segments[i];
+			double py = m_segments[i + 1];
+			double qx = m_segments[i + 2];
+			double qy = m_segments[i + 3];
+			if (Math.max(px, qx) < minx || Math.min(px, qx) > maxx
+					|| Math.max(py, qy) < miny || Math.min(py, qy) > maxy)
+				continue;
+
+			int o1 = AdaptivePredicates.orientation(rx, ry, cx, cy, px, py);
+			int o2 = AdaptivePredicates.orientation(rx, ry, cx, cy, qx, qy);
+			if (o1 == 0 && o2 == 0) {
+				// The segment is collinear with r and c. It is only a problem
+				// when c lies on it.
+				if (cx >= Math.min(px, qx) && cx <= Math.max(px, qx)
+						&& cy >= Math.min(py, qy) && cy <= Math.max(py, qy))
+					return -1;
+
+				continue;
+			}
+
+			if ((o1 > 0) == (o2 > 0))
+				continue;
+
+			int o3 = AdaptivePredicates.orientation(px, py, qx, qy, rx, ry);
+			int o4 = AdaptivePredicates.orientation(px, py, qx, qy, cx, cy);
+			if (o3 == 0 || o4 == 0)
+				return -1;
+
+			if (o3 != o4)
+				parity ^= 1;
+		}
+
+		return parity;
+	}
+
+	private static HitType hitTypeFromNode_(int node) {
+		if (node == OUTSIDE)
+			return HitType.Outside;
+		else if (node == INSIDE)
+			return HitType.Inside;
+		else
+			return HitType.Border;
+	}
+
+	@Override
+	public HitType queryPointInGeometry(double x, double y) {
+		if (x < m_xmin || x > m_xmax || y < m_ymin || y > m_ymax)
+			return countQuery_(HitType.Outside);
+
+		double x0 = m_xmin;
+		double y0 = m_ymin;
+		double x1 = m_xmax;
+		double y1 = m_ymax;
+		int node = m_nodes[0];
+		while (node >= 0) {
+			double midx = (x0 + x1) * 0.5;
+			double midy = (y0 + y1) * 0.5;
+			int iquad = 0;
+			if (x >= midx) {
+				iquad = 1;
+				x0 = midx;
+			} else
+				x1 = midx;
+
+			if (y >= midy) {
+				iquad |= 2;
+				y0 = midy;
+			} else
+				y1 = midy;
+
+			node = m_nodes[node + iquad];
+		}
+
+		return countQuery_(hitTypeFromNode_(node));
+	}
+
+	@Override
+	public HitType queryEnvelopeInGeometry(Envelope2D env) {
+		if (env.isEmpty() || !env.isIntersecting(m_xmin, m_ymin, m_xmax, m_ymax))
+			return countQuery_(HitType.Outside);
+
+		int mask = 0;
+		if (env.xmin < m_xmin || env.xmax > m_xmax || env.ymin < m_ymin
+				|| env.ymax > m_ymax)
+			mask = 1;// the part outside of the root is outside
+
+		mask = collect_(m_nodes[0], m_xmin, m_ymin, m_xmax, m_ymax, env,
+				mask);
+		if ((mask & 4) != 0 || mask == 3)
+			return countQuery_(HitType.Border);
+
+		return countQuery_(mask == 2 ? HitType.Inside : HitType.Outside);
+	}
+
+	/**
+	 * Collects the leaf values overlapped by the envelope into a bit mask (1
+	 * outside, 2 inside, 4 border). Stops as soon as the result is known to
+	 * be the border.
+	 */
+	private int collect_(int node, double x0, double y0, double x1,
+			double y1, Envelope2D env, int mask) {
+		if (node < 0) {
+			mask |= node == OUTSIDE ? 1 : (node == INSIDE ? 2 : 4);
+			return mask;
+		}
+
+		double midx = (x0 + x1) * 0.5;
+		double midy = (y0 + y1) * 0.5;
+		for (int iquad = 0; iquad < 4; iquad++) {
+			double cx0 = (iquad & 1) == 0 ? x0 : midx;
+			double cx1 = (iquad & 1) == 0 ? midx : x1;
+			double cy0 = (iquad & 2) == 0 ? y0 : midy;
+			double cy1 = (iquad & 2) == 0 ? midy : y1;
+			if (env.xmin > cx1 || env.xmax < cx0 || env.ymin > cy1
+					|| env.ymax < cy0)
+				continue;
+
+			mask = collect_(m_nodes[node + iquad], cx0, cy0, cx1, cy1, env,
+					mask);
+			if ((mask & 4) != 0 || mask == 3)
+				return mask;
+		}
+
+		return mask;
+	}
+
+	@Override
+	public double getToleranceXY() {
+		return m_toleranceXY;
+	}
+
+	@Override
+	public int getRasterSize() {
+		return m_rasterSizeBytes;
+	}
+
+	/**
+	 * Returns the max depth of the tree.
+	 */
+	int getMaxDepth() {
+		return m_maxDepth;
+	}
+
+	/**
+	 * Returns the depth of the tree, i.e. the number of the subdivisions of
+	 * the finest cell.
+	 */
+	int getDepth() {
+		return m_depth;
+	}
+
+	/**
+	 * Returns the number of the nodes in the tree.
+	 */
+	int getNodeCount() {
+		return m_nodes.length;
+	}
+
+	@Override
+	public boolean dbgSaveToBitmap(String fileName) {
+		return false;// not supported, the raster has no fixed resolution.
+	}
+
+	@Override
+	public long estimateMemorySize() {
+		return SIZE_OF_HIERARCHICAL_RASTERIZED_GEOMETRY_2D_IMPL
+				+ (m_nodes != null ? sizeOfIntArray(m_nodes.length) : 0);
+	}
+
+	/**
+	 * The cells of one level of the tree that are to be subdivided.
+	 */
+	private static final class Level {
+		int m_count;
+		int[] m_node = new int[16];
+		double[] m_box = new double[16 * 4];
+		double[] m_ref = new double[16 * 2];
+		boolean[] m_refInside = new boolean[16];
+		int[] m_segStart = new int[17];
+		int[] m_segments = new int[64];
+
+		void clear() {
+			m_count = 0;
+		}
+
+		void addCell(int node, double x0, double y0, double x1, double y1,
+				double refx, double refy, boolean refInside, int[] segments,
+				int segCount) {
+			if (m_count == m_node.length) {
+				int newSize = m_count * 2;
+				m_node = copyOf_(m_node, newSize);
+				m_refInside = copyOf_(m_refInside, newSize);
+				m_segStart = copyOf_(m_segStart, newSize + 1);
+				m_box = copyOf_(m_box, newSize * 4);
+				m_ref = copyOf_(m_ref, newSize * 2);
+			}
+
+			int start = m_segStart[m_count];
+			if (start + segCount > m_segments.length)
+				m_segments = copyOf_(m_segments, Math.max(m_segments.length * 2, start + segCount));
+
+			System.arraycopy(segments, 0, m_segments, start, segCount);
+			m_node[m_count] = node;
+			m_box[m_count * 4] = x0;
+			m_box[m_count * 4 + 1] = y0;
+			m_box[m_count * 4 + 2] = x1;
+			m_box[m_count * 4 + 3] = y1;
+			m_ref[m_count * 2] = refx;
+			m_ref[m_count * 2 + 1] = refy;
+			m_refInside[m_count] = refInside;
+			m_count++;
+			m_segStart[m_count] = start + segCount;
+		}
+
+		private static int[] copyOf_(int[] a, int size) {
+			int[] res = new int[size];
+			System.arraycopy(a, 0, res, 0, a.length);
+			return res;
+		}
+
+		private static double[] copyOf_(double[] a, int size) {
+			double[] res = new double[size];
+			System.arraycopy(a, 0, res, 0, a.length);
+			return res;
+		}
+
+		private static boolean[] copyOf_(boolean[] a, int size) {
+			boolean[] res = new boolean[size];
+			System.arraycopy(a, 0, res, 0, a.length);
+			return res;
+		}
+	}
+}
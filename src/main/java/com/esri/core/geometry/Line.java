@@ -416,15 +416,16 @@ public final class Line extends Segment implements Serializable {
 	}
 
 	// return -1 for the left side from the infinite line passing through thais
-	// Line, 1 for the right side of the line, 0 if on the line (in the bounds
-	// of the roundoff error)
+	// Line, 1 for the right side of the line, 0 if on the line. The sign is
+	// exact, see _side(double, double).
 	int _side(Point2D pt) {
 		return _side(pt.x, pt.y);
 	}
 
 	// return -1 for the left side from the infinite line passing through thais
-	// Line, 1 for the right side of the line, 0 if on the line (in the bounds
-	// of the roundoff error)
+	// Line, 1 for the right side of the line, 0 if on the line. The sign is
+	// exact: when the cross product is within the bounds of the roundoff
+	// error, it is resolved with the adaptive precision predicate.
 	int _side(double ptX, double ptY) {
 		Point2D v1 = new Point2D(ptX, ptY);
 		v1.sub(getStartXY());
@@ -433,7 +434,13 @@ public final class Line extends Segment implements Serializable {
 		double cross = v2.crossProduct(v1);
 		double crossError = 4 * NumberUtils.doubleEps()
 				* (Math.abs(v2.x * v1.y) + Math.abs(v2.y * v1.x));
-		return cross > crossError ? -1 : cross < -crossError ? 1 : 0;
+		if (cross > crossError)
+			return -1;
+		if (cross < -crossError)
+			return 1;
+
+		return -AdaptivePredicates.orientation(m_xStart, m_yStart, m_xEnd,
+				m_yEnd, ptX, ptY);
 	}
 
 	double _intersection(Point2D pt, double tolerance,
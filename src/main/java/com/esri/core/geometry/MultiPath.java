@@ -128,6 +128,26 @@ public abstract class MultiPath extends MultiVertexGeometry implements
 		m_impl.getXY(index, pt);
 	}
 
+	@Override
+	public boolean compactXY(SpatialReference sr) {
+		return m_impl.compactXY(sr);
+	}
+
+	@Override
+	public boolean isCompactXY() {
+		return m_impl.isCompactXY();
+	}
+
+	@Override
+	public void freeze() {
+		m_impl.freeze();
+	}
+
+	@Override
+	public boolean isFrozen() {
+		return m_impl.isFrozen();
+	}
+
 	@Override
 	public void setXY(int index, Point2D pt) {
 		m_impl.setXY(index, pt);
@@ -608,6 +628,23 @@ public abstract class MultiPath extends MultiVertexGeometry implements
 		m_impl.lineTo(endPoint);
 	}
 
+	/**
+	 * Adds line segments from the last point through the given points. The
+	 * result is the same as calling lineTo for each point, but the geometry
+	 * is updated once for the whole batch, which is faster for many points.
+	 * 
+	 * @param xy
+	 *            The interleaved X and Y coordinates of the points.
+	 * @param pointOffset
+	 *            The index of the first point to add (the index in xy is
+	 *            pointOffset * 2).
+	 * @param pointCount
+	 *            The number of points to add.
+	 */
+	public void lineTo(double[] xy, int pointOffset, int pointCount) {
+		m_impl.lineTo(xy, pointOffset, pointCount);
+	}
+
 	/**
 	 * Adds a Cubic Bezier Segment to the current Path. The Bezier Segment
 	 * connects the current last Point and the given endPoint.
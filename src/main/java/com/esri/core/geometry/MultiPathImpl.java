@@ -74,10 +74,15 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 
 		if (m_vertexAttributes != null) {
 			for (int i = 0; i < m_vertexAttributes.length; i++) {
-				size += m_vertexAttributes[i].estimateMemorySize();
+				if (m_vertexAttributes[i] != null)
+					size += m_vertexAttributes[i].estimateMemorySize();
 			}
 		}
 
+		if (m_compactXY != null) {
+			size += m_compactXY.estimateMemorySize();
+		}
+
 		if (m_accelerators != null) {
 			size += m_accelerators.estimateMemorySize();
 		}
@@ -123,6 +128,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 
 	// Reviewed vs. Native Jan 11, 2011
 	protected void _initPathStartPoint() {
+		throwIfFrozen();
 		_touch();
 		if (m_moveToPoint == null)
 			m_moveToPoint = new Point(m_description);
@@ -150,6 +156,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 
 	// Reviewed vs. Native Jan 11, 2011
 	public void startPath(Point3D point) {
+		throwIfFrozen();
 		_initPathStartPoint();
 		m_moveToPoint.setXYZ(point);
 		assignVertexDescription(m_moveToPoint.getDescription());
@@ -158,6 +165,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 
 	// Reviewed vs. Native Jan 11, 2011
 	public void startPath(Point point) {
+		throwIfFrozen();
 		if (point.isEmpty())
 			throw new IllegalArgumentException();// throw new
 													// IllegalArgumentException();
@@ -175,6 +183,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	// Reviewed vs. Native Jan 11, 2011
 	protected void _beforeNewSegment(int resizeBy) {
 		// Called for each new segment being added.
+		throwIfFrozen();
 		if (m_bPathStarted) {
 			_initPathStartPoint();// make sure the m_movetoPoint exists and has
 									// right vertex description
@@ -239,6 +248,27 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 		// lineTo(endPoint);
 	}
 
+	/**
+	 * adds Line Segments from the last Point through the points in the xy
+	 * array. Updates the geometry once for all points.
+	 */
+	public void lineTo(double[] xy, int pointOffset, int pointCount) {
+		throwIfFrozen();
+		if (pointOffset < 0 || pointCount < 0
+				|| xy.length < (pointOffset + pointCount) * 2)
+			throw new IllegalArgumentException();
+
+		if (pointCount == 0)
+			return;
+
+		_beforeNewSegment(pointCount);
+		AttributeStreamOfDbl position = (AttributeStreamOfDbl) getAttributeStreamRef(VertexDescription.Semantics.POSITION);
+		position.writeRange((m_pointCount - pointCount) * 2, pointCount * 2,
+				xy, pointOffset * 2, true);
+		notifyModified(DirtyFlags.DirtyCoordinates);
+		_finishLineTo();
+	}
+
 	// Reviewed vs. Native Jan 11, 2011
 	public void lineTo(Point2D endPoint) {
 		_beforeNewSegment(1);
@@ -318,6 +348,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 
 	// Reviewed vs. Native Jan 11, 2011
 	public void openPath(int pathIndex) {
+		throwIfFrozen();
 		_touch();
 		if (m_bPolygon)
 			throw GeometryException.GeometryInternalError();// do not call this
@@ -335,6 +366,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	}
 
 	public void openPathAndDuplicateStartVertex(int pathIndex) {
+		throwIfFrozen();
 		_touch();
 		if (m_bPolygon)
 			throw GeometryException.GeometryInternalError();// do not call this
@@ -380,6 +412,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	// Reviewed vs. Native Jan 11, 2011
 	// Major Changes on 16th of January
 	public void openAllPathsAndDuplicateStartVertex() {
+		throwIfFrozen();
 		_touch();
 		if (m_bPolygon)
 			throw GeometryException.GeometryInternalError();// do not call this
@@ -457,6 +490,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	}
 
 	void closePathWithLine(int path_index) {
+		throwIfFrozen();
 		// touch_();
 		throwIfEmpty();
 
@@ -470,6 +504,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	}
 
 	void closePathWithLine() {
+		throwIfFrozen();
 		throwIfEmpty();
 		m_bPathStarted = false;
 		closePathWithLine(getPathCount() - 1);
@@ -481,6 +516,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	 * point to the start point.
 	 */
 	public void closeAllPaths() {
+		throwIfFrozen();
 		_touch();
 		if (m_bPolygon || isEmptyImpl())
 			return;
@@ -522,6 +558,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	 * point of the bezier is the first point of the path.
 	 */
 	public void closePathWithBezier(Point2D controlPoint1, Point2D controlPoint2) {
+		throwIfFrozen();
 		_touch();
 		if (isEmptyImpl())
 			throw new GeometryException(
@@ -597,6 +634,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 
 	// Reviewed vs. Native Jan 11, 2011
 	public void addSegment(Segment segment, boolean bStartNewPath) {
+		throwIfFrozen();
 		mergeVertexDescription(segment.getDescription());
 		if (segment.getType() == Type.Line) {
 			Point point = new Point();
@@ -622,6 +660,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	 *            Creates reversed path.
 	 */
 	public void addEnvelope(Envelope2D envSrc, boolean bReverse) {
+		throwIfFrozen();
 		boolean bWasEmpty = m_pointCount == 0;
 
 		startPath(envSrc.xmin, envSrc.ymin);
@@ -655,6 +694,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	 *            Creates reversed path.
 	 */
 	public void addEnvelope(Envelope envSrc, boolean bReverse) {
+		throwIfFrozen();
 		if (envSrc.isEmpty())
 			return;
 
@@ -681,22 +721,26 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 
 	// Reviewed vs. Native Jan 11, 2011
 	public void add(MultiPathImpl src, boolean bReversePaths) {
+		throwIfFrozen();
 		for (int i = 0; i < src.getPathCount(); i++)
 			addPath(src, i, !bReversePaths);
 	}
 
 	public void addPath(MultiPathImpl src, int srcPathIndex, boolean bForward) {
+		throwIfFrozen();
 		insertPath(-1, src, srcPathIndex, bForward);
 	}
 
 	// Reviewed vs. Native Jan 11, 2011 Significant changes to last for loop
 	public void addPath(Point2D[] _points, int count, boolean bForward) {
+		throwIfFrozen();
 		insertPath(-1, _points, 0, count, bForward);
 	}
 
 	public void addSegmentsFromPath(MultiPathImpl src, int src_path_index,
 			int src_segment_from, int src_segment_count,
 			boolean b_start_new_path) {
+		throwIfFrozen();
 		if (!b_start_new_path && getPathCount() == 0)
 			b_start_new_path = true;
 
@@ -721,6 +765,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 		m_bPathStarted = false;
 
 		mergeVertexDescription(src.getDescription());
+		src._verifyAllStreams();// the source need to be correct.
 		int src_point_count = src_segment_count;
 		int srcFromPoint = src.getPathStart(src_path_index) + src_segment_from
 				+ 1;
@@ -823,6 +868,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 
 	// Reviewed vs. Native Jan 11, 2011
 	public void reverseAllPaths() {
+		throwIfFrozen();
 		for (int i = 0, n = getPathCount(); i < n; i++) {
 			reversePath(i);
 		}
@@ -830,6 +876,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 
 	// Reviewed vs. Native Jan 11, 2011
 	public void reversePath(int pathIndex) {
+		throwIfFrozen();
 		_verifyAllStreams();
 		int pathCount = getPathCount();
 		if (pathIndex >= pathCount)
@@ -858,6 +905,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	// Reviewed vs. Native Jan 11, 2011
 	// TODO: Nonlinearsegments
 	public void removePath(int pathIndex) {
+		throwIfFrozen();
 		_verifyAllStreams();
 		int pathCount = getPathCount();
 
@@ -906,6 +954,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	// TODO: Nonlinearsegments
 	public void insertPath(int pathIndex, MultiPathImpl src, int srcPathIndex,
 			boolean bForward) {
+		throwIfFrozen();
 		if (src == this)
 			throw new IllegalArgumentException();
 
@@ -1003,6 +1052,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 
 	public void insertPath(int pathIndex, Point2D[] points, int pointsOffset,
 			int count, boolean bForward) {
+		throwIfFrozen();
 		int oldPathCount = getPathCount();
 		if (pathIndex > oldPathCount)
 			throw new IllegalArgumentException();
@@ -1079,6 +1129,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	public void insertPoints(int pathIndex, int beforePointIndex,
 			MultiPathImpl src, int srcPathIndex, int srcPointIndexFrom,
 			int srcPointCount, boolean bForward) {
+		throwIfFrozen();
 		if (pathIndex < 0)
 			pathIndex = getPathCount();
 
@@ -1187,6 +1238,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	public void insertPoints(int pathIndex, int beforePointIndex,
 			Point2D[] src, int srcPointIndexFrom, int srcPointCount,
 			boolean bForward) {
+		throwIfFrozen();
 		if (pathIndex < 0)
 			pathIndex = getPathCount();
 
@@ -1267,6 +1319,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	}
 
 	public void insertPoint(int pathIndex, int beforePointIndex, Point2D pt) {
+		throwIfFrozen();
 		int pathCount = getPathCount();
 
 		if (pathIndex < 0)
@@ -1316,6 +1369,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	}
 
 	public void insertPoint(int pathIndex, int beforePointIndex, Point pt) {
+		throwIfFrozen();
 		int pathCount = getPathCount();
 
 		if (pathIndex < 0)
@@ -1370,6 +1424,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	}
 
 	public void removePoint(int pathIndex, int pointIndex) {
+		throwIfFrozen();
 		int pathCount = getPathCount();
 
 		if (pathIndex < 0)
@@ -1623,6 +1678,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	void interpolateAttributes_(int semantics, int from_path_index,
 			int from_point_index, int to_path_index, int to_point_index,
 			double sub_length, int ordinate) {
+		throwIfFrozen();
 		SegmentIteratorImpl seg_iter = querySegmentIterator();
 
 		int absolute_from_index = getPathStart(from_path_index)
@@ -1674,6 +1730,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	void interpolateAttributes_(int semantics, int path_index,
 			int from_point_index, int to_point_index, double sub_length,
 			int ordinate) {
+		throwIfFrozen();
 		assert (m_bPolygon);
 		SegmentIteratorImpl seg_iter = querySegmentIterator();
 
@@ -1709,6 +1766,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 
 	@Override
 	public void setEmpty() {
+		throwIfFrozen();
 		m_curveParamwritePoint = 0;
 		m_bPathStarted = false;
 		m_paths = null;
@@ -1725,6 +1783,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	}
 
 	public void applyTransformation(Transformation2D transform, int pathIndex) {
+		throwIfFrozen();
 		if (isEmpty())
 			return;
 
@@ -1792,6 +1851,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 
 	@Override
 	public void applyTransformation(Transformation3D transform) {
+		throwIfFrozen();
 		if (isEmpty())
 			return;
 
@@ -1903,12 +1963,38 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 		dstPoly.m_cachedArea2D = m_cachedArea2D;
 
 		if (!_hasDirtyFlag(DirtyFlags.DirtyRingAreas2D)) {
-			dstPoly.m_cachedRingAreas2D = (AttributeStreamOfDbl) m_cachedRingAreas2D;
+			dstPoly.m_cachedRingAreas2D = new AttributeStreamOfDbl(
+					m_cachedRingAreas2D);
 		} else
 			dstPoly.m_cachedRingAreas2D = null;
 
 	}
 
+	@Override
+	protected void _freezeImpl() {
+		_updateRingAreas2D();
+		if (m_bPolygon)
+			_updateOGCFlags();
+
+		calculateLength2D();
+
+		if (m_paths != null)
+			m_paths = (AttributeStreamOfInt32) _freezeStream(m_paths,
+					m_paths.size());
+		if (m_pathFlags != null)
+			m_pathFlags = (AttributeStreamOfInt8) _freezeStream(m_pathFlags,
+					m_pathFlags.size());
+		if (m_segmentFlags != null)
+			m_segmentFlags = (AttributeStreamOfInt8) _freezeStream(
+					m_segmentFlags, m_segmentFlags.size());
+		if (m_segmentParamIndex != null)
+			m_segmentParamIndex = (AttributeStreamOfInt32) _freezeStream(
+					m_segmentParamIndex, m_segmentParamIndex.size());
+		if (m_segmentParams != null)
+			m_segmentParams = (AttributeStreamOfDbl) _freezeStream(
+					m_segmentParams, m_segmentParams.size());
+	}
+
 	@Override
 	public double calculateLength2D() {
 		if (!_hasDirtyFlag(DirtyFlags.DirtyLength2D)) {
@@ -2308,6 +2394,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	 * sets a reference to an AttributeStream of MultiPathImpl paths (Paths).
 	 */
 	public void setPathStreamRef(AttributeStreamOfInt32 paths) {
+		throwIfFrozen();
 		m_paths = paths;
 		notifyModified(DirtyFlags.DirtyAll);
 	}
@@ -2340,6 +2427,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	 * sets a reference to an AttributeStream of Path flags (PathFlags flags).
 	 */
 	public void setPathFlagsStreamRef(AttributeStreamOfInt8 pathFlags) {
+		throwIfFrozen();
 		m_pathFlags = pathFlags;
 		notifyModified(DirtyFlags.DirtyAll);
 	}
@@ -2392,6 +2480,7 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	}
 
 	public void setRingAreasStreamRef(AttributeStreamOfDbl ringAreas) {
+		throwIfFrozen();
 		m_cachedRingAreas2D = ringAreas;
 		_setDirtyFlag(DirtyFlags.DirtyRingAreas2D, false);
 	}
@@ -2422,25 +2511,24 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	@Override
 	public boolean _buildRasterizedGeometryAccelerator(double toleranceXY,
 			GeometryAccelerationDegree accelDegree) {
-		if (m_accelerators == null)// (!m_accelerators)
-		{
-			m_accelerators = new GeometryAccelerators();
-		}
-
+		GeometryAccelerators accelerators = m_accelerators;
 		int rasterSize = RasterizedGeometry2D
 				.rasterSizeFromAccelerationDegree(accelDegree);
-		RasterizedGeometry2D rgeom = m_accelerators.getRasterizedGeometry();
+		RasterizedGeometry2D rgeom = accelerators != null ? accelerators
+				.getRasterizedGeometry() : null;
 		if (rgeom != null) {
-			if (rgeom.getToleranceXY() < toleranceXY
-					|| rasterSize > rgeom.getRasterSize()) {
-				m_accelerators._setRasterizedGeometry(null);
-			} else
+			if (rgeom.getToleranceXY() >= toleranceXY
+					&& rasterSize <= rgeom.getRasterSize())
 				return true;
 		}
 
 		rgeom = RasterizedGeometry2D.create(this, toleranceXY, rasterSize);
-		m_accelerators._setRasterizedGeometry(rgeom);
 		//rgeom.dbgSaveToBitmap("c:/temp/ddd.bmp");
+		// Publish a new instance, so that the threads reading the frozen
+		// geometry never see partially built accelerators.
+		accelerators = new GeometryAccelerators(accelerators);
+		accelerators._setRasterizedGeometry(rgeom);
+		m_accelerators = accelerators;
 		return true;
 	}
 
@@ -2579,38 +2667,35 @@ final class MultiPathImpl extends MultiVertexGeometryImpl {
 	
 	@Override
 	public boolean _buildQuadTreeAccelerator(GeometryAccelerationDegree d) {
-		if (m_accelerators == null)// (!m_accelerators)
-		{
-			m_accelerators = new GeometryAccelerators();
-		}
-
 		if (d == GeometryAccelerationDegree.enumMild || getPointCount() < 16)
 			return false;
 
 		QuadTreeImpl quad_tree_impl = InternalUtils.buildQuadTree(this);
-		m_accelerators._setQuadTree(quad_tree_impl);
+		GeometryAccelerators accelerators = new GeometryAccelerators(
+				m_accelerators);
+		accelerators._setQuadTree(quad_tree_impl);
+		m_accelerators = accelerators;
 
 		return true;
 	}
 
 	boolean _buildQuadTreeForPathsAccelerator(GeometryAccelerationDegree degree) {
-		if (m_accelerators == null) {
-			m_accelerators = new GeometryAccelerators();
-		}
-
 		// TODO: when less than two envelopes - no need to this.
 
-		if (m_accelerators.getQuadTreeForPaths() != null)
+		GeometryAccelerators accelerators = m_accelerators;
+		if (accelerators != null && accelerators.getQuadTreeForPaths() != null)
 			return true;
 
-		m_accelerators._setQuadTreeForPaths(null);
 		QuadTreeImpl quad_tree_impl = InternalUtils.buildQuadTreeForPaths(this);
-		m_accelerators._setQuadTreeForPaths(quad_tree_impl);
+		accelerators = new GeometryAccelerators(accelerators);
+		accelerators._setQuadTreeForPaths(quad_tree_impl);
+		m_accelerators = accelerators;
 
 		return true;
 	}
 
 	void setFillRule(int rule) {
+		throwIfFrozen();
 		assert (m_bPolygon);
 		m_fill_rule = rule;
 	}
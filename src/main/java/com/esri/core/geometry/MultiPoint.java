@@ -82,6 +82,26 @@ public class MultiPoint extends MultiVertexGeometry implements
 		m_impl.getXY(index, pt);
 	}
 
+	@Override
+	public boolean compactXY(SpatialReference sr) {
+		return m_impl.compactXY(sr);
+	}
+
+	@Override
+	public boolean isCompactXY() {
+		return m_impl.isCompactXY();
+	}
+
+	@Override
+	public void freeze() {
+		m_impl.freeze();
+	}
+
+	@Override
+	public boolean isFrozen() {
+		return m_impl.isFrozen();
+	}
+
 	@Override
 	Point3D getXYZ(int index) {
 		return m_impl.getXYZ(index);
@@ -164,6 +184,23 @@ public class MultiPoint extends MultiVertexGeometry implements
 		m_impl.add((MultiVertexGeometryImpl) src._getImpl(), srcFrom, srcTo);
 	}
 
+	/**
+	 * Adds points with the given X, Y coordinates to this multipoint. The
+	 * result is the same as calling add for each point, but the geometry is
+	 * updated once for the whole batch, which is faster for many points.
+	 * 
+	 * @param xy
+	 *            The interleaved X and Y coordinates of the points.
+	 * @param pointOffset
+	 *            The index of the first point to add (the index in xy is
+	 *            pointOffset * 2).
+	 * @param pointCount
+	 *            The number of points to add.
+	 */
+	public void add(double[] xy, int pointOffset, int pointCount) {
+		m_impl.addPoints(xy, pointOffset, pointCount);
+	}
+
 	void addPoints(Point2D[] points) {
 		m_impl.addPoints(points);
 	}
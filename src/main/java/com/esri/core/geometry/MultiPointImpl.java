@@ -56,6 +56,7 @@ final class MultiPointImpl extends MultiVertexGeometryImpl {
 	 * Adds a Point to this MultiPoint.
 	 */
 	public void add(Point point) {
+		throwIfFrozen();
 		resize(m_pointCount + 1);
 		setPoint(m_pointCount - 1, point);
 	}
@@ -64,6 +65,7 @@ final class MultiPointImpl extends MultiVertexGeometryImpl {
 	 * Adds a Point to this MultiPoint with given x, y coordinates.
 	 */
 	public void add(double x, double y) {
+		throwIfFrozen();
 		resize(m_pointCount + 1);
 		Point2D pt = new Point2D();
 		pt.setCoords(x, y);
@@ -74,6 +76,7 @@ final class MultiPointImpl extends MultiVertexGeometryImpl {
 	 * Adds a Point to this MultiPoint with given x, y, z coordinates.
 	 */
 	public void add(double x, double y, double z) {
+		throwIfFrozen();
 		resize(m_pointCount + 1);
 		Point3D pt = new Point3D();
 		pt.setCoords(x, y, z);
@@ -88,6 +91,7 @@ final class MultiPointImpl extends MultiVertexGeometryImpl {
 	 *            The source MultiVertexGeometryImpl
 	 */
 	public void add(MultiVertexGeometryImpl src, int beginIndex, int endIndex) {
+		throwIfFrozen();
 		int endIndexC = endIndex < 0 ? src.getPointCount() : endIndex;
 		if (beginIndex < 0 || beginIndex > src.getPointCount()
 				|| endIndexC < beginIndex)
@@ -114,14 +118,41 @@ final class MultiPointImpl extends MultiVertexGeometryImpl {
 	}
 
 	public void addPoints(Point2D[] points) {
+		throwIfFrozen();
 		int count = points.length;
+		if (count == 0)
+			return;
+
 		int oldPointCount = m_pointCount;
 		resize(m_pointCount + count);
-		for (int i = 0; i < count; i++)
-			setXY(oldPointCount + i, points[i]);
+		AttributeStreamOfDbl position = (AttributeStreamOfDbl) getAttributeStreamRef(VertexDescription.Semantics.POSITION);
+		position.writeRange(oldPointCount * 2, count, points, 0, true);
+		notifyModified(DirtyFlags.DirtyCoordinates);
+	}
+
+	/**
+	 * Adds the points from the interleaved xy array. Updates the geometry
+	 * once for all points.
+	 */
+	public void addPoints(double[] xy, int pointOffset, int pointCount) {
+		throwIfFrozen();
+		if (pointOffset < 0 || pointCount < 0
+				|| xy.length < (pointOffset + pointCount) * 2)
+			throw new IllegalArgumentException();
+
+		if (pointCount == 0)
+			return;
+
+		int oldPointCount = m_pointCount;
+		resize(m_pointCount + pointCount);
+		AttributeStreamOfDbl position = (AttributeStreamOfDbl) getAttributeStreamRef(VertexDescription.Semantics.POSITION);
+		position.writeRange(oldPointCount * 2, pointCount * 2, xy,
+				pointOffset * 2, true);
+		notifyModified(DirtyFlags.DirtyCoordinates);
 	}
 
 	public void insertPoint(int beforePointIndex, Point pt) {
+		throwIfFrozen();
 		if (beforePointIndex > getPointCount())
 			throw new GeometryException("index out of bounds");
 
@@ -157,6 +188,7 @@ final class MultiPointImpl extends MultiVertexGeometryImpl {
 	}
 
 	void removePoint(int pointIndex) {
+		throwIfFrozen();
 		if (pointIndex < 0 || pointIndex >= getPointCount())
 			throw new GeometryException("index out of bounds");
 
@@ -181,6 +213,7 @@ final class MultiPointImpl extends MultiVertexGeometryImpl {
 	 * Resizes the MultiPoint to have the given size.
 	 */
 	public void resize(int pointCount) {
+		throwIfFrozen();
 		_resizeImpl(pointCount);
 	}
 
@@ -195,6 +228,7 @@ final class MultiPointImpl extends MultiVertexGeometryImpl {
 
 	@Override
 	public void applyTransformation(Transformation2D transform) {
+		throwIfFrozen();
 		if (isEmpty())
 			return;
 
@@ -218,6 +252,7 @@ final class MultiPointImpl extends MultiVertexGeometryImpl {
 
 	@Override
 	void applyTransformation(Transformation3D transform) {
+		throwIfFrozen();
 		if (isEmpty())
 			return;
 
@@ -255,9 +290,14 @@ final class MultiPointImpl extends MultiVertexGeometryImpl {
 
 		if (m_vertexAttributes != null) {
 			for (int i = 0; i < m_vertexAttributes.length; i++) {
-				size += m_vertexAttributes[i].estimateMemorySize();
+				if (m_vertexAttributes[i] != null)
+					size += m_vertexAttributes[i].estimateMemorySize();
 			}
 		}
+
+		if (m_compactXY != null) {
+			size += m_compactXY.estimateMemorySize();
+		}
 		return size;
 	}
 
@@ -293,11 +333,12 @@ final class MultiPointImpl extends MultiVertexGeometryImpl {
 	}
 
 	public void addPoints(Point[] points) {
+		throwIfFrozen();
 		int count = points.length;
-		// int oldPointCount = m_pointCount;
+		int oldPointCount = m_pointCount;
 		resize(m_pointCount + count);
 		for (int i = 0; i < count; i++)
-			setPoint(i, points[i]);
+			setPoint(oldPointCount + i, points[i]);
 	}
 
 	public int queryCoordinates(Point2D[] dst, int dstSize, int beginIndex,
@@ -216,4 +216,48 @@ public abstract class MultiVertexGeometry extends Geometry implements
 	 */
 	public abstract void setPointByVal(int index, Point pointSrc);
 
+	/**
+	 * Switches the Geometry to the compact XY storage. The XY coordinates are
+	 * snapped to the resolution grid of the spatial reference (1/10 of the
+	 * tolerance) and stored as 32 bit integer offsets, using half of the
+	 * memory of the double storage.
+	 * 
+	 * The compact storage is transparent for the reading methods, such as
+	 * getXY and the segment iterators. It is converted back to doubles when
+	 * the Geometry is modified, or when an operation needs direct access to
+	 * the coordinates.
+	 * 
+	 * @param sr
+	 *            The spatial reference that defines the resolution grid.
+	 * @return Returns true if the Geometry uses the compact storage. Returns
+	 *         false and leaves the Geometry unchanged if it is empty, or its
+	 *         extent is too large for 32 bit offsets on the grid.
+	 */
+	public abstract boolean compactXY(SpatialReference sr);
+
+	/**
+	 * Returns true if the XY coordinates are in the compact storage (see
+	 * compactXY).
+	 */
+	public abstract boolean isCompactXY();
+
+	/**
+	 * Makes the Geometry immutable, so that one instance can be shared by many
+	 * threads. The attribute streams are trimmed to the exact size, and the
+	 * envelope, the length and the ring areas are calculated once. Reading
+	 * methods and the accelerators then do not modify the Geometry. Any
+	 * attempt to modify a frozen Geometry throws a GeometryException. Use
+	 * copy() to obtain a modifiable Geometry.
+	 * 
+	 * The frozen Geometry still has to be passed to other threads through a
+	 * safe publication, such as a final or volatile field or a concurrent
+	 * collection.
+	 */
+	public abstract void freeze();
+
+	/**
+	 * Returns true if the Geometry is frozen (see freeze).
+	 */
+	public abstract boolean isFrozen();
+
 }
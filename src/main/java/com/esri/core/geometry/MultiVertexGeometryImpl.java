@@ -128,10 +128,29 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 	}
 
 	protected void _verifyAllStreams() {
+		if (m_compactXY != null)
+			_expandCompactXY();
+
+		if (_hasDirtyFlag(DirtyFlags.DirtyVerifiedStreams))
+			_verifyAllStreamsImpl();
+	}
+
+	/**
+	 * Same as _verifyAllStreams, but leaves compact XY storage in place. The
+	 * caller must not access m_vertexAttributes[0] directly, but read XY
+	 * through getXY or _readAsDbl.
+	 */
+	void _verifyStreamsKeepCompactXY() {
 		if (_hasDirtyFlag(DirtyFlags.DirtyVerifiedStreams))
 			_verifyAllStreamsImpl();
 	}
 
+	protected void throwIfFrozen() {
+		if (m_bFrozen)
+			throw new GeometryException(
+					"invalid call. The Geometry is frozen and cannot be modified.");
+	}
+
 	protected void throwIfEmpty() {
 		if (isEmptyImpl())
 			// TODO fix exceptions
@@ -142,14 +161,17 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 	private static final long serialVersionUID = 1L;
 
 	AttributeStreamBase[] m_vertexAttributes;
+	QuantizedXY m_compactXY; // when not null, holds XY instead of m_vertexAttributes[0]
 	// TODO implement accelerators
-	GeometryAccelerators m_accelerators;
+	volatile GeometryAccelerators m_accelerators;// replaced as a whole, never modified after publication
+	volatile RelationResultCache.Fingerprint m_fingerprint;// the content hash for the relation cache, replaced as a whole
 	Envelope m_envelope; // the BBOX for all attributes
 	protected int m_pointCount;
 	protected int m_reservedPointCount;// the number of vertices reserved and
 										// initialized to default value.
 	protected int m_flagsMask;
 	protected double m_simpleTolerance;
+	boolean m_bFrozen;
 
 	public MultiVertexGeometryImpl() {
 		m_flagsMask = DirtyFlags.DirtyAllInternal;
@@ -164,7 +186,7 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 			// TODO
 			throw new GeometryException("index out of bounds");
 
-		_verifyAllStreams();
+		_verifyStreamsKeepCompactXY();
 
 		Point outPoint = dst;
 		outPoint.assignVertexDescription(m_description);
@@ -177,8 +199,7 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 			// VertexDescription.getComponentCount(semantics);
 			for (int icomp = 0, ncomp = VertexDescription
 					.getComponentCount(semantics); icomp < ncomp; icomp++) {
-				double v = m_vertexAttributes[attributeIndex].readAsDbl(ncomp
-						* index + icomp);
+				double v = _readAsDbl(attributeIndex, ncomp * index + icomp);
 				outPoint.setAttribute(semantics, icomp, v);
 			}
 		}
@@ -186,6 +207,7 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 
 	@Override
 	public void setPointByVal(int index, Point src) {
+		throwIfFrozen();
 		if (index < 0 || index >= m_pointCount)
 			throw new GeometryException("index out of bounds");
 
@@ -221,6 +243,11 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 		if (index < 0 || index >= getPointCount())
 			throw new IndexOutOfBoundsException();
 
+		if (m_compactXY != null) {
+			m_compactXY.read(index, pt);
+			return;
+		}
+
 		_verifyAllStreams();
 		// AttributeStreamOfDbl v = (AttributeStreamOfDbl)
 		// m_vertexAttributes[0];
@@ -231,6 +258,7 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 	// Checked vs. Jan 11, 2011
 	@Override
 	public void setXY(int index, Point2D pt) {
+		throwIfFrozen();
 		if (index < 0 || index >= m_pointCount)
 			// TODO exception
 			throw new IndexOutOfBoundsException();
@@ -245,6 +273,7 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 
 	// Checked vs. Jan 11, 2011
 	public void setXY(int index, double x, double y) {
+		throwIfFrozen();
 		if (index < 0 || index >= m_pointCount)
 			// TODO exc
 			throw new IndexOutOfBoundsException();
@@ -265,11 +294,10 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 		if (index < 0 || index >= getPointCount())
 			throw new IndexOutOfBoundsException();
 
-		_verifyAllStreams();
-		AttributeStreamOfDbl v = (AttributeStreamOfDbl) m_vertexAttributes[0];
+		_verifyStreamsKeepCompactXY();
 		Point3D pt = new Point3D();
-		pt.x = v.read(index * 2);
-		pt.y = v.read(index * 2 + 1);
+		pt.x = _readAsDbl(0, index * 2);
+		pt.y = _readAsDbl(0, index * 2 + 1);
 
 		// TODO check excluded if statement componenet
 		if (hasAttribute(Semantics.Z))// && (m_vertexAttributes[1] != null))
@@ -283,6 +311,7 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 	// Checked vs. Jan 11, 2011
 	@Override
 	public void setXYZ(int index, Point3D pt) {
+		throwIfFrozen();
 		if (index < 0 || index >= getPointCount())
 			throw new IndexOutOfBoundsException();
 
@@ -306,14 +335,13 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 		if (ordinate >= ncomps)
 			throw new IndexOutOfBoundsException();
 
-		_verifyAllStreams();
+		_verifyStreamsKeepCompactXY();
 		int attributeIndex = m_description.getAttributeIndex(semantics);
 		// TODO check if statement
 		if (attributeIndex >= 0)// && m_vertexAttributes[attributeIndex] !=
 								// null) {
 		{
-			return m_vertexAttributes[attributeIndex].readAsDbl(offset * ncomps
-					+ ordinate);
+			return _readAsDbl(attributeIndex, offset * ncomps + ordinate);
 		}
 		return VertexDescription.getDefaultValue(semantics);
 	}
@@ -328,6 +356,7 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 	@Override
 	public void setAttribute(int semantics, int offset, int ordinate,
 			double value) {
+		throwIfFrozen();
 		if (offset < 0 || offset >= m_pointCount)
 			throw new IndexOutOfBoundsException();
 
@@ -385,6 +414,7 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 
 		// Do not check for the stream size here to allow several streams to be
 		// attached before the point count is changed.
+		throwIfFrozen();
 		addAttribute(semantics);
 		int attributeIndex = m_description.getAttributeIndex(semantics);
 		if (m_vertexAttributes == null)
@@ -397,6 +427,7 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 
 	@Override
 	protected void _assignVertexDescriptionImpl(VertexDescription newDescription) {
+		throwIfFrozen();
 		AttributeStreamBase[] newAttributes = null;
 		
 		if (m_vertexAttributes != null) {
@@ -513,6 +544,12 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 			for (int i = 0, n = m_description.getAttributeCount(); i < n; i++) {
 				int components = VertexDescription
 						.getComponentCount(m_description._getSemanticsImpl(i));
+				if (i == 0 && m_compactXY != null) {
+					hashCode = m_compactXY.calculateHashImpl(hashCode, 0,
+							pointCount * components);
+					continue;
+				}
+
 				AttributeStreamBase stream = m_vertexAttributes[i];
 				hashCode = stream.calculateHashImpl(hashCode, 0, pointCount
 						* components);
@@ -571,6 +608,7 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 	 * that of the Geometry.
 	 */
 	public void setEnvelope(Envelope env) {
+		throwIfFrozen();
 		if (!m_description.equals(env.getDescription()))
 			throw new IllegalArgumentException();
 
@@ -591,7 +629,8 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 	
 	//Does not check geometry type. Used to copy Polygon to Polyline
 	void _copyToUnsafe(MultiVertexGeometryImpl dst) {
-		_verifyAllStreams();
+		dst.throwIfFrozen();
+		_verifyStreamsKeepCompactXY();
 		dst.m_description = m_description;
 		dst.m_vertexAttributes = null;
 		int nattrib = m_description.getAttributeCount();
@@ -619,6 +658,8 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 		dst.m_pointCount = m_pointCount;
 		dst.m_flagsMask = m_flagsMask;
 		dst.m_vertexAttributes = cloneAttributes;
+		dst.m_compactXY = m_compactXY;// immutable, can be shared
+		dst.m_fingerprint = null;
 
 		try {
 			_copyToImpl(dst); // copy child props
@@ -642,9 +683,11 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 
 	// Checked vs. Jan 11, 2011
 	void _setEmptyImpl() {
+		throwIfFrozen();
 		m_pointCount = 0;
 		m_reservedPointCount = -1;
 		m_vertexAttributes = null;// release it all streams.
+		m_compactXY = null;
 		notifyModified(DirtyFlags.DirtyAll);
 	}
 
@@ -654,6 +697,7 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 	 * reset cached structures.
 	 */
 	public void notifyModified(int flags) {
+		throwIfFrozen();
 		if (flags == DirtyFlags.DirtyAll) {
 			m_reservedPointCount = -1;// forget the reserved point number
 			_notifyModifiedAllImpl();
@@ -661,9 +705,16 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 		m_flagsMask |= flags;
 
 		_clearAccelerators();
+		m_fingerprint = null;
 		_touch();
 	}
 
+	@Override
+	void _touch() {
+		throwIfFrozen();
+		super._touch();
+	}
+
 	// Checked vs. Jan 11, 2011
 	/**
 	 * @param bExact
@@ -671,7 +722,7 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 	 *            for the loose one.
 	 */
 	protected void _updateAllDirtyIntervals(boolean bExact) {
-		_verifyAllStreams();
+		_verifyStreamsKeepCompactXY();
 		if (_hasDirtyFlag(DirtyFlags.DirtyIntervals)) {
 			if (null == m_envelope)
 				m_envelope = new Envelope(m_description);
@@ -719,6 +770,13 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 	 */
 	public void _updateXYImpl(boolean bExact) {
 		m_envelope.setEmpty();
+		if (m_compactXY != null) {
+			Envelope2D env = new Envelope2D();
+			m_compactXY.queryEnvelope2D(env);
+			m_envelope.merge(env);
+			return;
+		}
+
 		AttributeStreamOfDbl stream = (AttributeStreamOfDbl) m_vertexAttributes[0];
 		Point2D pt = new Point2D();
 		for (int i = 0; i < m_pointCount; i++) {
@@ -729,6 +787,11 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 
 	void calculateEnvelope2D(Envelope2D env, boolean bExact) {
 		env.setEmpty();
+		if (m_compactXY != null) {
+			m_compactXY.queryEnvelope2D(env);
+			return;
+		}
+
 		AttributeStreamOfDbl stream = (AttributeStreamOfDbl) m_vertexAttributes[0];
 		Point2D pt = new Point2D();
 		for (int i = 0; i < m_pointCount; i++) {
@@ -756,7 +819,7 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 						.getAttributeCount()];
 
 			m_reservedPointCount = NumberUtils.intMax();
-			for (int attributeIndex = 0; attributeIndex < m_description
+			for (int attributeIndex = m_compactXY != null ? 1 : 0; attributeIndex < m_description
 					.getAttributeCount(); attributeIndex++) {
 				int semantics = m_description._getSemanticsImpl(attributeIndex);
 				if (m_vertexAttributes[attributeIndex] != null) {
@@ -788,12 +851,16 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 
 	// Checked vs. Jan 11, 2011
 	void _resizeImpl(int pointCount) {
+		throwIfFrozen();
 		if (pointCount < 0)
 			throw new IllegalArgumentException();
 
 		if (pointCount == m_pointCount)
 			return;
 
+		if (m_compactXY != null)
+			_expandCompactXY();
+
 		m_pointCount = pointCount;
 		notifyModified(DirtyFlags.DirtyAllInternal);
 	}
@@ -881,6 +948,9 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 	}
 
 	void setIsSimple(int isSimpleRes, double tolerance, boolean ogc_known) {
+		if (m_bFrozen)
+			return;// the flags of a frozen geometry are not changed, as other threads may read them
+
 		m_simpleTolerance = tolerance;
 		if (isSimpleRes == GeometryXSimple.Unknown) {
 			_setDirtyFlag(DirtyFlags.DirtyIsKnownSimple, true);
@@ -909,6 +979,126 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 		return m_simpleTolerance;
 	}
 
+	/**
+	 * Replaces the XY stream with 32 bit integer offsets on a grid of the
+	 * given cell size. The coordinates are snapped to the grid. Returns false
+	 * and leaves the geometry unchanged when the coordinates cannot be
+	 * represented with 32 bit offsets.
+	 */
+	boolean _compactXY(double gridSize) {
+		if (m_compactXY != null && m_compactXY.getGridSize() == gridSize)
+			return true;
+
+		throwIfFrozen();
+		if (isEmptyImpl())
+			return false;
+
+		_verifyAllStreams();
+		Envelope2D env = new Envelope2D();
+		calculateEnvelope2D(env, true);
+		QuantizedXY compact = QuantizedXY.create(
+				(AttributeStreamOfDbl) m_vertexAttributes[0], m_pointCount,
+				env, gridSize);
+		if (compact == null)
+			return false;
+
+		m_vertexAttributes[0] = null;
+		m_compactXY = compact;
+		notifyModified(DirtyFlags.DirtyCoordinates);
+		return true;
+	}
+
+	@Override
+	public boolean compactXY(SpatialReference sr) {
+		if (sr == null)
+			throw new IllegalArgumentException();
+
+		// The default resolution of a spatial reference is 1/10 of the
+		// tolerance.
+		return _compactXY(sr.getTolerance() * 0.1);
+	}
+
+	@Override
+	public boolean isCompactXY() {
+		return m_compactXY != null;
+	}
+
+	@Override
+	public void freeze() {
+		if (m_bFrozen)
+			return;
+
+		_verifyAllStreams();
+		_updateAllDirtyIntervals(true);
+		_freezeImpl();
+
+		if (m_vertexAttributes != null) {
+			for (int i = 0, n = m_description.getAttributeCount(); i < n; i++) {
+				int ncomps = VertexDescription.getComponentCount(m_description
+						._getSemanticsImpl(i));
+				m_vertexAttributes[i] = _freezeStream(m_vertexAttributes[i],
+						m_pointCount * ncomps);
+			}
+		}
+
+		m_reservedPointCount = m_pointCount;
+		getStateFlag();// clears the pending bit, so reading the state flag does not write
+		m_bFrozen = true;
+	}
+
+	@Override
+	public boolean isFrozen() {
+		return m_bFrozen;
+	}
+
+	/**
+	 * Computes the values that are otherwise calculated lazily, before the
+	 * geometry is frozen.
+	 */
+	protected void _freezeImpl() {
+	}
+
+	/**
+	 * Returns a read only copy of the stream with the exact size.
+	 */
+	static AttributeStreamBase _freezeStream(AttributeStreamBase stream,
+			int size) {
+		if (stream == null)
+			return null;
+
+		AttributeStreamBase frozen = stream.restrictedClone(size);
+		frozen.setReadonly();
+		return frozen;
+	}
+
+	/**
+	 * Converts compact XY storage back into the double stream.
+	 */
+	void _expandCompactXY() {
+		if (m_compactXY == null)
+			return;
+
+		if (m_vertexAttributes == null)
+			m_vertexAttributes = new AttributeStreamBase[m_description
+					.getAttributeCount()];
+
+		m_vertexAttributes[0] = m_compactXY.toDoubleStream();
+		m_compactXY = null;
+		m_reservedPointCount = -1;// the stream has to be verified again
+		_setDirtyFlag(DirtyFlags.DirtyVerifiedStreams, true);
+	}
+
+	/**
+	 * Reads the value from the attribute stream, or from compact XY storage
+	 * for the attribute 0.
+	 */
+	double _readAsDbl(int attributeIndex, int offset) {
+		if (attributeIndex == 0 && m_compactXY != null)
+			return m_compactXY.readAsDbl(offset);
+
+		return m_vertexAttributes[attributeIndex].readAsDbl(offset);
+	}
+
 	public GeometryAccelerators _getAccelerators() {
 		return m_accelerators;
 	}
@@ -928,7 +1118,7 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 		// _ASSERT(!IsEmpty());
 		// _ASSERT(m_vertexAttributes != NULLPTR);
 
-		_verifyAllStreams();
+		_verifyStreamsKeepCompactXY();
 
 		outPoint.assignVertexDescription(m_description);
 		for (int attributeIndex = 0; attributeIndex < m_description
@@ -936,10 +1126,8 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 			int semantics = m_description._getSemanticsImpl(attributeIndex);
 			for (int icomp = 0, ncomp = VertexDescription
 					.getComponentCount(semantics); icomp < ncomp; icomp++) {
-				double v1 = m_vertexAttributes[attributeIndex].readAsDbl(ncomp
-						* vertex1 + icomp);
-				double v2 = m_vertexAttributes[attributeIndex].readAsDbl(ncomp
-						* vertex2 + icomp);
+				double v1 = _readAsDbl(attributeIndex, ncomp * vertex1 + icomp);
+				double v2 = _readAsDbl(attributeIndex, ncomp * vertex2 + icomp);
 				outPoint.setAttribute(semantics, icomp, MathUtils.lerp(v1,  v2,  f));
 			}
 		}
@@ -957,7 +1145,7 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 		if (index < 0 || index >= m_pointCount)
 			throw new IndexOutOfBoundsException();
 
-		_verifyAllStreams();
+		_verifyStreamsKeepCompactXY();
 
 		Point outPoint = new Point();
 		outPoint.assignVertexDescription(m_description);
@@ -967,8 +1155,7 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 			int semantics = m_description.getSemantics(attributeIndex);
 			for (int icomp = 0, ncomp = VertexDescription
 					.getComponentCount(semantics); icomp < ncomp; icomp++) {
-				double v = m_vertexAttributes[attributeIndex].readAsDbl(ncomp
-						* index + icomp);
+				double v = _readAsDbl(attributeIndex, ncomp * index + icomp);
 				outPoint.setAttribute(semantics, icomp, v);
 			}
 		}
@@ -977,6 +1164,7 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 
 	@Override
 	public void setPoint(int index, Point src) {
+		throwIfFrozen();
 		if (index < 0 || index >= m_pointCount)
 			throw new IndexOutOfBoundsException();
 
@@ -1037,6 +1225,7 @@ abstract class MultiVertexGeometryImpl extends MultiVertexGeometry {
 	
     @Override
     public void replaceNaNs(int semantics, double value) {
+    	throwIfFrozen();
     	addAttribute(semantics);
     	if (isEmpty())
     		return;
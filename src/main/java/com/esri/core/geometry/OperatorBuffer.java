@@ -82,7 +82,20 @@ public abstract class OperatorBuffer extends Operator {
     *snapped to a point.
     */
     public abstract GeometryCursor execute(GeometryCursor input_geometries, SpatialReference sr, double[] distances, double max_deviation, int max_vertices_in_full_circle, boolean b_union, ProgressTracker progress_tracker);
-	
+
+    /**
+    *Creates a buffer around the input geometries, buffering several geometries at a time on a pool of threads.
+    *
+    *The parameters are the same as above, plus:
+    *@param threadCount The number of threads to use. 1 buffers on the calling thread. 0 uses the number of available processors.
+    *
+    *The input geometries are read from the cursor in chunks, and each chunk is buffered in parallel. When b_union is false, the buffers are returned
+    *in the order of the input geometries, and getGeometryID of the result cursor returns the ID of the input geometry.
+    *When b_union is true, the buffers of each chunk are grouped by location and the groups are unioned in parallel, then the partial unions are
+    *merged incrementally, so only one chunk of buffers is held in memory at a time.
+    */
+    public abstract GeometryCursor execute(GeometryCursor input_geometries, SpatialReference sr, double[] distances, double max_deviation, int max_vertices_in_full_circle, boolean b_union, int threadCount, ProgressTracker progress_tracker);
+
 	public static OperatorBuffer local() {
 		return (OperatorBuffer) OperatorFactoryLocal.getInstance().getOperator(
 				Type.Buffer);
@@ -36,12 +36,42 @@ class OperatorBufferCursor extends GeometryCursor {
 	private int m_index;
 	private int m_dindex;
 
+	// The parallel mode reads the input in chunks of this many geometries
+	// per thread.
+	private static final int c_chunk_size_per_thread = 32;
+
+	private int m_thread_count;
+	private boolean m_b_union;
+	private ThreadLocal<Bufferer> m_thread_bufferers;
+	private Geometry[] m_chunk_geoms;
+	private double[] m_chunk_distances;
+	private int[] m_chunk_ids;
+	private int m_chunk_count;
+	private int m_chunk_pos;
+
 	OperatorBufferCursor(GeometryCursor inputGeoms, SpatialReference sr,
 			double[] distances,
 			double max_deviation,
 			int max_vertices,
 			boolean b_union,
 			ProgressTracker progress_tracker) {
+		this(inputGeoms, sr, distances, max_deviation, max_vertices, b_union,
+				1, progress_tracker);
+	}
+
+	/**
+	 * With thread_count larger than 1, the input geometries are buffered in
+	 * chunks on several threads, each with its own Bufferer. With b_union,
+	 * the cursor returns partial unions of nearby buffers of each chunk
+	 * instead of the buffers.
+	 */
+	OperatorBufferCursor(GeometryCursor inputGeoms, SpatialReference sr,
+			double[] distances,
+			double max_deviation,
+			int max_vertices,
+			boolean b_union,
+			int thread_count,
+			ProgressTracker progress_tracker) {
 		m_index = -1;
 		m_inputGeoms = inputGeoms;
 		m_max_deviation = max_deviation;
@@ -52,10 +82,35 @@ class OperatorBufferCursor extends GeometryCursor {
 		m_currentUnionEnvelope2D.setEmpty();
 		m_dindex = -1;
 		m_progress_tracker = progress_tracker;
+		m_thread_count = thread_count;
+		m_b_union = b_union && thread_count > 1;
+		if (thread_count > 1) {
+			m_thread_bufferers = new ThreadLocal<Bufferer>() {
+				@Override
+				protected Bufferer initialValue() {
+					return new Bufferer();
+				}
+			};
+			int capacity = thread_count * c_chunk_size_per_thread;
+			m_chunk_geoms = new Geometry[capacity];
+			m_chunk_distances = new double[capacity];
+			m_chunk_ids = new int[capacity];
+		}
 	}
 
 	@Override
 	public Geometry next() {
+		if (m_thread_count > 1) {
+			if (m_chunk_pos == m_chunk_count && !bufferChunk_())
+				return null;
+
+			Geometry geom = m_chunk_geoms[m_chunk_pos];
+			m_chunk_geoms[m_chunk_pos] = null;
+			m_index = m_chunk_ids[m_chunk_pos];
+			m_chunk_pos++;
+			return geom;
+		}
+
 		{
 			Geometry geom;
 			while ((geom = m_inputGeoms.next()) != null) {
@@ -79,4 +134,101 @@ class OperatorBufferCursor extends GeometryCursor {
 		return m_bufferer.buffer(geom, distance, m_Spatial_reference,
 				m_max_deviation, m_max_vertices_in_full_circle, m_progress_tracker);
 	}
+
+	/**
+	 * Reads the next chunk of the input geometries and buffers it in
+	 * parallel. Returns false when the input is exhausted.
+	 */
+	private boolean bufferChunk_() {
+		int count = 0;
+		Geometry geom;
+		while (count < m_chunk_geoms.length
+				&& (geom = m_inputGeoms.next()) != null) {
+			m_chunk_ids[count] = m_inputGeoms.getGeometryID();
+			if (m_dindex + 1 < m_distances.length)
+				m_dindex++;
+
+			m_chunk_distances[count] = m_distances[m_dindex];
+			m_chunk_geoms[count] = geom;
+			count++;
+		}
+
+		if (count == 0)
+			return false;
+
+		ParallelTasks.execute(count, m_thread_count, new ParallelTasks.Task() {
+			@Override
+			public void run(int index) {
+				m_chunk_geoms[index] = m_thread_bufferers.get().buffer(
+						m_chunk_geoms[index], m_chunk_distances[index],
+						m_Spatial_reference, m_max_deviation,
+						m_max_vertices_in_full_circle, m_progress_tracker);
+			}
+		});
+
+		if (m_b_union)
+			count = unionChunk_(count);
+
+		m_chunk_count = count;
+		m_chunk_pos = 0;
+		return true;
+	}
+
+	/**
+	 * Orders the buffers of the chunk by the location of their envelope
+	 * centers, and unions the runs of nearby buffers in parallel. The partial
+	 * unions replace the buffers at the start of the chunk. Returns the number
+	 * of the partial unions.
+	 */
+	private int unionChunk_(int count) {
+		int[] order = new int[count];
+		double[] centers = new double[count * 2];
+		Envelope2D extent = new Envelope2D();
+		extent.setEmpty();
+		Envelope2D env = new Envelope2D();
+		for (int i = 0; i < count; i++) {
+			order[i] = i;
+			m_chunk_geoms[i].queryEnvelope2D(env);
+			if (env.isEmpty())
+				continue;// sorts as the lower left corner
+
+			Point2D center = env.getCenter();
+			centers[i * 2] = center.x;
+			centers[i * 2 + 1] = center.y;
+			extent.merge(center);
+		}
+
+		if (extent.isEmpty())
+			extent.setCoords(0, 0, 0, 0);
+
+		for (int i = 0; i < count; i++) {
+			centers[i * 2] = Math.max(centers[i * 2], extent.xmin);
+			centers[i * 2 + 1] = Math.max(centers[i * 2 + 1], extent.ymin);
+		}
+
+		final int[] sorted = PolygonUtils.sortForLocality_(order, count,
+				centers, extent);
+		final int groupCount = Math.min(m_thread_count, count);
+		final Geometry[] unions = new Geometry[groupCount];
+		ParallelTasks.execute(groupCount, m_thread_count,
+				new ParallelTasks.Task() {
+					@Override
+					public void run(int index) {
+						int start = (int) ((long) index * sorted.length / groupCount);
+						int end = (int) ((long) (index + 1) * sorted.length / groupCount);
+						Geometry[] group = new Geometry[end - start];
+						for (int i = start; i < end; i++)
+							group[i - start] = m_chunk_geoms[sorted[i]];
+
+						unions[index] = OperatorUnion.local().execute(
+								new SimpleGeometryCursor(group),
+								m_Spatial_reference, m_progress_tracker).next();
+					}
+				});
+
+		for (int i = 0; i < count; i++)
+			m_chunk_geoms[i] = i < groupCount ? unions[i] : null;
+
+		return groupCount;
+	}
 }
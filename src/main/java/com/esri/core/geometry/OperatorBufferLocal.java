@@ -52,15 +52,33 @@ class OperatorBufferLocal extends OperatorBuffer {
 			SpatialReference sr, double[] distances, double max_deviation,
 			int max_vertices_in_full_circle, boolean b_union,
 			ProgressTracker progressTracker) {
+		return execute(inputGeometries, sr, distances, max_deviation,
+				max_vertices_in_full_circle, b_union, 1, progressTracker);
+	}
+
+	@Override
+	public GeometryCursor execute(GeometryCursor inputGeometries,
+			SpatialReference sr, double[] distances, double max_deviation,
+			int max_vertices_in_full_circle, boolean b_union, int threadCount,
+			ProgressTracker progressTracker) {
+		if (threadCount < 0)
+			throw new IllegalArgumentException();
+
+		if (threadCount == 0)
+			threadCount = ParallelTasks.getDefaultThreadCount();
+
 		if (b_union) {
+			// With several threads, the cursor returns partial unions of
+			// nearby buffers.
 			OperatorBufferCursor cursor = new OperatorBufferCursor(
 					inputGeometries, sr, distances, max_deviation,
-					max_vertices_in_full_circle, false, progressTracker);
+					max_vertices_in_full_circle, threadCount > 1, threadCount,
+					progressTracker);
 			return OperatorUnion.local().execute(cursor, sr, progressTracker);// (int)Operator_union::Options::enum_disable_edge_dissolver
 		} else {
 			return new OperatorBufferCursor(inputGeometries, sr, distances,
 					max_deviation, max_vertices_in_full_circle, false,
-					progressTracker);
+					threadCount, progressTracker);
 		}
 	}
 }
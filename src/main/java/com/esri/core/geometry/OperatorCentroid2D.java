@@ -23,6 +23,8 @@
  */
 package com.esri.core.geometry;
 
+import java.nio.ByteBuffer;
+
 public abstract class OperatorCentroid2D extends Operator {
 	@Override
 	public Type getType() {
@@ -31,6 +33,44 @@ public abstract class OperatorCentroid2D extends Operator {
 
 	public abstract Point2D execute(Geometry geometry, ProgressTracker progressTracker);
 
+	/**
+	 * Calculates the area, length and centroid of each geometry in the cursor
+	 * into the given arrays. The value for the i-th geometry read from the
+	 * cursor is stored at index i. Polygons and polylines are measured in one
+	 * pass over their coordinates.
+	 * 
+	 * @param geoms
+	 *            The input geometries.
+	 * @param areas
+	 *            Receives the areas, as calculateArea2D. Can be null.
+	 * @param lengths
+	 *            Receives the lengths, as calculateLength2D. Can be null.
+	 * @param centroidX
+	 *            Receives the x coordinates of the centroids, NaN for empty
+	 *            geometries. Can be null.
+	 * @param centroidY
+	 *            Receives the y coordinates of the centroids, NaN for empty
+	 *            geometries. Can be null.
+	 * @param threadCount
+	 *            The number of threads to use. 1 calculates on the calling
+	 *            thread. 0 uses the number of available processors.
+	 * @return The number of geometries read from the cursor. At most as many
+	 *         geometries are read as fit in the shortest of the arrays, so a
+	 *         cursor over more geometries can be measured in several calls.
+	 */
+	public abstract int execute(GeometryCursor geoms, double[] areas,
+			double[] lengths, double[] centroidX, double[] centroidY,
+			int threadCount, ProgressTracker progressTracker);
+
+	/**
+	 * Calculates the area, length and centroid of each geometry given in the
+	 * WKB format. The value for wkbBuffers[i] is stored at index i of the
+	 * arrays. The parameters are the same as above.
+	 */
+	public abstract void execute(ByteBuffer[] wkbBuffers, double[] areas,
+			double[] lengths, double[] centroidX, double[] centroidY,
+			int threadCount, ProgressTracker progressTracker);
+
 	public static OperatorCentroid2D local() {
 		return (OperatorCentroid2D) OperatorFactoryLocal.getInstance().getOperator(Type.Centroid2D);
 	}
@@ -23,6 +23,8 @@
  */
 package com.esri.core.geometry;
 
+import java.nio.ByteBuffer;
+
 public class OperatorCentroid2DLocal extends OperatorCentroid2D {
 	@Override
 	public Point2D execute(Geometry geometry, ProgressTracker progressTracker) {
@@ -49,6 +51,254 @@ public class OperatorCentroid2DLocal extends OperatorCentroid2D {
 		}
 	}
 
+	@Override
+	public int execute(GeometryCursor geoms, final double[] areas,
+			final double[] lengths, final double[] centroidX,
+			final double[] centroidY, int threadCount,
+			ProgressTracker progressTracker) {
+		if (geoms == null || threadCount < 0)
+			throw new IllegalArgumentException();
+
+		if (threadCount == 0)
+			threadCount = ParallelTasks.getDefaultThreadCount();
+
+		int capacity = Integer.MAX_VALUE;
+		capacity = Math.min(capacity, areas != null ? areas.length : capacity);
+		capacity = Math.min(capacity, lengths != null ? lengths.length : capacity);
+		capacity = Math.min(capacity, centroidX != null ? centroidX.length : capacity);
+		capacity = Math.min(capacity, centroidY != null ? centroidY.length : capacity);
+
+		int count = 0;
+		Geometry geometry;
+		if (threadCount == 1) {
+			Measures measures = new Measures();
+			while (count < capacity && (geometry = geoms.next()) != null) {
+				measures.measure(geometry);
+				measures.store(count, areas, lengths, centroidX, centroidY);
+				count++;
+			}
+
+			return count;
+		}
+
+		// Geometries are read in chunks, and each chunk is measured in
+		// parallel.
+		final Geometry[] chunk = new Geometry[Math.min(capacity, threadCount
+				* c_chunk_size_per_thread)];
+		boolean b_done = false;
+		while (!b_done && count < capacity) {
+			int chunk_count = 0;
+			while (chunk_count < chunk.length && count + chunk_count < capacity) {
+				geometry = geoms.next();
+				if (geometry == null) {
+					b_done = true;
+					break;
+				}
+
+				chunk[chunk_count++] = geometry;
+			}
+
+			final int offset = count;
+			final int n = chunk_count;
+			ParallelTasks.execute((n + c_geometries_per_task - 1)
+					/ c_geometries_per_task, threadCount,
+					new ParallelTasks.Task() {
+						@Override
+						public void run(int index) {
+							Measures measures = new Measures();
+							int end = Math.min(n, (index + 1)
+									* c_geometries_per_task);
+							for (int i = index * c_geometries_per_task; i < end; i++) {
+								measures.measure(chunk[i]);
+								chunk[i] = null;
+								measures.store(offset + i, areas, lengths,
+										centroidX, centroidY);
+							}
+						}
+					});
+
+			count += chunk_count;
+		}
+
+		return count;
+	}
+
+	@Override
+	public void execute(final ByteBuffer[] wkbBuffers, final double[] areas,
+			final double[] lengths, final double[] centroidX,
+			final double[] centroidY, int threadCount,
+			ProgressTracker progressTracker) {
+		if (wkbBuffers == null || threadCount < 0)
+			throw new IllegalArgumentException();
+
+		final int count = wkbBuffers.length;
+		if ((areas != null && areas.length < count)
+				|| (lengths != null && lengths.length < count)
+				|| (centroidX != null && centroidX.length < count)
+				|| (centroidY != null && centroidY.length < count))
+			throw new IllegalArgumentException();
+
+		if (threadCount == 0)
+			threadCount = ParallelTasks.getDefaultThreadCount();
+
+		final OperatorImportFromWkb importer = OperatorImportFromWkb.local();
+		ParallelTasks.execute((count + c_geometries_per_task - 1)
+				/ c_geometries_per_task, threadCount, new ParallelTasks.Task() {
+			@Override
+			public void run(int index) {
+				Measures measures = new Measures();
+				int end = Math.min(count, (index + 1) * c_geometries_per_task);
+				for (int i = index * c_geometries_per_task; i < end; i++) {
+					Geometry geometry = importer.execute(
+							WkbImportFlags.wkbImportDefaults,
+							Geometry.Type.Unknown, wkbBuffers[i], null);
+					measures.measure(geometry);
+					measures.store(i, areas, lengths, centroidX, centroidY);
+				}
+			}
+		});
+	}
+
+	private static final int c_chunk_size_per_thread = 1024;
+	private static final int c_geometries_per_task = 64;
+
+	// The area, length and centroid of a geometry. Polygons and polylines
+	// without curves are measured in one pass over the position stream,
+	// with the same formulas as the centroid methods below.
+	private static final class Measures {
+		double m_area;
+		double m_length;
+		double m_centroid_x;
+		double m_centroid_y;
+		private MathUtils.KahanSummator m_x_sum = new MathUtils.KahanSummator(0);
+		private MathUtils.KahanSummator m_y_sum = new MathUtils.KahanSummator(0);
+
+		void measure(Geometry geometry) {
+			if (geometry.isEmpty()) {
+				m_area = 0;
+				m_length = 0;
+				m_centroid_x = NumberUtils.NaN();
+				m_centroid_y = NumberUtils.NaN();
+				return;
+			}
+
+			int type = geometry.getType().value();
+			if (type == Geometry.GeometryType.Polygon
+					|| type == Geometry.GeometryType.Polyline) {
+				MultiPathImpl impl = (MultiPathImpl) geometry._getImpl();
+				if (!impl.hasNonLinearSegments()) {
+					measureMultiPath_(impl);
+					return;
+				}
+			}
+
+			m_area = geometry.calculateArea2D();
+			m_length = geometry.calculateLength2D();
+			Point2D centroid = OperatorCentroid2D.local().execute(geometry,
+					null);
+			m_centroid_x = centroid.x;
+			m_centroid_y = centroid.y;
+		}
+
+		void store(int index, double[] areas, double[] lengths,
+				double[] centroidX, double[] centroidY) {
+			if (areas != null)
+				areas[index] = m_area;
+			if (lengths != null)
+				lengths[index] = m_length;
+			if (centroidX != null)
+				centroidX[index] = m_centroid_x;
+			if (centroidY != null)
+				centroidY[index] = m_centroid_y;
+		}
+
+		private void measureMultiPath_(MultiPathImpl impl) {
+			// Reads XY without expanding compact XY storage.
+			impl._verifyStreamsKeepCompactXY();
+			boolean b_polygon = impl.m_bPolygon;
+			int point_count = impl.getPointCount();
+			double origin_x = impl._readAsDbl(0, 0);
+			double origin_y = impl._readAsDbl(0, 1);
+
+			// Sums relative to the origin: twice the area and the area
+			// weighted centroids of the ring triangles, the length weighted
+			// segment midpoints, and the vertices.
+			double twice_area = 0;
+			double length = 0;
+			double line_x = 0;
+			double line_y = 0;
+			double point_x = 0;
+			double point_y = 0;
+			m_x_sum.reset();
+			m_y_sum.reset();
+			for (int ipath = 0, npaths = impl.getPathCount(); ipath < npaths; ipath++) {
+				int start = impl.getPathStart(ipath);
+				int end = impl.getPathEnd(ipath);
+				double start_x = impl._readAsDbl(0, 2 * start) - origin_x;
+				double start_y = impl._readAsDbl(0, 2 * start + 1) - origin_y;
+				double prev_x = start_x;
+				double prev_y = start_y;
+				double ring_twice_area = 0;
+				point_x += start_x;
+				point_y += start_y;
+				for (int i = start + 1; i < end; i++) {
+					double x = impl._readAsDbl(0, 2 * i) - origin_x;
+					double y = impl._readAsDbl(0, 2 * i + 1) - origin_y;
+					double dx = x - prev_x;
+					double dy = y - prev_y;
+					double segment_length = Math.sqrt(dx * dx + dy * dy);
+					length += segment_length;
+					line_x += (prev_x + x) * 0.5 * segment_length;
+					line_y += (prev_y + y) * 0.5 * segment_length;
+					point_x += x;
+					point_y += y;
+					if (b_polygon && i > start + 1) {
+						double cur_x = prev_x - start_x;
+						double cur_y = prev_y - start_y;
+						double next_x = x - start_x;
+						double next_y = y - start_y;
+						double twice_triangle_area = next_x * cur_y - cur_x
+								* next_y;
+						ring_twice_area += twice_triangle_area;
+						m_x_sum.add((cur_x + next_x) * twice_triangle_area);
+						m_y_sum.add((cur_y + next_y) * twice_triangle_area);
+					}
+
+					prev_x = x;
+					prev_y = y;
+				}
+
+				if (impl.isClosedPath(ipath)) {
+					double dx = start_x - prev_x;
+					double dy = start_y - prev_y;
+					double segment_length = Math.sqrt(dx * dx + dy * dy);
+					length += segment_length;
+					line_x += (prev_x + start_x) * 0.5 * segment_length;
+					line_y += (prev_y + start_y) * 0.5 * segment_length;
+				}
+
+				if (b_polygon) {
+					twice_area += ring_twice_area;
+					m_x_sum.add(start_x * 3.0 * ring_twice_area);
+					m_y_sum.add(start_y * 3.0 * ring_twice_area);
+				}
+			}
+
+			m_area = twice_area * 0.5;
+			m_length = length;
+			if (twice_area != 0) {
+				m_centroid_x = origin_x + m_x_sum.getResult() / (3.0 * twice_area);
+				m_centroid_y = origin_y + m_y_sum.getResult() / (3.0 * twice_area);
+			} else if (length != 0) {
+				m_centroid_x = origin_x + line_x / length;
+				m_centroid_y = origin_y + line_y / length;
+			} else {
+				m_centroid_x = origin_x + point_x / point_count;
+				m_centroid_y = origin_y + point_y / point_count;
+			}
+		}
+	}
+
 	private static Point2D computeLineCentroid(Line line) {
 		return new Point2D((line.getEndX() - line.getStartX()) / 2, (line.getEndY() - line.getStartY()) / 2);
 	}
@@ -47,6 +47,27 @@ public abstract class OperatorClip extends Operator {
 	public abstract Geometry execute(Geometry geom, Envelope2D envelope,
 			SpatialReference spatialRef, ProgressTracker progressTracker);
 
+	/**
+	 * Clips a single geometry to each tile of a regular grid in one call.
+	 * 
+	 * The tile in column c and row r has the extent [originX + c *
+	 * tileWidth, originX + (c + 1) * tileWidth] by [originY + r *
+	 * tileHeight, originY + (r + 1) * tileHeight]. The geometry is split
+	 * recursively along the grid, so each part of it is only clipped to the
+	 * tiles near it. Each fragment covers the same part of the geometry as
+	 * calling execute for that tile, but it can have extra vertices on the
+	 * tile boundary, where the geometry was cut by the larger ranges.
+	 * 
+	 * @return An array of columnCount * rowCount geometries. The geometry
+	 *         clipped to the tile in column c and row r is at index r *
+	 *         columnCount + c. The tiles that the geometry does not reach
+	 *         get an empty geometry.
+	 */
+	public abstract Geometry[] execute(Geometry geom, double originX,
+			double originY, double tileWidth, double tileHeight,
+			int columnCount, int rowCount, SpatialReference spatialRef,
+			ProgressTracker progressTracker);
+
 	public static OperatorClip local() {
 		return (OperatorClip) OperatorFactoryLocal.getInstance().getOperator(
 				Type.Clip);
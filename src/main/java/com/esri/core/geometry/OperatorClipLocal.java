@@ -43,4 +43,25 @@ class OperatorClipLocal extends OperatorClip {
 		return outputCursor.next();
 	}
 
+	@Override
+	public Geometry[] execute(Geometry geom, double originX, double originY,
+			double tileWidth, double tileHeight, int columnCount,
+			int rowCount, SpatialReference spatialRef,
+			ProgressTracker progressTracker) {
+		if (geom == null || columnCount < 0 || rowCount < 0
+				|| !(tileWidth > 0) || !(tileHeight > 0))
+			throw new IllegalArgumentException();
+
+		if ((long) columnCount * rowCount > Integer.MAX_VALUE)
+			throw new IllegalArgumentException();
+
+		Geometry[] result = new Geometry[columnCount * rowCount];
+		if (result.length == 0)
+			return result;
+
+		Clipper.clipToTiles(geom, originX, originY, tileWidth, tileHeight,
+				columnCount, rowCount, spatialRef, progressTracker, result);
+		return result;
+	}
+
 }
@@ -45,6 +45,19 @@ public abstract class OperatorConvexHull extends Operator {
   abstract public GeometryCursor execute(GeometryCursor geoms, boolean b_merge,
           ProgressTracker progress_tracker);
 
+  /** 
+   * Calculates the convex hull, computing the hulls of large geometries on a pool of threads.
+   * 
+   * The parameters are the same as above, plus:
+   * @param threadCount The number of threads to use. 1 computes on the calling thread. 0 uses the number of available processors.
+   * 
+   * With b_merge, the merged hull keeps only the vertices of the current hull, so the memory use does not grow with the number of input
+   * geometries. Large multipoints and multipaths are split into parts, the hulls of the parts are computed in parallel, and only their
+   * vertices are merged into the result.
+   */
+  abstract public GeometryCursor execute(GeometryCursor geoms, boolean b_merge,
+          int threadCount, ProgressTracker progress_tracker);
+
   /** 
    * Calculates the convex hull geometry.
    * @param geom The input geometry.
@@ -29,15 +29,25 @@ class OperatorConvexHullCursor extends GeometryCursor {
 	private boolean m_b_done;
 	private GeometryCursor m_inputGeometryCursor;
 	private int m_index;
-	ConvexHull m_hull = new ConvexHull();
+	ConvexHull m_hull;
 
 	OperatorConvexHullCursor(boolean b_merge, GeometryCursor geoms, ProgressTracker progress_tracker) {
+		this(b_merge, geoms, 1, progress_tracker);
+	}
+
+	/**
+	 * With b_merge, the hull keeps only its own vertices, and large
+	 * multipoints and multipaths are reduced to the hulls of their parts on
+	 * thread_count threads before they are merged into it.
+	 */
+	OperatorConvexHullCursor(boolean b_merge, GeometryCursor geoms, int thread_count, ProgressTracker progress_tracker) {
 		m_index = -1;
 		if (geoms == null)
 			throw new IllegalArgumentException();
 
 		m_b_merge = b_merge;
 		m_b_done = false;
+		m_hull = new ConvexHull(thread_count);
 		m_inputGeometryCursor = geoms;
 		m_progress_tracker = progress_tracker;
 	}
@@ -27,7 +27,20 @@ class OperatorConvexHullLocal extends OperatorConvexHull {
 	@Override
 	public GeometryCursor execute(GeometryCursor geoms, boolean b_merge,
 			ProgressTracker progress_tracker) {
-		return new OperatorConvexHullCursor(b_merge, geoms, progress_tracker);
+		return execute(geoms, b_merge, 1, progress_tracker);
+	}
+
+	@Override
+	public GeometryCursor execute(GeometryCursor geoms, boolean b_merge,
+			int threadCount, ProgressTracker progress_tracker) {
+		if (threadCount < 0)
+			throw new IllegalArgumentException();
+
+		if (threadCount == 0)
+			threadCount = ParallelTasks.getDefaultThreadCount();
+
+		return new OperatorConvexHullCursor(b_merge, geoms, threadCount,
+				progress_tracker);
 	}
 
 	@Override
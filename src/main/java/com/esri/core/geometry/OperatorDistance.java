@@ -42,6 +42,40 @@ public abstract class OperatorDistance extends Operator {
 	public abstract double execute(Geometry geom1, Geometry geom2,
 			ProgressTracker progressTracker);
 
+	/**
+	 * Calculates distance between two geometries, and the points of the
+	 * geometries that are at that distance from each other.
+	 * 
+	 * For large multipaths and multipoints, the segments and points of one
+	 * geometry are found with a nearest-first search in the QuadTree of the
+	 * other. The QuadTree accelerator is used when the geometry has one (see
+	 * Operator.accelerateGeometry), otherwise a QuadTree is built for the
+	 * call.
+	 * 
+	 * @param geom1
+	 *            The first geometry.
+	 * @param geom2
+	 *            The second geometry.
+	 * @param maxDistance
+	 *            The calculation stops as soon as the distance is known to be
+	 *            larger than maxDistance, and returns
+	 *            Double.POSITIVE_INFINITY. Pass Double.POSITIVE_INFINITY to
+	 *            always calculate the distance.
+	 * @param closestPoint1
+	 *            Receives the point of geom1 that is closest to geom2. Can be
+	 *            null. Not changed when the distance is NaN or larger than
+	 *            maxDistance.
+	 * @param closestPoint2
+	 *            Receives the point of geom2 that is closest to geom1. Can be
+	 *            null.
+	 * @return The distance, NaN when a geometry is empty, or
+	 *         Double.POSITIVE_INFINITY when the distance is larger than
+	 *         maxDistance.
+	 */
+	public abstract double execute(Geometry geom1, Geometry geom2,
+			double maxDistance, Point2D closestPoint1, Point2D closestPoint2,
+			ProgressTracker progressTracker);
+
 	public static OperatorDistance local() {
 		return (OperatorDistance) OperatorFactoryLocal.getInstance()
 				.getOperator(Type.Distance);
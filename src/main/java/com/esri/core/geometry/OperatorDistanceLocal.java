@@ -34,6 +34,24 @@ class OperatorDistanceLocal extends OperatorDistance {
 	@Override
 	public double execute(Geometry geom1, Geometry geom2,
 			ProgressTracker progressTracker) {
+		return execute(geom1, geom2, Double.POSITIVE_INFINITY, null, null,
+				progressTracker);
+	}
+
+	@Override
+	public double execute(Geometry geom1, Geometry geom2, double maxDistance,
+			Point2D closestPoint1, Point2D closestPoint2,
+			ProgressTracker progressTracker) {
+		return execute_(geom1, geom2, maxDistance, 0, closestPoint1,
+				closestPoint2, progressTracker);
+	}
+
+	// The calculation stops at the first pair of segments or points that
+	// are not farther than stopDistance from each other, and returns their
+	// distance.
+	double execute_(Geometry geom1, Geometry geom2, double maxDistance,
+			double stopDistance, Point2D closestPoint1, Point2D closestPoint2,
+			ProgressTracker progressTracker) {
 		if (null == geom1 || null == geom2) {
 			throw new IllegalArgumentException();
 		}
@@ -56,12 +74,19 @@ class OperatorDistanceLocal extends OperatorDistance {
 		Geometry.Type gtB = geometryB.getType();
 		if (gtA == Geometry.Type.Point) {
 			if (gtB == Geometry.Type.Point) {
-				return Point2D.distance(((Point)geometryA).getXY(), ((Point)geometryB).getXY());
+				Point2D ptA = ((Point) geometryA).getXY();
+				Point2D ptB = ((Point) geometryB).getXY();
+				return setResult_(Point2D.distance(ptA, ptB), maxDistance, ptA,
+						ptB, closestPoint1, closestPoint2);
 			}
 			else if (gtB == Geometry.Type.Envelope) {
 				Envelope2D envB = new Envelope2D();
 				geometryB.queryEnvelope2D(envB);
-				return envB.distance(((Point)geometryA).getXY());
+				Point2D ptA = ((Point) geometryA).getXY();
+				Point2D ptB = new Point2D(clamp_(ptA.x, envB.xmin, envB.xmax),
+						clamp_(ptA.y, envB.ymin, envB.ymax));
+				return setResult_(envB.distance(ptA), maxDistance, ptA, ptB,
+						closestPoint1, closestPoint2);
 			}
 			
 			multiPointA = new MultiPoint();
@@ -73,7 +98,14 @@ class OperatorDistanceLocal extends OperatorDistance {
 				geometryA.queryEnvelope2D(envA);
 				Envelope2D envB = new Envelope2D();
 				geometryB.queryEnvelope2D(envB);
-				return envB.distance(envA);
+				Point2D ptA = new Point2D();
+				Point2D ptB = new Point2D();
+				closestCoordinates_(envA.xmin, envA.xmax, envB.xmin, envB.xmax,
+						ptA, ptB, true);
+				closestCoordinates_(envA.ymin, envA.ymax, envB.ymin, envB.ymax,
+						ptA, ptB, false);
+				return setResult_(envB.distance(envA), maxDistance, ptA, ptB,
+						closestPoint1, closestPoint2);
 			}
 			polygonA = new Polygon();
 			polygonA.addEnvelope((Envelope) geometryA, false);
@@ -93,18 +125,139 @@ class OperatorDistanceLocal extends OperatorDistance {
 		}
 
 		DistanceCalculator distanceCalculator = new DistanceCalculator(
-				progressTracker);
+				progressTracker, maxDistance, stopDistance,
+				closestPoint1 != null || closestPoint2 != null);
 		double distance = distanceCalculator.calculate(geometryA, geometryB);
+		return setResult_(distance, maxDistance,
+				distanceCalculator.m_closestPointA,
+				distanceCalculator.m_closestPointB, closestPoint1,
+				closestPoint2);
+	}
+
+	private static double setResult_(double distance, double maxDistance,
+			Point2D ptA, Point2D ptB, Point2D closestPoint1,
+			Point2D closestPoint2) {
+		if (NumberUtils.isNaN(distance))
+			return distance;
+
+		if (distance > maxDistance)
+			return Double.POSITIVE_INFINITY;
+
+		if (closestPoint1 != null)
+			closestPoint1.setCoords(ptA);
+		if (closestPoint2 != null)
+			closestPoint2.setCoords(ptB);
 		return distance;
 	}
 
+	private static double clamp_(double v, double vmin, double vmax) {
+		return v < vmin ? vmin : (v > vmax ? vmax : v);
+	}
+
+	// Sets the x or the y of the closest points of two intervals.
+	private static void closestCoordinates_(double minA, double maxA,
+			double minB, double maxB, Point2D ptA, Point2D ptB, boolean bX) {
+		double a, b;
+		if (maxA < minB) {
+			a = maxA;
+			b = minB;
+		} else if (maxB < minA) {
+			a = minA;
+			b = maxB;
+		} else {
+			a = b = Math.max(minA, minB);
+		}
+
+		if (bX) {
+			ptA.x = a;
+			ptB.x = b;
+		} else {
+			ptA.y = a;
+			ptB.y = b;
+		}
+	}
+
+	// Calculates the distance from a query segment or point to the segments or
+	// the points of the geometry that is stored in the quad tree.
+	static final class ElementDistanceFunction implements
+			QuadTreeImpl.QuadTreeNearestIteratorImpl.DistanceFunction {
+		private SegmentIteratorImpl m_segIter;
+		private MultiPointImpl m_multiPointImpl;
+		private Segment m_querySegment;
+		private Point2D m_queryPoint;
+		private Point2D m_pt;
+		private boolean m_bDisjoint;
+
+		ElementDistanceFunction(MultiVertexGeometryImpl treeGeometryImpl,
+				boolean bDisjoint) {
+			if (treeGeometryImpl instanceof MultiPathImpl)
+				m_segIter = ((MultiPathImpl) treeGeometryImpl)
+						.querySegmentIterator();
+			else
+				m_multiPointImpl = (MultiPointImpl) treeGeometryImpl;
+
+			m_queryPoint = new Point2D();
+			m_pt = new Point2D();
+			m_bDisjoint = bDisjoint;
+		}
+
+		void setQuerySegment(Segment segment) {
+			m_querySegment = segment;
+		}
+
+		void setQueryPoint(Point2D pt) {
+			m_querySegment = null;
+			m_queryPoint.setCoords(pt);
+		}
+
+		// Returns the segment of the tree geometry. Valid until the next call.
+		Segment getSegment(int element) {
+			m_segIter.resetToVertex(element);
+			return m_segIter.nextSegment();
+		}
+
+		@Override
+		public double getDistance(int element) {
+			if (m_segIter != null) {
+				Segment segment = getSegment(element);
+				if (m_querySegment != null)
+					return m_querySegment.distance(segment, m_bDisjoint);
+
+				double t = segment.getClosestCoordinate(m_queryPoint, false);
+				segment.getCoord2D(t, m_pt);
+				return Point2D.distance(m_pt, m_queryPoint);
+			}
+
+			m_multiPointImpl.getXY(element, m_pt);
+			if (m_querySegment != null) {
+				double t = m_querySegment.getClosestCoordinate(m_pt, false);
+				m_pt.sub(m_querySegment.getCoord2D(t));
+				return m_pt.length();
+			}
+
+			return Point2D.distance(m_pt, m_queryPoint);
+		}
+	}
+
+	// The brute force is used for the geometries with fewer segments or
+	// points, unless one of them has the quad tree accelerator.
+	private static final int c_min_quad_tree_query_count = 16;
+	private static final int c_min_quad_tree_pair_count = 1 << 16;
+
 	// Implementation of distance algorithm.
 	class DistanceCalculator {
 		private ProgressTracker m_progressTracker;
 		private Envelope2D m_env2DgeometryA;
 		private Envelope2D m_env2DgeometryB;
+		private double m_maxSqrDistance;
+		private double m_stopSqrDistance;
+		private boolean m_bNeedClosestPoints;
+		private boolean m_bSwapped;
+		Point2D m_closestPointA;
+		Point2D m_closestPointB;
 
 		private void swapEnvelopes_() {
+			m_bSwapped = !m_bSwapped;
 			double temp;
 			// swap xmin
 			temp = m_env2DgeometryA.xmin;
@@ -124,6 +277,80 @@ class OperatorDistanceLocal extends OperatorDistance {
 			m_env2DgeometryB.ymax = temp;
 		}
 
+		// Records the closest points of the geometries passed to the brute
+		// force functions. The envelopes are swapped together with the
+		// geometries, so m_bSwapped tells which one is the geometryA.
+		private void setClosestPoints_(Point2D ptA, Point2D ptB) {
+			if (m_bSwapped) {
+				m_closestPointA.setCoords(ptB);
+				m_closestPointB.setCoords(ptA);
+			} else {
+				m_closestPointA.setCoords(ptA);
+				m_closestPointB.setCoords(ptB);
+			}
+		}
+
+		// Records the closest points of two segments. Called only when the
+		// distance between the segments is the new minimum.
+		private void setClosestPoints_(Segment segmentA, Segment segmentB,
+				double distance) {
+			if (!m_bNeedClosestPoints)
+				return;
+
+			if (distance == 0.0) {
+				// The segments can touch within the rounding error of the
+				// intersection test, so the intersection is calculated with
+				// the tolerance of the segment coordinates.
+				Envelope2D env2D = new Envelope2D();
+				segmentA.queryEnvelope2D(env2D);
+				env2D.merge(segmentB.getStartXY());
+				env2D.merge(segmentB.getEndXY());
+				double tolerance = InternalUtils.calculateToleranceFromGeometry(
+						null, env2D, false);
+				Point2D[] intersectionPoints = new Point2D[2];
+				if (segmentA._intersect(segmentB, intersectionPoints, null,
+						null, tolerance) > 0) {
+					setClosestPoints_(intersectionPoints[0],
+							intersectionPoints[0]);
+					return;
+				}
+			}
+
+			// The same endpoint projections as in Segment.distance
+			Point2D ptA = new Point2D();
+			Point2D ptB = new Point2D();
+			double minSqrDistance = NumberUtils.doubleMax();
+			for (int i = 0; i < 4; i++) {
+				Segment from = i < 2 ? segmentA : segmentB;
+				Segment to = i < 2 ? segmentB : segmentA;
+				Point2D inputPoint = (i & 1) == 0 ? from.getStartXY() : from
+						.getEndXY();
+				Point2D closest = to.getCoord2D(to.getClosestCoordinate(
+						inputPoint, false));
+				double sqrDistance = Point2D.sqrDistance(inputPoint, closest);
+				if (sqrDistance < minSqrDistance) {
+					minSqrDistance = sqrDistance;
+					if (i < 2) {
+						ptA.setCoords(inputPoint);
+						ptB.setCoords(closest);
+					} else {
+						ptA.setCoords(closest);
+						ptB.setCoords(inputPoint);
+					}
+				}
+			}
+
+			setClosestPoints_(ptA, ptB);
+		}
+
+		private double result_(double minSqrDistance) {
+			// Nothing was found within the max distance
+			if (minSqrDistance == m_maxSqrDistance)
+				return Double.POSITIVE_INFINITY;
+
+			return Math.sqrt(minSqrDistance);
+		}
+
 		private double executeBruteForce_(/* const */Geometry geometryA, /* const */
 		Geometry geometryB) {
 			if ((m_progressTracker != null)
@@ -132,6 +359,11 @@ class OperatorDistanceLocal extends OperatorDistance {
 
 			boolean geometriesAreDisjoint = !m_env2DgeometryA
 					.isIntersecting(m_env2DgeometryB);
+			if (useQuadTree_((MultiVertexGeometry) geometryA,
+					(MultiVertexGeometry) geometryB))
+				return executeQuadTree_((MultiVertexGeometry) geometryA,
+						(MultiVertexGeometry) geometryB, geometriesAreDisjoint);
+
 			if (Geometry.isMultiPath(geometryA.getType().value())
 					&& Geometry.isMultiPath(geometryB.getType().value())) { // MultiPath
 																			// vs.
@@ -240,7 +472,7 @@ class OperatorDistanceLocal extends OperatorDistance {
 			Envelope2D env2DSegmentA = new Envelope2D();
 			Envelope2D env2DSegmentB = new Envelope2D();
 
-			double minSqrDistance = NumberUtils.doubleMax();
+			double minSqrDistance = m_maxSqrDistance;
 
 			if (!geometriesAreDisjoint) {
 				// Geometries might be non-disjoint. Check if they intersect
@@ -272,8 +504,10 @@ class OperatorDistanceLocal extends OperatorDistance {
 										segmentB, geometriesAreDisjoint);
 								sqrDistance *= sqrDistance;
 								if (sqrDistance < minSqrDistance) {
-									if (sqrDistance == 0.0)
-										return 0.0;
+									setClosestPoints_(segmentA, segmentB,
+											sqrDistance);
+									if (sqrDistance <= m_stopSqrDistance)
+										return Math.sqrt(sqrDistance);
 
 									minSqrDistance = sqrDistance;
 								}
@@ -284,7 +518,7 @@ class OperatorDistanceLocal extends OperatorDistance {
 				}
 			}
 
-			return Math.sqrt(minSqrDistance);
+			return result_(minSqrDistance);
 		}
 
 		private double bruteForceMultiPathMultiPoint_(
@@ -294,9 +528,10 @@ class OperatorDistanceLocal extends OperatorDistance {
 
 			Envelope2D env2DSegmentA = new Envelope2D();
 
-			double minSqrDistance = NumberUtils.doubleMax();
+			double minSqrDistance = m_maxSqrDistance;
 
 			Point2D inputPoint = new Point2D();
+			Point2D closestPoint = new Point2D();
 			double t = -1;
 			double sqrDistance = minSqrDistance;
 			/* const */MultiPointImpl multiPointImplB = (MultiPointImpl) geometryB
@@ -323,16 +558,19 @@ class OperatorDistanceLocal extends OperatorDistance {
 							// place of a more general intersection test at the
 							// beginning of the operator
 							if (PolygonUtils.isPointInPolygon2D(
-									(Polygon) geometryA, inputPoint, 0) != PolygonUtils.PiPResult.PiPOutside)
+									(Polygon) geometryA, inputPoint, 0) != PolygonUtils.PiPResult.PiPOutside) {
+								setClosestPoints_(inputPoint, inputPoint);
 								return 0.0;
+							}
 						}
 
 						t = segmentA.getClosestCoordinate(inputPoint, false);
-						inputPoint.sub(segmentA.getCoord2D(t));
-						sqrDistance = inputPoint.sqrLength();
+						segmentA.getCoord2D(t, closestPoint);
+						sqrDistance = Point2D.sqrDistance(inputPoint, closestPoint);
 						if (sqrDistance < minSqrDistance) {
-							if (sqrDistance == 0.0)
-								return 0.0;
+							setClosestPoints_(closestPoint, inputPoint);
+							if (sqrDistance <= m_stopSqrDistance)
+								return Math.sqrt(sqrDistance);
 
 							minSqrDistance = sqrDistance;
 						}
@@ -343,13 +581,13 @@ class OperatorDistanceLocal extends OperatorDistance {
 					bDoPiPTest = false;
 				}
 			}
-			return Math.sqrt(minSqrDistance);
+			return result_(minSqrDistance);
 		}
 
 		private double bruteForceMultiPointMultiPoint_(
 		/* const */MultiPoint geometryA, /* const */
 		MultiPoint geometryB, boolean geometriesAreDisjoint) {
-			double minSqrDistance = NumberUtils.doubleMax();
+			double minSqrDistance = m_maxSqrDistance;
 
 			Point2D pointA = new Point2D();
 			Point2D pointB = new Point2D();
@@ -372,17 +610,238 @@ class OperatorDistanceLocal extends OperatorDistance {
 					multiPointImplB.getXY(j, pointB);
 					sqrDistance = Point2D.sqrDistance(pointA, pointB);
 					if (sqrDistance < minSqrDistance) {
-						if (sqrDistance == 0.0)
-							return 0.0;
+						setClosestPoints_(pointA, pointB);
+						if (sqrDistance <= m_stopSqrDistance)
+							return Math.sqrt(sqrDistance);
 
 						minSqrDistance = sqrDistance;
 					}
 				}
 			}
 
+			return result_(minSqrDistance);
+		}
+
+		private QuadTreeImpl getQuadTree_(MultiVertexGeometry geometry) {
+			if (!Geometry.isMultiPath(geometry.getType().value()))
+				return null;
+
+			GeometryAccelerators accel = ((MultiVertexGeometryImpl) geometry
+					._getImpl())._getAccelerators();
+			return accel != null ? accel.getQuadTree() : null;
+		}
+
+		// The number of segments of a multipath, or the number of points of
+		// a multipoint.
+		private int getElementCount_(MultiVertexGeometry geometry) {
+			if (Geometry.isMultiPath(geometry.getType().value()))
+				return ((MultiPathImpl) geometry._getImpl()).getSegmentCount();
+
+			return geometry.getPointCount();
+		}
+
+		private boolean useQuadTree_(MultiVertexGeometry geometryA,
+				MultiVertexGeometry geometryB) {
+			int countA = getElementCount_(geometryA);
+			int countB = getElementCount_(geometryB);
+			if (getQuadTree_(geometryA) != null
+					|| getQuadTree_(geometryB) != null)
+				return Math.min(countA, countB) > 0;
+
+			// Building the quad tree costs more than a few brute force passes
+			// over the larger geometry.
+			return Math.min(countA, countB) >= c_min_quad_tree_query_count
+					&& (long) countA * countB >= c_min_quad_tree_pair_count;
+		}
+
+		// Finds the distance with a nearest first search in the quad tree of
+		// one geometry for each segment or point of the other geometry. Uses
+		// the quad tree accelerator when there is one, otherwise builds the
+		// quad tree for the larger geometry.
+		private double executeQuadTree_(MultiVertexGeometry geometryA,
+				MultiVertexGeometry geometryB, boolean geometriesAreDisjoint) {
+			QuadTreeImpl quadTreeA = getQuadTree_(geometryA);
+			QuadTreeImpl quadTreeB = getQuadTree_(geometryB);
+			boolean bTreeA;
+			if (quadTreeA != null && quadTreeB != null)
+				bTreeA = getElementCount_(geometryA) > getElementCount_(geometryB);
+			else if (quadTreeA != null || quadTreeB != null)
+				bTreeA = quadTreeA != null;
+			else
+				bTreeA = getElementCount_(geometryA) > getElementCount_(geometryB);
+
+			if (bTreeA) {
+				swapEnvelopes_();
+				double answer = quadTreeQuery_(geometryB, geometryA, quadTreeA,
+						geometriesAreDisjoint);
+				swapEnvelopes_();
+				return answer;
+			}
+
+			return quadTreeQuery_(geometryA, geometryB, quadTreeB,
+					geometriesAreDisjoint);
+		}
+
+		private double quadTreeQuery_(MultiVertexGeometry queryGeometry,
+				MultiVertexGeometry treeGeometry, QuadTreeImpl quadTree,
+				boolean geometriesAreDisjoint) {
+			boolean bQueryMultiPath = Geometry.isMultiPath(queryGeometry
+					.getType().value());
+			boolean bTreeMultiPath = Geometry.isMultiPath(treeGeometry
+					.getType().value());
+			MultiVertexGeometryImpl queryImpl = (MultiVertexGeometryImpl) queryGeometry
+					._getImpl();
+			MultiVertexGeometryImpl treeImpl = (MultiVertexGeometryImpl) treeGeometry
+					._getImpl();
+
+			if (!geometriesAreDisjoint) {
+				// Geometries might be non-disjoint. Check if they intersect
+				// using point-in-polygon tests
+				if (bQueryMultiPath && bTreeMultiPath) {
+					if (weakIntersectionTest_(queryGeometry, treeGeometry,
+							((MultiPath) queryGeometry).querySegmentIterator(),
+							((MultiPath) treeGeometry).querySegmentIterator()))
+						return 0.0;
+				} else if (queryGeometry.getType() == Geometry.Type.Polygon) {
+					if (pointInPolygonTest_((Polygon) queryGeometry,
+							(MultiPointImpl) treeImpl, false))
+						return 0.0;
+				} else if (treeGeometry.getType() == Geometry.Type.Polygon) {
+					if (pointInPolygonTest_((Polygon) treeGeometry,
+							(MultiPointImpl) queryImpl, true))
+						return 0.0;
+				}
+			}
+
+			if (quadTree == null) {
+				quadTree = bTreeMultiPath ? InternalUtils
+						.buildQuadTree((MultiPathImpl) treeImpl) : InternalUtils
+						.buildQuadTree((MultiPointImpl) treeImpl);
+			}
+
+			QuadTreeImpl.QuadTreeNearestIteratorImpl iterator = quadTree
+					.getNearestIterator();
+			ElementDistanceFunction distanceFunction = new ElementDistanceFunction(
+					treeImpl, geometriesAreDisjoint);
+			Envelope2D env2DQuery = new Envelope2D();
+			Point2D queryPoint = new Point2D();
+			double minSqrDistance = m_maxSqrDistance;
+			int bestQuery = -1;
+			int bestElement = -1;
+
+			if (bQueryMultiPath) {
+				SegmentIteratorImpl segIter = ((MultiPathImpl) queryImpl)
+						.querySegmentIterator();
+				while (segIter.nextPath()
+						&& minSqrDistance > m_stopSqrDistance) {
+					while (segIter.hasNextSegment()) {
+						Segment segment = segIter.nextSegment();
+						segment.queryEnvelope2D(env2DQuery);
+						if (env2DQuery.sqrDistance(m_env2DgeometryB) > minSqrDistance)
+							continue;
+
+						distanceFunction.setQuerySegment(segment);
+						iterator.resetIterator(env2DQuery,
+								Math.sqrt(minSqrDistance), distanceFunction);
+						int element = iterator.next();
+						if (element == -1)
+							continue;
+
+						double distance = iterator.getDistance();
+						double sqrDistance = distance * distance;
+						if (sqrDistance < minSqrDistance) {
+							minSqrDistance = sqrDistance;
+							bestQuery = segIter.getStartPointIndex();
+							bestElement = quadTree.getElement(element);
+							if (sqrDistance <= m_stopSqrDistance)
+								break;
+						}
+					}
+				}
+			} else {
+				MultiPointImpl multiPointImpl = (MultiPointImpl) queryImpl;
+				int pointCount = multiPointImpl.getPointCount();
+				for (int i = 0; i < pointCount
+						&& minSqrDistance > m_stopSqrDistance; i++) {
+					multiPointImpl.getXY(i, queryPoint);
+					if (m_env2DgeometryB.sqrDistance(queryPoint) > minSqrDistance)
+						continue;
+
+					env2DQuery.setCoords(queryPoint);
+					distanceFunction.setQueryPoint(queryPoint);
+					iterator.resetIterator(env2DQuery, Math.sqrt(minSqrDistance),
+							distanceFunction);
+					int element = iterator.next();
+					if (element == -1)
+						continue;
+
+					double distance = iterator.getDistance();
+					double sqrDistance = distance * distance;
+					if (sqrDistance < minSqrDistance) {
+						minSqrDistance = sqrDistance;
+						bestQuery = i;
+						bestElement = quadTree.getElement(element);
+					}
+				}
+			}
+
+			if (bestQuery == -1)
+				return Double.POSITIVE_INFINITY;
+
+			if (m_bNeedClosestPoints) {
+				Segment querySegment = null;
+				if (bQueryMultiPath) {
+					SegmentIteratorImpl segIter = ((MultiPathImpl) queryImpl)
+							.querySegmentIterator();
+					segIter.resetToVertex(bestQuery);
+					querySegment = segIter.nextSegment();
+				} else
+					((MultiPointImpl) queryImpl).getXY(bestQuery, queryPoint);
+
+				Segment treeSegment = null;
+				Point2D treePoint = new Point2D();
+				if (bTreeMultiPath)
+					treeSegment = distanceFunction.getSegment(bestElement);
+				else
+					((MultiPointImpl) treeImpl).getXY(bestElement, treePoint);
+
+				if (querySegment != null && treeSegment != null)
+					setClosestPoints_(querySegment, treeSegment, minSqrDistance);
+				else if (querySegment != null)
+					setClosestPoints_(querySegment.getCoord2D(querySegment
+							.getClosestCoordinate(treePoint, false)), treePoint);
+				else if (treeSegment != null)
+					setClosestPoints_(queryPoint, treeSegment
+							.getCoord2D(treeSegment.getClosestCoordinate(
+									queryPoint, false)));
+				else
+					setClosestPoints_(queryPoint, treePoint);
+			}
+
 			return Math.sqrt(minSqrDistance);
 		}
 
+		// Tests the points of the multipoint for containment in the polygon.
+		private boolean pointInPolygonTest_(Polygon polygon,
+				MultiPointImpl multiPointImpl, boolean bPolygonIsTree) {
+			Envelope2D env2DPolygon = bPolygonIsTree ? m_env2DgeometryB
+					: m_env2DgeometryA;
+			Point2D pt = new Point2D();
+			int pointCount = multiPointImpl.getPointCount();
+			for (int i = 0; i < pointCount; i++) {
+				multiPointImpl.getXY(i, pt);
+				if (!env2DPolygon.contains(pt))
+					continue;
+
+				if (PolygonUtils.isPointInPolygon2D(polygon, pt, 0) != PolygonUtils.PiPResult.PiPOutside) {
+					setClosestPoints_(pt, pt);
+					return true;
+				}
+			}
+
+			return false;
+		}
+
 		// resets Iterators if they are used.
 		private boolean weakIntersectionTest_(/* const */Geometry geometryA, /* const */
 		Geometry geometryB, SegmentIterator segIterA, SegmentIterator segIterB) {
@@ -391,9 +850,12 @@ class OperatorDistanceLocal extends OperatorDistance {
 				while (segIterB.nextPath()) {
 					if (segIterB.hasNextSegment()) {
 						/* const */Segment segmentB = segIterB.nextSegment();
+						Point2D pt = segmentB.getEndXY();
 						if (PolygonUtils.isPointInPolygon2D(
-								(Polygon) geometryA, segmentB.getEndXY(), 0) != PolygonUtils.PiPResult.PiPOutside)
+								(Polygon) geometryA, pt, 0) != PolygonUtils.PiPResult.PiPOutside) {
+							setClosestPoints_(pt, pt);
 							return true;
+						}
 					}
 				}
 				segIterB.resetToFirstPath();
@@ -404,9 +866,12 @@ class OperatorDistanceLocal extends OperatorDistance {
 				while (segIterA.nextPath()) {
 					if (segIterA.hasNextSegment()) {
 						/* const */Segment segmentA = segIterA.nextSegment();
+						Point2D pt = segmentA.getEndXY();
 						if (PolygonUtils.isPointInPolygon2D(
-								(Polygon) geometryB, segmentA.getEndXY(), 0) != PolygonUtils.PiPResult.PiPOutside)
+								(Polygon) geometryB, pt, 0) != PolygonUtils.PiPResult.PiPOutside) {
+							setClosestPoints_(pt, pt);
 							return true;
+						}
 					}
 				}
 				segIterA.resetToFirstPath();
@@ -414,8 +879,17 @@ class OperatorDistanceLocal extends OperatorDistance {
 			return false;
 		}
 
-		DistanceCalculator(ProgressTracker progressTracker) {
+		DistanceCalculator(ProgressTracker progressTracker,
+				double maxDistance, double stopDistance,
+				boolean bNeedClosestPoints) {
 			m_progressTracker = progressTracker;
+			// Math.nextUp keeps the distances equal to the max distance
+			m_maxSqrDistance = maxDistance < Math.sqrt(NumberUtils.doubleMax()) ? Math
+					.nextUp(maxDistance * maxDistance) : NumberUtils.doubleMax();
+			m_stopSqrDistance = stopDistance * stopDistance;
+			m_bNeedClosestPoints = bNeedClosestPoints;
+			m_closestPointA = new Point2D();
+			m_closestPointB = new Point2D();
 			m_env2DgeometryA = new Envelope2D();
 			m_env2DgeometryA.setEmpty();
 			m_env2DgeometryB = new Envelope2D();
@@ -126,6 +126,10 @@ public class OperatorFactoryLocal extends OperatorFactory {
 		st_supportedOperators.put(Type.ConvexHull,
 				new OperatorConvexHullLocal());
 		st_supportedOperators.put(Type.Boundary, new OperatorBoundaryLocal());
+		st_supportedOperators.put(Type.WithinDistance,
+				new OperatorWithinDistanceLocal());
+		st_supportedOperators.put(Type.GeneralizeCoverage,
+				new OperatorGeneralizeCoverageLocal());
 
 		// LabelPoint, - not ported
 
@@ -24,7 +24,8 @@
 package com.esri.core.geometry;
 
 /**
- * Generalizes geometries using Douglas-Peucker algorithm.
+ * Generalizes geometries using Douglas-Peucker or Visvalingam-Whyatt
+ * algorithm.
  */
 public abstract class OperatorGeneralize extends Operator {
   @Override
@@ -32,6 +33,30 @@ public abstract class OperatorGeneralize extends Operator {
     return Type.Generalize;
   }
 
+  /**
+   * Generalization algorithms.
+   */
+  public enum GeneralizeType {
+    /**
+     * Recursive Douglas-Peucker. Keeps the vertices that are farther than
+     * maxDeviation from the generalized path. The result may self-intersect.
+     */
+    DouglasPeucker,
+    /**
+     * Visvalingam-Whyatt. Removes the vertex that forms the triangle of the
+     * smallest area with its neighbors, while that area is less than
+     * maxDeviation * maxDeviation. The result may self-intersect.
+     */
+    VisvalingamWhyatt,
+    /**
+     * Visvalingam-Whyatt that does not remove a vertex when the new segment
+     * would intersect another segment of the geometry, or when the removed
+     * triangle contains a vertex of the geometry. A simple input produces a
+     * simple result with the same parts.
+     */
+    VisvalingamWhyattPreserveTopology
+  }
+
   /**
    * Performs the Generalize operation on a geometry set. Point and
    * multipoint geometries are left unchanged. An envelope is converted to a
@@ -50,6 +75,22 @@ public abstract class OperatorGeneralize extends Operator {
   public abstract Geometry execute(Geometry geom, double maxDeviation,
           boolean bRemoveDegenerateParts, ProgressTracker progressTracker);
 
+  /**
+   * Performs the Generalize operation on a geometry set with the given
+   * algorithm. The methods without generalizeType use DouglasPeucker.
+   */
+  public abstract GeometryCursor execute(GeometryCursor geoms,
+          double maxDeviation, boolean bRemoveDegenerateParts,
+          GeneralizeType generalizeType, ProgressTracker progressTracker);
+
+  /**
+   * Performs the Generalize operation on a single geometry with the given
+   * algorithm.
+   */
+  public abstract Geometry execute(Geometry geom, double maxDeviation,
+          boolean bRemoveDegenerateParts, GeneralizeType generalizeType,
+          ProgressTracker progressTracker);
+
   public static OperatorGeneralize local() {
     return (OperatorGeneralize) OperatorFactoryLocal.getInstance().getOperator(Type.Generalize);
   }
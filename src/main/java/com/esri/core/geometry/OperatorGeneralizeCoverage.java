@@ -0,0 +1,72 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+/**
+ * Generalizes a coverage of geometries that share boundaries, such as
+ * adjacent polygons.
+ * 
+ * The boundaries are split at the vertices where they meet into arcs. An arc
+ * shared by several geometries, with the same vertices, is generalized once,
+ * so the adjacent geometries stay adjacent after generalization and no gaps
+ * or slivers are created between them.
+ */
+public abstract class OperatorGeneralizeCoverage extends Operator {
+	@Override
+	public Type getType() {
+		return Type.GeneralizeCoverage;
+	}
+
+	/**
+	 * Performs the Generalize operation on all geometries of the cursor
+	 * together. The whole cursor is read before the first geometry is
+	 * returned. The results are returned in the order of the input, with the
+	 * same geometry IDs. Point and multipoint geometries are left unchanged.
+	 * An envelope is converted to a polygon.
+	 * 
+	 * The boundaries are shared only where the geometries have the same
+	 * vertices. Consecutive duplicate vertices are removed.
+	 * 
+	 * @param geoms
+	 *            The geometries of the coverage.
+	 * @param maxDeviation
+	 *            The max deviation, as in OperatorGeneralize.
+	 * @param bRemoveDegenerateParts
+	 *            When True, the paths and rings that degenerate are removed.
+	 * @param generalizeType
+	 *            The generalization algorithm. With
+	 *            VisvalingamWhyattPreserveTopology, each arc is also checked
+	 *            against all other arcs of the coverage.
+	 */
+	public abstract GeometryCursor execute(GeometryCursor geoms,
+			double maxDeviation, boolean bRemoveDegenerateParts,
+			OperatorGeneralize.GeneralizeType generalizeType,
+			ProgressTracker progressTracker);
+
+	public static OperatorGeneralizeCoverage local() {
+		return (OperatorGeneralizeCoverage) OperatorFactoryLocal.getInstance()
+				.getOperator(Type.GeneralizeCoverage);
+	}
+}
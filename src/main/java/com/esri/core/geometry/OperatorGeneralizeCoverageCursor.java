@@ -0,0 +1,440 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Generalizes the geometries of a cursor as a coverage. The paths are split
+ * into arcs at the junction vertices, which are the ends of open paths and
+ * the vertices that have different neighbors in different paths. An arc
+ * between two junctions is identified by its first two vertices, so the arcs
+ * shared by several paths are found with a hash lookup. Each arc is
+ * generalized once, and the paths are assembled from the generalized arcs.
+ */
+final class OperatorGeneralizeCoverageCursor extends GeometryCursor {
+	private GeometryCursor m_geoms;
+	private double m_maxDeviation;
+	private boolean m_bRemoveDegenerateParts;
+	private OperatorGeneralize.GeneralizeType m_generalizeType;
+	private ProgressTracker m_progressTracker;
+	private ArrayList<Geometry> m_results;
+	private AttributeStreamOfInt32 m_ids;
+	private int m_index;
+
+	// The ids of the distinct vertex coordinates, and for each id the pair of
+	// its neighbor ids, and whether it is a junction.
+	private HashMap<Point2D, Integer> m_vertexIds;
+	private AttributeStreamOfInt32 m_neighbors;
+	private AttributeStreamOfInt32 m_junctions;
+	// The paths of all geometries as sequences of the vertex ids, and the
+	// source vertex of each.
+	private AttributeStreamOfInt32 m_pathVertexIds;
+	private AttributeStreamOfInt32 m_pathSources;
+	private AttributeStreamOfInt32 m_pathOffsets;
+	// The arcs. m_arcs maps the first two vertex ids of an arc, in either
+	// direction, to arc * 2 + 1 if reversed.
+	private HashMap<Long, Integer> m_arcs;
+	private Polyline m_arcPaths;
+
+	OperatorGeneralizeCoverageCursor(GeometryCursor geoms, double maxDeviation,
+			boolean bRemoveDegenerateParts,
+			OperatorGeneralize.GeneralizeType generalizeType,
+			ProgressTracker progressTracker) {
+		m_geoms = geoms;
+		m_maxDeviation = maxDeviation;
+		m_bRemoveDegenerateParts = bRemoveDegenerateParts;
+		m_generalizeType = generalizeType;
+		m_progressTracker = progressTracker;
+		m_index = -1;
+	}
+
+	@Override
+	public Geometry next() {
+		if (m_results == null)
+			generalize_();
+
+		if (m_index + 1 >= m_results.size()) {
+			m_index = m_results.size();
+			return null;
+		}
+
+		m_index++;
+		Geometry geom = m_results.get(m_index);
+		m_results.set(m_index, null);
+		return geom;
+	}
+
+	@Override
+	public int getGeometryID() {
+		return m_index >= 0 && m_index < m_ids.size() ? m_ids.get(m_index)
+				: -1;
+	}
+
+	private void generalize_() {
+		m_results = new ArrayList<Geometry>();
+		m_ids = new AttributeStreamOfInt32(0);
+		Geometry geom;
+		while ((geom = m_geoms.next()) != null) {
+			m_ids.add(m_geoms.getGeometryID());
+			if (geom.getType() == Geometry.Type.Envelope) {
+				Polygon poly = new Polygon(geom.getDescription());
+				poly.addEnvelope((Envelope) geom, false);
+				geom = poly;
+			}
+
+			m_results.add(geom);
+		}
+
+		m_vertexIds = new HashMap<Point2D, Integer>();
+		m_neighbors = new AttributeStreamOfInt32(0);
+		m_junctions = new AttributeStreamOfInt32(0);
+		m_pathVertexIds = new AttributeStreamOfInt32(0);
+		m_pathSources = new AttributeStreamOfInt32(0);
+		m_pathOffsets = new AttributeStreamOfInt32(0);
+		m_pathOffsets.add(0);
+		for (int i = 0, n = m_results.size(); i < n; i++) {
+			if (!isMultiPath_(m_results.get(i)))
+				continue;
+
+			MultiPathImpl mp = (MultiPathImpl) m_results.get(i)._getImpl();
+			for (int ipath = 0, npath = mp.getPathCount(); ipath < npath; ipath++)
+				addPath_(mp, ipath);
+		}
+
+		m_vertexIds = null;
+		// the path indices are counted over all geometries
+		int ipath_all = 0;
+		for (int i = 0, n = m_results.size(); i < n; i++) {
+			if (!isMultiPath_(m_results.get(i)))
+				continue;
+
+			MultiPathImpl mp = (MultiPathImpl) m_results.get(i)._getImpl();
+			for (int ipath = 0, npath = mp.getPathCount(); ipath < npath; ipath++, ipath_all++)
+				findJunctions_(ipath_all, mp.isClosedPath(ipath));
+		}
+
+		m_neighbors = null;
+		m_arcs = new HashMap<Long, Integer>();
+		m_arcPaths = new Polyline();
+		AttributeStreamOfInt32 arcRefs = new AttributeStreamOfInt32(0);
+		AttributeStreamOfInt32 arcRefOffsets = new AttributeStreamOfInt32(0);
+		arcRefOffsets.add(0);
+		ipath_all = 0;
+		for (int i = 0, n = m_results.size(); i < n; i++) {
+			if (!isMultiPath_(m_results.get(i)))
+				continue;
+
+			MultiPathImpl mp = (MultiPathImpl) m_results.get(i)._getImpl();
+			for (int ipath = 0, npath = mp.getPathCount(); ipath < npath; ipath++, ipath_all++) {
+				splitPath_(mp, ipath_all, mp.isClosedPath(ipath), arcRefs);
+				arcRefOffsets.add(arcRefs.size());
+			}
+		}
+
+		m_arcs = null;
+		m_junctions = null;
+		m_pathVertexIds = null;
+		m_pathSources = null;
+		m_pathOffsets = null;
+
+		Polyline generalizedArcs = m_arcPaths;
+		if (!m_arcPaths.isEmpty()) {
+			generalizedArcs = (Polyline) OperatorGeneralize.local().execute(
+					m_arcPaths, m_maxDeviation, false, m_generalizeType,
+					m_progressTracker);
+			if (generalizedArcs.getPathCount() != m_arcPaths.getPathCount())
+				throw GeometryException.GeometryInternalError();
+		}
+
+		m_arcPaths = null;
+		ipath_all = 0;
+		AttributeStreamOfInt32 vertices = new AttributeStreamOfInt32(0);
+		for (int i = 0, n = m_results.size(); i < n; i++) {
+			if (!isMultiPath_(m_results.get(i)))
+				continue;
+
+			MultiPath src = (MultiPath) m_results.get(i);
+			MultiPath dst = (MultiPath) src.createInstance();
+			for (int ipath = 0, npath = src.getPathCount(); ipath < npath; ipath++, ipath_all++) {
+				assemblePath_(generalizedArcs, arcRefs,
+						arcRefOffsets.get(ipath_all),
+						arcRefOffsets.get(ipath_all + 1),
+						src.isClosedPath(ipath), vertices,
+						(MultiPathImpl) dst._getImpl());
+			}
+
+			m_results.set(i, dst);
+		}
+	}
+
+	private static boolean isMultiPath_(Geometry geom) {
+		return !geom.isEmpty()
+				&& (geom.getType() == Geometry.Type.Polygon || geom.getType() == Geometry.Type.Polyline);
+	}
+
+	private int getVertexId_(Point2D pt) {
+		Point2D key = new Point2D(pt.x + 0.0, pt.y + 0.0);// no negative zero
+		Integer id = m_vertexIds.get(key);
+		if (id == null) {
+			id = m_vertexIds.size();
+			m_vertexIds.put(key, id);
+			m_neighbors.add(-1);
+			m_neighbors.add(-1);
+			m_junctions.add(0);
+		}
+
+		return id;
+	}
+
+	/**
+	 * Adds the vertex ids of the path, skipping the consecutive duplicate
+	 * vertices.
+	 */
+	private void addPath_(MultiPathImpl mp, int ipath) {
+		int offset = m_pathVertexIds.size();
+		Point2D pt = new Point2D();
+		for (int i = mp.getPathStart(ipath), end = mp.getPathEnd(ipath); i < end; i++) {
+			mp.getXY(i, pt);
+			int id = getVertexId_(pt);
+			if (m_pathVertexIds.size() > offset
+					&& m_pathVertexIds.getLast() == id)
+				continue;
+
+			m_pathVertexIds.add(id);
+			m_pathSources.add(i);
+		}
+
+		if (mp.isClosedPath(ipath)) {
+			while (m_pathVertexIds.size() - offset > 1
+					&& m_pathVertexIds.getLast() == m_pathVertexIds.get(offset)) {
+				m_pathVertexIds.removeLast();
+				m_pathSources.removeLast();
+			}
+		}
+
+		m_pathOffsets.add(m_pathVertexIds.size());
+	}
+
+	/**
+	 * Marks the ends of the open path and the vertices that have other
+	 * neighbors than in the previously processed paths as junctions.
+	 */
+	private void findJunctions_(int ipath, boolean bClosed) {
+		int offset = m_pathOffsets.get(ipath);
+		int n = m_pathOffsets.get(ipath + 1) - offset;
+		if (n < 2)
+			return;
+
+		for (int k = 0; k < n; k++) {
+			int id = m_pathVertexIds.get(offset + k);
+			int prev = k > 0 ? m_pathVertexIds.get(offset + k - 1)
+					: (bClosed ? m_pathVertexIds.get(offset + n - 1) : -1);
+			int next = k < n - 1 ? m_pathVertexIds.get(offset + k + 1)
+					: (bClosed ? m_pathVertexIds.get(offset) : -1);
+			if (prev == -1 || next == -1) {
+				m_junctions.write(id, 1);
+				continue;
+			}
+
+			int a = Math.min(prev, next);
+			int b = Math.max(prev, next);
+			if (m_neighbors.get(2 * id) == -1) {
+				m_neighbors.write(2 * id, a);
+				m_neighbors.write(2 * id + 1, b);
+			} else if (m_neighbors.get(2 * id) != a
+					|| m_neighbors.get(2 * id + 1) != b) {
+				m_junctions.write(id, 1);
+			}
+		}
+	}
+
+	private static long arcKey_(int startId, int secondId) {
+		return ((long) startId << 32) | (secondId & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Splits the path into arcs at the junctions, and adds the arc references
+	 * to arcRefs. A new arc is added for each arc not seen before.
+	 */
+	private void splitPath_(MultiPathImpl mp, int ipath, boolean bClosed,
+			AttributeStreamOfInt32 arcRefs) {
+		int offset = m_pathOffsets.get(ipath);
+		int n = m_pathOffsets.get(ipath + 1) - offset;
+		if (n < 2)
+			return;
+
+		int firstJunction = -1;
+		for (int k = 0; k < n; k++) {
+			if (m_junctions.get(m_pathVertexIds.get(offset + k)) != 0) {
+				firstJunction = k;
+				break;
+			}
+		}
+
+		if (firstJunction == -1) {
+			// A ring without junctions is one closed arc. It starts at the
+			// smallest vertex id and goes to its smaller neighbor, so that the
+			// rings with the same vertices find the same arc.
+			assert (bClosed);
+			int m = 0;
+			for (int k = 1; k < n; k++) {
+				if (m_pathVertexIds.get(offset + k) < m_pathVertexIds.get(offset + m))
+					m = k;
+			}
+
+			int prev = m_pathVertexIds.get(offset + (m + n - 1) % n);
+			int next = m_pathVertexIds.get(offset + (m + 1) % n);
+			boolean bForward = next <= prev;
+			long key = arcKey_(m_pathVertexIds.get(offset + m), bForward ? next
+					: prev);
+			Integer ref = m_arcs.get(key);
+			if (ref == null) {
+				ref = addArc_(mp, offset, n, m, n, bForward, true) * 2;
+				m_arcs.put(key, ref);
+			}
+
+			arcRefs.add(bForward ? ref : ref ^ 1);
+			return;
+		}
+
+		// Open paths start and end at junctions. Closed paths are walked from
+		// the first junction back to it.
+		int count = bClosed ? n : n - 1;// the number of the segments to walk
+		int a = firstJunction;
+		for (int walked = 0; walked < count;) {
+			int length = 1;
+			int b = (a + 1) % n;
+			while (m_junctions.get(m_pathVertexIds.get(offset + b)) == 0) {
+				b = (b + 1) % n;
+				length++;
+			}
+
+			long key = arcKey_(m_pathVertexIds.get(offset + a),
+					m_pathVertexIds.get(offset + (a + 1) % n));
+			Integer ref = m_arcs.get(key);
+			if (ref == null) {
+				int arc = addArc_(mp, offset, n, a, length + 1, true, false);
+				ref = arc * 2;
+				m_arcs.put(key, ref);
+				long endKey = arcKey_(m_pathVertexIds.get(offset + b),
+						m_pathVertexIds.get(offset + (b + n - 1) % n));
+				if (!m_arcs.containsKey(endKey))
+					m_arcs.put(endKey, ref + 1);
+			}
+
+			arcRefs.add(ref);
+			walked += length;
+			a = b;
+		}
+	}
+
+	/**
+	 * Adds the vertices of the path, from the position start in the given
+	 * direction, to the arc paths. Returns the arc index.
+	 */
+	private int addArc_(MultiPathImpl mp, int offset, int n, int start,
+			int count, boolean bForward, boolean bClosed) {
+		Point point = new Point();
+		for (int i = 0; i < count; i++) {
+			int k = bForward ? (start + i) % n : (start - i + n) % n;
+			mp.getPointByVal(m_pathSources.get(offset + k), point);
+			if (i == 0)
+				m_arcPaths.startPath(point);
+			else
+				m_arcPaths.lineTo(point);
+		}
+
+		if (bClosed)
+			m_arcPaths.closePathWithLine();
+
+		return m_arcPaths.getPathCount() - 1;
+	}
+
+	/**
+	 * Assembles a path from the generalized arcs.
+	 */
+	private void assemblePath_(Polyline arcs, AttributeStreamOfInt32 arcRefs,
+			int refsStart, int refsEnd, boolean bClosed,
+			AttributeStreamOfInt32 vertices, MultiPathImpl dst) {
+		if (refsStart == refsEnd)
+			return;// degenerate input path
+
+		vertices.clear(false);
+		for (int r = refsStart; r < refsEnd; r++) {
+			int ref = arcRefs.get(r);
+			int arc = ref >> 1;
+			boolean bReversed = (ref & 1) != 0;
+			int start = arcs.getPathStart(arc);
+			int length = arcs.getPathSize(arc);
+			boolean bClosedArc = arcs.isClosedPath(arc);
+			for (int i = 0; i < length; i++) {
+				if (i == 0 && r > refsStart)
+					continue;// the end of the previous arc
+
+				int index;
+				if (!bReversed)
+					index = start + i;
+				else if (bClosedArc)
+					index = start + (length - i) % length;
+				else
+					index = start + length - 1 - i;
+
+				vertices.add(index);
+			}
+		}
+
+		if (bClosed && !arcs.isClosedPath(arcRefs.get(refsStart) >> 1))
+			vertices.removeLast();// the path is back at the first junction
+
+		int count = vertices.size();
+		if (bClosed ? count < 3 : count < 2) {
+			if (m_bRemoveDegenerateParts || count == 0)
+				return;
+		} else if (m_bRemoveDegenerateParts && !bClosed && count == 2) {
+			double d = Point2D.distance(arcs.getXY(vertices.get(0)),
+					arcs.getXY(vertices.get(1)));
+			if (d <= m_maxDeviation)
+				return;
+		}
+
+		Point point = new Point();
+		for (int i = 0; i < count; i++) {
+			arcs.getPointByVal(vertices.get(i), point);
+			if (i == 0)
+				dst.startPath(point);
+			else
+				dst.lineTo(point);
+		}
+
+		if (bClosed) {
+			for (int i = count; i < 3; i++)
+				dst.lineTo(point);
+
+			dst.closePathWithLine();
+		}
+	}
+}
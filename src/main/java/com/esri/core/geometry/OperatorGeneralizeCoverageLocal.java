@@ -0,0 +1,40 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+class OperatorGeneralizeCoverageLocal extends OperatorGeneralizeCoverage {
+
+	@Override
+	public GeometryCursor execute(GeometryCursor geoms, double maxDeviation,
+			boolean bRemoveDegenerateParts,
+			OperatorGeneralize.GeneralizeType generalizeType,
+			ProgressTracker progressTracker) {
+		if (geoms == null || generalizeType == null)
+			throw new IllegalArgumentException();
+
+		return new OperatorGeneralizeCoverageCursor(geoms, maxDeviation,
+				bRemoveDegenerateParts, generalizeType, progressTracker);
+	}
+}
@@ -28,13 +28,38 @@ final class OperatorGeneralizeCursor extends GeometryCursor {
 	GeometryCursor m_geoms;
 	double m_maxDeviation;
 	boolean m_bRemoveDegenerateParts;
+	OperatorGeneralize.GeneralizeType m_generalizeType;
+
+	// The Visvalingam-Whyatt state for the current geometry. The vertices are
+	// linked into paths with m_prev and m_next, which are -1 at the ends of
+	// open paths.
+	int[] m_prev;
+	int[] m_next;
+	VertexHeap m_heap;
+	// The segments of the geometry by the start vertex, for the topology
+	// checks.
+	QuadTreeImpl m_quadTree;
+	QuadTreeImpl.QuadTreeIteratorImpl m_quadTreeIterator;
+	int[] m_segmentHandles;
+	Line m_newSegment;
+	Line m_otherSegment;
 
 	public OperatorGeneralizeCursor(GeometryCursor geoms, double maxDeviation,
 			boolean bRemoveDegenerateParts, ProgressTracker progressTracker) {
+		this(geoms, maxDeviation, bRemoveDegenerateParts,
+				OperatorGeneralize.GeneralizeType.DouglasPeucker,
+				progressTracker);
+	}
+
+	public OperatorGeneralizeCursor(GeometryCursor geoms, double maxDeviation,
+			boolean bRemoveDegenerateParts,
+			OperatorGeneralize.GeneralizeType generalizeType,
+			ProgressTracker progressTracker) {
 		m_geoms = geoms;
 		m_maxDeviation = maxDeviation;
 		m_progressTracker = progressTracker;
 		m_bRemoveDegenerateParts = bRemoveDegenerateParts;
+		m_generalizeType = generalizeType;
 	}
 
 	@Override
@@ -65,8 +90,15 @@ final class OperatorGeneralizeCursor extends GeometryCursor {
 			return geom;
 		MultiPath mp = (MultiPath) geom;
 		MultiPath dstmp = (MultiPath) geom.createInstance();
+		if (m_generalizeType != OperatorGeneralize.GeneralizeType.DouglasPeucker) {
+			GeneralizeVW((MultiPathImpl) mp._getImpl(),
+					(MultiPathImpl) dstmp._getImpl());
+			return dstmp;
+		}
+
 		Line line = new Line();
 		for (int ipath = 0, npath = mp.getPathCount(); ipath < npath; ipath++) {
+			ProgressTracker.checkAndThrow(m_progressTracker);
 			GeneralizePath((MultiPathImpl) mp._getImpl(), ipath,
 					(MultiPathImpl) dstmp._getImpl(), line);
 		}
@@ -74,6 +106,220 @@ final class OperatorGeneralizeCursor extends GeometryCursor {
 		return dstmp;
 	}
 
+	private void GeneralizeVW(MultiPathImpl mpsrc, MultiPathImpl mpdst) {
+		int pointCount = mpsrc.getPointCount();
+		m_prev = new int[pointCount];
+		m_next = new int[pointCount];
+		m_heap = new VertexHeap(pointCount);
+		for (int ipath = 0, npath = mpsrc.getPathCount(); ipath < npath; ipath++) {
+			int start = mpsrc.getPathStart(ipath);
+			int end = mpsrc.getPathEnd(ipath);
+			boolean bClosed = mpsrc.isClosedPath(ipath);
+			for (int i = start; i < end; i++) {
+				m_prev[i] = i - 1;
+				m_next[i] = i + 1;
+			}
+
+			m_prev[start] = bClosed ? end - 1 : -1;
+			m_next[end - 1] = bClosed ? start : -1;
+		}
+
+		if (m_generalizeType == OperatorGeneralize.GeneralizeType.VisvalingamWhyattPreserveTopology)
+			BuildSegmentQuadTree(mpsrc);
+
+		for (int ipath = 0, npath = mpsrc.getPathCount(); ipath < npath; ipath++)
+			GeneralizePathVW(mpsrc, ipath, mpdst);
+
+		m_prev = null;
+		m_next = null;
+		m_heap = null;
+		m_quadTree = null;
+		m_quadTreeIterator = null;
+		m_segmentHandles = null;
+	}
+
+	private void BuildSegmentQuadTree(MultiPathImpl mpsrc) {
+		Envelope2D extent = new Envelope2D();
+		mpsrc.queryLooseEnvelope2D(extent);
+		m_quadTree = new QuadTreeImpl(extent, 8);
+		m_quadTreeIterator = m_quadTree.getIterator();
+		m_segmentHandles = new int[mpsrc.getPointCount()];
+		m_newSegment = new Line();
+		m_otherSegment = new Line();
+		Envelope2D env = new Envelope2D();
+		for (int i = 0, n = mpsrc.getPointCount(); i < n; i++) {
+			m_segmentHandles[i] = -1;
+			if (m_next[i] == -1 || m_next[i] == i)
+				continue;// no segment starts at the vertex
+
+			QuerySegmentEnvelope(mpsrc, i, m_next[i], env);
+			m_segmentHandles[i] = m_quadTree.insert(i, env);
+		}
+	}
+
+	private static void QuerySegmentEnvelope(MultiPathImpl mpsrc, int from,
+			int to, Envelope2D env) {
+		Point2D pt = new Point2D();
+		mpsrc.getXY(from, pt);
+		env.setCoords(pt);
+		mpsrc.getXY(to, pt);
+		env.merge(pt);
+	}
+
+	private void GeneralizePathVW(MultiPathImpl mpsrc, int ipath,
+			MultiPathImpl mpdst) {
+		int path_size = mpsrc.getPathSize(ipath);
+		if (path_size < 2)
+			return;
+
+		int start = mpsrc.getPathStart(ipath);
+		int end = mpsrc.getPathEnd(ipath) - 1;
+		boolean bClosed = mpsrc.isClosedPath(ipath);
+		double maxArea = m_maxDeviation * m_maxDeviation;
+		int minCount = bClosed ? 3 : 2;
+		for (int i = start; i <= end; i++) {
+			if (m_prev[i] != -1 && m_next[i] != -1)
+				m_heap.set(i, TriangleArea(mpsrc, i));
+		}
+
+		int first = start;
+		int count = path_size;
+		double lastArea = 0;
+		while (!m_heap.isEmpty() && count > minCount) {
+			ProgressTracker.checkAndThrow(m_progressTracker);
+			int i = m_heap.getTop();
+			double area = m_heap.getArea(i);
+			if (area >= maxArea)
+				break;
+
+			m_heap.remove(i);
+			int iprev = m_prev[i];
+			int inext = m_next[i];
+			if (m_quadTree != null && !CanRemoveVertex(mpsrc, iprev, i, inext))
+				continue;// keep the vertex until its neighbors change
+
+			m_next[iprev] = inext;
+			m_prev[inext] = iprev;
+			count--;
+			if (i == first)
+				first = inext;
+
+			if (m_quadTree != null) {
+				m_quadTree.removeElement(m_segmentHandles[iprev]);
+				m_quadTree.removeElement(m_segmentHandles[i]);
+				m_segmentHandles[i] = -1;
+				Envelope2D env = new Envelope2D();
+				QuerySegmentEnvelope(mpsrc, iprev, inext, env);
+				m_segmentHandles[iprev] = m_quadTree.insert(iprev, env);
+			}
+
+			// The effective area of a vertex never decreases, so that the
+			// vertices are removed in the order of their significance.
+			lastArea = Math.max(lastArea, area);
+			if (m_prev[iprev] != -1)
+				m_heap.set(iprev, Math.max(TriangleArea(mpsrc, iprev), lastArea));
+			if (m_next[inext] != -1)
+				m_heap.set(inext, Math.max(TriangleArea(mpsrc, inext), lastArea));
+		}
+
+		m_heap.clear();
+
+		if (m_bRemoveDegenerateParts && count <= minCount) {
+			if (count < minCount)
+				return;
+
+			if (bClosed) {
+				if (TriangleArea(mpsrc, first) < maxArea)
+					return;
+			} else {
+				double d = Point2D.distance(mpsrc.getXY(first),
+						mpsrc.getXY(m_next[first]));
+				if (d <= m_maxDeviation)
+					return;
+			}
+		}
+
+		if (count == path_size) {
+			mpdst.addPath(mpsrc, ipath, true);
+			return;
+		}
+
+		Point point = new Point();
+		for (int i = 0, ivertex = first; i < count; i++, ivertex = m_next[ivertex]) {
+			mpsrc.getPointByVal(ivertex, point);
+			if (i == 0)
+				mpdst.startPath(point);
+			else
+				mpdst.lineTo(point);
+		}
+
+		if (bClosed)
+			mpdst.closePathWithLine();
+	}
+
+	private double TriangleArea(MultiPathImpl mpsrc, int i) {
+		AttributeStreamOfDbl xy = (AttributeStreamOfDbl) mpsrc
+				.getAttributeStreamRef(VertexDescription.Semantics.POSITION);
+		double x = xy.read(2 * i);
+		double y = xy.read(2 * i + 1);
+		double dx1 = xy.read(2 * m_prev[i]) - x;
+		double dy1 = xy.read(2 * m_prev[i] + 1) - y;
+		double dx2 = xy.read(2 * m_next[i]) - x;
+		double dy2 = xy.read(2 * m_next[i] + 1) - y;
+		return Math.abs(dx1 * dy2 - dy1 * dx2) * 0.5;
+	}
+
+	/**
+	 * Returns false when the segment from iprev to inext intersects another
+	 * segment, or when the triangle of the three vertices contains a vertex.
+	 */
+	private boolean CanRemoveVertex(MultiPathImpl mpsrc, int iprev, int i,
+			int inext) {
+		Point2D ptPrev = mpsrc.getXY(iprev);
+		Point2D pt = mpsrc.getXY(i);
+		Point2D ptNext = mpsrc.getXY(inext);
+		m_newSegment.setStartXY(ptPrev);
+		m_newSegment.setEndXY(ptNext);
+		Envelope2D env = new Envelope2D();
+		env.setCoords(ptPrev);
+		env.merge(pt);
+		env.merge(ptNext);
+		m_quadTreeIterator.resetIterator(env, 0);
+		Point2D ptFrom = new Point2D(), ptTo = new Point2D();
+		for (int h = m_quadTreeIterator.next(); h != -1; h = m_quadTreeIterator
+				.next()) {
+			int from = m_quadTree.getElement(h);
+			if (from == iprev || from == i)
+				continue;// the segments that are replaced
+
+			int to = m_next[from];
+			mpsrc.getXY(from, ptFrom);
+			mpsrc.getXY(to, ptTo);
+			if (IsInsideTriangle(ptPrev, pt, ptNext, ptFrom)
+					|| IsInsideTriangle(ptPrev, pt, ptNext, ptTo))
+				return false;
+
+			m_otherSegment.setStartXY(ptFrom);
+			m_otherSegment.setEndXY(ptTo);
+			// touching the new segment at its exact end points is fine.
+			if (Line._isIntersectingLineLine(m_newSegment, m_otherSegment, 0,
+					true) != 0)
+				return false;
+		}
+
+		return true;
+	}
+
+	private static boolean IsInsideTriangle(Point2D a, Point2D b, Point2D c,
+			Point2D pt) {
+		int o1 = Point2D.orientationRobust(a, b, pt);
+		if (o1 == 0)
+			return false;
+
+		return Point2D.orientationRobust(b, c, pt) == o1
+				&& Point2D.orientationRobust(c, a, pt) == o1;
+	}
+
 	private void GeneralizePath(MultiPathImpl mpsrc, int ipath,
 			MultiPathImpl mpdst, Line lineHelper) {
 		if (mpsrc.getPathSize(ipath) < 2)
@@ -171,4 +417,119 @@ final class OperatorGeneralizeCursor extends GeometryCursor {
 		}
 		return mid;
 	}
+
+	/**
+	 * A binary min heap of the vertices by their effective area. The area of
+	 * a vertex in the heap can be changed, and any vertex can be removed.
+	 */
+	static final class VertexHeap {
+		private int[] m_heap;
+		private int[] m_positions;// the heap position of a vertex, or -1
+		private double[] m_areas;
+		private int m_size;
+
+		VertexHeap(int vertexCount) {
+			m_heap = new int[vertexCount];
+			m_positions = new int[vertexCount];
+			m_areas = new double[vertexCount];
+			java.util.Arrays.fill(m_positions, -1);
+			m_size = 0;
+		}
+
+		boolean isEmpty() {
+			return m_size == 0;
+		}
+
+		int getTop() {
+			return m_heap[0];
+		}
+
+		double getArea(int vertex) {
+			return m_areas[vertex];
+		}
+
+		void set(int vertex, double area) {
+			m_areas[vertex] = area;
+			int pos = m_positions[vertex];
+			if (pos == -1) {
+				pos = m_size++;
+				m_heap[pos] = vertex;
+				m_positions[vertex] = pos;
+				siftUp_(pos);
+			} else {
+				siftUp_(pos);
+				siftDown_(m_positions[vertex]);
+			}
+		}
+
+		void remove(int vertex) {
+			int pos = m_positions[vertex];
+			if (pos == -1)
+				return;
+
+			m_positions[vertex] = -1;
+			m_size--;
+			if (pos == m_size)
+				return;
+
+			int last = m_heap[m_size];
+			m_heap[pos] = last;
+			m_positions[last] = pos;
+			siftUp_(pos);
+			siftDown_(m_positions[last]);
+		}
+
+		void clear() {
+			for (int i = 0; i < m_size; i++)
+				m_positions[m_heap[i]] = -1;
+
+			m_size = 0;
+		}
+
+		private boolean less_(int vertex1, int vertex2) {
+			double a1 = m_areas[vertex1];
+			double a2 = m_areas[vertex2];
+			return a1 < a2 || (a1 == a2 && vertex1 < vertex2);
+		}
+
+		private void siftUp_(int pos) {
+			int vertex = m_heap[pos];
+			while (pos > 0) {
+				int parent = (pos - 1) >> 1;
+				int parentVertex = m_heap[parent];
+				if (!less_(vertex, parentVertex))
+					break;
+
+				m_heap[pos] = parentVertex;
+				m_positions[parentVertex] = pos;
+				pos = parent;
+			}
+
+			m_heap[pos] = vertex;
+			m_positions[vertex] = pos;
+		}
+
+		private void siftDown_(int pos) {
+			int vertex = m_heap[pos];
+			while (true) {
+				int child = 2 * pos + 1;
+				if (child >= m_size)
+					break;
+
+				if (child + 1 < m_size && less_(m_heap[child + 1], m_heap[child]))
+					child++;
+
+				int childVertex = m_heap[child];
+				if (!less_(childVertex, vertex))
+					break;
+
+				m_heap[pos] = childVertex;
+				m_positions[childVertex] = pos;
+				pos = child;
+			}
+
+			m_heap[pos] = vertex;
+			m_positions[vertex] = pos;
+		}
+	}
 }
@@ -28,18 +28,35 @@ final class OperatorGeneralizeLocal extends OperatorGeneralize {
 	@Override
 	public GeometryCursor execute(GeometryCursor geoms, double maxDeviation,
 			boolean bRemoveDegenerateParts, ProgressTracker progressTracker) {
-		// TODO Auto-generated method stub
+		return execute(geoms, maxDeviation, bRemoveDegenerateParts,
+				GeneralizeType.DouglasPeucker, progressTracker);
+	}
+
+	@Override
+	public Geometry execute(Geometry geom, double maxDeviation,
+			boolean bRemoveDegenerateParts, ProgressTracker progressTracker) {
+		return execute(geom, maxDeviation, bRemoveDegenerateParts,
+				GeneralizeType.DouglasPeucker, progressTracker);
+	}
+
+	@Override
+	public GeometryCursor execute(GeometryCursor geoms, double maxDeviation,
+			boolean bRemoveDegenerateParts, GeneralizeType generalizeType,
+			ProgressTracker progressTracker) {
+		if (generalizeType == null)
+			throw new IllegalArgumentException();
 
 		return new OperatorGeneralizeCursor(geoms, maxDeviation,
-				bRemoveDegenerateParts, progressTracker);
+				bRemoveDegenerateParts, generalizeType, progressTracker);
 	}
 
 	@Override
 	public Geometry execute(Geometry geom, double maxDeviation,
-			boolean bRemoveDegenerateParts, ProgressTracker progressTracker) {
+			boolean bRemoveDegenerateParts, GeneralizeType generalizeType,
+			ProgressTracker progressTracker) {
 		SimpleGeometryCursor inputGeomCurs = new SimpleGeometryCursor(geom);
 		GeometryCursor geometryCursor = execute(inputGeomCurs, maxDeviation,
-				bRemoveDegenerateParts, progressTracker);
+				bRemoveDegenerateParts, generalizeType, progressTracker);
 
 		return geometryCursor.next();
 	}
@@ -32,6 +32,9 @@ abstract class OperatorGeodesicBuffer extends Operator {
 
 	/**
 	 * Creates a geodesic buffer around the input geometries
+	 * <p>
+	 * The longitudes of the result are continuous with the input, and are not wrapped to [-180, 180] at the antimeridian. The buffer of a point that covers a pole spans 360 degrees of
+	 * longitude around the point and is closed along the pole. A GeometryException is thrown when the buffer of a polyline or polygon covers a pole.
 	 *
 	 * @param inputGeometries The geometries to buffer.
 	 * @param sr The Spatial_reference of the Geometries.
@@ -48,8 +51,20 @@ abstract class OperatorGeodesicBuffer extends Operator {
 	 */
 	abstract public GeometryCursor execute(GeometryCursor inputGeometries, SpatialReference sr, int curveType, double[] distancesMeters, double maxDeviationMeters, boolean bReserved, boolean bUnion, ProgressTracker progressTracker);
 
+	/**
+	 * Creates a geodesic buffer around the input geometries, buffering the parts of large geometries on a pool of threads.
+	 *
+	 * The parameters are the same as above, plus:
+	 * @param threadCount The number of threads to use. 1 buffers on the calling thread. 0 uses the number of available processors.
+	 * @return Geometry cursor over result buffers.
+	 */
+	abstract public GeometryCursor execute(GeometryCursor inputGeometries, SpatialReference sr, int curveType, double[] distancesMeters, double maxDeviationMeters, boolean bReserved, boolean bUnion, int threadCount, ProgressTracker progressTracker);
+
 	/**
 	 * Creates a geodesic buffer around the input geometry
+	 * <p>
+	 * The longitudes of the result are continuous with the input, and are not wrapped to [-180, 180] at the antimeridian. The buffer of a point that covers a pole spans 360 degrees of
+	 * longitude around the point and is closed along the pole. A GeometryException is thrown when the buffer of a polyline or polygon covers a pole.
 	 *
 	 * @param inputGeometry The geometry to buffer.
 	 * @param sr The Spatial_reference of the Geometry.
@@ -64,6 +79,15 @@ abstract class OperatorGeodesicBuffer extends Operator {
 	 */
 	abstract public Geometry execute(Geometry inputGeometry, SpatialReference sr, int curveType, double distanceMeters, double maxDeviationMeters, boolean bReserved, ProgressTracker progressTracker);
 
+	/**
+	 * Creates a geodesic buffer around the input geometry, buffering the parts of a large geometry on a pool of threads.
+	 *
+	 * The parameters are the same as above, plus:
+	 * @param threadCount The number of threads to use. 1 buffers on the calling thread. 0 uses the number of available processors.
+	 * @return Returns result buffer.
+	 */
+	abstract public Geometry execute(Geometry inputGeometry, SpatialReference sr, int curveType, double distanceMeters, double maxDeviationMeters, boolean bReserved, int threadCount, ProgressTracker progressTracker);
+
 	public static OperatorGeodesicBuffer local() {
 		return (OperatorGeodesicBuffer) OperatorFactoryLocal.getInstance()
 						.getOperator(Type.GeodesicBuffer);
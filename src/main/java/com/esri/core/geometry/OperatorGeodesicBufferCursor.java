@@ -0,0 +1,63 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+class OperatorGeodesicBufferCursor extends GeometryCursor {
+	private GeodesicBufferer m_bufferer;
+	private GeometryCursor m_inputGeoms;
+	private double[] m_distances;
+	private int m_index;
+	private int m_dindex;
+
+	OperatorGeodesicBufferCursor(GeometryCursor inputGeoms,
+			SpatialReference sr, int curveType, double[] distancesMeters,
+			double maxDeviationMeters, int threadCount,
+			ProgressTracker progressTracker) {
+		m_bufferer = new GeodesicBufferer(sr, curveType, maxDeviationMeters,
+				threadCount, progressTracker);
+		m_inputGeoms = inputGeoms;
+		m_distances = distancesMeters;
+		m_index = -1;
+		m_dindex = -1;
+	}
+
+	@Override
+	public Geometry next() {
+		Geometry geom;
+		while ((geom = m_inputGeoms.next()) != null) {
+			m_index = m_inputGeoms.getGeometryID();
+			if (m_dindex + 1 < m_distances.length)
+				m_dindex++;
+
+			return m_bufferer.buffer(geom, m_distances[m_dindex]);
+		}
+		return null;
+	}
+
+	@Override
+	public int getGeometryID() {
+		return m_index;
+	}
+}
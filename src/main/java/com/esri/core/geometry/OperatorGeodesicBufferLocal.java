@@ -24,7 +24,6 @@
 
 package com.esri.core.geometry;
 
-//This is a stub
 class OperatorGeodesicBufferLocal extends OperatorGeodesicBuffer {
 
 	@Override
@@ -32,13 +31,85 @@ class OperatorGeodesicBufferLocal extends OperatorGeodesicBuffer {
 			SpatialReference sr, int curveType, double[] distancesMeters,
 			double maxDeviationMeters, boolean bReserved, boolean bUnion,
 			ProgressTracker progressTracker) {
-		throw new GeometryException("not implemented");
+		return execute(inputGeometries, sr, curveType, distancesMeters,
+				maxDeviationMeters, bReserved, bUnion, 1, progressTracker);
+	}
+
+	@Override
+	public GeometryCursor execute(GeometryCursor inputGeometries,
+			SpatialReference sr, int curveType, double[] distancesMeters,
+			double maxDeviationMeters, boolean bReserved, boolean bUnion,
+			int threadCount, ProgressTracker progressTracker) {
+		if (bReserved)
+			throw new IllegalArgumentException();
+
+		if (distancesMeters == null || distancesMeters.length == 0)
+			throw new IllegalArgumentException();
+
+		checkSpatialReference_(sr);
+
+		OperatorGeodesicBufferCursor cursor = new OperatorGeodesicBufferCursor(
+				inputGeometries, sr, curveType, distancesMeters,
+				maxDeviationMeters, checkThreadCount_(threadCount),
+				progressTracker);
+		if (bUnion) {
+			// the union cursor pulls the buffers one at a time and merges
+			// them as they come.
+			return OperatorUnion.local().execute(cursor, sr, progressTracker);
+		}
+
+		return cursor;
 	}
 
 	@Override
 	public Geometry execute(Geometry inputGeometry, SpatialReference sr,
 			int curveType, double distanceMeters, double maxDeviationMeters,
 			boolean bReserved, ProgressTracker progressTracker) {
-		throw new GeometryException("not implemented");
+		return execute(inputGeometry, sr, curveType, distanceMeters,
+				maxDeviationMeters, bReserved, 1, progressTracker);
+	}
+
+	@Override
+	public Geometry execute(Geometry inputGeometry, SpatialReference sr,
+			int curveType, double distanceMeters, double maxDeviationMeters,
+			boolean bReserved, int threadCount, ProgressTracker progressTracker) {
+		if (bReserved)
+			throw new IllegalArgumentException();
+
+		checkSpatialReference_(sr);
+		GeodesicBufferer bufferer = new GeodesicBufferer(sr, curveType,
+				maxDeviationMeters, checkThreadCount_(threadCount),
+				progressTracker);
+		return bufferer.buffer(inputGeometry, distanceMeters);
+	}
+
+	private static int checkThreadCount_(int threadCount) {
+		if (threadCount < 0)
+			throw new IllegalArgumentException();
+
+		return threadCount == 0 ? ParallelTasks.getDefaultThreadCount()
+				: threadCount;
+	}
+
+	private static void checkSpatialReference_(SpatialReference sr) {
+		if (sr == null)
+			throw new IllegalArgumentException();
+
+		// There is no projection engine, so only geographic coordinates can
+		// be buffered. Anything that is not known to be geographic is
+		// rejected, rather than buffered as degrees.
+		if (!isGeographic_(sr))
+			throw new GeometryException(
+					"geodesic buffer requires a geographic coordinate system");
+	}
+
+	private static boolean isGeographic_(SpatialReference sr) {
+		int wkid = sr.getID();
+		if (wkid > 0)
+			return Wkid.m_gcsToTol.containsKey(wkid)
+					|| Wkid.m_gcsToTol.containsKey(Wkid.wkid_to_old(wkid));
+
+		String wkt = sr.getText();
+		return wkt != null && wkt.trim().startsWith("GEOGCS");
 	}
 }
@@ -24,6 +24,7 @@
 
 package com.esri.core.geometry;
 
+import com.esri.core.geometry.Geometry.GeometryAccelerationDegree;
 import com.esri.core.geometry.Operator.Type;
 
 /**
@@ -89,6 +90,77 @@ public abstract class OperatorProximity2D extends Operator {
 	public abstract Proximity2DResult[] getNearestVertices(Geometry geom,
 			Point inputPoint, double searchRadius, int maxVertexCountToReturn);
 
+	/**
+	 * Finds the nearest coordinate on the Geometry for each of the query
+	 * points.
+	 * 
+	 * The multipaths are searched with the QuadTree accelerator when they
+	 * have one (see accelerateGeometry). Otherwise, when there are enough
+	 * query points, a QuadTree is built for the call.
+	 * 
+	 * @param geom
+	 *            The input Geometry.
+	 * @param inputXY
+	 *            The query points as x, y pairs.
+	 * @param bTestPolygonInterior
+	 *            When true and geom is a polygon, the points inside of the
+	 *            polygon have zero distance to the polygon.
+	 * @param vertexIndices
+	 *            Receives the vertex index of the nearest coordinate for each
+	 *            query point (see Proximity2DResult.getVertexIndex), or -1
+	 *            when geom is empty. Can be null.
+	 * @param distances
+	 *            Receives the distance for each query point, or NaN when geom
+	 *            is empty. Can be null.
+	 * @param nearestXY
+	 *            Receives the nearest coordinates as x, y pairs. Can be null.
+	 */
+	public abstract void getNearestCoordinates(Geometry geom, double[] inputXY,
+			boolean bTestPolygonInterior, int[] vertexIndices,
+			double[] distances, double[] nearestXY);
+
+	/**
+	 * Finds the nearest vertex of the Geometry for each of the query points.
+	 * Uses the QuadTree in the same way as getNearestCoordinates.
+	 * 
+	 * @param geom
+	 *            The input Geometry.
+	 * @param inputXY
+	 *            The query points as x, y pairs.
+	 * @param vertexIndices
+	 *            Receives the index of the nearest vertex for each query
+	 *            point, or -1 when geom is empty. Can be null.
+	 * @param distances
+	 *            Receives the distance for each query point, or NaN when geom
+	 *            is empty. Can be null.
+	 * @param nearestXY
+	 *            Receives the nearest vertices as x, y pairs. Can be null.
+	 */
+	public abstract void getNearestVertexIndices(Geometry geom,
+			double[] inputXY, int[] vertexIndices, double[] distances,
+			double[] nearestXY);
+
+	@Override
+	public boolean canAccelerateGeometry(Geometry geometry) {
+		return GeometryAccelerators.canUseQuadTree(geometry);
+	}
+
+	/**
+	 * Builds the QuadTree accelerator of a polyline or a polygon. The
+	 * nearest coordinate and nearest vertex queries use it to find the
+	 * nearest segments without visiting every segment.
+	 */
+	@Override
+	public boolean accelerateGeometry(Geometry geometry,
+			SpatialReference spatialReference,
+			GeometryAccelerationDegree accelDegree) {
+		if (!canAccelerateGeometry(geometry))
+			return false;
+
+		return ((MultiVertexGeometryImpl) geometry._getImpl())
+				._buildQuadTreeAccelerator(accelDegree);
+	}
+
 	public static OperatorProximity2D local() {
 		return (OperatorProximity2D) OperatorFactoryLocal.getInstance()
 				.getOperator(Type.Proximity2D);
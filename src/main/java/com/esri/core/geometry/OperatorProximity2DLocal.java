@@ -27,6 +27,7 @@ package com.esri.core.geometry;
 import com.esri.core.geometry.VertexDescription.Semantics;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 
 class OperatorProximity2DLocal extends OperatorProximity2D {
 
@@ -211,6 +212,217 @@ class OperatorProximity2DLocal extends OperatorProximity2D {
 		}
 	}
 
+	// Finds the nearest segment or vertex with a nearest first search in the
+	// quad tree of a multipath, or the nearest point of a multipoint. The
+	// ties are resolved as in the linear search: the smallest vertex index
+	// wins. The instance is reused for the points of a bulk query.
+	static final class NearestFinder implements
+			QuadTreeImpl.QuadTreeNearestIteratorImpl.DistanceFunction {
+		private QuadTreeImpl m_quadTree;
+		private QuadTreeImpl.QuadTreeNearestIteratorImpl m_iterator;
+		private MultiVertexGeometryImpl m_impl;
+		private SegmentIteratorImpl m_segIter;
+		private boolean m_bVertices;
+		private int[] m_isolatedVertices;
+		private Envelope2D m_query = new Envelope2D();
+		private Point2D m_inputPoint = new Point2D();
+		private Point2D m_pt = new Point2D();
+		private Point2D m_pt2 = new Point2D();
+		private int m_ptIndex;
+
+		Point2D m_closest = new Point2D();
+		int m_closestIndex;
+		double m_closestDistanceSq;
+		int m_candidateCount;
+
+		NearestFinder(MultiVertexGeometryImpl impl, QuadTreeImpl quadTree,
+				boolean bVertices) {
+			m_impl = impl;
+			m_quadTree = quadTree;
+			m_iterator = quadTree.getNearestIterator();
+			m_bVertices = bVertices;
+			if (impl instanceof MultiPathImpl) {
+				MultiPathImpl mpImpl = (MultiPathImpl) impl;
+				m_segIter = mpImpl.querySegmentIterator();
+				if (bVertices) {
+					// The vertices of single point open paths are not in the
+					// segment quad tree.
+					int count = 0;
+					for (int ipath = 0, n = mpImpl.getPathCount(); ipath < n; ipath++) {
+						if (mpImpl.getPathSize(ipath) == 1
+								&& !mpImpl.isClosedPath(ipath))
+							count++;
+					}
+
+					m_isolatedVertices = new int[count];
+					count = 0;
+					for (int ipath = 0, n = mpImpl.getPathCount(); ipath < n; ipath++) {
+						if (mpImpl.getPathSize(ipath) == 1
+								&& !mpImpl.isClosedPath(ipath))
+							m_isolatedVertices[count++] = mpImpl
+									.getPathStart(ipath);
+					}
+				}
+			}
+		}
+
+		void find(Point2D inputPoint) {
+			m_inputPoint.setCoords(inputPoint);
+			m_query.setCoords(inputPoint);
+			m_closestIndex = -1;
+			m_closestDistanceSq = NumberUtils.doubleMax();
+			m_candidateCount = 0;
+			if (m_isolatedVertices != null) {
+				for (int i = 0; i < m_isolatedVertices.length; i++) {
+					m_impl.getXY(m_isolatedVertices[i], m_pt);
+					m_ptIndex = m_isolatedVertices[i];
+					update_(Point2D.sqrDistance(m_pt, m_inputPoint));
+				}
+			}
+
+			m_iterator.resetIterator(m_query, NumberUtils.doubleMax(), this);
+			int element = m_iterator.next();
+			if (element == -1)
+				return;
+
+			// The elements at the same distance are the candidates for the
+			// tie.
+			m_iterator.setMaxDistance(Math.nextUp(m_iterator.getDistance()));
+			for (; element != -1; element = m_iterator.next())
+				update_(getDistanceSq_(m_quadTree.getElement(element)));
+		}
+
+		@Override
+		public double getDistance(int element) {
+			return Math.sqrt(getDistanceSq_(element));
+		}
+
+		private void update_(double distanceSq) {
+			if (distanceSq < m_closestDistanceSq) {
+				m_candidateCount = 1;
+			} else if (distanceSq == m_closestDistanceSq) {
+				if (m_bVertices && m_ptIndex == m_closestIndex)
+					return;
+
+				m_candidateCount++;
+				if (m_ptIndex > m_closestIndex)
+					return;
+			} else
+				return;
+
+			m_closest.setCoords(m_pt);
+			m_closestIndex = m_ptIndex;
+			m_closestDistanceSq = distanceSq;
+		}
+
+		// Calculates the nearest coordinate or vertex of the element to the
+		// input point.
+		private double getDistanceSq_(int element) {
+			if (m_segIter == null) {
+				m_impl.getXY(element, m_pt);
+				m_ptIndex = element;
+				return Point2D.sqrDistance(m_pt, m_inputPoint);
+			}
+
+			m_segIter.resetToVertex(element);
+			Segment segment = m_segIter.nextSegment();
+			if (!m_bVertices) {
+				double t = segment.getClosestCoordinate(m_inputPoint, false);
+				segment.getCoord2D(t, m_pt);
+				m_ptIndex = element;
+				return Point2D.sqrDistance(m_pt, m_inputPoint);
+			}
+
+			int endIndex = m_segIter.getEndPointIndex();
+			m_impl.getXY(element, m_pt);
+			m_impl.getXY(endIndex, m_pt2);
+			double distanceSq = Point2D.sqrDistance(m_pt, m_inputPoint);
+			double distanceSq2 = Point2D.sqrDistance(m_pt2, m_inputPoint);
+			if (distanceSq2 < distanceSq
+					|| (distanceSq2 == distanceSq && endIndex < element)) {
+				m_pt.setCoords(m_pt2);
+				m_ptIndex = endIndex;
+				return distanceSq2;
+			}
+
+			m_ptIndex = element;
+			return distanceSq;
+		}
+	}
+
+	// Collects the vertices within the search radius. Keeps no more than
+	// twice the max vertex count, so that the whole candidate list is not
+	// sorted.
+	static final class NearestVerticesCollector {
+		private ArrayList<Proximity2DResult> m_results = new ArrayList<Proximity2DResult>();
+		private int m_maxCount;
+		private double m_searchRadiusSq;
+		private double m_maxDistance = NumberUtils.doubleMax();
+
+		NearestVerticesCollector(double searchRadius, int maxCount) {
+			m_searchRadiusSq = searchRadius * searchRadius;
+			m_maxCount = maxCount;
+		}
+
+		void add(double x, double y, int index, Point2D inputPoint) {
+			double xDiff = inputPoint.x - x;
+			double yDiff = inputPoint.y - y;
+			double distanceSq = xDiff * xDiff + yDiff * yDiff;
+			if (distanceSq > m_searchRadiusSq)
+				return;
+
+			double distance = Math.sqrt(distanceSq);
+			if (distance > m_maxDistance)
+				return;
+
+			Proximity2DResult result = new Proximity2DResult();
+			result._setParams(x, y, index, distance);
+			m_results.add(result);
+			if (m_results.size() > 2L * m_maxCount) {
+				truncate_();
+				// Nothing farther than the last kept vertex can be returned.
+				m_maxDistance = m_results.get(m_maxCount - 1).m_distance;
+			}
+		}
+
+		Proximity2DResult[] getResults() {
+			truncate_();
+			return m_results.toArray(new Proximity2DResult[0]);
+		}
+
+		private void truncate_() {
+			// Sorted by the distance, then by the vertex index, which is the
+			// order of a stable sort of the vertices by distance.
+			Collections.sort(m_results, new Comparator<Proximity2DResult>() {
+				@Override
+				public int compare(Proximity2DResult v1, Proximity2DResult v2) {
+					if (v1.m_distance != v2.m_distance)
+						return v1.m_distance < v2.m_distance ? -1 : 1;
+
+					return v1.m_vertexIndex < v2.m_vertexIndex ? -1
+							: (v1.m_vertexIndex == v2.m_vertexIndex ? 0 : 1);
+				}
+			});
+
+			if (m_results.size() > m_maxCount)
+				m_results.subList(m_maxCount, m_results.size()).clear();
+		}
+	}
+
+	// The number of query points from which the bulk queries build a quad
+	// tree for the geometries that have no quad tree accelerator.
+	private static final int c_bulk_quad_tree_min_count = 8;
+
+	// Returns the quad tree accelerator of a multipath, or null.
+	private static QuadTreeImpl getQuadTree_(Geometry geom) {
+		if (!Geometry.isMultiPath(geom.getType().value()))
+			return null;
+
+		GeometryAccelerators accel = ((MultiPathImpl) geom._getImpl())
+				._getAccelerators();
+		return accel != null ? accel.getQuadTree() : null;
+	}
+
 	@Override
 	public Proximity2DResult getNearestCoordinate(Geometry geom,
 			Point inputPoint, boolean bTestPolygonInterior) {
@@ -319,6 +531,126 @@ class OperatorProximity2DLocal extends OperatorProximity2D {
 		}
 	}
 
+	@Override
+	public void getNearestCoordinates(Geometry geom, double[] inputXY,
+			boolean bTestPolygonInterior, int[] vertexIndices,
+			double[] distances, double[] nearestXY) {
+		bulkGetNearest_(geom, inputXY, false, bTestPolygonInterior,
+				vertexIndices, distances, nearestXY);
+	}
+
+	@Override
+	public void getNearestVertexIndices(Geometry geom, double[] inputXY,
+			int[] vertexIndices, double[] distances, double[] nearestXY) {
+		bulkGetNearest_(geom, inputXY, true, false, vertexIndices, distances,
+				nearestXY);
+	}
+
+	private void bulkGetNearest_(Geometry geom, double[] inputXY,
+			boolean bVertices, boolean bTestPolygonInterior,
+			int[] vertexIndices, double[] distances, double[] nearestXY) {
+		int count = inputXY.length / 2;
+		if (inputXY.length % 2 != 0
+				|| (vertexIndices != null && vertexIndices.length < count)
+				|| (distances != null && distances.length < count)
+				|| (nearestXY != null && nearestXY.length < 2 * count))
+			throw new IllegalArgumentException();
+
+		Geometry proxmityTestGeom = geom;
+		if (geom.getType() == Geometry.Type.Envelope) {
+			Polygon polygon = new Polygon();
+			polygon.addEnvelope((Envelope) geom, false);
+			proxmityTestGeom = polygon;
+		}
+
+		NearestFinder finder = null;
+		Polygon polygon = null;
+		double tolerance = 0;
+		QuadTreeImpl quadTree = null;
+		if (!geom.isEmpty() && count >= c_bulk_quad_tree_min_count) {
+			Geometry.Type gt = proxmityTestGeom.getType();
+			if (gt == Geometry.Type.MultiPoint) {
+				quadTree = InternalUtils
+						.buildQuadTree((MultiPointImpl) proxmityTestGeom
+								._getImpl());
+			} else if (Geometry.isMultiPath(gt.value())) {
+				quadTree = getQuadTree_(proxmityTestGeom);
+				if (quadTree == null
+						&& GeometryAccelerators
+								.canUseQuadTree(proxmityTestGeom))
+					quadTree = InternalUtils
+							.buildQuadTree((MultiPathImpl) proxmityTestGeom
+									._getImpl());
+
+				if (quadTree != null && bTestPolygonInterior
+						&& gt == Geometry.Type.Polygon) {
+					polygon = (Polygon) proxmityTestGeom;
+					tolerance = InternalUtils.calculateToleranceFromGeometry(
+							null, polygon, false);
+				}
+			}
+
+			if (quadTree != null)
+				finder = new NearestFinder(
+						(MultiVertexGeometryImpl) proxmityTestGeom._getImpl(),
+						quadTree, bVertices || gt == Geometry.Type.MultiPoint);
+		}
+
+		boolean bAccelerated = getQuadTree_(proxmityTestGeom) != null;
+		Point2D inputPoint = new Point2D();
+		Point point = new Point();
+		for (int i = 0; i < count; i++) {
+			inputPoint.setCoords(inputXY[2 * i], inputXY[2 * i + 1]);
+			int index;
+			double distance;
+			double x, y;
+			if (finder != null) {
+				if (polygon != null
+						&& (bAccelerated ? PolygonUtils.isPointInPolygon2D(
+								polygon, inputPoint, tolerance) != PolygonUtils.PiPResult.PiPOutside
+								: PointInPolygonHelper
+										._isPointInPolygonInternalWithQuadTree(
+												polygon, quadTree, inputPoint,
+												tolerance) != 0)) {
+					index = 0;
+					distance = 0;
+					x = inputPoint.x;
+					y = inputPoint.y;
+				} else {
+					finder.find(inputPoint);
+					index = finder.m_closestIndex;
+					distance = Math.sqrt(finder.m_closestDistanceSq);
+					x = finder.m_closest.x;
+					y = finder.m_closest.y;
+				}
+			} else {
+				point.setXY(inputPoint);
+				Proximity2DResult result = bVertices ? getNearestVertex(geom,
+						point) : getNearestCoordinate(geom, point,
+						bTestPolygonInterior);
+				if (result.isEmpty()) {
+					index = -1;
+					distance = NumberUtils.TheNaN;
+					x = y = NumberUtils.TheNaN;
+				} else {
+					index = result.m_vertexIndex;
+					distance = result.m_distance;
+					x = result.m_coordinate.x;
+					y = result.m_coordinate.y;
+				}
+			}
+
+			if (vertexIndices != null)
+				vertexIndices[i] = index;
+			if (distances != null)
+				distances[i] = distance;
+			if (nearestXY != null) {
+				nearestXY[2 * i] = x;
+				nearestXY[2 * i + 1] = y;
+			}
+		}
+	}
+
 	Proximity2DResult multiPathGetNearestCoordinate(MultiPath geom,
 			Point2D inputPoint, boolean bTestPolygonInterior,
 			boolean bCalculateLeftRightSide) {
@@ -357,7 +689,21 @@ class OperatorProximity2DLocal extends OperatorProximity2D {
 		boolean bRight = false;
 		int num_candidates = 0;
 
-		while (segIter.nextPath()) {
+		QuadTreeImpl quadTree = getQuadTree_(geom);
+		if (quadTree != null) {
+			NearestFinder finder = new NearestFinder(
+					(MultiPathImpl) geom._getImpl(), quadTree, false);
+			finder.find(inputPoint);
+			if (finder.m_closestIndex != -1) {
+				closest = finder.m_closest;
+				closestVertexIndex = finder.m_closestIndex;
+				closestPathIndex = geom.getPathIndexFromPointIndex(closestVertexIndex);
+				closestDistanceSq = finder.m_closestDistanceSq;
+				num_candidates = finder.m_candidateCount;
+			}
+		}
+
+		while (quadTree == null && segIter.nextPath()) {
 			while (segIter.hasNextSegment()) {
 				Segment segment = segIter.nextSegment();
 				double t = segment.getClosestCoordinate(inputPoint, false);
@@ -409,6 +755,17 @@ class OperatorProximity2DLocal extends OperatorProximity2D {
 			Point2D inputPoint) {
 		MultiVertexGeometryImpl mpImpl = (MultiVertexGeometryImpl) geom
 				._getImpl();
+		QuadTreeImpl quadTree = getQuadTree_(geom);
+		if (quadTree != null) {
+			NearestFinder finder = new NearestFinder(mpImpl, quadTree, true);
+			finder.find(inputPoint);
+			Proximity2DResult result = new Proximity2DResult();
+			result._setParams(finder.m_closest.x, finder.m_closest.y,
+					finder.m_closestIndex,
+					Math.sqrt(finder.m_closestDistanceSq));
+			return result;
+		}
+
 		AttributeStreamOfDbl position = (AttributeStreamOfDbl) mpImpl
 				.getAttributeStreamRef((Semantics.POSITION));
 		int pointCount = geom.getPointCount();
@@ -474,41 +831,53 @@ class OperatorProximity2DLocal extends OperatorProximity2D {
 
 		MultiVertexGeometryImpl mpImpl = (MultiVertexGeometryImpl) geom
 				._getImpl();
+		NearestVerticesCollector collector = new NearestVerticesCollector(
+				searchRadius, maxVertexCountToReturn);
+		Point2D pt = new Point2D();
+		QuadTreeImpl quadTree = getQuadTree_(geom);
+		if (quadTree != null) {
+			// Every vertex within the radius starts a segment that is found by
+			// the envelope query, except for the last vertex of an open path.
+			MultiPathImpl multiPathImpl = (MultiPathImpl) mpImpl;
+			Envelope2D env = new Envelope2D();
+			env.setCoords(inputPoint);
+			env.inflate(searchRadius, searchRadius);
+			QuadTreeImpl.QuadTreeIteratorImpl iter = quadTree.getIterator(env,
+					0);
+			for (int h = iter.next(); h != -1; h = iter.next()) {
+				int vertex = quadTree.getElement(h);
+				mpImpl.getXY(vertex, pt);
+				collector.add(pt.x, pt.y, vertex, inputPoint);
+				int path = multiPathImpl.getPathIndexFromPointIndex(vertex);
+				if (!multiPathImpl.isClosedPath(path)
+						&& vertex + 2 == multiPathImpl.getPathEnd(path)) {
+					mpImpl.getXY(vertex + 1, pt);
+					collector.add(pt.x, pt.y, vertex + 1, inputPoint);
+				}
+			}
+
+			for (int ipath = 0, n = multiPathImpl.getPathCount(); ipath < n; ipath++) {
+				if (multiPathImpl.getPathSize(ipath) == 1
+						&& !multiPathImpl.isClosedPath(ipath)) {
+					int vertex = multiPathImpl.getPathStart(ipath);
+					mpImpl.getXY(vertex, pt);
+					collector.add(pt.x, pt.y, vertex, inputPoint);
+				}
+			}
+
+			return collector.getResults();
+		}
+
 		AttributeStreamOfDbl position = (AttributeStreamOfDbl) mpImpl
 				.getAttributeStreamRef((Semantics.POSITION));
 		int pointCount = geom.getPointCount();
-
-		ArrayList<Proximity2DResult> v = new ArrayList<Proximity2DResult>(
-				maxVertexCountToReturn);
-
-		int count = 0;
-		double searchRadiusSq = searchRadius * searchRadius;
 		for (int i = 0; i < pointCount; i++) {
 			double x = position.read(2 * i);
 			double y = position.read(2 * i + 1);
-
-			double xDiff = inputPoint.x - x;
-			double yDiff = inputPoint.y - y;
-
-			double distanceSq = xDiff * xDiff + yDiff * yDiff;
-			if (distanceSq <= searchRadiusSq) {
-				Proximity2DResult result = new Proximity2DResult();
-				result._setParams(x, y, i, Math.sqrt(distanceSq));
-
-				count++;
-				v.add(result);
-
-			}
+			collector.add(x, y, i, inputPoint);
 		}
 
-		int vsize = v.size();
-		Collections.sort(v, new Proximity2DResultComparator());
-
-		if (maxVertexCountToReturn >= vsize)
-			return v.toArray(new Proximity2DResult[0]);
-		return v.subList(0, maxVertexCountToReturn).toArray(
-				new Proximity2DResult[0]);
-
+		return collector.getResults();
 	}
 
 	/*
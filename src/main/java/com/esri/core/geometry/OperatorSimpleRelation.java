@@ -30,7 +30,6 @@ import com.esri.core.geometry.Geometry.GeometryAccelerationDegree;
  * A base class for simple relation operators.
  */
 public abstract class OperatorSimpleRelation extends Operator {
-
 	/**
 	 * Performs the given relation operation between two geometries.
 	 * 
@@ -39,6 +38,71 @@ public abstract class OperatorSimpleRelation extends Operator {
 	public abstract boolean execute(Geometry inputGeom1, Geometry inputGeom2,
 			SpatialReference sr, ProgressTracker progressTracker);
 
+	/**
+	 * Performs the given relation operation between one geometry and each
+	 * geometry of a cursor.
+	 * 
+	 * When the cursor has enough geometries, inputGeom1 is accelerated once
+	 * for the whole batch, unless it already has accelerators. The
+	 * accelerators are built on a copy, so inputGeom1 is not modified.
+	 * 
+	 * @return Returns an array with an element for each geometry of the
+	 *         cursor, in the cursor order. The element is True if the
+	 *         relation holds between inputGeom1 and the geometry.
+	 */
+	public boolean[] execute(Geometry inputGeom1, GeometryCursor inputGeoms2,
+			SpatialReference sr, ProgressTracker progressTracker) {
+		return execute(inputGeom1, inputGeoms2, sr, 1, progressTracker);
+	}
+
+	/**
+	 * Performs the given relation operation between one geometry and each
+	 * geometry of a cursor, splitting the cursor geometries between threads.
+	 * 
+	 * With more than one thread, the threads share a frozen copy of
+	 * inputGeom1 (see MultiVertexGeometry.freeze), unless inputGeom1 is
+	 * frozen already. The geometries of the cursor must not be modified
+	 * while the call runs.
+	 * 
+	 * @param threadCount
+	 *            The max number of threads to use. 1 runs on the calling
+	 *            thread, 0 uses the number of processors.
+	 * @return Returns an array with an element for each geometry of the
+	 *         cursor, in the cursor order. The element is True if the
+	 *         relation holds between inputGeom1 and the geometry.
+	 */
+	public boolean[] execute(Geometry inputGeom1, GeometryCursor inputGeoms2,
+			final SpatialReference sr, int threadCount,
+			final ProgressTracker progressTracker) {
+		final boolean bDisjoint = getType() == Type.Disjoint;
+		final Envelope2D env_a = new Envelope2D();
+		inputGeom1.queryEnvelope2D(env_a);
+		return BatchRelation.execute(this, inputGeom1, inputGeoms2, sr,
+				threadCount, new BatchRelation.Predicate() {
+					@Override
+					public boolean execute(Geometry geom_a, Geometry geom_b) {
+						if (!env_a.isEmpty() && !geom_b.isEmpty()) {
+							// Skip the operator for the geometries that are
+							// far away.
+							Envelope2D env_b = new Envelope2D();
+							geom_b.queryEnvelope2D(env_b);
+							Envelope2D env_merged = new Envelope2D();
+							env_merged.setCoords(env_a);
+							env_merged.merge(env_b);
+							double tolerance = InternalUtils
+									.calculateToleranceFromGeometry(sr,
+											env_merged, false);
+							if (RelationalOperations.envelopeDisjointEnvelope_(
+									env_a, env_b, tolerance, progressTracker))
+								return bDisjoint;
+						}
+
+						return OperatorSimpleRelation.this.execute(geom_a,
+								geom_b, sr, progressTracker);
+					}
+				});
+	}
+
 	@Override
 	public boolean canAccelerateGeometry(Geometry geometry) {
 		return RelationalOperations.Accelerate_helper
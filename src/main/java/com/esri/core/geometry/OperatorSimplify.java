@@ -86,6 +86,23 @@ public abstract class OperatorSimplify extends Operator {
 			SpatialReference sr, boolean bForceSimplify,
 			ProgressTracker progressTracker);
 
+	/**
+	 *Performs the Simplify operation on the geometry cursor, cracking and clustering large geometries on a pool of threads.
+	 *
+	 *The parameters are the same as above, plus:
+	 *@param threadCount The number of threads to use. 1 simplifies on the calling thread, the same as the method above.
+	 *0 uses the number of available processors.
+	 *
+	 *With more than one thread, the segments of polylines and polygons without curves are intersected in parallel vertical strips.
+	 *The split points of shallow crossings can be placed differently than the sequential pass places them.
+	 *The vertices are clustered in parallel strips, and the clusters near the strip boundaries are formed in a different order,
+	 *which can split or join a few of them. So the result is not the same as the sequential result: the vertices can differ
+	 *by up to twice the tolerance, and the vertex count can differ slightly.
+	 */
+	public abstract GeometryCursor execute(GeometryCursor geoms,
+			SpatialReference sr, boolean bForceSimplify, int threadCount,
+			ProgressTracker progressTracker);
+
 	/**
 	 *Performs the Simplify operation on the geometry.
 	 *@param geom Geometry to simplify.
@@ -31,10 +31,13 @@ class OperatorSimplifyCursor extends GeometryCursor {
 
 	int m_index;
 	boolean m_bForceSimplify;
+	int m_threadCount;
 
 	// Reviewed vs. Feb 8 2011
 	OperatorSimplifyCursor(GeometryCursor geoms, SpatialReference spatialRef,
-			boolean bForceSimplify, ProgressTracker progressTracker) {
+			boolean bForceSimplify, int threadCount,
+			ProgressTracker progressTracker) {
+		m_threadCount = threadCount;
 		m_progressTracker = progressTracker;
 		m_bForceSimplify = bForceSimplify;
 		m_index = -1;
@@ -76,6 +79,7 @@ class OperatorSimplifyCursor extends GeometryCursor {
 		// Geometry.Type type = geometry.getType();
 
 		return OperatorSimplifyLocalHelper.simplifyAsFeature(geometry,
-				m_spatialReference, m_bForceSimplify, m_progressTracker);
+				m_spatialReference, m_bForceSimplify, m_threadCount,
+				m_progressTracker);
 	}
 }
@@ -30,8 +30,21 @@ class OperatorSimplifyLocal extends OperatorSimplify {
 	public GeometryCursor execute(GeometryCursor geoms,
 			SpatialReference spatialRef, boolean bForceSimplify,
 			ProgressTracker progressTracker) {
+		return execute(geoms, spatialRef, bForceSimplify, 1, progressTracker);
+	}
+
+	@Override
+	public GeometryCursor execute(GeometryCursor geoms,
+			SpatialReference spatialRef, boolean bForceSimplify,
+			int threadCount, ProgressTracker progressTracker) {
+		if (threadCount < 0)
+			throw new IllegalArgumentException();
+
+		if (threadCount == 0)
+			threadCount = ParallelTasks.getDefaultThreadCount();
+
 		return new OperatorSimplifyCursor(geoms, spatialRef, bForceSimplify,
-				progressTracker);
+				threadCount, progressTracker);
 	}
 
 	// Reviewed vs. Feb 8 2011
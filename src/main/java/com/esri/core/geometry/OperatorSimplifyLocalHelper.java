@@ -83,6 +83,7 @@ class OperatorSimplifyLocalHelper {
 	private AttributeStreamOfInt32 m_paths_for_OGC_tests;
 
 	private ProgressTracker m_progressTracker;
+	private int m_thread_count = 1;
 
 	private Treap m_AET;
 	private AttributeStreamOfInt32 m_xyToNode1; // for each vertex, contains -1,
@@ -100,7 +101,6 @@ class OperatorSimplifyLocalHelper {
 	private AttributeStreamOfInt32 m_pairs;
 	private AttributeStreamOfInt32 m_pairIndices;
 
-	private EditShape m_editShape;
 	private boolean m_bOGCRestrictions;
 	private boolean m_bPlanarSimplify;
 
@@ -329,20 +329,24 @@ class OperatorSimplifyLocalHelper {
 	private boolean checkCrackingPlanesweep_() // cracker,that uses planesweep
 												// algorithm.
 	{
-		EditShape editShape = new EditShape();
-		editShape.addGeometry(m_geometry);
-		NonSimpleResult result = new NonSimpleResult();
-		boolean bNonSimple = Cracker.needsCracking(false, editShape,
-				m_toleranceIsSimple, result, m_progressTracker);
-		if (bNonSimple) {
-			result.m_vertexIndex1 = editShape
-					.getVertexIndex(result.m_vertexIndex1);
-			result.m_vertexIndex2 = editShape
-					.getVertexIndex(result.m_vertexIndex2);
-			m_nonSimpleResult.Assign(result);
-			return false;
-		} else
-			return true;
+		EditShape editShape = TopoWorkspace.acquireEditShape();
+		try {
+			editShape.addGeometry(m_geometry);
+			NonSimpleResult result = new NonSimpleResult();
+			boolean bNonSimple = Cracker.needsCracking(false, editShape,
+					m_toleranceIsSimple, result, m_progressTracker);
+			if (bNonSimple) {
+				result.m_vertexIndex1 = editShape
+						.getVertexIndex(result.m_vertexIndex1);
+				result.m_vertexIndex2 = editShape
+						.getVertexIndex(result.m_vertexIndex2);
+				m_nonSimpleResult.Assign(result);
+				return false;
+			} else
+				return true;
+		} finally {
+			TopoWorkspace.releaseEditShape(editShape);
+		}
 	}
 
 	private boolean checkCrackingBrute_() // cracker, that uses brute force (a
@@ -1642,27 +1646,28 @@ class OperatorSimplifyLocalHelper {
 			}
 		}
 		
-		m_editShape = new EditShape();
-		m_editShape.addGeometry(m_geometry);
-
-		if (m_editShape.getTotalPointCount() != 0) {
-			assert (m_knownSimpleResult != GeometryXSimple.Strong);
-			if (m_knownSimpleResult != GeometryXSimple.Weak) {
-				CrackAndCluster.execute(m_editShape, m_toleranceSimplify,
-						m_progressTracker, true);
-			}
-	
-			if (m_geometry.getType().equals(Geometry.Type.Polygon)) {
-				Simplificator.execute(m_editShape, m_editShape.getFirstGeometry(),
-						m_knownSimpleResult, false, m_progressTracker);
+		EditShape editShape = TopoWorkspace.acquireEditShape();
+		try {
+			editShape.addGeometry(m_geometry);
+			if (editShape.getTotalPointCount() != 0) {
+				assert (m_knownSimpleResult != GeometryXSimple.Strong);
+				if (m_knownSimpleResult != GeometryXSimple.Weak) {
+					CrackAndCluster.execute(editShape, m_toleranceSimplify,
+							m_progressTracker, true, m_thread_count);
+				}
+
+				if (m_geometry.getType().equals(Geometry.Type.Polygon)) {
+					Simplificator.execute(editShape,
+							editShape.getFirstGeometry(), m_knownSimpleResult,
+							false, m_progressTracker);
+				}
 			}
+
+			// extract the result of simplify
+			m_geometry = editShape.getGeometry(editShape.getFirstGeometry());
+		} finally {
+			TopoWorkspace.releaseEditShape(editShape);
 		}
-		
-		m_geometry = m_editShape.getGeometry(m_editShape.getFirstGeometry()); // extract
-																				// the
-																				// result
-																				// of
-																				// simplify
 
 		if (m_geometry.getType().equals(Geometry.Type.Polygon)) {
 			((MultiPathImpl)m_geometry._getImpl())._updateOGCFlags();
@@ -1906,6 +1911,17 @@ class OperatorSimplifyLocalHelper {
 	static protected Geometry simplifyAsFeature(/* const */Geometry geometry, /* const */
 	SpatialReference spatialReference, boolean bForce,
 			ProgressTracker progressTracker) {
+		return simplifyAsFeature(geometry, spatialReference, bForce, 1,
+				progressTracker);
+	}
+
+	/**
+	 * Same as above. thread_count is the number of threads used to crack the
+	 * geometry.
+	 */
+	static Geometry simplifyAsFeature(Geometry geometry,
+			SpatialReference spatialReference, boolean bForce,
+			int thread_count, ProgressTracker progressTracker) {
 		if (geometry.isEmpty())
 			return geometry;
 		Geometry.Type gt = geometry.getType();
@@ -1928,7 +1944,7 @@ class OperatorSimplifyLocalHelper {
 			Polyline polyline = new Polyline(seg.getDescription());
 			polyline.addSegment(seg, true);
 			return simplifyAsFeature(polyline, spatialReference, bForce,
-					progressTracker);
+					thread_count, progressTracker);
 		}
 
 		double geomTolerance = 0;
@@ -1954,6 +1970,7 @@ class OperatorSimplifyLocalHelper {
 		OperatorSimplifyLocalHelper helper = new OperatorSimplifyLocalHelper(
 				geometry, spatialReference, knownSimpleResult, progressTracker,
 				false);
+		helper.m_thread_count = thread_count;
 
 		Geometry result;
 
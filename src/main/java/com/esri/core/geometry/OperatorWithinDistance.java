@@ -0,0 +1,120 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import com.esri.core.geometry.Geometry.GeometryAccelerationDegree;
+
+/**
+ * Tests if geometries are within a given distance from each other.
+ * 
+ * The test stops at the first pair of segments or points found within the
+ * distance, so it is usually faster than comparing the result of the
+ * OperatorDistance with the distance. No buffer is calculated.
+ */
+public abstract class OperatorWithinDistance extends Operator {
+	@Override
+	public Type getType() {
+		return Type.WithinDistance;
+	}
+
+	/**
+	 * Tests if two geometries are within the given distance from each other.
+	 * 
+	 * @param geom1
+	 *            The first geometry.
+	 * @param geom2
+	 *            The second geometry.
+	 * @param distance
+	 *            The distance. Must not be negative.
+	 * @return Returns True if the distance between the geometries is not
+	 *         larger than the given distance. Returns False if a geometry is
+	 *         empty.
+	 */
+	public abstract boolean execute(Geometry geom1, Geometry geom2,
+			double distance, ProgressTracker progressTracker);
+
+	/**
+	 * Tests if each geometry of a cursor is within the given distance from
+	 * geom1.
+	 * 
+	 * When the cursor has enough geometries, geom1 is accelerated once for
+	 * the whole batch, unless it already has accelerators. The accelerators
+	 * are built on a copy, so geom1 is not modified.
+	 * 
+	 * @return Returns an array with an element for each geometry of the
+	 *         cursor, in the cursor order.
+	 */
+	public boolean[] execute(Geometry geom1, GeometryCursor geoms2,
+			double distance, ProgressTracker progressTracker) {
+		return execute(geom1, geoms2, distance, 1, progressTracker);
+	}
+
+	/**
+	 * Tests if each geometry of a cursor is within the given distance from
+	 * geom1, splitting the cursor geometries between threads.
+	 * 
+	 * @param threadCount
+	 *            The max number of threads to use. 1 runs on the calling
+	 *            thread, 0 uses the number of processors.
+	 * @return Returns an array with an element for each geometry of the
+	 *         cursor, in the cursor order.
+	 */
+	public boolean[] execute(Geometry geom1, GeometryCursor geoms2,
+			final double distance, int threadCount,
+			final ProgressTracker progressTracker) {
+		return BatchRelation.execute(this, geom1, geoms2, null, threadCount,
+				new BatchRelation.Predicate() {
+					@Override
+					public boolean execute(Geometry geom_a, Geometry geom_b) {
+						return OperatorWithinDistance.this.execute(geom_a,
+								geom_b, distance, progressTracker);
+					}
+				});
+	}
+
+	@Override
+	public boolean canAccelerateGeometry(Geometry geometry) {
+		return RelationalOperations.Accelerate_helper
+				.can_accelerate_geometry(geometry);
+	}
+
+	/**
+	 * Builds the quad tree accelerator used to find the segments within the
+	 * distance, and for polygons, the rasterized geometry used to accept the
+	 * geometries inside of the polygon without looking at the segments.
+	 */
+	@Override
+	public boolean accelerateGeometry(Geometry geometry,
+			SpatialReference spatialReference,
+			GeometryAccelerationDegree accelDegree) {
+		return RelationalOperations.Accelerate_helper.accelerate_geometry(
+				geometry, spatialReference, accelDegree);
+	}
+
+	public static OperatorWithinDistance local() {
+		return (OperatorWithinDistance) OperatorFactoryLocal.getInstance()
+				.getOperator(Type.WithinDistance);
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+class OperatorWithinDistanceLocal extends OperatorWithinDistance {
+
+	@Override
+	public boolean execute(Geometry geom1, Geometry geom2, double distance,
+			ProgressTracker progressTracker) {
+		if (null == geom1 || null == geom2 || !(distance >= 0))
+			throw new IllegalArgumentException();
+
+		if (geom1.isEmpty() || geom2.isEmpty())
+			return false;
+
+		Envelope2D env1 = new Envelope2D();
+		geom1.queryEnvelope2D(env1);
+		Envelope2D env2 = new Envelope2D();
+		geom2.queryEnvelope2D(env2);
+
+		double sqrDistance = distance * distance;
+		if (env1.sqrDistance(env2) > sqrDistance)
+			return false;
+
+		// Every point of one envelope is within the distance from every
+		// point of the other.
+		double dx = Math.max(env1.xmax, env2.xmax)
+				- Math.min(env1.xmin, env2.xmin);
+		double dy = Math.max(env1.ymax, env2.ymax)
+				- Math.min(env1.ymin, env2.ymin);
+		if (dx * dx + dy * dy <= sqrDistance)
+			return true;
+
+		if (isInsideRasterizedPolygon_(geom1, geom2, env2)
+				|| isInsideRasterizedPolygon_(geom2, geom1, env1))
+			return true;
+
+		OperatorDistanceLocal distanceOp = (OperatorDistanceLocal) OperatorFactoryLocal
+				.getInstance().getOperator(Type.Distance);
+		return distanceOp.execute_(geom1, geom2, distance, distance, null,
+				null, progressTracker) <= distance;
+	}
+
+	// Returns True if the polygon has the rasterized geometry accelerator,
+	// and the raster tells the geometry is inside of the polygon.
+	private static boolean isInsideRasterizedPolygon_(Geometry polygon,
+			Geometry geometry, Envelope2D env2D) {
+		if (polygon.getType() != Geometry.Type.Polygon)
+			return false;
+
+		GeometryAccelerators accel = ((MultiVertexGeometryImpl) polygon
+				._getImpl())._getAccelerators();
+		if (accel == null)
+			return false;
+
+		RasterizedGeometry2D rgeom = accel.getRasterizedGeometry();
+		if (rgeom == null)
+			return false;
+
+		RasterizedGeometry2D.HitType hit;
+		if (geometry.getType() == Geometry.Type.Point)
+			hit = rgeom.queryPointInGeometry(env2D.xmin, env2D.ymin);
+		else
+			hit = rgeom.queryEnvelopeInGeometry(env2D);
+
+		return hit == RasterizedGeometry2D.HitType.Inside;
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs indexed tasks on a shared pool of daemon threads. The calling thread
+ * takes part in the work, so nested calls from inside a task do not starve
+ * the pool. Tasks are handed out one index at a time; the first exception
+ * thrown by a task stops the remaining tasks and is rethrown to the caller.
+ */
+final class ParallelTasks {
+	interface Task {
+		void run(int index);
+	}
+
+	private static volatile ExecutorService s_executor;
+
+	private ParallelTasks() {
+	}
+
+	/**
+	 * The number of threads to use when the caller does not specify it.
+	 */
+	static int getDefaultThreadCount() {
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Calls task.run(i) for each i in [0, taskCount). Returns after all tasks
+	 * completed.
+	 * 
+	 * @param taskCount
+	 *            The number of tasks.
+	 * @param threadCount
+	 *            The maximum number of threads to use, including the calling
+	 *            thread. When 1 or less, the tasks run sequentially on the
+	 *            calling thread.
+	 */
+	static void execute(final int taskCount, int threadCount, final Task task) {
+		if (threadCount > taskCount)
+			threadCount = taskCount;
+
+		if (threadCount <= 1) {
+			for (int i = 0; i < taskCount; i++)
+				task.run(i);
+
+			return;
+		}
+
+		final AtomicInteger next = new AtomicInteger(0);
+		final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+		Runnable worker = new Runnable() {
+			@Override
+			public void run() {
+				try {
+					int i;
+					while (error.get() == null
+							&& (i = next.getAndIncrement()) < taskCount) {
+						task.run(i);
+					}
+				} catch (Throwable t) {
+					error.compareAndSet(null, t);
+				}
+			}
+		};
+
+		ExecutorService executor = getExecutor_();
+		Future<?>[] futures = new Future<?>[threadCount - 1];
+		for (int i = 0; i < futures.length; i++)
+			futures[i] = executor.submit(worker);
+
+		worker.run();
+
+		boolean b_interrupted = false;
+		for (int i = 0; i < futures.length; i++) {
+			while (true) {
+				try {
+					futures[i].get();
+					break;
+				} catch (InterruptedException e) {
+					b_interrupted = true;
+				} catch (ExecutionException e) {
+					error.compareAndSet(null, e.getCause());
+					break;
+				}
+			}
+		}
+
+		if (b_interrupted)
+			Thread.currentThread().interrupt();
+
+		Throwable t = error.get();
+		if (t != null) {
+			if (t instanceof RuntimeException)
+				throw (RuntimeException) t;
+			if (t instanceof Error)
+				throw (Error) t;
+
+			throw new GeometryException(t.toString());
+		}
+	}
+
+	private static ExecutorService getExecutor_() {
+		ExecutorService executor = s_executor;
+		if (executor == null) {
+			synchronized (ParallelTasks.class) {
+				executor = s_executor;
+				if (executor == null) {
+					executor = Executors
+							.newCachedThreadPool(new ThreadFactory() {
+								private final AtomicInteger m_count = new AtomicInteger(
+										0);
+
+								@Override
+								public Thread newThread(Runnable r) {
+									Thread thread = new Thread(r,
+											"esri-geometry-worker-"
+													+ m_count.incrementAndGet());
+									thread.setDaemon(true);
+									return thread;
+								}
+							});
+					s_executor = executor;
+				}
+			}
+		}
+
+		return executor;
+	}
+}
@@ -161,7 +161,21 @@ final class PointInPolygonHelper {
 		return false;
 	}
 
-	private static int _isPointInPolygonInternal(Polygon inputPolygon,
+	static int _isPointInPolygonInternal(Polygon inputPolygon,
+			Point2D inputPoint, double tolerance) {
+		MultiPathImpl mpImpl = (MultiPathImpl) inputPolygon._getImpl();
+		double[] xy = _getLinearXY(mpImpl);
+		if (xy != null) {
+			boolean bAltenate = inputPolygon.getFillRule() == Polygon.FillRule.enumFillRuleOddEven;
+			return _isPointInRingsLinear(mpImpl, xy, 0,
+					mpImpl.getPathCount(), bAltenate, inputPoint.x,
+					inputPoint.y, tolerance);
+		}
+
+		return _isPointInPolygonBySegments(inputPolygon, inputPoint, tolerance);
+	}
+
+	static int _isPointInPolygonBySegments(Polygon inputPolygon,
 			Point2D inputPoint, double tolerance) {
 
 		boolean bAltenate = inputPolygon.getFillRule() == Polygon.FillRule.enumFillRuleOddEven;
@@ -180,7 +194,7 @@ final class PointInPolygonHelper {
 		return helper.result();
 	}
 
-	private static int _isPointInPolygonInternalWithQuadTree(
+	static int _isPointInPolygonInternalWithQuadTree(
 			Polygon inputPolygon, QuadTreeImpl quadTree, Point2D inputPoint,
 			double tolerance) {
 		Envelope2D envPoly = new Envelope2D();
@@ -273,6 +287,13 @@ final class PointInPolygonHelper {
 				else if (hit == RasterizedGeometry2D.HitType.Outside)
 					return 0;
 			}
+
+			QuadTreeImpl qtree = accel.getQuadTree();
+			if (qtree != null) {
+				return _isPointInPolygonInternalWithQuadTree(inputPolygon,
+						qtree, new Point2D(inputPointXVal, inputPointYVal),
+						tolerance);
+			}
 		}
 
 		return _isPointInPolygonInternal(inputPolygon, new Point2D(
@@ -322,6 +343,12 @@ final class PointInPolygonHelper {
 
 			return helper.result();
 		} else {
+			double[] xy = _getLinearXY(inputPolygonImpl);
+			if (xy != null)
+				return _isPointInRingsLinear(inputPolygonImpl, xy, iRing,
+						iRing + 1, bAltenate, inputPoint.x, inputPoint.y,
+						tolerance);
+
 			SegmentIteratorImpl iter = inputPolygonImpl.querySegmentIterator();
 			iter.resetToPath(iRing);
 
@@ -416,6 +443,140 @@ final class PointInPolygonHelper {
 		return false;
 	}
 
+	/**
+	 * Returns the array of the XY coordinates of a multipath that has only
+	 * line segments, or null if the coordinates are not stored in a plain
+	 * array (compact or off-heap storage), or there are curves.
+	 */
+	static double[] _getLinearXY(MultiPathImpl mpImpl) {
+		if (mpImpl.hasNonLinearSegments())
+			return null;
+
+		mpImpl._verifyStreamsKeepCompactXY();
+		if (mpImpl.m_compactXY != null || mpImpl.m_vertexAttributes == null)
+			return null;
+
+		return ((AttributeStreamOfDbl) mpImpl.m_vertexAttributes[0])
+				._getHeapBuffer();
+	}
+
+	/**
+	 * Point in polygon test for the closed paths [pathFrom, pathTo) of a
+	 * multipath with line segments only. Reads the coordinates straight from
+	 * the XY array instead of going through the SegmentIterator, and gives
+	 * the same results as processSegment would for each segment. Returns 0
+	 * for outside, 1 for inside, and -1 for the boundary.
+	 */
+	static int _isPointInRingsLinear(MultiPathImpl mpImpl, double[] xy,
+			int pathFrom, int pathTo, boolean bAlternate, double px,
+			double py, double tolerance) {
+		boolean bTestBorder = tolerance != 0;
+		double toleranceSqr = tolerance * tolerance;
+		double miny = py - tolerance;
+		double maxy = py + tolerance;
+		Point2D pt = null;
+		int windnum = 0;
+		for (int ipath = pathFrom; ipath < pathTo; ipath++) {
+			int start = mpImpl.getPathStart(ipath);
+			int end = mpImpl.getPathEnd(ipath);
+			if (start == end)
+				continue;
+
+			// The closing segment goes first, then the segments of the path.
+			double x1 = xy[(end - 1) * 2];
+			double y1 = xy[(end - 1) * 2 + 1];
+			for (int i = start; i < end; i++) {
+				double x2 = xy[i * 2];
+				double y2 = xy[i * 2 + 1];
+				double ymin = y1;
+				double ymax = y2;
+				if (ymin > ymax) {
+					ymin = y2;
+					ymax = y1;
+				}
+
+				if (ymin > maxy || ymax < miny) {
+					x1 = x2;
+					y1 = y2;
+					continue;
+				}
+
+				if (bTestBorder) {
+					// Same as Line.getClosestCoordinate and getCoord2D.
+					double vx = x2 - x1;
+					double vy = y2 - y1;
+					double v2 = vx * vx + vy * vy;
+					double t;
+					if (v2 == 0)
+						t = 0.5;
+					else {
+						t = ((px - x1) * vx + (py - y1) * vy) / v2;
+						if (t < 0.0)
+							t = 0.0;
+						else if (t > 1.0)
+							t = 1.0;
+					}
+
+					if (pt == null)
+						pt = new Point2D();
+					MathUtils.lerp(x1, y1, x2, y2, t, pt);
+					double dx = pt.x - px;
+					double dy = pt.y - py;
+					if (dx * dx + dy * dy <= toleranceSqr)
+						return -1;
+				}
+
+				if (ymin > py || ymax < py) {
+					x1 = x2;
+					y1 = y2;
+					continue;
+				}
+
+				// The rest is doOne.
+				if (!bTestBorder) {
+					if (bAlternate && px == x1 && py == y1 || px == x2
+							&& py == y2)
+						return -1;
+				}
+
+				if (y1 == py && y1 == y2) {
+					if (bAlternate && !bTestBorder) {
+						if (px > Math.min(x1, x2) && px < Math.max(x1, x2))
+							return -1;
+					}
+
+					x1 = x2;
+					y1 = y2;
+					continue;
+				}
+
+				boolean bToTheRight = false;
+				if (px > Math.max(x1, x2)) {
+					bToTheRight = true;
+				} else if (px >= Math.min(x1, x2)) {
+					// Same as Line.intersectionWithAxis2D.
+					double t = (py - y1) / (y2 - y1);
+					if (t >= 0.0 && t <= 1.0)
+						bToTheRight = MathUtils.lerp(x1, x2, t) <= px;
+				}
+
+				if (bToTheRight
+						&& !(py == y1 && py < y2 || py != y1 && py == y2
+								&& py < y1)) {
+					if (bAlternate)
+						windnum ^= 1;
+					else
+						windnum += y1 > y2 ? 1 : -1;
+				}
+
+				x1 = x2;
+				y1 = y2;
+			}
+		}
+
+		return windnum != 0 ? 1 : 0;
+	}
+
     static boolean quadTreeWillHelp(Polygon polygon, int c_queries)
     {
         int n = polygon.getPointCount();
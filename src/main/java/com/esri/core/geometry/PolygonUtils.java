@@ -154,9 +154,12 @@ final class PolygonUtils {
 				|| testResults.length < pointCount)
 			throw new IllegalArgumentException();// GEOMTHROW(invalid_argument);
 
+		byte[] res = new byte[pointCount];
+		testPointsInPolygon2D_(polygon, xyStreamBuffer, pointCount, tolerance,
+				res, 1);
+		PiPResult[] values = PiPResult.values();
 		for (int i = 0; i < pointCount; i++)
-			testResults[i] = isPointInPolygon2D(polygon, xyStreamBuffer[i * 2],
-					xyStreamBuffer[i * 2 + 1], tolerance);
+			testResults[i] = values[res[i]];
 	}
 
 	/**
@@ -190,6 +193,54 @@ final class PolygonUtils {
 		if (polygon.getType() == Geometry.Type.Polygon)
 			testPointsInPolygon2D((Polygon) polygon, xyStreamBuffer, count,
 					tolerance, testResults);
+		else if (polygon.getType() == Geometry.Type.Envelope) {
+			if (xyStreamBuffer.length / 2 < count || testResults.length < count)
+				throw new IllegalArgumentException();
+
+			Envelope2D env2D = new Envelope2D();
+			((Envelope) polygon).queryEnvelope2D(env2D);
+			byte[] res = new byte[count];
+			_testPointsInEnvelope2D(env2D, xyStreamBuffer, count, tolerance,
+					res);
+			PiPResult[] values = PiPResult.values();
+			for (int i = 0; i < count; i++)
+				testResults[i] = values[res[i]];
+		} else
+			throw new GeometryException("invalid_call");// GEOMTHROW(invalid_call);
+	}
+
+	/**
+	 * Tests point is inside an Area Geometry (Envelope, Polygon) for an array
+	 * of points. Writes the ordinal of the PiPResult of each point to
+	 * testResults: 0 for PiPOutside, 1 for PiPInside, 2 for PiPBoundary. It
+	 * tests border only if the tolerance is greater than 0, otherwise
+	 * PiPBoundary cannot be returned.
+	 * 
+	 * Uses the rasterized geometry and the quad tree of an accelerated
+	 * polygon. When the polygon is not accelerated and the batch is large
+	 * enough to pay for it, the accelerators are built for the duration of
+	 * the call (the polygon is not modified). To amortize the accelerators
+	 * over many calls, accelerate the polygon with
+	 * Operator.accelerateGeometry. The points that the raster cannot resolve
+	 * are tested in the order of their location.
+	 * 
+	 * @param threadCount
+	 *            The max number of threads to split the batch between. 1 runs
+	 *            on the calling thread, 0 uses the number of processors. The
+	 *            polygon must not be modified while the call runs.
+	 */
+	public static void testPointsInArea2D(Geometry polygon,
+			double[] xyStreamBuffer, int count, double tolerance,
+			byte[] testResults, int threadCount) {
+		if (threadCount < 0)
+			throw new IllegalArgumentException();
+
+		if (threadCount == 0)
+			threadCount = ParallelTasks.getDefaultThreadCount();
+
+		if (polygon.getType() == Geometry.Type.Polygon)
+			testPointsInPolygon2D_((Polygon) polygon, xyStreamBuffer, count,
+					tolerance, testResults, threadCount);
 		else if (polygon.getType() == Geometry.Type.Envelope) {
 			Envelope2D env2D = new Envelope2D();
 			((Envelope) polygon).queryEnvelope2D(env2D);
@@ -199,55 +250,222 @@ final class PolygonUtils {
 			throw new GeometryException("invalid_call");// GEOMTHROW(invalid_call);
 	}
 
+	public static void testPointsInArea2D(Geometry polygon,
+			double[] xyStreamBuffer, int count, double tolerance,
+			byte[] testResults) {
+		testPointsInArea2D(polygon, xyStreamBuffer, count, tolerance,
+				testResults, 1);
+	}
+
+	// The number of points in one task of the parallel batch.
+	static final int PARALLEL_BATCH_SIZE = 16 * 1024;
+
+	// The number of the grid cells along each axis used to order the points
+	// for locality.
+	private static final int LOCALITY_GRID_BITS = 6;
+
+	private static void testPointsInPolygon2D_(final Polygon polygon,
+			final double[] xyStreamBuffer, final int pointCount,
+			final double tolerance, final byte[] testResults, int threadCount) {
+		if (xyStreamBuffer.length / 2 < pointCount
+				|| testResults.length < pointCount)
+			throw new IllegalArgumentException();
+
+		if (polygon.isEmpty()) {
+			for (int i = 0; i < pointCount; i++)
+				testResults[i] = (byte) PiPResult.PiPOutside.ordinal();
+			return;
+		}
+
+		// This also updates the cached envelope, so that the threads only
+		// read the polygon.
+		final Envelope2D env = new Envelope2D();
+		polygon.queryLooseEnvelope(env);
+		env.inflate(tolerance, tolerance);
+
+		MultiPathImpl mpImpl = (MultiPathImpl) polygon._getImpl();
+		GeometryAccelerators accel = mpImpl._getAccelerators();
+		RasterizedGeometry2D rgeom = null;
+		QuadTreeImpl qtree = null;
+		if (accel != null) {
+			rgeom = accel.getRasterizedGeometry();
+			if (rgeom != null && rgeom.getToleranceXY() < tolerance)
+				rgeom = null;// the raster Border is too thin for the tolerance
+
+			qtree = accel.getQuadTree();
+		}
+
+		if (PointInPolygonHelper.quadTreeWillHelp(polygon, pointCount)) {
+			if (qtree == null)
+				qtree = InternalUtils.buildQuadTree(mpImpl);
+
+			if (rgeom == null && !mpImpl.hasNonLinearSegments())
+				rgeom = RasterizedGeometry2D.create(mpImpl, tolerance,
+						RasterizedGeometry2D.rasterSizeFromAccelerationDegree(
+								Geometry.GeometryAccelerationDegree.enumMedium));
+		}
+
+		final RasterizedGeometry2D rgeomF = rgeom;
+		final QuadTreeImpl qtreeF = qtree;
+		final int batchSize = threadCount > 1 ? PARALLEL_BATCH_SIZE : Math
+				.max(pointCount, 1);
+		int taskCount = (pointCount + batchSize - 1) / batchSize;
+		ParallelTasks.execute(taskCount, threadCount, new ParallelTasks.Task() {
+			@Override
+			public void run(int index) {
+				int start = index * batchSize;
+				int end = Math.min(pointCount, start + batchSize);
+				testPointsInPolygonRange_(polygon, rgeomF, qtreeF, env,
+						xyStreamBuffer, start, end, tolerance, testResults);
+			}
+		});
+	}
+
+	private static void testPointsInPolygonRange_(Polygon polygon,
+			RasterizedGeometry2D rgeom, QuadTreeImpl qtree, Envelope2D env,
+			double[] xyStreamBuffer, int start, int end, double tolerance,
+			byte[] testResults) {
+		int[] pending = null;
+		int pendingCount = 0;
+		for (int i = start; i < end; i++) {
+			double x = xyStreamBuffer[i * 2];
+			double y = xyStreamBuffer[i * 2 + 1];
+			if (!env.contains(x, y)) {
+				testResults[i] = (byte) PiPResult.PiPOutside.ordinal();
+				continue;
+			}
+
+			if (rgeom != null) {
+				RasterizedGeometry2D.HitType hit = rgeom.queryPointInGeometry(
+						x, y);
+				if (hit == RasterizedGeometry2D.HitType.Inside) {
+					testResults[i] = (byte) PiPResult.PiPInside.ordinal();
+					continue;
+				} else if (hit == RasterizedGeometry2D.HitType.Outside) {
+					testResults[i] = (byte) PiPResult.PiPOutside.ordinal();
+					continue;
+				}
+			}
+
+			if (pending == null)
+				pending = new int[end - i];
+
+			pending[pendingCount++] = i;
+		}
+
+		if (pendingCount == 0)
+			return;
+
+		if (qtree != null && pendingCount > 1)
+			pending = sortForLocality_(pending, pendingCount, xyStreamBuffer,
+					env);
+
+		Point2D pt = new Point2D();
+		for (int j = 0; j < pendingCount; j++) {
+			int i = pending[j];
+			pt.setCoords(xyStreamBuffer[i * 2], xyStreamBuffer[i * 2 + 1]);
+			int res = qtree != null ? PointInPolygonHelper
+					._isPointInPolygonInternalWithQuadTree(polygon, qtree, pt,
+							tolerance) : PointInPolygonHelper
+					._isPointInPolygonInternal(polygon, pt, tolerance);
+			if (res == 0)
+				testResults[i] = (byte) PiPResult.PiPOutside.ordinal();
+			else if (res == 1)
+				testResults[i] = (byte) PiPResult.PiPInside.ordinal();
+			else
+				testResults[i] = (byte) PiPResult.PiPBoundary.ordinal();
+		}
+	}
+
+	/**
+	 * Orders the point indices by the Morton code of their cell on a coarse
+	 * grid over the envelope, so that the consecutive quad tree queries visit
+	 * the same quads. Also used to group nearby geometries by their centers.
+	 */
+	static int[] sortForLocality_(int[] indices, int count,
+			double[] xyStreamBuffer, Envelope2D env) {
+		int gridSize = 1 << LOCALITY_GRID_BITS;
+		double scaleX = env.getWidth() > 0 ? gridSize / env.getWidth() : 0;
+		double scaleY = env.getHeight() > 0 ? gridSize / env.getHeight() : 0;
+		int[] keys = new int[count];
+		int[] bucketStart = new int[gridSize * gridSize + 1];
+		for (int j = 0; j < count; j++) {
+			int i = indices[j];
+			int ix = Math.min((int) ((xyStreamBuffer[i * 2] - env.xmin) * scaleX), gridSize - 1);
+			int iy = Math.min((int) ((xyStreamBuffer[i * 2 + 1] - env.ymin) * scaleY), gridSize - 1);
+			int key = 0;
+			for (int b = 0; b < LOCALITY_GRID_BITS; b++) {
+				key |= ((ix >> b) & 1) << (2 * b);
+				key |= ((iy >> b) & 1) << (2 * b + 1);
+			}
+
+			keys[j] = key;
+			bucketStart[key + 1]++;
+		}
+
+		for (int k = 1; k < bucketStart.length; k++)
+			bucketStart[k] += bucketStart[k - 1];
+
+		int[] sorted = new int[count];
+		for (int j = 0; j < count; j++)
+			sorted[bucketStart[keys[j]]++] = indices[j];
+
+		return sorted;
+	}
+
 	private static void _testPointsInEnvelope2D(Envelope2D env2D,
-			Point2D[] inputPoints, int count, double tolerance,
-			PiPResult[] testResults) {
-		if (inputPoints.length < count || testResults.length < count)
+			double[] xyStreamBuffer, int pointCount, double tolerance,
+			byte[] testResults) {
+		if (xyStreamBuffer.length / 2 < pointCount
+				|| testResults.length < pointCount)
 			throw new IllegalArgumentException();
 
 		if (env2D.isEmpty()) {
-			for (int i = 0; i < count; i++)
-				testResults[i] = PiPResult.PiPOutside;
+			for (int i = 0; i < pointCount; i++)
+				testResults[i] = (byte) PiPResult.PiPOutside.ordinal();
 			return;
 		}
 
-		Envelope2D envIn = env2D; // note for java port - assignement by value
+		Envelope2D envIn = new Envelope2D();
+		envIn.setCoords(env2D);
 		envIn.inflate(-tolerance * 0.5, -tolerance * 0.5);
-		Envelope2D envOut = env2D;// note for java port - assignement by value
+		Envelope2D envOut = new Envelope2D();
+		envOut.setCoords(env2D);
 		envOut.inflate(tolerance * 0.5, tolerance * 0.5);
-		for (int i = 0; i < count; i++) {
-			if (envIn.contains(inputPoints[i]))
-				testResults[i] = PiPResult.PiPInside;
-			else if (!envOut.contains(inputPoints[i]))
-				testResults[i] = PiPResult.PiPOutside;
+		for (int i = 0; i < pointCount; i++) {
+			double x = xyStreamBuffer[i * 2];
+			double y = xyStreamBuffer[i * 2 + 1];
+			if (envIn.contains(x, y))
+				testResults[i] = (byte) PiPResult.PiPInside.ordinal();
+			else if (!envOut.contains(x, y))
+				testResults[i] = (byte) PiPResult.PiPOutside.ordinal();
 			else
-				testResults[i] = PiPResult.PiPBoundary;
+				testResults[i] = (byte) PiPResult.PiPBoundary.ordinal();
 		}
 	}
 
 	private static void _testPointsInEnvelope2D(Envelope2D env2D,
-			double[] xyStreamBuffer, int pointCount, double tolerance,
+			Point2D[] inputPoints, int count, double tolerance,
 			PiPResult[] testResults) {
-		if (xyStreamBuffer.length / 2 < pointCount
-				|| testResults.length < pointCount)
+		if (inputPoints.length < count || testResults.length < count)
 			throw new IllegalArgumentException();
 
 		if (env2D.isEmpty()) {
-			for (int i = 0; i < pointCount; i++)
+			for (int i = 0; i < count; i++)
 				testResults[i] = PiPResult.PiPOutside;
 			return;
 		}
 
-		Envelope2D envIn = env2D; // note for java port - assignement by value
+		Envelope2D envIn = new Envelope2D();
+		envIn.setCoords(env2D);
 		envIn.inflate(-tolerance * 0.5, -tolerance * 0.5);
-		Envelope2D envOut = env2D;// note for java port - assignement by value
+		Envelope2D envOut = new Envelope2D();
+		envOut.setCoords(env2D);
 		envOut.inflate(tolerance * 0.5, tolerance * 0.5);
-		for (int i = 0; i < pointCount; i++) {
-			if (envIn
-					.contains(xyStreamBuffer[i * 2], xyStreamBuffer[i * 2 + 1]))
+		for (int i = 0; i < count; i++) {
+			if (envIn.contains(inputPoints[i]))
 				testResults[i] = PiPResult.PiPInside;
-			else if (!envIn.contains(xyStreamBuffer[i * 2],
-					xyStreamBuffer[i * 2 + 1]))
+			else if (!envOut.contains(inputPoints[i]))
 				testResults[i] = PiPResult.PiPOutside;
 			else
 				testResults[i] = PiPResult.PiPBoundary;
@@ -321,6 +321,262 @@ class QuadTreeImpl implements Serializable {
 		int m_index;
 	}
 
+	/**
+	 * Iterates the elements of the quad tree in the order of their distance
+	 * from a query, nearest first (best-first search). The quads and the
+	 * element bounding boxes are queued by their distance from the query
+	 * envelope, which is a lower bound of the element distance. The exact
+	 * distance is calculated by the caller's DistanceFunction only for the
+	 * elements whose bounding box comes to the top of the queue.
+	 */
+	static final class QuadTreeNearestIteratorImpl {
+		/**
+		 * Calculates the distance from the query to an element.
+		 */
+		interface DistanceFunction {
+			double getDistance(int element);
+		}
+
+		private static final int c_quad = 0;
+		private static final int c_box = 1;
+		private static final int c_element = 2;
+
+		/**
+		 * Resets the iterator to a new query. \param query The envelope of the
+		 * query. \param max_distance The elements farther than max_distance
+		 * are not returned. \param distance_function Calculates the distance
+		 * to an element. It must not be less than the distance from the query
+		 * envelope to the element bounding box.
+		 */
+		void resetIterator(Envelope2D query, double max_distance,
+				DistanceFunction distance_function) {
+			m_query.setCoords(query);
+			m_max_sqr_distance = max_distance * max_distance;
+			m_distance_function = distance_function;
+			m_size = 0;
+			m_quad_box_count = 0;
+			m_distance = NumberUtils.NaN();
+			if (m_quad_tree.m_root != -1) {
+				Envelope2D extent = m_quad_tree.m_extent;
+				push_(c_quad, m_quad_tree.m_root, newQuadBox_(extent.xmin,
+						extent.ymin, extent.xmax, extent.ymax), 0, 0);
+			}
+		}
+
+		/**
+		 * Returns the handle of the next nearest element, or -1 when there are
+		 * no more elements within the max distance. Elements stored more than
+		 * once (when the quad tree stores duplicates) are returned more than
+		 * once.
+		 */
+		int next() {
+			while (m_size > 0) {
+				double key = m_keys[0];
+				if (key > m_max_sqr_distance) {
+					m_size = 0;
+					break;
+				}
+
+				int kind = m_kinds[0];
+				int handle = m_handles[0];
+				int aux = m_aux[0];
+				double distance = m_distances[0];
+				pop_();
+				if (kind == c_element) {
+					m_distance = distance;
+					return handle;
+				}
+
+				if (kind == c_box) {
+					double d = m_distance_function.getDistance(m_quad_tree
+							.getElement(handle));
+					if (d * d <= m_max_sqr_distance)
+						push_(c_element, handle, -1, d * d, d);
+					continue;
+				}
+
+				// Queue the elements and the child quads of the quad.
+				for (int element_handle = m_quad_tree
+						.get_first_element_(handle); element_handle != -1; element_handle = m_quad_tree
+						.get_next_element_(element_handle)) {
+					double sqr_distance = m_query.sqrDistance(m_quad_tree
+							.getElementExtent(element_handle));
+					if (sqr_distance <= m_max_sqr_distance)
+						push_(c_box, element_handle, -1, sqr_distance, 0);
+				}
+
+				int b = aux * 4;
+				double x_mid = 0.5 * (m_quad_boxes[b] + m_quad_boxes[b + 2]);
+				double y_mid = 0.5 * (m_quad_boxes[b + 1] + m_quad_boxes[b + 3]);
+				for (int quadrant = 0; quadrant < 4; quadrant++) {
+					int child = m_quad_tree.get_child_(handle, quadrant);
+					if (child == -1)
+						continue;
+
+					// The same quadrant order as set_child_extents_.
+					double xmin = (quadrant == 0 || quadrant == 3) ? x_mid
+							: m_quad_boxes[b];
+					double xmax = (quadrant == 0 || quadrant == 3) ? m_quad_boxes[b + 2]
+							: x_mid;
+					double ymin = quadrant < 2 ? y_mid : m_quad_boxes[b + 1];
+					double ymax = quadrant < 2 ? m_quad_boxes[b + 3] : y_mid;
+					double sqr_distance = m_query.sqrDistance(xmin, ymin, xmax,
+							ymax);
+					if (sqr_distance <= m_max_sqr_distance)
+						push_(c_quad, child, newQuadBox_(xmin, ymin, xmax,
+								ymax), sqr_distance, 0);
+				}
+			}
+
+			m_distance = NumberUtils.NaN();
+			return -1;
+		}
+
+		/**
+		 * Lowers the max distance of the current query. The elements farther
+		 * than max_distance are not returned by the following next calls.
+		 */
+		void setMaxDistance(double max_distance) {
+			double max_sqr_distance = max_distance * max_distance;
+			if (max_sqr_distance < m_max_sqr_distance)
+				m_max_sqr_distance = max_sqr_distance;
+		}
+
+		/**
+		 * Returns the distance to the element returned by the last next call.
+		 */
+		double getDistance() {
+			return m_distance;
+		}
+
+		QuadTreeNearestIteratorImpl(QuadTreeImpl quad_tree) {
+			m_quad_tree = quad_tree;
+			m_query = new Envelope2D();
+			m_keys = new double[16];
+			m_distances = new double[16];
+			m_kinds = new int[16];
+			m_handles = new int[16];
+			m_aux = new int[16];
+			m_quad_boxes = new double[64];
+		}
+
+		private int newQuadBox_(double xmin, double ymin, double xmax,
+				double ymax) {
+			if (m_quad_box_count * 4 == m_quad_boxes.length) {
+				double[] boxes = new double[m_quad_boxes.length * 2];
+				System.arraycopy(m_quad_boxes, 0, boxes, 0,
+						m_quad_boxes.length);
+				m_quad_boxes = boxes;
+			}
+
+			int b = m_quad_box_count * 4;
+			m_quad_boxes[b] = xmin;
+			m_quad_boxes[b + 1] = ymin;
+			m_quad_boxes[b + 2] = xmax;
+			m_quad_boxes[b + 3] = ymax;
+			return m_quad_box_count++;
+		}
+
+		private void push_(int kind, int handle, int aux, double key,
+				double distance) {
+			if (m_size == m_keys.length) {
+				int capacity = m_size * 2;
+				double[] keys = new double[capacity];
+				System.arraycopy(m_keys, 0, keys, 0, m_size);
+				m_keys = keys;
+				double[] distances = new double[capacity];
+				System.arraycopy(m_distances, 0, distances, 0, m_size);
+				m_distances = distances;
+				int[] kinds = new int[capacity];
+				System.arraycopy(m_kinds, 0, kinds, 0, m_size);
+				m_kinds = kinds;
+				int[] handles = new int[capacity];
+				System.arraycopy(m_handles, 0, handles, 0, m_size);
+				m_handles = handles;
+				int[] auxs = new int[capacity];
+				System.arraycopy(m_aux, 0, auxs, 0, m_size);
+				m_aux = auxs;
+			}
+
+			// sift up. On equal keys, the elements go first.
+			int i = m_size++;
+			while (i > 0) {
+				int parent = (i - 1) >> 1;
+				if (!less_(key, kind, m_keys[parent], m_kinds[parent]))
+					break;
+
+				move_(parent, i);
+				i = parent;
+			}
+
+			set_(i, kind, handle, aux, key, distance);
+		}
+
+		private void pop_() {
+			m_size--;
+			if (m_size == 0)
+				return;
+
+			int last = m_size;
+			double key = m_keys[last];
+			int kind = m_kinds[last];
+			int i = 0;
+			while (true) {
+				int child = 2 * i + 1;
+				if (child >= m_size)
+					break;
+
+				if (child + 1 < m_size
+						&& less_(m_keys[child + 1], m_kinds[child + 1],
+								m_keys[child], m_kinds[child]))
+					child++;
+
+				if (!less_(m_keys[child], m_kinds[child], key, kind))
+					break;
+
+				move_(child, i);
+				i = child;
+			}
+
+			move_(last, i);
+		}
+
+		private static boolean less_(double key_1, int kind_1, double key_2,
+				int kind_2) {
+			return key_1 < key_2 || (key_1 == key_2 && kind_1 > kind_2);
+		}
+
+		private void move_(int from, int to) {
+			set_(to, m_kinds[from], m_handles[from], m_aux[from],
+					m_keys[from], m_distances[from]);
+		}
+
+		private void set_(int i, int kind, int handle, int aux, double key,
+				double distance) {
+			m_keys[i] = key;
+			m_kinds[i] = kind;
+			m_handles[i] = handle;
+			m_aux[i] = aux;
+			m_distances[i] = distance;
+		}
+
+		private QuadTreeImpl m_quad_tree;
+		private Envelope2D m_query;
+		private double m_max_sqr_distance;
+		private DistanceFunction m_distance_function;
+		private double m_distance;
+		// The queue is a binary heap in parallel arrays.
+		private int m_size;
+		private double[] m_keys;
+		private double[] m_distances;
+		private int[] m_kinds;
+		private int[] m_handles;
+		private int[] m_aux;
+		// The extents of the queued quads.
+		private double[] m_quad_boxes;
+		private int m_quad_box_count;
+	}
+
 	/**
 	 * Creates a Quad_tree_impl with the root having the extent of the input Envelope_2D, and height of the input height, where the root starts at height 0.
 	 * \param extent The extent of the Quad_tree_impl.
@@ -781,6 +1037,14 @@ class QuadTreeImpl implements Serializable {
 		return new QuadTreeSortedIteratorImpl(getIterator());
 	}
 
+	/**
+	 * Returns an iterator over the elements of the quad tree in the order of
+	 * their distance from a query. Call resetIterator before the first next.
+	 */
+	QuadTreeNearestIteratorImpl getNearestIterator() {
+		return new QuadTreeNearestIteratorImpl(this);
+	}
+
 	public long estimateMemorySize()
 	{
 		long size = SIZE_OF_QUAD_TREE_IMPL +
@@ -0,0 +1,179 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.io.Serializable;
+
+import static com.esri.core.geometry.SizeOf.SIZE_OF_QUANTIZED_XY;
+import static com.esri.core.geometry.SizeOf.sizeOfIntArray;
+
+/**
+ * Read only storage of XY coordinates as 32 bit integer offsets on a regular
+ * grid. A coordinate is stored as (origin + offset) * gridSize, where the
+ * origin is a whole number of grid cells. The grid is shared by all geometries
+ * quantized with the same grid size, so coincident vertices of different
+ * geometries stay coincident after the quantization.
+ * 
+ * Uses half of the memory of the AttributeStreamOfDbl holding the same XY
+ * coordinates.
+ */
+final class QuantizedXY implements Serializable {
+	private static final long serialVersionUID = 1L;
+	private static final double c_max_exact_long = 9007199254740992.0; // 2^53
+
+	private final int[] m_xy;
+	private final int m_pointCount;
+	private final long m_originX;
+	private final long m_originY;
+	private final double m_gridSize;
+
+	private QuantizedXY(int[] xy, int pointCount, long originX, long originY,
+			double gridSize) {
+		m_xy = xy;
+		m_pointCount = pointCount;
+		m_originX = originX;
+		m_originY = originY;
+		m_gridSize = gridSize;
+	}
+
+	/**
+	 * Quantizes the first pointCount XY pairs of the stream. Returns null when
+	 * the coordinates do not fit the 32 bit offsets with the given grid size,
+	 * or when there are NaN coordinates.
+	 */
+	static QuantizedXY create(AttributeStreamOfDbl xy, int pointCount,
+			Envelope2D env, double gridSize) {
+		if (!(gridSize > 0) || env.isEmpty())
+			return null;
+
+		double origin_x = Math.floor(env.xmin / gridSize);
+		double origin_y = Math.floor(env.ymin / gridSize);
+		double span_x = Math.ceil(env.xmax / gridSize) - origin_x;
+		double span_y = Math.ceil(env.ymax / gridSize) - origin_y;
+		if (!(span_x < Integer.MAX_VALUE) || !(span_y < Integer.MAX_VALUE)
+				|| !(Math.abs(origin_x) < c_max_exact_long)
+				|| !(Math.abs(origin_y) < c_max_exact_long))
+			return null;
+
+		long ox = (long) origin_x;
+		long oy = (long) origin_y;
+		int[] buffer = new int[pointCount * 2];
+		for (int i = 0; i < pointCount; i++) {
+			double x = xy.read(2 * i);
+			double y = xy.read(2 * i + 1);
+			if (NumberUtils.isNaN(x) || NumberUtils.isNaN(y))
+				return null;
+
+			buffer[2 * i] = (int) (Math.round(x / gridSize) - ox);
+			buffer[2 * i + 1] = (int) (Math.round(y / gridSize) - oy);
+		}
+
+		return new QuantizedXY(buffer, pointCount, ox, oy, gridSize);
+	}
+
+	int getPointCount() {
+		return m_pointCount;
+	}
+
+	double getGridSize() {
+		return m_gridSize;
+	}
+
+	double readX(int index) {
+		return (m_originX + m_xy[2 * index]) * m_gridSize;
+	}
+
+	double readY(int index) {
+		return (m_originY + m_xy[2 * index + 1]) * m_gridSize;
+	}
+
+	void read(int index, Point2D pt) {
+		pt.x = (m_originX + m_xy[2 * index]) * m_gridSize;
+		pt.y = (m_originY + m_xy[2 * index + 1]) * m_gridSize;
+	}
+
+	/**
+	 * Reads component (0 for x, 1 for y) of the coordinate with the given
+	 * offset in the XY stream.
+	 */
+	double readAsDbl(int offset) {
+		return ((offset & 1) == 0 ? (m_originX + m_xy[offset]) : (m_originY + m_xy[offset]))
+				* m_gridSize;
+	}
+
+	void queryEnvelope2D(Envelope2D env) {
+		env.setEmpty();
+		if (m_pointCount == 0)
+			return;
+
+		int xmin = m_xy[0], xmax = xmin;
+		int ymin = m_xy[1], ymax = ymin;
+		for (int i = 1; i < m_pointCount; i++) {
+			int x = m_xy[2 * i];
+			int y = m_xy[2 * i + 1];
+			if (x < xmin)
+				xmin = x;
+			else if (x > xmax)
+				xmax = x;
+
+			if (y < ymin)
+				ymin = y;
+			else if (y > ymax)
+				ymax = y;
+		}
+
+		env.setCoords((m_originX + xmin) * m_gridSize, (m_originY + ymin)
+				* m_gridSize, (m_originX + xmax) * m_gridSize,
+				(m_originY + ymax) * m_gridSize);
+	}
+
+	/**
+	 * Creates the double stream with the same coordinates.
+	 */
+	AttributeStreamOfDbl toDoubleStream() {
+		AttributeStreamOfDbl xy = new AttributeStreamOfDbl(m_pointCount * 2);
+		for (int i = 0, n = m_pointCount * 2; i < n; i += 2) {
+			xy.write(i, (m_originX + m_xy[i]) * m_gridSize);
+			xy.write(i + 1, (m_originY + m_xy[i + 1]) * m_gridSize);
+		}
+
+		return xy;
+	}
+
+	/**
+	 * Same as AttributeStreamOfDbl.calculateHashImpl for the stream returned
+	 * by toDoubleStream.
+	 */
+	int calculateHashImpl(int hashCode, int start, int end) {
+		for (int i = start, n = m_pointCount * 2; i < n && i < end; i++)
+			hashCode = NumberUtils.hash(hashCode, readAsDbl(i));
+
+		return hashCode;
+	}
+
+	long estimateMemorySize() {
+		return SIZE_OF_QUANTIZED_XY + sizeOfIntArray(m_xy.length);
+	}
+}
@@ -23,9 +23,19 @@
  */
 package com.esri.core.geometry;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import com.esri.core.geometry.Geometry.GeometryAccelerationDegree;
 
 public abstract class RasterizedGeometry2D {
+	// The query statistics. Null unless enabled with setCollectStatistics,
+	// so that the queries of a shared accelerator do not write to it.
+	private volatile QueryStatistics m_statistics;
+
+	private static final class QueryStatistics {
+		final AtomicLong m_query_count = new AtomicLong();
+		final AtomicLong m_hit_count = new AtomicLong();
+	}
 
 	public enum HitType {
 		Outside(0), // the test geometry is well outside the geometry bounds
@@ -80,12 +90,42 @@ public abstract class RasterizedGeometry2D {
 		if (!canUseAccelerator(geom))
 			throw new IllegalArgumentException();
 
-		RasterizedGeometry2DImpl gc = RasterizedGeometry2DImpl.createImpl(geom,
-				toleranceXY, rasterSizeBytes);
+		HierarchicalRasterizedGeometry2DImpl gc = HierarchicalRasterizedGeometry2DImpl
+				.createImpl(geom, toleranceXY, rasterSizeBytes, 0);
 		return (RasterizedGeometry2D) gc;
 
 	}
 
+	/**
+	 * Creates a multi-resolution rasterized geometry from a given Geometry.
+	 * Unlike the raster of the fixed size, only the cells close to the
+	 * boundary of the geometry are subdivided, so that large geometries with
+	 * detailed boundaries still have most of their area in the Inside and
+	 * Outside cells.
+	 * 
+	 * @param geom
+	 *            The input geometry to rasterize. It has to be a Polyline or
+	 *            a Polygon.
+	 * @param toleranceXY
+	 *            The tolerance of the rasterization. Cells that are closer
+	 *            than given tolerance to the Geometry are Border cells.
+	 * @param rasterSizeBytes
+	 *            The max size of the raster in bytes. Each cell takes 4
+	 *            bytes.
+	 * @param maxDepth
+	 *            The max number of the subdivisions of the geometry extent.
+	 *            When 0, the cells are subdivided down to the tolerance size.
+	 */
+	public static RasterizedGeometry2D createHierarchical(Geometry geom,
+			double toleranceXY, int rasterSizeBytes, int maxDepth) {
+		if (!canUseAccelerator(geom) || maxDepth < 0)
+			throw new IllegalArgumentException();
+
+		return HierarchicalRasterizedGeometry2DImpl.createImpl(
+				(MultiVertexGeometryImpl) geom._getImpl(), toleranceXY,
+				rasterSizeBytes, maxDepth);
+	}
+
 	public static int rasterSizeFromAccelerationDegree(
 			GeometryAccelerationDegree accelDegree) {
 		int value = 0;
@@ -118,6 +158,59 @@ public abstract class RasterizedGeometry2D {
 		return true;
 	}
 
+	/**
+	 * Enables or disables counting the queries made to this
+	 * RasterizedGeometry2D. The counting is disabled by default. Enabling it
+	 * resets the counts, disabling it discards them.
+	 */
+	public void setCollectStatistics(boolean bCollect) {
+		m_statistics = bCollect ? new QueryStatistics() : null;
+	}
+
+	/**
+	 * Returns the number of queries made to this RasterizedGeometry2D since
+	 * the counting was enabled with setCollectStatistics. Returns 0 when the
+	 * counting is disabled.
+	 */
+	public long getQueryCount() {
+		QueryStatistics statistics = m_statistics;
+		return statistics != null ? statistics.m_query_count.get() : 0;
+	}
+
+	/**
+	 * Returns the number of counted queries that were answered with Inside or
+	 * Outside, i.e. did not need the exact test.
+	 */
+	public long getHitCount() {
+		QueryStatistics statistics = m_statistics;
+		return statistics != null ? statistics.m_hit_count.get() : 0;
+	}
+
+	/**
+	 * Returns the ratio of the hit count to the query count, or 0 if there
+	 * were no counted queries.
+	 */
+	public double getHitRate() {
+		QueryStatistics statistics = m_statistics;
+		if (statistics == null)
+			return 0;
+
+		long queryCount = statistics.m_query_count.get();
+		return queryCount != 0 ? (double) statistics.m_hit_count.get()
+				/ queryCount : 0;
+	}
+
+	HitType countQuery_(HitType hit) {
+		QueryStatistics statistics = m_statistics;
+		if (statistics != null) {
+			statistics.m_query_count.incrementAndGet();
+			if (hit != HitType.Border)
+				statistics.m_hit_count.incrementAndGet();
+		}
+
+		return hit;
+	}
+
 	/**
 	 * Returns the tolerance for which the rasterized Geometry has been built.
 	 */
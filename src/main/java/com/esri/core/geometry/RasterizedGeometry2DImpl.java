@@ -412,6 +412,10 @@ final class RasterizedGeometry2DImpl extends RasterizedGeometry2D {
 
 	@Override
 	public HitType queryPointInGeometry(double x, double y) {
+		return countQuery_(queryPointInGeometry_(x, y));
+	}
+
+	HitType queryPointInGeometry_(double x, double y) {
 		if (!m_geomEnv.contains(x, y))
 			return HitType.Outside;
 		
@@ -432,6 +436,10 @@ final class RasterizedGeometry2DImpl extends RasterizedGeometry2D {
 
 	@Override
 	public HitType queryEnvelopeInGeometry(Envelope2D env) {
+		return countQuery_(queryEnvelopeInGeometry_(env));
+	}
+
+	HitType queryEnvelopeInGeometry_(Envelope2D env) {
 		if (!env.intersect(m_geomEnv))
 			return HitType.Outside;
 		
@@ -0,0 +1,354 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of relation results, to put in front of the relational
+ * operators when the same pairs of geometries are related again and again.
+ * 
+ * The results are keyed by content hashes of the XY coordinates of both
+ * geometries, the spatial reference and the relation. Equal geometries hit
+ * the same entry even when they are different instances. The content hash of
+ * a multi-vertex geometry is stored on the geometry together with its state
+ * flag (see Geometry.getStateFlag), so it is calculated again only when the
+ * geometry changes. The cache holds no references to the geometries, so
+ * its memory is bounded by the number of results. The hashes are 64 bit; a
+ * collision of both hashes of a pair is assumed not to happen.
+ * 
+ * The least recently used entries are dropped when the cache is full, and
+ * the entries expire after the time to live. Geometries with curves are
+ * related without the cache.
+ * 
+ * The methods of the class are thread safe. The relation itself runs
+ * outside of the lock.
+ */
+public final class RelationResultCache {
+	private final LinkedHashMap<Key, Entry> m_entries;
+	private final int m_maxEntries;
+	private final long m_timeToLiveNanos;
+	private long m_hitCount;
+	private long m_missCount;
+
+	/**
+	 * Creates the cache.
+	 * 
+	 * @param maxEntries
+	 *            The max number of results to keep.
+	 * @param timeToLiveMillis
+	 *            The time after which a result expires. 0 or less means the
+	 *            results do not expire.
+	 */
+	public RelationResultCache(int maxEntries, long timeToLiveMillis) {
+		if (maxEntries <= 0)
+			throw new IllegalArgumentException();
+
+		m_maxEntries = maxEntries;
+		m_timeToLiveNanos = timeToLiveMillis > 0 ? timeToLiveMillis * 1000000
+				: 0;
+		m_entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+				return size() > m_maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Performs the simple relation, or returns the cached result of it.
+	 * 
+	 * @return Returns True if the relation holds, False otherwise.
+	 */
+	public boolean execute(OperatorSimpleRelation operator,
+			Geometry inputGeom1, Geometry inputGeom2, SpatialReference sr,
+			ProgressTracker progressTracker) {
+		Key key = createKey_(inputGeom1, inputGeom2, sr, operator.getType()
+				.name());
+		if (key == null)
+			return operator.execute(inputGeom1, inputGeom2, sr,
+					progressTracker);
+
+		Boolean res = get_(key);
+		if (res != null)
+			return res.booleanValue();
+
+		boolean bRelation = operator.execute(inputGeom1, inputGeom2, sr,
+				progressTracker);
+		put_(key, bRelation);
+		return bRelation;
+	}
+
+	/**
+	 * Performs the relate operation for the DE-9IM string, or returns the
+	 * cached result of it.
+	 * 
+	 * @return Returns True if the relation holds, False otherwise.
+	 */
+	public boolean execute(OperatorRelate operator, Geometry inputGeom1,
+			Geometry inputGeom2, SpatialReference sr, String de_9im_string,
+			ProgressTracker progressTracker) {
+		Key key = createKey_(inputGeom1, inputGeom2, sr, de_9im_string);
+		if (key == null)
+			return operator.execute(inputGeom1, inputGeom2, sr,
+					de_9im_string, progressTracker);
+
+		Boolean res = get_(key);
+		if (res != null)
+			return res.booleanValue();
+
+		boolean bRelation = operator.execute(inputGeom1, inputGeom2, sr,
+				de_9im_string, progressTracker);
+		put_(key, bRelation);
+		return bRelation;
+	}
+
+	/**
+	 * Removes all results and resets the counters.
+	 */
+	public synchronized void clear() {
+		m_entries.clear();
+		m_hitCount = 0;
+		m_missCount = 0;
+	}
+
+	/**
+	 * Returns the number of results in the cache, including the expired ones
+	 * that have not been removed yet.
+	 */
+	public synchronized int size() {
+		return m_entries.size();
+	}
+
+	/**
+	 * Returns the number of calls answered from the cache.
+	 */
+	public synchronized long getHitCount() {
+		return m_hitCount;
+	}
+
+	/**
+	 * Returns the number of calls that performed the relation.
+	 */
+	public synchronized long getMissCount() {
+		return m_missCount;
+	}
+
+	/**
+	 * Returns the ratio of the hit count to the number of calls, or 0 when
+	 * there were no calls.
+	 */
+	public synchronized double getHitRate() {
+		long total = m_hitCount + m_missCount;
+		return total != 0 ? (double) m_hitCount / total : 0;
+	}
+
+	private synchronized Boolean get_(Key key) {
+		Entry entry = m_entries.get(key);
+		if (entry != null && m_timeToLiveNanos != 0
+				&& System.nanoTime() - entry.m_time > m_timeToLiveNanos) {
+			m_entries.remove(key);
+			entry = null;
+		}
+
+		if (entry == null) {
+			m_missCount++;
+			return null;
+		}
+
+		m_hitCount++;
+		return Boolean.valueOf(entry.m_result);
+	}
+
+	private synchronized void put_(Key key, boolean result) {
+		m_entries.put(key, new Entry(result, System.nanoTime()));
+	}
+
+	private static Key createKey_(Geometry geom_a, Geometry geom_b,
+			SpatialReference sr, String relation) {
+		long hash_a = fingerprint_(geom_a);
+		if (hash_a == 0)
+			return null;
+
+		long hash_b = fingerprint_(geom_b);
+		if (hash_b == 0)
+			return null;
+
+		return new Key(hash_a, hash_b, sr, relation);
+	}
+
+	// Returns the content hash of the geometry, or 0 if the geometry cannot
+	// be cached.
+	private static long fingerprint_(Geometry geom) {
+		if (!(geom instanceof MultiVertexGeometry))
+			return calculateHash_(geom);
+
+		MultiVertexGeometryImpl impl = (MultiVertexGeometryImpl) geom
+				._getImpl();
+		int stateFlag = geom.getStateFlag();
+		Fingerprint fp = impl.m_fingerprint;
+		if (fp != null && fp.m_stateFlag == stateFlag)
+			return fp.m_hash;
+
+		long hash = calculateHash_(geom);
+		impl.m_fingerprint = new Fingerprint(stateFlag, hash);
+		return hash;
+	}
+
+	private static long calculateHash_(Geometry geom) {
+		Geometry.Type type = geom.getType();
+		long hash = mix_(0x9E3779B97F4A7C15L, type.value());
+		if (geom.isEmpty())
+			return mix_(hash, 1);
+
+		switch (type) {
+		case Point: {
+			Point pt = (Point) geom;
+			hash = mix_(hash, pt.getX());
+			return mix_(hash, pt.getY());
+		}
+		case Envelope: {
+			Envelope2D env = new Envelope2D();
+			geom.queryEnvelope2D(env);
+			hash = mix_(hash, env.xmin);
+			hash = mix_(hash, env.ymin);
+			hash = mix_(hash, env.xmax);
+			return mix_(hash, env.ymax);
+		}
+		case Line: {
+			Segment seg = (Segment) geom;
+			hash = mix_(hash, seg.getStartX());
+			hash = mix_(hash, seg.getStartY());
+			hash = mix_(hash, seg.getEndX());
+			return mix_(hash, seg.getEndY());
+		}
+		case Polygon:
+		case Polyline: {
+			MultiPath mp = (MultiPath) geom;
+			if (mp.hasNonLinearSegments())
+				return 0;
+
+			for (int i = 0, n = mp.getPathCount(); i < n; i++) {
+				hash = mix_(hash, mp.getPathEnd(i));
+				hash = mix_(hash, mp.isClosedPath(i) ? 1 : 0);
+			}
+
+			return hashPoints_(hash, (MultiVertexGeometry) geom);
+		}
+		case MultiPoint:
+			return hashPoints_(hash, (MultiVertexGeometry) geom);
+		default:
+			return 0;
+		}
+	}
+
+	private static long hashPoints_(long hash, MultiVertexGeometry geom) {
+		MultiVertexGeometryImpl impl = (MultiVertexGeometryImpl) geom
+				._getImpl();
+		Point2D pt = new Point2D();
+		for (int i = 0, n = impl.getPointCount(); i < n; i++) {
+			impl.getXY(i, pt);
+			hash = mix_(hash, pt.x);
+			hash = mix_(hash, pt.y);
+		}
+
+		return hash != 0 ? hash : 1;
+	}
+
+	private static long mix_(long hash, double d) {
+		return mix_(hash, Double.doubleToLongBits(d));
+	}
+
+	private static long mix_(long hash, long v) {
+		long h = (hash ^ v) * 0xBF58476D1CE4E5B9L;
+		h ^= h >>> 31;
+		h *= 0x94D049BB133111EBL;
+		return h ^ (h >>> 29);
+	}
+
+	static final class Fingerprint {
+		final int m_stateFlag;
+		final long m_hash;
+
+		Fingerprint(int stateFlag, long hash) {
+			m_stateFlag = stateFlag;
+			m_hash = hash;
+		}
+	}
+
+	private static final class Entry {
+		final boolean m_result;
+		final long m_time;
+
+		Entry(boolean result, long time) {
+			m_result = result;
+			m_time = time;
+		}
+	}
+
+	private static final class Key {
+		final long m_hash_a;
+		final long m_hash_b;
+		final SpatialReference m_sr;
+		final String m_relation;
+
+		Key(long hash_a, long hash_b, SpatialReference sr, String relation) {
+			m_hash_a = hash_a;
+			m_hash_b = hash_b;
+			m_sr = sr;
+			m_relation = relation;
+		}
+
+		@Override
+		public int hashCode() {
+			long h = mix_(m_hash_a, m_hash_b);
+			int hash = (int) (h ^ (h >>> 32));
+			hash = NumberUtils.hashCombine(hash, m_relation.hashCode());
+			if (m_sr != null)
+				hash = NumberUtils.hashCombine(hash, m_sr.hashCode());
+
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (other == this)
+				return true;
+
+			if (!(other instanceof Key))
+				return false;
+
+			Key key = (Key) other;
+			if (m_hash_a != key.m_hash_a || m_hash_b != key.m_hash_b
+					|| !m_relation.equals(key.m_relation))
+				return false;
+
+			return m_sr == null ? key.m_sr == null : m_sr.equals(key.m_sr);
+		}
+	}
+}
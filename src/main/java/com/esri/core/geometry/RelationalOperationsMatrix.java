@@ -32,6 +32,7 @@ class RelationalOperationsMatrix {
 	private int m_predicates_half_edge;
     private int m_predicates_cluster;
 	private int m_predicate_count;
+	private boolean m_b_relation_false;
 	private int m_cluster_index_a;
 	private int m_cluster_index_b;
 	private int m_visited_index;
@@ -233,10 +234,10 @@ class RelationalOperationsMatrix {
 
 	private RelationalOperationsMatrix() {
 		m_predicate_count = 0;
-		m_topo_graph = new TopoGraph();
 		m_matrix = new int[9];
         m_max_dim = new int[9];
 		m_perform_predicates = new boolean[9];
+		m_b_relation_false = false;
         m_predicates_half_edge = -1;
         m_predicates_cluster =  -1;
 	}
@@ -249,6 +250,9 @@ class RelationalOperationsMatrix {
 		relOps.setPredicates_(scl);
 		relOps.setAreaAreaPredicates_();
 
+		if (relOps.isSclUnsatisfiable_())
+			return false;
+
 		Envelope2D env_a = new Envelope2D(), env_b = new Envelope2D();
 		polygon_a.queryEnvelope2D(env_a);
 		polygon_b.queryEnvelope2D(env_b);
@@ -282,13 +286,18 @@ class RelationalOperationsMatrix {
 		}
 
 		if (!bRelationKnown) {
-			EditShape edit_shape = new EditShape();
-			int geom_a = edit_shape.addGeometry(polygon_a);
-			int geom_b = edit_shape.addGeometry(polygon_b);
-			relOps.setEditShapeCrackAndCluster_(edit_shape, tolerance,
-					progress_tracker);
-			relOps.computeMatrixTopoGraphHalfEdges_(geom_a, geom_b);
-			relOps.m_topo_graph.removeShape();
+			EditShape edit_shape = TopoWorkspace.acquireEditShape();
+			relOps.m_topo_graph = TopoWorkspace.acquireTopoGraph();
+			try {
+				int geom_a = edit_shape.addGeometry(polygon_a);
+				int geom_b = edit_shape.addGeometry(polygon_b);
+				relOps.setEditShapeCrackAndCluster_(edit_shape, tolerance,
+						progress_tracker);
+				relOps.computeMatrixTopoGraphHalfEdges_(geom_a, geom_b);
+			} finally {
+				TopoWorkspace.releaseTopoGraph(relOps.m_topo_graph);
+				TopoWorkspace.releaseEditShape(edit_shape);
+			}
 		}
 
 		boolean bRelation = relationCompare_(relOps.m_matrix, relOps.m_scl);
@@ -347,6 +356,7 @@ class RelationalOperationsMatrix {
             return bContains;
         }
 
+        relOps.m_topo_graph = new TopoGraph();
         EditShape edit_shape = new EditShape();
         int geom_a = edit_shape.addGeometry(polygon_a);
         int geom_b = edit_shape.addGeometry(polygon_b);
@@ -406,6 +416,9 @@ class RelationalOperationsMatrix {
 		relOps.setPredicates_(scl);
 		relOps.setAreaLinePredicates_();
 
+		if (relOps.isSclUnsatisfiable_())
+			return false;
+
 		Envelope2D env_a = new Envelope2D(), env_b = new Envelope2D();
 		polygon_a.queryEnvelope2D(env_a);
 		polyline_b.queryEnvelope2D(env_b);
@@ -444,19 +457,24 @@ class RelationalOperationsMatrix {
 		}
 
 		if (!bRelationKnown) {
-			EditShape edit_shape = new EditShape();
-			int geom_a = edit_shape.addGeometry(polygon_a);
-			int geom_b = edit_shape.addGeometry(polyline_b);
-			relOps.setEditShapeCrackAndCluster_(edit_shape, tolerance,
-					progress_tracker);
-			relOps.m_cluster_index_b = relOps.m_topo_graph
-					.createUserIndexForClusters();
-			markClusterEndPoints_(geom_b, relOps.m_topo_graph,
-					relOps.m_cluster_index_b);
-			relOps.computeMatrixTopoGraphHalfEdges_(geom_a, geom_b);
-			relOps.m_topo_graph
-					.deleteUserIndexForClusters(relOps.m_cluster_index_b);
-			relOps.m_topo_graph.removeShape();
+			EditShape edit_shape = TopoWorkspace.acquireEditShape();
+			relOps.m_topo_graph = TopoWorkspace.acquireTopoGraph();
+			try {
+				int geom_a = edit_shape.addGeometry(polygon_a);
+				int geom_b = edit_shape.addGeometry(polyline_b);
+				relOps.setEditShapeCrackAndCluster_(edit_shape, tolerance,
+						progress_tracker);
+				relOps.m_cluster_index_b = relOps.m_topo_graph
+						.createUserIndexForClusters();
+				markClusterEndPoints_(geom_b, relOps.m_topo_graph,
+						relOps.m_cluster_index_b);
+				relOps.computeMatrixTopoGraphHalfEdges_(geom_a, geom_b);
+				relOps.m_topo_graph
+						.deleteUserIndexForClusters(relOps.m_cluster_index_b);
+			} finally {
+				TopoWorkspace.releaseTopoGraph(relOps.m_topo_graph);
+				TopoWorkspace.releaseEditShape(edit_shape);
+			}
 		}
 
 		boolean bRelation = relationCompare_(relOps.m_matrix, relOps.m_scl);
@@ -506,6 +524,7 @@ class RelationalOperationsMatrix {
             return bContains;
         }
 
+        relOps.m_topo_graph = new TopoGraph();
         EditShape edit_shape = new EditShape();
         int geom_a = edit_shape.addGeometry(polygon_a);
         int geom_b = edit_shape.addGeometry(polyline_b);
@@ -532,6 +551,9 @@ class RelationalOperationsMatrix {
 		relOps.setPredicates_(scl);
 		relOps.setAreaPointPredicates_();
 
+		if (relOps.isSclUnsatisfiable_())
+			return false;
+
 		Envelope2D env_a = new Envelope2D(), env_b = new Envelope2D();
 		polygon_a.queryEnvelope2D(env_a);
 		multipoint_b.queryEnvelope2D(env_b);
@@ -558,17 +580,25 @@ class RelationalOperationsMatrix {
 			} else if (relation == RelationalOperations.Relation.contains) {
 				relOps.areaPointContainsPredicates_(polygon_a);
 				bRelationKnown = true;
+			} else {
+				bRelationKnown = relOps.areaPointRasterPredicates_(polygon_a,
+						multipoint_b);
 			}
 		}
 
 		if (!bRelationKnown) {
-			EditShape edit_shape = new EditShape();
-			int geom_a = edit_shape.addGeometry(polygon_a);
-			int geom_b = edit_shape.addGeometry(multipoint_b);
-			relOps.setEditShapeCrackAndCluster_(edit_shape, tolerance,
-					progress_tracker);
-			relOps.computeMatrixTopoGraphClusters_(geom_a, geom_b);
-			relOps.m_topo_graph.removeShape();
+			EditShape edit_shape = TopoWorkspace.acquireEditShape();
+			relOps.m_topo_graph = TopoWorkspace.acquireTopoGraph();
+			try {
+				int geom_a = edit_shape.addGeometry(polygon_a);
+				int geom_b = edit_shape.addGeometry(multipoint_b);
+				relOps.setEditShapeCrackAndCluster_(edit_shape, tolerance,
+						progress_tracker);
+				relOps.computeMatrixTopoGraphClusters_(geom_a, geom_b);
+			} finally {
+				TopoWorkspace.releaseTopoGraph(relOps.m_topo_graph);
+				TopoWorkspace.releaseEditShape(edit_shape);
+			}
 		}
 
 		boolean bRelation = relationCompare_(relOps.m_matrix, relOps.m_scl);
@@ -584,6 +614,9 @@ class RelationalOperationsMatrix {
 		relOps.setPredicates_(scl);
 		relOps.setLineLinePredicates_();
 
+		if (relOps.isSclUnsatisfiable_())
+			return false;
+
 		Envelope2D env_a = new Envelope2D(), env_b = new Envelope2D();
 		polyline_a.queryEnvelope2D(env_a);
 		polyline_b.queryEnvelope2D(env_b);
@@ -611,25 +644,30 @@ class RelationalOperationsMatrix {
 		}
 
 		if (!bRelationKnown) {
-			EditShape edit_shape = new EditShape();
-			int geom_a = edit_shape.addGeometry(polyline_a);
-			int geom_b = edit_shape.addGeometry(polyline_b);
-			relOps.setEditShapeCrackAndCluster_(edit_shape, tolerance,
-					progress_tracker);
-			relOps.m_cluster_index_a = relOps.m_topo_graph
-					.createUserIndexForClusters();
-			relOps.m_cluster_index_b = relOps.m_topo_graph
-					.createUserIndexForClusters();
-			markClusterEndPoints_(geom_a, relOps.m_topo_graph,
-					relOps.m_cluster_index_a);
-			markClusterEndPoints_(geom_b, relOps.m_topo_graph,
-					relOps.m_cluster_index_b);
-			relOps.computeMatrixTopoGraphHalfEdges_(geom_a, geom_b);
-			relOps.m_topo_graph
-					.deleteUserIndexForClusters(relOps.m_cluster_index_a);
-			relOps.m_topo_graph
-					.deleteUserIndexForClusters(relOps.m_cluster_index_b);
-			relOps.m_topo_graph.removeShape();
+			EditShape edit_shape = TopoWorkspace.acquireEditShape();
+			relOps.m_topo_graph = TopoWorkspace.acquireTopoGraph();
+			try {
+				int geom_a = edit_shape.addGeometry(polyline_a);
+				int geom_b = edit_shape.addGeometry(polyline_b);
+				relOps.setEditShapeCrackAndCluster_(edit_shape, tolerance,
+						progress_tracker);
+				relOps.m_cluster_index_a = relOps.m_topo_graph
+						.createUserIndexForClusters();
+				relOps.m_cluster_index_b = relOps.m_topo_graph
+						.createUserIndexForClusters();
+				markClusterEndPoints_(geom_a, relOps.m_topo_graph,
+						relOps.m_cluster_index_a);
+				markClusterEndPoints_(geom_b, relOps.m_topo_graph,
+						relOps.m_cluster_index_b);
+				relOps.computeMatrixTopoGraphHalfEdges_(geom_a, geom_b);
+				relOps.m_topo_graph
+						.deleteUserIndexForClusters(relOps.m_cluster_index_a);
+				relOps.m_topo_graph
+						.deleteUserIndexForClusters(relOps.m_cluster_index_b);
+			} finally {
+				TopoWorkspace.releaseTopoGraph(relOps.m_topo_graph);
+				TopoWorkspace.releaseEditShape(edit_shape);
+			}
 		}
 
 		boolean bRelation = relationCompare_(relOps.m_matrix, relOps.m_scl);
@@ -645,6 +683,9 @@ class RelationalOperationsMatrix {
 		relOps.setPredicates_(scl);
 		relOps.setLinePointPredicates_();
 
+		if (relOps.isSclUnsatisfiable_())
+			return false;
+
 		Envelope2D env_a = new Envelope2D(), env_b = new Envelope2D();
 		polyline_a.queryEnvelope2D(env_a);
 		multipoint_b.queryEnvelope2D(env_b);
@@ -672,19 +713,24 @@ class RelationalOperationsMatrix {
 		}
 
 		if (!bRelationKnown) {
-			EditShape edit_shape = new EditShape();
-			int geom_a = edit_shape.addGeometry(polyline_a);
-			int geom_b = edit_shape.addGeometry(multipoint_b);
-			relOps.setEditShapeCrackAndCluster_(edit_shape, tolerance,
-					progress_tracker);
-			relOps.m_cluster_index_a = relOps.m_topo_graph
-					.createUserIndexForClusters();
-			markClusterEndPoints_(geom_a, relOps.m_topo_graph,
-					relOps.m_cluster_index_a);
-			relOps.computeMatrixTopoGraphClusters_(geom_a, geom_b);
-			relOps.m_topo_graph
-					.deleteUserIndexForClusters(relOps.m_cluster_index_a);
-			relOps.m_topo_graph.removeShape();
+			EditShape edit_shape = TopoWorkspace.acquireEditShape();
+			relOps.m_topo_graph = TopoWorkspace.acquireTopoGraph();
+			try {
+				int geom_a = edit_shape.addGeometry(polyline_a);
+				int geom_b = edit_shape.addGeometry(multipoint_b);
+				relOps.setEditShapeCrackAndCluster_(edit_shape, tolerance,
+						progress_tracker);
+				relOps.m_cluster_index_a = relOps.m_topo_graph
+						.createUserIndexForClusters();
+				markClusterEndPoints_(geom_a, relOps.m_topo_graph,
+						relOps.m_cluster_index_a);
+				relOps.computeMatrixTopoGraphClusters_(geom_a, geom_b);
+				relOps.m_topo_graph
+						.deleteUserIndexForClusters(relOps.m_cluster_index_a);
+			} finally {
+				TopoWorkspace.releaseTopoGraph(relOps.m_topo_graph);
+				TopoWorkspace.releaseEditShape(edit_shape);
+			}
 		}
 
 		boolean bRelation = relationCompare_(relOps.m_matrix, relOps.m_scl);
@@ -700,6 +746,9 @@ class RelationalOperationsMatrix {
 		relOps.setPredicates_(scl);
 		relOps.setPointPointPredicates_();
 
+		if (relOps.isSclUnsatisfiable_())
+			return false;
+
 		Envelope2D env_a = new Envelope2D(), env_b = new Envelope2D();
 		multipoint_a.queryEnvelope2D(env_a);
 		multipoint_b.queryEnvelope2D(env_b);
@@ -714,13 +763,18 @@ class RelationalOperationsMatrix {
 		}
 
 		if (!bRelationKnown) {
-			EditShape edit_shape = new EditShape();
-			int geom_a = edit_shape.addGeometry(multipoint_a);
-			int geom_b = edit_shape.addGeometry(multipoint_b);
-			relOps.setEditShapeCrackAndCluster_(edit_shape, tolerance,
-					progress_tracker);
-			relOps.computeMatrixTopoGraphClusters_(geom_a, geom_b);
-			relOps.m_topo_graph.removeShape();
+			EditShape edit_shape = TopoWorkspace.acquireEditShape();
+			relOps.m_topo_graph = TopoWorkspace.acquireTopoGraph();
+			try {
+				int geom_a = edit_shape.addGeometry(multipoint_a);
+				int geom_b = edit_shape.addGeometry(multipoint_b);
+				relOps.setEditShapeCrackAndCluster_(edit_shape, tolerance,
+						progress_tracker);
+				relOps.computeMatrixTopoGraphClusters_(geom_a, geom_b);
+			} finally {
+				TopoWorkspace.releaseTopoGraph(relOps.m_topo_graph);
+				TopoWorkspace.releaseEditShape(edit_shape);
+			}
 		}
 
 		boolean bRelation = relationCompare_(relOps.m_matrix, relOps.m_scl);
@@ -735,6 +789,9 @@ class RelationalOperationsMatrix {
         relOps.setPredicates_(scl);
         relOps.setAreaPointPredicates_();
 
+        if (relOps.isSclUnsatisfiable_())
+            return false;
+
         Envelope2D env_a = new Envelope2D();
         polygon_a.queryEnvelope2D(env_a);
         Point2D pt_b = point_b.getXY();
@@ -802,6 +859,9 @@ class RelationalOperationsMatrix {
         relOps.setPredicates_(scl);
         relOps.setLinePointPredicates_();
 
+        if (relOps.isSclUnsatisfiable_())
+            return false;
+
         Envelope2D env_a = new Envelope2D();
         polyline_a.queryEnvelope2D(env_a);
         Point2D pt_b = point_b.getXY();
@@ -924,6 +984,9 @@ class RelationalOperationsMatrix {
 		relOps.setPredicates_(scl);
 		relOps.setPointPointPredicates_();
 
+		if (relOps.isSclUnsatisfiable_())
+			return false;
+
 		Envelope2D env_a = new Envelope2D();
 		multipoint_a.queryEnvelope2D(env_a);
 		Point2D pt_b = point_b.getXY();
@@ -1386,6 +1449,9 @@ class RelationalOperationsMatrix {
         if (m_matrix[predicate] == -2)
             return false;
 
+        if (contradictsScl_(predicate))
+            m_b_relation_false = true;
+
         if (m_matrix[predicate] == -1)
         {
             m_perform_predicates[predicate] = false;
@@ -1414,6 +1480,46 @@ class RelationalOperationsMatrix {
         }
 	}
 
+	// Returns true if the value computed so far for the predicate does not
+	// match the scl string. The values only grow during the topology walk, so
+	// once a value is above the required dimension the relation is false no
+	// matter what the remaining predicates are.
+	private boolean contradictsScl_(int predicate) {
+		int value = m_matrix[predicate];
+		switch (m_scl.charAt(predicate)) {
+		case 'T':
+			return value == -1;
+		case 'F':
+			return value != -1;
+		case '0':
+		case '1':
+		case '2':
+			return value == -1 || value > m_scl.charAt(predicate) - '0';
+		default:
+			return false;
+		}
+	}
+
+	// Call after the predicates have been set for the dimensions of the
+	// geometries. Returns true if the scl string cannot match for any pair of
+	// such geometries: it asks for a dimension the intersection cannot have,
+	// or contradicts a predicate that is always true or false.
+	private boolean isSclUnsatisfiable_() {
+		for (int i = 0; i < 9; i++) {
+			char c = m_scl.charAt(i);
+			if (c == '0' || c == '1' || c == '2') {
+				if (c - '0' > m_max_dim[i])
+					return true;
+			}
+
+			if (m_scl.charAt(i) != '*' && m_matrix[i] != -2
+					&& contradictsScl_(i))
+				return true;
+		}
+
+		return false;
+	}
+
 	// Sets the area-area predicates function.
 	private void setAreaAreaPredicates_() {
         m_predicates_half_edge = Predicates.AreaAreaPredicates;
@@ -1630,6 +1736,54 @@ class RelationalOperationsMatrix {
         }
 	}
 
+	// Sets the interior-interior and exterior-interior predicates from the
+	// points that the rasterized area classifies as inside or outside, when
+	// the area has a rasterized geometry. Returns true if the relation is
+	// known after that, so the topology graph does not need to be built.
+	private boolean areaPointRasterPredicates_(Polygon polygon_a,
+			MultiPoint multipoint_b) {
+		boolean b_interior = m_perform_predicates[MatrixPredicate.InteriorInterior];
+		boolean b_exterior = m_perform_predicates[MatrixPredicate.ExteriorInterior];
+		if (!b_interior && !b_exterior)
+			return false;
+
+		GeometryAccelerators accel = ((MultiVertexGeometryImpl) polygon_a
+				._getImpl())._getAccelerators();
+		if (accel == null)
+			return false;
+
+		RasterizedGeometry2D rgeom = accel.getRasterizedGeometry();
+		if (rgeom == null)
+			return false;
+
+		Point2D pt = new Point2D();
+		for (int i = 0, n = multipoint_b.getPointCount(); i < n; i++) {
+			multipoint_b.getXY(i, pt);
+			RasterizedGeometry2D.HitType hit = rgeom.queryPointInGeometry(
+					pt.x, pt.y);
+			if (hit == RasterizedGeometry2D.HitType.Inside && b_interior) {
+				m_matrix[MatrixPredicate.InteriorInterior] = 0;
+				isPredicateKnown_(MatrixPredicate.InteriorInterior);
+				b_interior = false;
+			} else if (hit == RasterizedGeometry2D.HitType.Outside
+					&& b_exterior) {
+				m_matrix[MatrixPredicate.ExteriorInterior] = 0;
+				isPredicateKnown_(MatrixPredicate.ExteriorInterior);
+				b_exterior = false;
+			}
+
+			if ((!b_interior && !b_exterior) || m_b_relation_false)
+				break;
+		}
+
+		if (m_b_relation_false) {
+			setRemainingPredicatesToFalse_();
+			return true;
+		}
+
+		return m_predicate_count == 0;
+	}
+
 	// Invokes the 9 relational predicates of area vs area.
 	private boolean areaAreaPredicates_(int half_edge, int id_a, int id_b) {
 		boolean bRelationKnown = true;
@@ -2714,6 +2868,12 @@ class RelationalOperationsMatrix {
                         default:
                             throw GeometryException.GeometryInternalError();
                     }
+
+                    if (m_b_relation_false)
+                        bRelationKnown = true;
+
+                    if (bRelationKnown)
+                        break;
                 }
 
                 continue;
@@ -2746,6 +2906,9 @@ class RelationalOperationsMatrix {
 							throw GeometryException.GeometryInternalError();
 						}
 
+						if (m_b_relation_false)
+							bRelationKnown = true;
+
 						if (bRelationKnown)
 							break;
 
@@ -2766,7 +2929,7 @@ class RelationalOperationsMatrix {
 				break;
 		}
 
-		if (!bRelationKnown)
+		if (!bRelationKnown || m_b_relation_false)
 			setRemainingPredicatesToFalse_();
 
 		m_topo_graph.deleteUserIndexForHalfEdges(m_visited_index);
@@ -2798,11 +2961,14 @@ class RelationalOperationsMatrix {
 				throw GeometryException.GeometryInternalError();
 			}
 
+			if (m_b_relation_false)
+				bRelationKnown = true;
+
 			if (bRelationKnown)
 				break;
 		}
 
-		if (!bRelationKnown)
+		if (!bRelationKnown || m_b_relation_false)
 			setRemainingPredicatesToFalse_();
 	}
 
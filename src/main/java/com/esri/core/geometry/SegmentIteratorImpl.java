@@ -424,7 +424,7 @@ final class SegmentIteratorImpl {
 		m_currentSegmentIndex = m_nextSegmentIndex;
 
 		int startVertexIndex = getStartPointIndex();
-		m_parent._verifyAllStreams();
+		m_parent._verifyStreamsKeepCompactXY();
 		AttributeStreamOfInt8 segFlagStream = m_parent
 				.getSegmentFlagsStreamRef();
 
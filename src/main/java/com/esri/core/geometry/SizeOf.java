@@ -44,13 +44,13 @@ import static sun.misc.Unsafe.ARRAY_SHORT_INDEX_SCALE;
 public final class SizeOf {
 	public static final int SIZE_OF_ATTRIBUTE_STREAM_OF_FLOAT = 24;
 
-	public static final int SIZE_OF_ATTRIBUTE_STREAM_OF_DBL = 24;
+	public static final int SIZE_OF_ATTRIBUTE_STREAM_OF_DBL = 32;
 
 	public static final int SIZE_OF_ATTRIBUTE_STREAM_OF_INT8 = 24;
 
 	public static final int SIZE_OF_ATTRIBUTE_STREAM_OF_INT16 = 24;
 
-	public static final int SIZE_OF_ATTRIBUTE_STREAM_OF_INT32 = 24;
+	public static final int SIZE_OF_ATTRIBUTE_STREAM_OF_INT32 = 32;
 
 	public static final int SIZE_OF_ATTRIBUTE_STREAM_OF_INT64 = 24;
 
@@ -62,11 +62,11 @@ public final class SizeOf {
 
 	public static final int SIZE_OF_MULTI_PATH = 24;
 
-	public static final int SIZE_OF_MULTI_PATH_IMPL = 112;
+	public static final int SIZE_OF_MULTI_PATH_IMPL = 120;
 
 	public static final int SIZE_OF_MULTI_POINT = 24;
 
-	public static final int SIZE_OF_MULTI_POINT_IMPL = 56;
+	public static final int SIZE_OF_MULTI_POINT_IMPL = 64;
 
 	public static final int SIZE_OF_POINT = 40;
 
@@ -92,6 +92,8 @@ public final class SizeOf {
 
 	public static final int SIZE_OF_RASTERIZED_GEOMETRY_2D_IMPL = 112;
 
+	public static final int SIZE_OF_HIERARCHICAL_RASTERIZED_GEOMETRY_2D_IMPL = 96;
+
 	public static final int SIZE_OF_SCAN_CALLBACK_IMPL = 32;
 
 	public static final int SIZE_OF_TRANSFORMATION_2D = 64;
@@ -106,6 +108,8 @@ public final class SizeOf {
 
 	public static final int SIZE_OF_STRIDED_INDEX_TYPE_COLLECTION = 48;
 
+	public static final int SIZE_OF_QUANTIZED_XY = 48;
+
 	public static long sizeOfByteArray(int length) {
 		return ARRAY_BYTE_BASE_OFFSET + (((long) ARRAY_BYTE_INDEX_SCALE) * length);
 	}
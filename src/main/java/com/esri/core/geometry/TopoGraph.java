@@ -1901,6 +1901,14 @@ final class TopoGraph {
 	// Removes shape from the topograph and removes any user index created on
 	// the edit shape.
 	void removeShape() {
+		removeShape(false);
+	}
+
+	// Removes shape from the topograph and removes any user index created on
+	// the edit shape. Keeps the memory of the cluster, half-edge and chain
+	// collections if bKeepCapacity is true, so that the instance can be
+	// reused for another shape.
+	void removeShape(boolean bKeepCapacity) {
 		if (m_shape == null)
 			return;
 
@@ -1935,13 +1943,13 @@ final class TopoGraph {
 		}
 		
 		m_shape = null;
-		m_clusterData.deleteAll(true);
-		m_clusterVertices.deleteAll(true);
+		m_clusterData.deleteAll(!bKeepCapacity);
+		m_clusterVertices.deleteAll(!bKeepCapacity);
 		m_firstCluster = -1;
 		m_lastCluster = -1;
 
 		if (m_halfEdgeData != null)
-			m_halfEdgeData.deleteAll(true);
+			m_halfEdgeData.deleteAll(!bKeepCapacity);
 		if (m_edgeIndices != null)
 			m_edgeIndices.clear();
 		if (m_clusterIndices != null)
@@ -1949,9 +1957,35 @@ final class TopoGraph {
 		if (m_chainIndices != null)
 			m_chainIndices.clear();
 		if (m_chainData != null)
-			m_chainData.deleteAll(true);
+			m_chainData.deleteAll(!bKeepCapacity);
 		m_universeChain = -1;
 		m_chainAreas = null;
+
+		if (bKeepCapacity) {
+			// The instance is going to be reused: forget the results of the
+			// last shape too.
+			m_chainPerimeters = null;
+			m_universe_geomID = -1;
+			m_pointCount = 0;
+			m_dirty_check_failed = false;
+			m_check_dirty_planesweep_tolerance = Double.NaN;
+			m_non_simple_result = new NonSimpleResult();
+		}
+	}
+
+	// Returns the estimate of the memory held by the collections of the
+	// instance.
+	long estimateMemorySize() {
+		long size = 0;
+		if (m_clusterData != null)
+			size += m_clusterData.estimateMemorySize();
+		if (m_clusterVertices != null)
+			size += m_clusterVertices.estimateMemorySize();
+		if (m_halfEdgeData != null)
+			size += m_halfEdgeData.estimateMemorySize();
+		if (m_chainData != null)
+			size += m_chainData.estimateMemorySize();
+		return size;
 	}
 
 	// Returns a half-edge emanating the cluster. All other half-edges can be
@@ -0,0 +1,151 @@
+/*
+ Copyright 1995-2019 Esri
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+
+ For additional information, contact:
+ Environmental Systems Research Institute, Inc.
+ Attn: Contracts Dept
+ 380 New York Street
+ Redlands, California, USA 92373
+
+ email: contracts@esri.com
+ */
+
+package com.esri.core.geometry;
+
+
+/**
+ * A per thread workspace that keeps one EditShape and one TopoGraph between
+ * the calls of the topological operations, so that their index collections
+ * and vertex storage are allocated once per thread instead of once per call.
+ * 
+ * An operation acquires the instances and releases them when it is done with
+ * them. When the instance is already in use on the thread (the operations
+ * nest), the acquire returns a new instance, and the release of it does
+ * nothing. An instance that holds more than MAX_RETAINED_BYTES after a call
+ * is dropped instead of being kept, so one large call does not pin its memory
+ * for the life of the thread.
+ * 
+ * Applications that run the operators on long lived pooled threads can check
+ * the retained memory with getRetainedBytes and drop it with
+ * releaseCurrentThread.
+ */
+public final class TopoWorkspace {
+	static final long MAX_RETAINED_BYTES = 16 * 1024 * 1024;
+
+	private static final ThreadLocal<TopoWorkspace> s_workspace = new ThreadLocal<TopoWorkspace>() {
+		@Override
+		protected TopoWorkspace initialValue() {
+			return new TopoWorkspace();
+		}
+	};
+
+	private EditShape m_shape;
+	private TopoGraph m_topo_graph;
+	private boolean m_b_shape_in_use;
+	private boolean m_b_topo_graph_in_use;
+
+	private TopoWorkspace() {
+	}
+
+	/**
+	 * Returns an empty EditShape. Call releaseEditShape when done with it.
+	 */
+	static EditShape acquireEditShape() {
+		TopoWorkspace ws = s_workspace.get();
+		if (ws.m_b_shape_in_use)
+			return new EditShape();
+
+		if (ws.m_shape == null)
+			ws.m_shape = new EditShape();
+
+		ws.m_b_shape_in_use = true;
+		return ws.m_shape;
+	}
+
+	/**
+	 * Returns the shape to the workspace. The shape must not be used after
+	 * this call.
+	 */
+	static void releaseEditShape(EditShape shape) {
+		TopoWorkspace ws = s_workspace.get();
+		if (shape != ws.m_shape)
+			return;
+
+		if (shape.estimateMemorySize() > MAX_RETAINED_BYTES)
+			ws.m_shape = null;
+		else
+			shape.clear();
+
+		ws.m_b_shape_in_use = false;
+	}
+
+	/**
+	 * Returns a TopoGraph without a shape. Call releaseTopoGraph when done
+	 * with it.
+	 */
+	static TopoGraph acquireTopoGraph() {
+		TopoWorkspace ws = s_workspace.get();
+		if (ws.m_b_topo_graph_in_use)
+			return new TopoGraph();
+
+		if (ws.m_topo_graph == null)
+			ws.m_topo_graph = new TopoGraph();
+
+		ws.m_b_topo_graph_in_use = true;
+		return ws.m_topo_graph;
+	}
+
+	/**
+	 * Removes the shape from the graph and returns the graph to the
+	 * workspace. The graph must not be used after this call.
+	 */
+	static void releaseTopoGraph(TopoGraph topoGraph) {
+		TopoWorkspace ws = s_workspace.get();
+		if (topoGraph != ws.m_topo_graph) {
+			topoGraph.removeShape();
+			return;
+		}
+
+		topoGraph.removeShape(true);
+		if (topoGraph.estimateMemorySize() > MAX_RETAINED_BYTES)
+			ws.m_topo_graph = null;
+
+		ws.m_b_topo_graph_in_use = false;
+	}
+
+	/**
+	 * Returns the estimate of the memory, in bytes, the workspace of the
+	 * calling thread retains between the calls.
+	 */
+	public static long getRetainedBytes() {
+		TopoWorkspace ws = s_workspace.get();
+		long size = 0;
+		if (ws.m_shape != null && !ws.m_b_shape_in_use)
+			size += ws.m_shape.estimateMemorySize();
+		if (ws.m_topo_graph != null && !ws.m_b_topo_graph_in_use)
+			size += ws.m_topo_graph.estimateMemorySize();
+		return size;
+	}
+
+	/**
+	 * Drops the workspace of the calling thread, so the memory it retains can
+	 * be garbage collected. An instance that is in use by an operation running
+	 * on the thread stays valid until that operation is done with it, and is
+	 * then discarded instead of being returned to the workspace.
+	 */
+	public static void releaseCurrentThread() {
+		s_workspace.remove();
+	}
+}
@@ -1597,27 +1597,33 @@ final class TopologicalOperations {
 				envMerged, true);// conservative to have same effect as simplify
 
 		TopologicalOperations topoOps = new TopologicalOperations();
-		EditShape edit_shape = new EditShape();
-		int geom_a = edit_shape
-				.addGeometry(normalizeInputGeometry_(geometry_a));
-		int geom_b = edit_shape
-				.addGeometry(normalizeInputGeometry_(geometry_b));
-		topoOps.setEditShapeCrackAndCluster(edit_shape, tolerance,
-				progress_tracker);
-		int result = topoOps.difference(geom_a, geom_b);
-		Geometry resGeom = edit_shape.getGeometry(result);
-
-		Geometry res_geom = normalizeResult_(resGeom, geometry_a, geometry_b,
-				'-');
-
-		if (Geometry.isMultiPath(res_geom.getType().value())) {
-			((MultiVertexGeometryImpl) res_geom._getImpl()).setIsSimple(
-					GeometryXSimple.Strong, tolerance, false);
-			if (res_geom.getType() == Geometry.Type.Polygon)
-				((MultiPathImpl) res_geom._getImpl())._updateOGCFlags();
-		}
+		EditShape edit_shape = TopoWorkspace.acquireEditShape();
+		topoOps.m_topo_graph = TopoWorkspace.acquireTopoGraph();
+		try {
+			int geom_a = edit_shape
+					.addGeometry(normalizeInputGeometry_(geometry_a));
+			int geom_b = edit_shape
+					.addGeometry(normalizeInputGeometry_(geometry_b));
+			topoOps.setEditShapeCrackAndCluster(edit_shape, tolerance,
+					progress_tracker);
+			int result = topoOps.difference(geom_a, geom_b);
+			Geometry resGeom = edit_shape.getGeometry(result);
+
+			Geometry res_geom = normalizeResult_(resGeom, geometry_a, geometry_b,
+					'-');
+
+			if (Geometry.isMultiPath(res_geom.getType().value())) {
+				((MultiVertexGeometryImpl) res_geom._getImpl()).setIsSimple(
+						GeometryXSimple.Strong, tolerance, false);
+				if (res_geom.getType() == Geometry.Type.Polygon)
+					((MultiPathImpl) res_geom._getImpl())._updateOGCFlags();
+			}
 
-		return res_geom;
+			return res_geom;
+		} finally {
+			TopoWorkspace.releaseTopoGraph(topoOps.m_topo_graph);
+			TopoWorkspace.releaseEditShape(edit_shape);
+		}
 	}
 
 	public static Geometry dissolve(Geometry geometry_a, Geometry geometry_b,
@@ -1682,26 +1688,32 @@ final class TopologicalOperations {
 		}
 
 		TopologicalOperations topoOps = new TopologicalOperations();
-		EditShape edit_shape = new EditShape();
-		int geom_a = edit_shape
-				.addGeometry(normalizeInputGeometry_(geometry_a));
-		int geom_b = edit_shape
-				.addGeometry(normalizeInputGeometry_(geometry_b));
-		topoOps.setEditShapeCrackAndCluster(edit_shape, tolerance,
-				progress_tracker);
-		int result = topoOps.dissolve(geom_a, geom_b);
-
-		Geometry res_geom = normalizeResult_(edit_shape.getGeometry(result),
-				geometry_a, geometry_b, '|');
-
-		if (Geometry.isMultiPath(res_geom.getType().value())) {
-			((MultiVertexGeometryImpl) res_geom._getImpl()).setIsSimple(
-					GeometryXSimple.Strong, tolerance, false);
-			if (res_geom.getType() == Geometry.Type.Polygon)
-				((MultiPathImpl) res_geom._getImpl())._updateOGCFlags();
-		}
+		EditShape edit_shape = TopoWorkspace.acquireEditShape();
+		topoOps.m_topo_graph = TopoWorkspace.acquireTopoGraph();
+		try {
+			int geom_a = edit_shape
+					.addGeometry(normalizeInputGeometry_(geometry_a));
+			int geom_b = edit_shape
+					.addGeometry(normalizeInputGeometry_(geometry_b));
+			topoOps.setEditShapeCrackAndCluster(edit_shape, tolerance,
+					progress_tracker);
+			int result = topoOps.dissolve(geom_a, geom_b);
+
+			Geometry res_geom = normalizeResult_(edit_shape.getGeometry(result),
+					geometry_a, geometry_b, '|');
 
-		return res_geom;
+			if (Geometry.isMultiPath(res_geom.getType().value())) {
+				((MultiVertexGeometryImpl) res_geom._getImpl()).setIsSimple(
+						GeometryXSimple.Strong, tolerance, false);
+				if (res_geom.getType() == Geometry.Type.Polygon)
+					((MultiPathImpl) res_geom._getImpl())._updateOGCFlags();
+			}
+
+			return res_geom;
+		} finally {
+			TopoWorkspace.releaseTopoGraph(topoOps.m_topo_graph);
+			TopoWorkspace.releaseEditShape(edit_shape);
+		}
 	}
 
 	static Geometry dissolveDirty(ArrayList<Geometry> geometries,
@@ -1718,44 +1730,48 @@ final class TopologicalOperations {
 		Envelope2D envMerged = new Envelope2D();
 		envMerged.setEmpty();
 
-		EditShape shape = new EditShape();
-		int geom = -1;
-		int count = 0;
-		int any_index = -1;
-		for (int i = 0, n = geometries.size(); i < n; i++) {
-			if (geometries.get(i).getDimension() == dim) {
-				if (!geometries.get(i).isEmpty()) {
-					any_index = i;
-					if (geom == -1)
-						geom = shape
-								.addGeometry(normalizeInputGeometry_(geometries
-										.get(i)));
-					else
-						shape.appendGeometry(geom,
-								normalizeInputGeometry_(geometries.get(i)));
-
-					Envelope2D env = new Envelope2D();
-					geometries.get(i).queryLooseEnvelope2D(env);
-					envMerged.merge(env);
-					count++;
-				} else if (any_index == -1)
-					any_index = i;
+		EditShape shape = TopoWorkspace.acquireEditShape();
+		try {
+			int geom = -1;
+			int count = 0;
+			int any_index = -1;
+			for (int i = 0, n = geometries.size(); i < n; i++) {
+				if (geometries.get(i).getDimension() == dim) {
+					if (!geometries.get(i).isEmpty()) {
+						any_index = i;
+						if (geom == -1)
+							geom = shape
+									.addGeometry(normalizeInputGeometry_(geometries
+											.get(i)));
+						else
+							shape.appendGeometry(geom,
+									normalizeInputGeometry_(geometries.get(i)));
+
+						Envelope2D env = new Envelope2D();
+						geometries.get(i).queryLooseEnvelope2D(env);
+						envMerged.merge(env);
+						count++;
+					} else if (any_index == -1)
+						any_index = i;
+				}
 			}
-		}
 
-		if (count < 2) {
-			return normalizeInputGeometry_(geometries.get(any_index));
-		}
-
-		boolean winding = dim == 2;
+			if (count < 2) {
+				return normalizeInputGeometry_(geometries.get(any_index));
+			}
 
-		SpatialReference psr = dim == 0 ? sr : null;// if points, then use
-													// correct tolerance.
-		double tolerance = InternalUtils.calculateToleranceFromGeometry(psr,
-				envMerged, true);
-		TopologicalOperations topoOps = new TopologicalOperations();
-		return topoOps.planarSimplify(shape, geom, tolerance, winding, true,
-				progress_tracker);
+			boolean winding = dim == 2;
+
+			SpatialReference psr = dim == 0 ? sr : null;// if points, then use
+														// correct tolerance.
+			double tolerance = InternalUtils.calculateToleranceFromGeometry(
+					psr, envMerged, true);
+			TopologicalOperations topoOps = new TopologicalOperations();
+			return topoOps.planarSimplify(shape, geom, tolerance, winding,
+					true, progress_tracker);
+		} finally {
+			TopoWorkspace.releaseEditShape(shape);
+		}
 	}
 
 	// static
@@ -1795,26 +1811,32 @@ final class TopologicalOperations {
 		}
 
 		TopologicalOperations topoOps = new TopologicalOperations();
-		EditShape edit_shape = new EditShape();
-		int geom_a = edit_shape
-				.addGeometry(normalizeInputGeometry_(geometry_a));
-		int geom_b = edit_shape
-				.addGeometry(normalizeInputGeometry_(geometry_b));
-
-		topoOps.setEditShapeCrackAndCluster(edit_shape, tolerance,
-				progress_tracker);
-		int result = topoOps.intersection(geom_a, geom_b);
-		Geometry res_geom = normalizeResult_(edit_shape.getGeometry(result),
-				geometry_a, geometry_b, '&');
-
-		if (Geometry.isMultiPath(res_geom.getType().value())) {
-			((MultiVertexGeometryImpl) res_geom._getImpl()).setIsSimple(
-					GeometryXSimple.Strong, tolerance, false);
-			if (res_geom.getType() == Geometry.Type.Polygon)
-				((MultiPathImpl) res_geom._getImpl())._updateOGCFlags();
-		}
+		EditShape edit_shape = TopoWorkspace.acquireEditShape();
+		topoOps.m_topo_graph = TopoWorkspace.acquireTopoGraph();
+		try {
+			int geom_a = edit_shape
+					.addGeometry(normalizeInputGeometry_(geometry_a));
+			int geom_b = edit_shape
+					.addGeometry(normalizeInputGeometry_(geometry_b));
+
+			topoOps.setEditShapeCrackAndCluster(edit_shape, tolerance,
+					progress_tracker);
+			int result = topoOps.intersection(geom_a, geom_b);
+			Geometry res_geom = normalizeResult_(edit_shape.getGeometry(result),
+					geometry_a, geometry_b, '&');
 
-		return res_geom;
+			if (Geometry.isMultiPath(res_geom.getType().value())) {
+				((MultiVertexGeometryImpl) res_geom._getImpl()).setIsSimple(
+						GeometryXSimple.Strong, tolerance, false);
+				if (res_geom.getType() == Geometry.Type.Polygon)
+					((MultiPathImpl) res_geom._getImpl())._updateOGCFlags();
+			}
+
+			return res_geom;
+		} finally {
+			TopoWorkspace.releaseTopoGraph(topoOps.m_topo_graph);
+			TopoWorkspace.releaseEditShape(edit_shape);
+		}
 	}
 
 	static Geometry[] intersectionEx(Geometry geometry_a, Geometry geometry_b,
@@ -1860,32 +1882,38 @@ final class TopologicalOperations {
 		}
 
 		TopologicalOperations topoOps = new TopologicalOperations();
-		EditShape edit_shape = new EditShape();
-		int geom_a = edit_shape
-				.addGeometry(normalizeInputGeometry_(geometry_a));
-		int geom_b = edit_shape
-				.addGeometry(normalizeInputGeometry_(geometry_b));
-
-		topoOps.setEditShapeCrackAndCluster(edit_shape, tolerance,
-				progress_tracker);
-		int[] result_geom_handles = topoOps.intersectionEx(geom_a, geom_b);
-		for (int i = 0; i < result_geom_handles.length; i++) {
-			Geometry res_geom = normalizeResult_(
-					edit_shape.getGeometry(result_geom_handles[i]), geometry_a,
-					geometry_b, '&');
+		EditShape edit_shape = TopoWorkspace.acquireEditShape();
+		topoOps.m_topo_graph = TopoWorkspace.acquireTopoGraph();
+		try {
+			int geom_a = edit_shape
+					.addGeometry(normalizeInputGeometry_(geometry_a));
+			int geom_b = edit_shape
+					.addGeometry(normalizeInputGeometry_(geometry_b));
+
+			topoOps.setEditShapeCrackAndCluster(edit_shape, tolerance,
+					progress_tracker);
+			int[] result_geom_handles = topoOps.intersectionEx(geom_a, geom_b);
+			for (int i = 0; i < result_geom_handles.length; i++) {
+				Geometry res_geom = normalizeResult_(
+						edit_shape.getGeometry(result_geom_handles[i]), geometry_a,
+						geometry_b, '&');
+
+				if (Geometry.isMultiPath(res_geom.getType().value())) {
+					((MultiVertexGeometryImpl) res_geom._getImpl()).setIsSimple(
+							MultiVertexGeometryImpl.GeometryXSimple.Strong,
+							tolerance, false);
+					if (res_geom.getType().value() == Geometry.GeometryType.Polygon)
+						((MultiPathImpl) res_geom._getImpl())._updateOGCFlags();
+				}
 
-			if (Geometry.isMultiPath(res_geom.getType().value())) {
-				((MultiVertexGeometryImpl) res_geom._getImpl()).setIsSimple(
-						MultiVertexGeometryImpl.GeometryXSimple.Strong,
-						tolerance, false);
-				if (res_geom.getType().value() == Geometry.GeometryType.Polygon)
-					((MultiPathImpl) res_geom._getImpl())._updateOGCFlags();
+				res_vec[res_geom.getDimension()] = res_geom;
 			}
 
-			res_vec[res_geom.getDimension()] = res_geom;
+			return res_vec;
+		} finally {
+			TopoWorkspace.releaseTopoGraph(topoOps.m_topo_graph);
+			TopoWorkspace.releaseEditShape(edit_shape);
 		}
-
-		return res_vec;
 	}
 
 	// static
@@ -1922,25 +1950,31 @@ final class TopologicalOperations {
 				envMerged, true);// conservative to have same effect as simplify
 
 		TopologicalOperations topoOps = new TopologicalOperations();
-		EditShape edit_shape = new EditShape();
-		int geom_a = edit_shape
-				.addGeometry(normalizeInputGeometry_(geometry_a));
-		int geom_b = edit_shape
-				.addGeometry(normalizeInputGeometry_(geometry_b));
-		topoOps.setEditShapeCrackAndCluster(edit_shape, tolerance,
-				progress_tracker);
-		int result = topoOps.symmetricDifference(geom_a, geom_b);
-		Geometry res_geom = normalizeResult_(edit_shape.getGeometry(result),
-				geometry_a, geometry_b, '^');
-
-		if (Geometry.isMultiPath(res_geom.getType().value())) {
-			((MultiVertexGeometryImpl) res_geom._getImpl()).setIsSimple(
-					GeometryXSimple.Strong, tolerance, false);
-			if (res_geom.getType() == Geometry.Type.Polygon)
-				((MultiPathImpl) res_geom._getImpl())._updateOGCFlags();
-		}
+		EditShape edit_shape = TopoWorkspace.acquireEditShape();
+		topoOps.m_topo_graph = TopoWorkspace.acquireTopoGraph();
+		try {
+			int geom_a = edit_shape
+					.addGeometry(normalizeInputGeometry_(geometry_a));
+			int geom_b = edit_shape
+					.addGeometry(normalizeInputGeometry_(geometry_b));
+			topoOps.setEditShapeCrackAndCluster(edit_shape, tolerance,
+					progress_tracker);
+			int result = topoOps.symmetricDifference(geom_a, geom_b);
+			Geometry res_geom = normalizeResult_(edit_shape.getGeometry(result),
+					geometry_a, geometry_b, '^');
 
-		return res_geom;
+			if (Geometry.isMultiPath(res_geom.getType().value())) {
+				((MultiVertexGeometryImpl) res_geom._getImpl()).setIsSimple(
+						GeometryXSimple.Strong, tolerance, false);
+				if (res_geom.getType() == Geometry.Type.Polygon)
+					((MultiPathImpl) res_geom._getImpl())._updateOGCFlags();
+			}
+
+			return res_geom;
+		} finally {
+			TopoWorkspace.releaseTopoGraph(topoOps.m_topo_graph);
+			TopoWorkspace.releaseEditShape(edit_shape);
+		}
 	}
 
 	static Geometry _denormalizeGeometry(Geometry geom, Geometry geomA,
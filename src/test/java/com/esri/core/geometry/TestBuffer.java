@@ -414,4 +414,101 @@ public class TestBuffer extends TestCase {
 		
 		
 	}		
+
+	@Test
+	public static void testBufferParallel() {
+		java.util.Random random = new java.util.Random(7);
+		Geometry[] geoms = new Geometry[300];
+		for (int i = 0; i < geoms.length; i++) {
+			double x = random.nextDouble() * 100;
+			double y = random.nextDouble() * 100;
+			if (i % 3 == 0) {
+				Polyline polyline = new Polyline();
+				polyline.startPath(x, y);
+				polyline.lineTo(x + random.nextDouble() * 5, y);
+				polyline.lineTo(x, y + random.nextDouble() * 5);
+				geoms[i] = polyline;
+			} else
+				geoms[i] = new Point(x, y);
+		}
+
+		double[] distances = { 1, 2, 0.5 };
+		GeometryCursor expected = OperatorBuffer.local().execute(
+				new SimpleGeometryCursor(geoms), null, distances,
+				NumberUtils.NaN(), 96, false, null);
+		GeometryCursor actual = OperatorBuffer.local().execute(
+				new SimpleGeometryCursor(geoms), null, distances,
+				NumberUtils.NaN(), 96, false, 4, null);
+		int count = 0;
+		Geometry expectedGeom;
+		while ((expectedGeom = expected.next()) != null) {
+			Geometry actualGeom = actual.next();
+			assertTrue(actualGeom != null);
+			assertEquals(expected.getGeometryID(), actual.getGeometryID());
+			assertTrue(expectedGeom.equals(actualGeom));
+			count++;
+		}
+
+		assertTrue(actual.next() == null);
+		assertEquals(geoms.length, count);
+
+		Geometry expectedUnion = OperatorBuffer.local().execute(
+				new SimpleGeometryCursor(geoms), null, distances,
+				NumberUtils.NaN(), 96, true, null).next();
+		GeometryCursor unionCursor = OperatorBuffer.local().execute(
+				new SimpleGeometryCursor(geoms), null, distances,
+				NumberUtils.NaN(), 96, true, 4, null);
+		Geometry actualUnion = unionCursor.next();
+		assertTrue(unionCursor.next() == null);
+		assertEquals(((Polygon) expectedUnion).calculateArea2D(),
+				((Polygon) actualUnion).calculateArea2D(), 1e-6);
+		assertTrue(OperatorSimplify.local().isSimpleAsFeature(actualUnion,
+				null, null));
+
+		try {
+			OperatorBuffer.local().execute(new SimpleGeometryCursor(geoms),
+					null, distances, NumberUtils.NaN(), 96, false, -1, null);
+			fail();
+		} catch (IllegalArgumentException ex) {
+		}
+	}
+
+	@Test
+	public static void testBufferMultiPointIsolated() {
+		// isolated points are buffered without the union, the clustered ones
+		// with it. The result has to match the union of the point buffers.
+		MultiPoint mp = new MultiPoint();
+		for (int i = 0; i < 10; i++)
+			mp.add(i * 10, 0);
+		mp.add(0.5, 0.5);
+		mp.add(50, 1.5);
+		mp.add(1000, 1000);
+
+		double distance = 1;
+		Polygon result = (Polygon) OperatorBuffer.local().execute(mp, null,
+				distance, null);
+		assertTrue(OperatorSimplify.local().isSimpleAsFeature(result, null,
+				null));
+
+		Geometry[] circles = new Geometry[mp.getPointCount()];
+		for (int i = 0; i < circles.length; i++)
+			circles[i] = OperatorBuffer.local().execute(mp.getPoint(i), null,
+					distance, null);
+		Polygon expected = (Polygon) OperatorUnion.local().execute(
+				new SimpleGeometryCursor(circles), null, null).next();
+		assertEquals(expected.getExteriorRingCount(),
+				result.getExteriorRingCount());
+		assertEquals(11, result.getExteriorRingCount());
+		assertEquals(expected.calculateArea2D(), result.calculateArea2D(),
+				1e-9);
+		assertTrue(OperatorEquals.local().execute(expected, result, null,
+				null));
+
+		MultiPoint single = new MultiPoint();
+		single.add(5, 5);
+		Polygon singleResult = (Polygon) OperatorBuffer.local().execute(
+				single, null, distance, null);
+		assertEquals(circles[0].calculateArea2D(),
+				singleResult.calculateArea2D(), 1e-9);
+	}
 }
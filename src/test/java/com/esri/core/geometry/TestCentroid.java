@@ -23,6 +23,9 @@
  */
 package com.esri.core.geometry;
 
+import java.nio.ByteBuffer;
+import java.util.Random;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -154,16 +157,116 @@ public class TestCentroid {
 		assertCentroid(polyline, new Point2D(-8406364, 560828));
 	}
 
+	@Test
+	public void testBatch() {
+		Random random = new Random(5);
+		int count = 3000;
+		Geometry[] geometries = new Geometry[count];
+		ByteBuffer[] wkbBuffers = new ByteBuffer[count];
+		Geometry[] imported = new Geometry[count];
+		for (int i = 0; i < count; i++) {
+			double x = random.nextDouble() * 1000;
+			double y = random.nextDouble() * 1000;
+			MultiPath multiPath = i % 3 == 0 ? new Polyline() : new Polygon();
+			for (int ipath = 0; ipath < 1 + i % 2; ipath++) {
+				multiPath.startPath(x, y);
+				for (int j = 0; j < 2 + i % 5; j++)
+					multiPath.lineTo(x + random.nextDouble() * 10, y + random.nextDouble() * 10);
+			}
+
+			geometries[i] = i % 7 == 0 ? new MultiPoint() : i % 11 == 0 ? new Point(x, y) : multiPath;
+			wkbBuffers[i] = OperatorExportToWkb.local().execute(0, geometries[i], null);
+			// the import can change the orientation of the rings
+			imported[i] = OperatorImportFromWkb.local().execute(0, Geometry.Type.Unknown, wkbBuffers[i], null);
+		}
+
+		for (int threadCount = 1; threadCount <= 3; threadCount += 2) {
+			double[] areas = new double[count];
+			double[] lengths = new double[count];
+			double[] centroidX = new double[count];
+			double[] centroidY = new double[count];
+			SimpleGeometryCursor cursor = new SimpleGeometryCursor(geometries);
+			Assert.assertEquals(count, OperatorCentroid2D.local().execute(cursor, areas, lengths, centroidX, centroidY, threadCount, null));
+			Assert.assertTrue(cursor.next() == null);
+			assertBatch(geometries, areas, lengths, centroidX, centroidY);
+
+			areas = new double[count];
+			lengths = new double[count];
+			centroidX = new double[count];
+			centroidY = new double[count];
+			OperatorCentroid2D.local().execute(wkbBuffers, areas, lengths, centroidX, centroidY, threadCount, null);
+			assertBatch(imported, areas, lengths, centroidX, centroidY);
+
+			// The arrays limit the number of geometries read from the cursor.
+			cursor = new SimpleGeometryCursor(geometries);
+			Assert.assertEquals(1000, OperatorCentroid2D.local().execute(cursor, null, null, new double[1000], null, threadCount, null));
+			Assert.assertEquals(1500, OperatorCentroid2D.local().execute(cursor, new double[1500], null, null, null, threadCount, null));
+			Assert.assertEquals(geometries[2500], cursor.next());
+			Assert.assertEquals(499, OperatorCentroid2D.local().execute(cursor, new double[1500], null, null, null, threadCount, null));
+		}
+	}
+
+	@Test
+	public void testBatchCompactXY() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Polygon poly = new Polygon();
+		poly.startPath(-117.123456789, 34.1);
+		poly.lineTo(-117.0, 34.2);
+		poly.lineTo(-116.9, 34.0);
+		Polyline line = new Polyline();
+		line.startPath(-117.1, 34.1);
+		line.lineTo(-117.0, 34.2);
+		Assert.assertTrue(poly.compactXY(sr));
+		Assert.assertTrue(line.compactXY(sr));
+
+		double[] areas = new double[2];
+		double[] lengths = new double[2];
+		double[] centroidX = new double[2];
+		double[] centroidY = new double[2];
+		OperatorCentroid2D.local().execute(new SimpleGeometryCursor(new Geometry[] { poly, line }), areas, lengths,
+				centroidX, centroidY, 1, null);
+		// the batch reads the compact storage without expanding it
+		Assert.assertTrue(poly.isCompactXY());
+		Assert.assertTrue(line.isCompactXY());
+		assertBatch(new Geometry[] { poly, line }, areas, lengths, centroidX, centroidY);
+	}
+
+	private static void assertBatch(Geometry[] geometries, double[] areas, double[] lengths, double[] centroidX,
+			double[] centroidY) {
+		for (int i = 0; i < geometries.length; i++) {
+			Geometry geometry = geometries[i];
+			Assert.assertEquals(geometry.calculateArea2D(), areas[i], 1e-9);
+			Assert.assertEquals(geometry.calculateLength2D(), lengths[i], 1e-9);
+			Point2D centroid = OperatorCentroid2D.local().execute(geometry, null);
+			if (centroid == null) {
+				Assert.assertTrue(Double.isNaN(centroidX[i]) && Double.isNaN(centroidY[i]));
+			} else {
+				Assert.assertEquals(centroid.x, centroidX[i], 1e-7);// coordinates are up to 1000
+				Assert.assertEquals(centroid.y, centroidY[i], 1e-7);// coordinates are up to 1000
+			}
+		}
+	}
+
 	private static void assertCentroid(Geometry geometry, Point2D expectedCentroid) {
 
 		Point2D actualCentroid = OperatorCentroid2D.local().execute(geometry, null);
 		Assert.assertEquals(expectedCentroid.x, actualCentroid.x, 1e-13);
 		Assert.assertEquals(expectedCentroid.y, actualCentroid.y, 1e-13);
+
+		double[] centroidX = new double[1];
+		double[] centroidY = new double[1];
+		OperatorCentroid2D.local().execute(new SimpleGeometryCursor(geometry), null, null, centroidX, centroidY, 1, null);
+		Assert.assertEquals(expectedCentroid.x, centroidX[0], 1e-13);
+		Assert.assertEquals(expectedCentroid.y, centroidY[0], 1e-13);
 	}
 
 	private static void assertCentroidEmpty(Geometry geometry) {
 
 		Point2D actualCentroid = OperatorCentroid2D.local().execute(geometry, null);
 		Assert.assertTrue(actualCentroid == null);
+
+		double[] centroidX = new double[1];
+		OperatorCentroid2D.local().execute(new SimpleGeometryCursor(geometry), null, null, centroidX, null, 1, null);
+		Assert.assertTrue(Double.isNaN(centroidX[0]));
 	}
 }
@@ -414,4 +414,69 @@ public class TestClip extends TestCase {
 		}
 
 	}
+
+	@Test
+	public static void testClipToTiles() {
+		Polygon polygon = new Polygon();
+		polygon.startPath(0.5, 0.5);
+		polygon.lineTo(2.5, 9.7);
+		polygon.lineTo(6.2, 3.1);
+		polygon.lineTo(9.5, 9.5);
+		polygon.lineTo(9.1, 0.2);
+		polygon.startPath(3, 2);// hole
+		polygon.lineTo(7, 2);
+		polygon.lineTo(5, 4);
+
+		Polyline polyline = new Polyline();
+		polyline.startPath(-1, 5.5);
+		polyline.lineTo(12, 7.25);
+		polyline.lineTo(3.3, -0.5);
+
+		OperatorClip clip = OperatorClip.local();
+		Geometry[] geoms = { polygon, polyline, new Point(4.5, 4.5), new Polygon() };
+		for (int g = 0; g < geoms.length; g++) {
+			Geometry[] tiles = clip.execute(geoms[g], 0, 0, 2, 1.5, 5, 7, null, null);
+			assertEquals(35, tiles.length);
+			double area = 0;
+			double length = 0;
+			for (int row = 0; row < 7; row++) {
+				for (int column = 0; column < 5; column++) {
+					Envelope2D tile = new Envelope2D(column * 2, row * 1.5, (column + 1) * 2, (row + 1) * 1.5);
+					Geometry expected = clip.execute(geoms[g], tile, null, null);
+					Geometry actual = tiles[row * 5 + column];
+					assertTrue(actual.getType() == geoms[g].getType());
+					assertEquals(expected.isEmpty(), actual.isEmpty());
+					assertEquals(expected.calculateArea2D(), actual.calculateArea2D(), 1e-12);
+					assertEquals(expected.calculateLength2D(), actual.calculateLength2D(), 1e-12);
+					area += actual.calculateArea2D();
+					if (g == 1)
+						length += actual.calculateLength2D();
+				}
+			}
+
+			assertEquals(geoms[g].calculateArea2D(), area, 1e-10);
+			if (g == 1)
+				assertEquals(clip.execute(polyline, new Envelope2D(0, 0, 10, 10.5), null, null).calculateLength2D(), length, 1e-10);
+		}
+
+		assertEquals(0, clip.execute(polygon, 0, 0, 1, 1, 0, 3, null, null).length);
+
+		try {
+			clip.execute(polygon, 0, 0, 1, 1, 65536, 65536, null, null);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+
+		ProgressTracker cancel = new ProgressTracker() {
+			@Override
+			public boolean progress(int step, int totalExpectedSteps) {
+				return false;
+			}
+		};
+		try {
+			clip.execute(polygon, 0, 0, 2, 1.5, 5, 7, null, cancel);
+			fail();
+		} catch (UserCancelException e) {
+		}
+	}
 }
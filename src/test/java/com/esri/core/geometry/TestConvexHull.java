@@ -24,6 +24,8 @@
 
 package com.esri.core.geometry;
 
+import java.util.Random;
+
 import junit.framework.TestCase;
 import org.junit.Test;
 
@@ -1069,4 +1071,74 @@ public class TestConvexHull extends TestCase {
 			assertTrue(text.compareTo("POLYGON ((-10 -10, 10 -10, 10 10, -10 10, -10 -10))") == 0);
 		}
 	}
+
+	@Test
+	public static void testMergeLargeParallel() {
+		// Large multipoints go through the octagon filter and the part hulls.
+		Random random = new Random(1977);
+		MultiPoint[] multipoints = new MultiPoint[4];
+		MultiPoint all = new MultiPoint();
+		for (int i = 0; i < multipoints.length; i++) {
+			multipoints[i] = new MultiPoint();
+			for (int j = 0; j < 40000; j++) {
+				double a = random.nextDouble() * 2 * Math.PI;
+				double r = Math.sqrt(random.nextDouble()) * 100;
+				if (j % 1000 == 0)
+					r = 100;// many hull vertices
+
+				double x = i * 50 + r * Math.cos(a);
+				double y = r * Math.sin(a);
+				multipoints[i].add(x, y);
+				all.add(x, y);
+			}
+		}
+
+		Polyline polyline = new Polyline();
+		polyline.startPath(0, -200);
+		polyline.lineTo(10, 250);
+		all.add(0, -200);
+		all.add(10, 250);
+
+		Polygon expected = (Polygon) ConvexHull.construct(all);
+
+		for (int thread_count = 1; thread_count <= 3; thread_count += 2) {
+			Geometry[] geoms = new Geometry[multipoints.length + 1];
+			System.arraycopy(multipoints, 0, geoms, 0, multipoints.length);
+			geoms[multipoints.length] = polyline;
+			GeometryCursor cursor = OperatorConvexHull.local().execute(
+					new SimpleGeometryCursor(geoms), true, thread_count, null);
+			Polygon hull = (Polygon) cursor.next();
+			assertTrue(cursor.next() == null);
+			assertTrue(OperatorConvexHull.local().isConvex(hull, null));
+			assertEquals(expected.getPointCount(), hull.getPointCount());
+			assertEquals(expected.calculateArea2D(), hull.calculateArea2D(),
+					1e-10 * expected.calculateArea2D());
+		}
+	}
+
+	@Test
+	public static void testMergeCompactXY() {
+		// The part hulls read compact XY storage without expanding it.
+		SpatialReference sr = SpatialReference.create(4326);
+		Random random = new Random(1977);
+		MultiPoint multipoint = new MultiPoint();
+		for (int j = 0; j < 40000; j++) {
+			double a = random.nextDouble() * 2 * Math.PI;
+			double r = Math.sqrt(random.nextDouble()) * 0.5;
+			multipoint.add(r * Math.cos(a), r * Math.sin(a));
+		}
+
+		assertTrue(multipoint.compactXY(sr));
+		Polygon expected = (Polygon) ConvexHull.construct((MultiPoint) multipoint.copy());
+
+		for (int thread_count = 1; thread_count <= 3; thread_count += 2) {
+			GeometryCursor cursor = OperatorConvexHull.local().execute(
+					new SimpleGeometryCursor(multipoint), true, thread_count, null);
+			Polygon hull = (Polygon) cursor.next();
+			assertTrue(multipoint.isCompactXY());
+			assertEquals(expected.getPointCount(), hull.getPointCount());
+			assertEquals(expected.calculateArea2D(), hull.calculateArea2D(),
+					1e-10 * expected.calculateArea2D());
+		}
+	}
 }
@@ -126,6 +126,160 @@ public class TestDistance extends TestCase {
 		assertTrue(Math.abs(distance - theoreticalDistance) < 1.0e-10);
 	}
 
+	@Test
+	public static void testDistanceQuadTree() {
+		// The segment counts are large enough to use the quad tree.
+		java.util.Random random = new java.util.Random(7);
+		OperatorDistance op = OperatorDistance.local();
+		for (int iter = 0; iter < 10; iter++) {
+			Polyline polyline1 = makeRandomPolyline(random, 0, 400);
+			Polyline polyline2 = makeRandomPolyline(random, 50 + iter * 10, 300);
+			if (iter % 2 == 1)
+				OperatorContains.local().accelerateGeometry(polyline1, null,
+						Geometry.GeometryAccelerationDegree.enumMedium);
+
+			double expected = bruteForceDistance(polyline1, polyline2);
+			Point2D pt1 = new Point2D();
+			Point2D pt2 = new Point2D();
+			double distance = op.execute(polyline1, polyline2,
+					Double.POSITIVE_INFINITY, pt1, pt2, null);
+			assertEquals(expected, distance, 1e-12);
+			assertEquals(distance, Point2D.distance(pt1, pt2), 1e-9);
+			assertTrue(GeometryEngine.distance(new Point(pt1.x, pt1.y),
+					polyline1, null) < 1e-9);
+			assertTrue(GeometryEngine.distance(new Point(pt2.x, pt2.y),
+					polyline2, null) < 1e-9);
+
+			// The same distance with the geometries swapped
+			distance = op.execute(polyline2, polyline1,
+					Double.POSITIVE_INFINITY, pt2, pt1, null);
+			assertEquals(expected, distance, 1e-12);
+			assertEquals(distance, Point2D.distance(pt1, pt2), 1e-9);
+
+			// The max distance cutoff
+			if (expected > 0)
+				assertEquals(Double.POSITIVE_INFINITY, op.execute(polyline1,
+						polyline2, expected * 0.99, null, null, null));
+			assertEquals(expected, op.execute(polyline1, polyline2, expected,
+					null, null, null));
+
+			MultiPoint multipoint = new MultiPoint();
+			for (int i = 0, n = polyline2.getPointCount(); i < n; i++)
+				multipoint.add(polyline2.getXY(i).x, polyline2.getXY(i).y);
+
+			double expectedPoints = Double.MAX_VALUE;
+			for (int i = 0, n = multipoint.getPointCount(); i < n; i++) {
+				expectedPoints = Math.min(expectedPoints, GeometryEngine
+						.distance(multipoint.getPoint(i), polyline1, null));
+			}
+			distance = op.execute(polyline1, multipoint,
+					Double.POSITIVE_INFINITY, pt1, pt2, null);
+			assertEquals(expectedPoints, distance, 1e-12);
+			assertEquals(distance, Point2D.distance(pt1, pt2), 1e-9);
+		}
+	}
+
+	@Test
+	public static void testDistanceClosestPoints() {
+		Polygon polygon = makePolygon();
+		Point2D pt1 = new Point2D();
+		Point2D pt2 = new Point2D();
+		double distance = OperatorDistance.local().execute(polygon,
+				makePolyline(), Double.POSITIVE_INFINITY, pt1, pt2, null);
+		assertEquals(5.0, distance);
+		assertEquals(15.0, pt2.y);
+		assertEquals(10.0, pt1.y);
+		assertEquals(pt1.x, pt2.x);
+
+		distance = OperatorDistance.local().execute(new Envelope(0, 0, 1, 1),
+				new Envelope(3, 0.5, 4, 2), Double.POSITIVE_INFINITY, pt1,
+				pt2, null);
+		assertEquals(2.0, distance);
+		assertEquals(Point2D.distance(pt1, pt2), distance);
+
+		distance = OperatorDistance.local().execute(new Point(1, 1), polygon,
+				Double.POSITIVE_INFINITY, pt1, pt2, null);
+		assertEquals(0.0, distance);
+		assertTrue(pt1.equals(pt2));
+	}
+
+	@Test
+	public static void testWithinDistance() {
+		java.util.Random random = new java.util.Random(11);
+		OperatorWithinDistance op = OperatorWithinDistance.local();
+		for (int iter = 0; iter < 10; iter++) {
+			Polyline polyline1 = makeRandomPolyline(random, 0, 400);
+			Polyline polyline2 = makeRandomPolyline(random, 60 + iter * 10, 300);
+			double distance = GeometryEngine.distance(polyline1, polyline2,
+					null);
+			assertTrue(op.execute(polyline1, polyline2, distance, null));
+			assertTrue(op.execute(polyline2, polyline1, distance * 1.01, null));
+			assertEquals(distance == 0, op.execute(polyline1, polyline2, 0,
+					null));
+			if (distance > 0)
+				assertFalse(op.execute(polyline1, polyline2, distance * 0.99,
+						null));
+		}
+
+		Polygon polygon = makePolygon();
+		assertTrue(op.execute(polygon, new Point(1, 1), 0, null));
+		assertFalse(op.execute(polygon, new Point(5, 5), 1.9, null));
+		assertTrue(op.execute(polygon, new Point(5, 5), 2, null));
+		assertFalse(op.execute(polygon, new Point(0, 30), 14.9, null));
+		assertTrue(op.execute(polygon, new Point(0, 30), 20, null));
+		assertFalse(op.execute(polygon, new Point(), 100, null));
+
+		// The batch form with the accelerated polygon
+		MultiPoint multipoint = new MultiPoint();
+		for (int i = 0; i < 200; i++)
+			multipoint.add(random.nextDouble() * 20 - 5,
+					random.nextDouble() * 20 - 5);
+
+		Geometry[] points = new Geometry[multipoint.getPointCount()];
+		for (int i = 0; i < points.length; i++)
+			points[i] = multipoint.getPoint(i);
+
+		boolean[] results = op.execute(polygon,
+				new SimpleGeometryCursor(points), 1.5, null);
+		assertEquals(points.length, results.length);
+		for (int i = 0; i < points.length; i++) {
+			assertEquals(GeometryEngine.distance(polygon, points[i], null) <= 1.5,
+					results[i]);
+		}
+	}
+
+	private static Polyline makeRandomPolyline(java.util.Random random,
+			double xoffset, int n) {
+		Polyline polyline = new Polyline();
+		double x = xoffset, y = 0;
+		polyline.startPath(x, y);
+		for (int i = 0; i < n; i++) {
+			x += random.nextDouble() * 2 - 0.8;
+			y += random.nextDouble() * 2 - 1;
+			polyline.lineTo(x, y);
+		}
+
+		return polyline;
+	}
+
+	private static double bruteForceDistance(MultiPath a, MultiPath b) {
+		double distance = Double.MAX_VALUE;
+		SegmentIterator iterA = a.querySegmentIterator();
+		while (iterA.nextPath()) {
+			while (iterA.hasNextSegment()) {
+				Segment segA = iterA.nextSegment();
+				SegmentIterator iterB = b.querySegmentIterator();
+				while (iterB.nextPath()) {
+					while (iterB.hasNextSegment())
+						distance = Math.min(distance,
+								segA.distance(iterB.nextSegment(), false));
+				}
+			}
+		}
+
+		return distance;
+	}
+
 	private static Polygon makePolygon() {
 		Polygon poly = new Polygon();
 
@@ -416,4 +416,88 @@ public class TestEditShape extends TestCase {
 			assertTrue(a7 == 43);
 		}
 	}
+
+	@Test
+	public static void testWorkspaceReuse() {
+		EditShape shape = TopoWorkspace.acquireEditShape();
+		EditShape nested = TopoWorkspace.acquireEditShape();
+		assertTrue(shape != nested);
+		TopoWorkspace.releaseEditShape(nested);
+		TopoWorkspace.releaseEditShape(shape);
+		assertTrue(TopoWorkspace.acquireEditShape() == shape);
+		TopoWorkspace.releaseEditShape(shape);
+
+		Polygon poly = new Polygon();
+		poly.startPath(0, 0);
+		poly.lineTo(0, 10);
+		poly.lineTo(10, 10);
+		poly.lineTo(10, 0);
+		Polygon polyZ = new Polygon();
+		polyZ.startPath(new Point(5, 5, 1));
+		polyZ.lineTo(new Point(5, 15, 2));
+		polyZ.lineTo(new Point(15, 15, 3));
+		polyZ.lineTo(new Point(15, 5, 4));
+
+		EditShape editShape = new EditShape();
+		for (int i = 0; i < 2; i++) {
+			int geom = editShape.addGeometry(poly);
+			assertEquals(4, editShape.getTotalPointCount());
+			assertTrue(editShape.getGeometry(geom).equals(poly));
+			editShape.clear();
+			assertEquals(0, editShape.getTotalPointCount());
+			assertEquals(-1, editShape.getFirstGeometry());
+		}
+
+		int geomZ = editShape.addGeometry(polyZ);
+		assertTrue(editShape.getGeometry(geomZ).equals(polyZ));
+
+		for (int i = 0; i < 3; i++) {
+			Geometry diff = OperatorDifference.local().execute(poly, polyZ,
+					null, null);
+			assertEquals(75.0, diff.calculateArea2D(), 1e-10);
+			Geometry inter = OperatorIntersection.local().execute(poly,
+					polyZ, null, null);
+			assertEquals(25.0, inter.calculateArea2D(), 1e-10);
+			assertTrue(OperatorRelate.local().execute(poly, polyZ, null,
+					"T*T***T**", null));
+		}
+
+		assertTrue(TopoWorkspace.getRetainedBytes() > 0);
+	}
+
+	@Test
+	public static void testWorkspaceReleaseCurrentThread() {
+		Polygon poly = new Polygon();
+		poly.startPath(0, 0);
+		poly.lineTo(0, 10);
+		poly.lineTo(10, 10);
+		poly.lineTo(10, 0);
+		Polygon poly2 = new Polygon();
+		poly2.startPath(5, 5);
+		poly2.lineTo(5, 15);
+		poly2.lineTo(15, 15);
+		poly2.lineTo(15, 5);
+		OperatorIntersection.local().execute(poly, poly2, null, null);
+		assertTrue(TopoWorkspace.getRetainedBytes() > 0);
+
+		TopoWorkspace.releaseCurrentThread();
+		assertEquals(0, TopoWorkspace.getRetainedBytes());
+
+		// an instance in use when the workspace is released stays valid and
+		// is not returned to the new workspace.
+		EditShape shape = TopoWorkspace.acquireEditShape();
+		TopoWorkspace.releaseCurrentThread();
+		int geom = shape.addGeometry(poly);
+		EditShape other = TopoWorkspace.acquireEditShape();
+		assertTrue(other != shape);
+		assertTrue(shape.getGeometry(geom).equals(poly));
+		TopoWorkspace.releaseEditShape(other);
+		TopoWorkspace.releaseEditShape(shape);
+		assertTrue(TopoWorkspace.acquireEditShape() == other);
+		TopoWorkspace.releaseEditShape(other);
+
+		Geometry inter = OperatorIntersection.local().execute(poly, poly2,
+				null, null);
+		assertEquals(25.0, inter.calculateArea2D(), 1e-10);
+	}
 }
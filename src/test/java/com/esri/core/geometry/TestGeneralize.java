@@ -140,4 +140,219 @@ public class TestGeneralize extends TestCase {
 			assertTrue(pc2 == 3);
 		}
 	}
+
+	@Test
+	public static void testVisvalingamWhyatt() {
+		Polyline polyline = new Polyline();
+		polyline.startPath(0, 0);
+		polyline.lineTo(1, 1);
+		polyline.lineTo(2, 0);
+		polyline.lineTo(3, 2);
+		polyline.lineTo(4, 1);
+		polyline.lineTo(5, 0);
+		polyline.lineTo(5, 10);
+		polyline.lineTo(0, 10);
+		Polyline p = (Polyline) OperatorGeneralize.local().execute(polyline, 2,
+				true, OperatorGeneralize.GeneralizeType.VisvalingamWhyatt, null);
+		Point2D[] points = p.getCoordinates2D();
+		assertEquals(5, points.length);
+		assertTrue(points[0].x == 0 && points[0].y == 0);
+		assertTrue(points[1].x == 3 && points[1].y == 2);
+		assertTrue(points[2].x == 5 && points[2].y == 0);
+		assertTrue(points[3].x == 5 && points[3].y == 10);
+		assertTrue(points[4].x == 0 && points[4].y == 10);
+
+		p = (Polyline) OperatorGeneralize.local().execute(polyline, 100, false,
+				OperatorGeneralize.GeneralizeType.VisvalingamWhyatt, null);
+		assertEquals(2, p.getPointCount());
+		p = (Polyline) OperatorGeneralize.local().execute(polyline, 100, true,
+				OperatorGeneralize.GeneralizeType.VisvalingamWhyatt, null);
+		assertTrue(p.isEmpty());
+
+		Polygon input_polygon = new Polygon();
+		input_polygon.addEnvelope(Envelope2D.construct(0, 0, 20, 10), false);
+		Geometry densified_geom = OperatorDensifyByLength.local().execute(
+				input_polygon, 1, null);
+		Polygon polygon = (Polygon) OperatorGeneralize.local().execute(
+				densified_geom, 1, true,
+				OperatorGeneralize.GeneralizeType.VisvalingamWhyatt, null);
+		assertEquals(4, polygon.getPointCount());
+		assertEquals(200.0, polygon.calculateArea2D());
+		polygon = (Polygon) OperatorGeneralize.local().execute(densified_geom,
+				40, true, OperatorGeneralize.GeneralizeType.VisvalingamWhyatt,
+				null);
+		assertTrue(polygon.isEmpty());
+	}
+
+	@Test
+	public static void testVisvalingamWhyattPreserveTopology() {
+		// Removing the vertex at (50, -2) would leave the hole outside of the
+		// polygon.
+		Polygon polygon = new Polygon();
+		polygon.startPath(0, 0);
+		polygon.lineTo(0, 100);
+		polygon.lineTo(100, 100);
+		polygon.lineTo(100, 0);
+		polygon.lineTo(50, -2);
+		polygon.startPath(49, -1.5);
+		polygon.lineTo(51, -1.5);
+		polygon.lineTo(51, -0.5);
+		polygon.lineTo(49, -0.5);
+		assertTrue(OperatorSimplifyOGC.local().isSimpleOGC(polygon, null,
+				true, null, null));
+
+		Polygon vw = (Polygon) OperatorGeneralize.local().execute(polygon, 11,
+				false, OperatorGeneralize.GeneralizeType.VisvalingamWhyatt,
+				null);
+		assertEquals(4, vw.getPathSize(0));
+		assertFalse(OperatorSimplifyOGC.local().isSimpleOGC(vw, null, true,
+				null, null));
+
+		Polygon topo = (Polygon) OperatorGeneralize.local().execute(polygon,
+				11, false,
+				OperatorGeneralize.GeneralizeType.VisvalingamWhyattPreserveTopology,
+				null);
+		assertEquals(2, topo.getPathCount());
+		assertEquals(5, topo.getPathSize(0));
+		assertEquals(3, topo.getPathSize(1));
+		assertTrue(OperatorSimplifyOGC.local().isSimpleOGC(topo, null, true,
+				null, null));
+	}
+
+	@Test
+	public static void testGeneralizeInterstate10() throws java.io.IOException {
+		String json = new String(java.nio.file.Files.readAllBytes(java.nio.file.Paths
+				.get("data/INTERSTATE10_102009_POLYLINE_GEOMETRY2.TXT")), "UTF-8").trim();
+		json = json.substring(1, json.length() - 1);// the file has an array
+		Polyline polyline = (Polyline) OperatorImportFromJson.local()
+				.execute(Geometry.Type.Polyline, json).getGeometry();
+		Polyline densified = (Polyline) OperatorDensifyByLength.local()
+				.execute(polyline, 100, null);
+
+		OperatorGeneralize.GeneralizeType[] types = OperatorGeneralize.GeneralizeType
+				.values();
+		for (int k = 0; k < types.length; k++) {
+			Polyline result = (Polyline) OperatorGeneralize.local().execute(
+					densified, 1000, false, types[k], null);
+
+			assertEquals(1, result.getPathCount());
+			assertTrue(result.getPointCount() < polyline.getPointCount());
+			assertTrue(result.getXY(0).equals(densified.getXY(0)));
+			assertTrue(result.getXY(result.getPointCount() - 1).equals(
+					densified.getXY(densified.getPointCount() - 1)));
+			// the vertices are a subset of the input vertices.
+			double d = OperatorDistance.local().execute(
+					result.getPoint(result.getPointCount() / 2), densified,
+					null);
+			assertTrue(d == 0);
+		}
+	}
+
+	private static double coverageNoise(double x, double y) {
+		double v = Math.sin(x * 12.9898 + y * 78.233) * 43758.5453;
+		return (v - Math.floor(v) - 0.5) * 0.6;
+	}
+
+	// A 10 x 10 cell with wiggly edges. The adjacent cells have the same
+	// vertices along the shared edges.
+	private static Polygon makeCoverageCell(int i, int j) {
+		int n = 40;
+		double x0 = i * 10, y0 = j * 10;
+		Polygon polygon = new Polygon();
+		polygon.startPath(x0, y0);
+		for (int k = 1; k <= n; k++) {
+			double y = y0 + k * 10.0 / n;
+			polygon.lineTo(k == n ? x0 : x0 + coverageNoise(x0, y), y);
+		}
+		for (int k = 1; k <= n; k++) {
+			double x = x0 + k * 10.0 / n;
+			polygon.lineTo(x, k == n ? y0 + 10 : y0 + 10 + coverageNoise(x, y0 + 10));
+		}
+		for (int k = 1; k <= n; k++) {
+			double y = y0 + 10 - k * 10.0 / n;
+			polygon.lineTo(k == n ? x0 + 10 : x0 + 10 + coverageNoise(x0 + 10, y), y);
+		}
+		for (int k = 1; k < n; k++) {
+			double x = x0 + 10 - k * 10.0 / n;
+			polygon.lineTo(x, y0 + coverageNoise(x, y0));
+		}
+
+		return polygon;
+	}
+
+	@Test
+	public static void testGeneralizeCoverage() {
+		Geometry[] cells = new Geometry[9];
+		for (int i = 0; i < 3; i++)
+			for (int j = 0; j < 3; j++)
+				cells[i * 3 + j] = makeCoverageCell(i, j);
+
+		for (OperatorGeneralize.GeneralizeType type : OperatorGeneralize.GeneralizeType
+				.values()) {
+			GeometryCursor cursor = OperatorGeneralizeCoverage.local().execute(
+					new SimpleGeometryCursor(cells), 0.5, true, type, null);
+			Geometry[] results = new Geometry[cells.length];
+			double area = 0;
+			for (int i = 0; i < cells.length; i++) {
+				results[i] = cursor.next();
+				assertEquals(i, cursor.getGeometryID());
+				assertTrue(((Polygon) results[i]).getPointCount() < ((Polygon) cells[i])
+						.getPointCount());
+				area += ((Polygon) results[i]).calculateArea2D();
+			}
+			assertTrue(cursor.next() == null);
+
+			// no gaps or overlaps between the cells
+			Polygon union = (Polygon) OperatorUnion.local().execute(
+					new SimpleGeometryCursor(results), null, null).next();
+			assertEquals(area, union.calculateArea2D(), 1e-9);
+			assertEquals(1, union.getPathCount());
+		}
+
+		// Generalizing the cells one by one opens gaps.
+		Geometry[] separate = new Geometry[cells.length];
+		double area = 0;
+		for (int i = 0; i < cells.length; i++) {
+			separate[i] = OperatorGeneralize.local().execute(cells[i], 0.5,
+					true, null);
+			area += ((Polygon) separate[i]).calculateArea2D();
+		}
+		Polygon union = (Polygon) OperatorUnion.local().execute(
+				new SimpleGeometryCursor(separate), null, null).next();
+		assertTrue(Math.abs(area - union.calculateArea2D()) > 1);
+	}
+
+	@Test
+	public static void testGeneralizeCoverageHole() {
+		// The island fills the hole, so the ring of the hole and the island is
+		// one arc without junctions.
+		Polygon island = makeCoverageCell(1, 1);
+		Polygon outer = new Polygon();
+		outer.addEnvelope(Envelope2D.construct(-10, -10, 40, 40), false);
+		Polygon hole = new Polygon();
+		hole.add(island, true);
+		outer.add(hole, false);
+		Polyline road = new Polyline();
+		road.startPath(-5, 0);
+		road.lineTo(0, 0.1);
+		road.lineTo(5, 0);
+		Point point = new Point(1, 2);
+
+		GeometryCursor cursor = OperatorGeneralizeCoverage.local().execute(
+				new SimpleGeometryCursor(new Geometry[] { outer, island, road,
+						point }), 1, false,
+				OperatorGeneralize.GeneralizeType.VisvalingamWhyatt, null);
+		Polygon outerResult = (Polygon) cursor.next();
+		Polygon islandResult = (Polygon) cursor.next();
+		Polyline roadResult = (Polyline) cursor.next();
+		assertTrue(cursor.next() == point);
+		assertTrue(cursor.next() == null);
+
+		assertEquals(2, outerResult.getPathCount());
+		assertEquals(islandResult.getPointCount(), outerResult.getPathSize(1));
+		assertTrue(islandResult.getPointCount() < island.getPointCount());
+		assertEquals(2500.0, outerResult.calculateArea2D()
+				+ islandResult.calculateArea2D(), 1e-9);
+		assertEquals(2, roadResult.getPointCount());
+	}
 }
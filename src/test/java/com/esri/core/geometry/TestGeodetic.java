@@ -126,4 +126,223 @@ public class TestGeodetic extends TestCase {
 		 */
 	}
 	
+	@Test
+	public void testGeodesicCoordinate() {
+		double a = 6378137.0;
+		double e2 = 0.0066943799901413165;
+		double rpu = Math.PI / 180.0;
+		PeDouble lam = new PeDouble();
+		PeDouble phi = new PeDouble();
+		PeDouble dist = new PeDouble();
+		PeDouble az = new PeDouble();
+		for (int i = 0; i < 360; i += 15) {
+			GeoDist.geodesic_coordinate_ngs(a, e2, 10 * rpu, 40 * rpu,
+					1234567.0, i * rpu, lam, phi);
+			GeoDist.geodesic_distance_ngs(a, e2, 10 * rpu, 40 * rpu, lam.val,
+					phi.val, dist, az, null);
+			assertEquals(1234567.0, dist.val, 1e-6);
+			assertEquals(0.0, Math.IEEEremainder(az.val - i * rpu, 2 * Math.PI), 1e-10);
+		}
+	}
+
+	@Test
+	public void testGeodesicBufferPoint() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Point center = new Point(-122.3, 47.6);
+		Polygon buffer = (Polygon) OperatorGeodesicBuffer.local().execute(
+				center, sr, GeodeticCurveType.Geodesic, 5000.0, NumberUtils.NaN(),
+				false, null);
+		assertEquals(1, buffer.getPathCount());
+		assertTrue(buffer.getPointCount() >= 96);
+		Point pt = new Point();
+		for (int i = 0; i < buffer.getPointCount(); i++) {
+			buffer.getPoint(i, pt);
+			assertEquals(5000.0, GeometryEngine.geodesicDistanceOnWGS84(center, pt), 1e-6);
+		}
+		assertTrue(buffer.calculateArea2D() > 0);
+	}
+
+	@Test
+	public void testGeodesicBufferPolyline() {
+		SpatialReference sr = SpatialReference.create(4326);
+		double distance = 10000.0;
+		Polyline polyline = new Polyline();
+		polyline.startPath(-10, 0);
+		polyline.lineTo(30, 50);
+		polyline.lineTo(40, 55);
+		Polygon buffer = (Polygon) OperatorGeodesicBuffer.local().execute(
+				polyline, sr, GeodeticCurveType.Geodesic, distance, 1.0,
+				false, null);
+		assertFalse(buffer.isEmpty());
+		assertEquals(1, buffer.getExteriorRingCount());
+
+		// Points off the middle of the geodesic, just inside and just outside
+		// of the buffer distance.
+		double a = 6378137.0;
+		double e2 = 0.0066943799901413165;
+		double rpu = Math.PI / 180.0;
+		PeDouble dist = new PeDouble();
+		PeDouble az = new PeDouble();
+		PeDouble lam = new PeDouble();
+		PeDouble phi = new PeDouble();
+		GeoDist.geodesic_distance_ngs(a, e2, -10 * rpu, 0, 30 * rpu, 50 * rpu, dist, az, null);
+		for (int k = 1; k < 10; k++) {
+			GeoDist.geodesic_coordinate_ngs(a, e2, -10 * rpu, 0, dist.val * k / 10, az.val, lam, phi);
+			PeDouble az_mid = new PeDouble();
+			GeoDist.geodesic_distance_ngs(a, e2, lam.val, phi.val, 30 * rpu, 50 * rpu, null, az_mid, null);
+			PeDouble lam_off = new PeDouble();
+			PeDouble phi_off = new PeDouble();
+			for (int side = -1; side <= 1; side += 2) {
+				GeoDist.geodesic_coordinate_ngs(a, e2, lam.val, phi.val, distance - 5.0,
+						az_mid.val + side * Math.PI / 2, lam_off, phi_off);
+				Point inside = new Point(lam_off.val / rpu, phi_off.val / rpu);
+				assertTrue(GeometryEngine.contains(buffer, inside, sr));
+				GeoDist.geodesic_coordinate_ngs(a, e2, lam.val, phi.val, distance + 5.0,
+						az_mid.val + side * Math.PI / 2, lam_off, phi_off);
+				Point outside = new Point(lam_off.val / rpu, phi_off.val / rpu);
+				assertFalse(GeometryEngine.contains(buffer, outside, sr));
+			}
+		}
+	}
+
+	@Test
+	public void testGeodesicBufferPolygon() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Polygon polygon = new Polygon();
+		polygon.addEnvelope(new Envelope(0, 0, 20, 20), false);
+		Polygon outer = (Polygon) OperatorGeodesicBuffer.local().execute(
+				polygon, sr, GeodeticCurveType.ShapePreserving, 50000.0,
+				NumberUtils.NaN(), false, null);
+		Polygon inner = (Polygon) OperatorGeodesicBuffer.local().execute(
+				polygon, sr, GeodeticCurveType.ShapePreserving, -50000.0,
+				NumberUtils.NaN(), false, null);
+		assertTrue(GeometryEngine.contains(outer, polygon, sr));
+		assertTrue(GeometryEngine.contains(polygon, inner, sr));
+		assertTrue(GeometryEngine.contains(outer, new Point(10, -0.4), sr));
+		assertFalse(GeometryEngine.contains(outer, new Point(10, -0.5), sr));
+		assertTrue(GeometryEngine.contains(inner, new Point(10, 0.5), sr));
+		assertFalse(GeometryEngine.contains(inner, new Point(10, 0.4), sr));
+	}
+
+	@Test
+	public void testGeodesicBufferPointCoveringPole() {
+		SpatialReference sr = SpatialReference.create(4326);
+		double distance = 100000.0;
+		Point[] centers = { new Point(10, 89.9), new Point(0, -89.5) };
+		for (int c = 0; c < centers.length; c++) {
+			Point center = centers[c];
+			Polygon buffer = (Polygon) OperatorGeodesicBuffer.local().execute(
+					center, sr, GeodeticCurveType.Geodesic, distance,
+					NumberUtils.NaN(), false, null);
+			assertEquals(1, buffer.getPathCount());
+			assertTrue(buffer.calculateArea2D() > 0);
+			assertTrue(GeometryEngine.contains(buffer, center, sr));
+
+			// the ring spans the longitudes around the center and is closed
+			// along the pole
+			double pole = center.getY() > 0 ? 90 : -90;
+			Envelope2D env = new Envelope2D();
+			buffer.queryEnvelope2D(env);
+			assertEquals(center.getX() - 180, env.xmin, 1e-6);
+			assertEquals(center.getX() + 180, env.xmax, 1e-6);
+			assertEquals(pole, pole > 0 ? env.ymax : env.ymin, 0);
+
+			for (double lon = center.getX() - 175; lon < center.getX() + 180; lon += 10) {
+				for (int k = 0; k < 15; k++) {
+					double lat = 88.5 + k * 0.1;
+					Point pt = new Point(lon, pole > 0 ? lat : -lat);
+					double d = GeometryEngine.geodesicDistanceOnWGS84(center, pt);
+					if (d < distance - 1000)
+						assertTrue(GeometryEngine.contains(buffer, pt, sr));
+					else if (d > distance + 1000)
+						assertFalse(GeometryEngine.contains(buffer, pt, sr));
+				}
+			}
+		}
+
+		// The longitudes are continuous with the input, and are not wrapped
+		// at the antimeridian.
+		Polygon buffer = (Polygon) OperatorGeodesicBuffer.local().execute(
+				new Point(179.9, 0), sr, GeodeticCurveType.Geodesic, distance,
+				NumberUtils.NaN(), false, null);
+		Envelope2D env = new Envelope2D();
+		buffer.queryEnvelope2D(env);
+		assertTrue(env.xmax > 180.7 && env.xmax < 180.9);
+
+		Polyline polyline = new Polyline();
+		polyline.startPath(0, 89);
+		polyline.lineTo(90, 89);
+		try {
+			OperatorGeodesicBuffer.local().execute(polyline, sr,
+					GeodeticCurveType.Geodesic, 200000.0, NumberUtils.NaN(),
+					false, null);
+			fail();
+		} catch (GeometryException ex) {
+		}
+	}
+
+	@Test
+	public void testGeodesicBufferThreadCount() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Polyline polyline = new Polyline();
+		polyline.startPath(0, 0);
+		for (int i = 1; i < 5000; i++)
+			polyline.lineTo(i * 0.004, (i % 2) * 0.01);
+
+		Geometry sequential = OperatorGeodesicBuffer.local().execute(polyline,
+				sr, GeodeticCurveType.Geodesic, 1000.0, NumberUtils.NaN(),
+				false, null);
+		Geometry parallel = OperatorGeodesicBuffer.local().execute(polyline,
+				sr, GeodeticCurveType.Geodesic, 1000.0, NumberUtils.NaN(),
+				false, 4, null);
+		assertTrue(OperatorEquals.local().execute(sequential, parallel, sr,
+				null));
+
+		try {
+			OperatorGeodesicBuffer.local().execute(polyline, sr,
+					GeodeticCurveType.Geodesic, 1000.0, NumberUtils.NaN(),
+					false, -1, null);
+			fail();
+		} catch (IllegalArgumentException ex) {
+		}
+	}
+
+	@Test
+	public void testGeodesicBufferSpatialReference() {
+		Point point = new Point(10, 50);
+		String gcs = "GEOGCS[\"GCS_WGS_1984\",DATUM[\"D_WGS_1984\",SPHEROID[\"WGS_1984\",6378137.0,298.257223563]],PRIMEM[\"Greenwich\",0.0],UNIT[\"Degree\",0.0174532925199433]]";
+		Geometry buffer = OperatorGeodesicBuffer.local().execute(point,
+				SpatialReference.create(gcs), GeodeticCurveType.Geodesic,
+				1000.0, NumberUtils.NaN(), false, null);
+		assertFalse(buffer.isEmpty());
+
+		SpatialReference[] rejected = {
+				SpatialReference.create(102100),
+				SpatialReference.create(999999),
+				SpatialReference.create("PROJCS[\"WGS_1984_Web_Mercator_Auxiliary_Sphere\","
+						+ gcs
+						+ ",PROJECTION[\"Mercator_Auxiliary_Sphere\"],UNIT[\"Meter\",1.0]]") };
+		for (int i = 0; i < rejected.length; i++) {
+			try {
+				OperatorGeodesicBuffer.local().execute(point, rejected[i],
+						GeodeticCurveType.Geodesic, 1000.0, NumberUtils.NaN(),
+						false, null);
+				fail();
+			} catch (GeometryException ex) {
+			}
+		}
+	}
+
+	@Test
+	public void testGeodesicBufferCursorUnion() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Geometry[] points = new Geometry[] { new Point(0, 0), new Point(0.1, 0),
+				new Point(5, 5) };
+		GeometryCursor cursor = OperatorGeodesicBuffer.local().execute(
+				new SimpleGeometryCursor(points), sr, GeodeticCurveType.Geodesic,
+				new double[] { 10000.0 }, NumberUtils.NaN(), false, true, null);
+		Polygon union = (Polygon) cursor.next();
+		assertNull(cursor.next());
+		assertEquals(2, union.getExteriorRingCount());
+	}
 }
@@ -319,4 +319,38 @@ public class TestMultiPoint extends TestCase {
 
 		assertTrue(mpCopy.getPointCount() == 2);
 	}
+
+	@Test
+	public void testBulkAdd() {
+		double[] xy = new double[] { 0, 0, 1, 1, 2, 2, 3, 3 };
+		MultiPoint mp = new MultiPoint();
+		mp.add(-1, -1);
+		int state = mp.getStateFlag();
+		mp.add(xy, 1, 3);
+		assertTrue(mp.getStateFlag() != state);
+		assertEquals(4, mp.getPointCount());
+		assertEquals(new Point2D(-1, -1), mp.getXY(0));
+		assertEquals(new Point2D(1, 1), mp.getXY(1));
+		assertEquals(new Point2D(3, 3), mp.getXY(3));
+		Envelope2D env = new Envelope2D();
+		mp.queryEnvelope2D(env);
+		assertEquals(3.0, env.xmax);
+
+		mp.addAttribute(VertexDescription.Semantics.Z);
+		mp.add(xy, 0, 1);
+		assertEquals(5, mp.getPointCount());
+		assertEquals(VertexDescription.getDefaultValue(VertexDescription.Semantics.Z),
+				mp.getAttributeAsDbl(VertexDescription.Semantics.Z, 4, 0));
+
+		mp.addPoints(new Point[] { new Point(7, 7), new Point(8, 8) });
+		assertEquals(7, mp.getPointCount());
+		assertEquals(new Point2D(-1, -1), mp.getXY(0));
+		assertEquals(new Point2D(8, 8), mp.getXY(6));
+
+		try {
+			mp.add(xy, 2, 3);
+			fail();
+		} catch (IllegalArgumentException ex) {
+		}
+	}
 }
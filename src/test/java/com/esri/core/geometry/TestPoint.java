@@ -24,6 +24,7 @@
 
 package com.esri.core.geometry;
 
+import java.math.BigDecimal;
 import java.util.Random;
 
 import junit.framework.TestCase;
@@ -234,4 +235,63 @@ public class TestPoint extends TestCase {
 		env.replaceNaNs(VertexDescription.Semantics.Z, 5);
 		assertTrue(env.queryInterval(VertexDescription.Semantics.Z, 0).equals(new Envelope1D(5, 5)));
 	}	
+
+	private static int orientationMP(Point2D p, Point2D q, Point2D r) {
+		BigDecimal px = new BigDecimal(p.x), py = new BigDecimal(p.y);
+		BigDecimal det = new BigDecimal(q.x).subtract(px).multiply(
+				new BigDecimal(r.y).subtract(py));
+		det = det.subtract(new BigDecimal(q.y).subtract(py).multiply(
+				new BigDecimal(r.x).subtract(px)));
+		return det.signum();
+	}
+
+	@Test
+	public void testOrientationRobust() {
+		// Points that are nearly on a line, with the coordinates perturbed by
+		// few ulps, and shifted far away from the origin. This is where the
+		// double precision determinant gives a wrong sign.
+		Random rnd = new Random(1973);
+		double[] offsets = { 0, 0.5, 12345.678, 1e8, -3.5e15 };
+		Point2D p = new Point2D(), q = new Point2D(), r = new Point2D();
+		int zeros = 0;
+		for (int k = 0; k < offsets.length; k++) {
+			double offset = offsets[k];
+			for (int i = 0; i < 2000; i++) {
+				p.setCoords(offset + rnd.nextDouble(), offset + rnd.nextDouble());
+				q.setCoords(offset + 24 * rnd.nextDouble(), offset + 24 * rnd.nextDouble());
+				double t = rnd.nextDouble() * 3 - 1;
+				r.setCoords(p.x + (q.x - p.x) * t, p.y + (q.y - p.y) * t);
+				int ulps = rnd.nextInt(5) - 2;
+				for (int j = 0; j < Math.abs(ulps); j++)
+					r.y = ulps > 0 ? Math.nextUp(r.y) : -Math.nextUp(-r.y);
+
+				int expected = orientationMP(p, q, r);
+				if (expected == 0)
+					zeros++;
+				assertEquals(expected, Point2D.orientationRobust(p, q, r));
+				assertEquals(-expected, Point2D.orientationRobust(q, p, r));
+				assertEquals(expected, Point2D.orientationRobust(q, r, p));
+			}
+		}
+		assertTrue(zeros > 0);
+
+		// Exactly collinear
+		p.setCoords(0.1, 0.1);
+		q.setCoords(0.3, 0.3);
+		r.setCoords(1e15, 1e15);
+		assertEquals(0, Point2D.orientationRobust(p, q, r));
+		r.setCoords(1e15, Math.nextUp(1e15));
+		assertEquals(1, Point2D.orientationRobust(p, q, r));
+	}
+
+	@Test
+	public void testInCircleRobust() {
+		// clockwise triangle on the unit circle
+		Point2D p = new Point2D(0, 1), q = new Point2D(1, 0), r = new Point2D(0, -1);
+		assertEquals(-1, Point2D.inCircleRobust(p, q, r, new Point2D(0.5, 0.5)));
+		assertEquals(1, Point2D.inCircleRobust(p, q, r, new Point2D(2, 0)));
+		assertEquals(0, Point2D.inCircleRobust(p, q, r, new Point2D(-1, 0)));
+		assertEquals(1, Point2D.inCircleRobust(p, q, r, new Point2D(-Math.nextUp(1.0), 0)));
+		assertEquals(-1, Point2D.inCircleRobust(p, q, r, new Point2D(Math.nextUp(-1.0), 0)));
+	}
 }
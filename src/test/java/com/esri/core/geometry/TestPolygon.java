@@ -24,7 +24,13 @@
 
 package com.esri.core.geometry;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 
 import junit.framework.TestCase;
 
@@ -1318,6 +1324,481 @@ public class TestPolygon extends TestCase {
 		assertEquals(segments, 15);
 	}
 
+	@Test
+	public void testCompactXY() {
+		SpatialReference sr = SpatialReference.create(4326);
+		double resolution = sr.getTolerance() * 0.1;
+		Polygon poly = new Polygon();
+		poly.startPath(-117.123456789, 34.1);
+		poly.lineTo(-117.0, 34.2);
+		poly.lineTo(-116.9, 34.0);
+		poly.startPath(-117.01, 34.09);
+		poly.lineTo(-116.99, 34.09);
+		poly.lineTo(-117.0, 34.11);
+		Polygon original = (Polygon) poly.copy();
+		long memory = poly.estimateMemorySize();
+
+		assertFalse(poly.isCompactXY());
+		assertTrue(poly.compactXY(sr));
+		assertTrue(poly.isCompactXY());
+		assertTrue(poly.estimateMemorySize() < memory);
+
+		// reading does not convert the storage
+		Point2D pt = new Point2D();
+		for (int i = 0; i < poly.getPointCount(); i++) {
+			poly.getXY(i, pt);
+			assertEquals(original.getXY(i).x, pt.x, resolution);
+			assertEquals(original.getXY(i).y, pt.y, resolution);
+		}
+
+		SegmentIterator iter = poly.querySegmentIterator();
+		int segments = 0;
+		while (iter.nextPath()) {
+			while (iter.hasNextSegment()) {
+				Segment seg = iter.nextSegment();
+				assertEquals(original.getXY(segments).x, seg.getStartX(), resolution);
+				segments++;
+			}
+		}
+		assertEquals(original.getSegmentCount(), segments);
+
+		Envelope2D env = new Envelope2D();
+		poly.queryEnvelope2D(env);
+		assertEquals(-117.123456789, env.xmin, resolution);
+		assertEquals(34.2, env.ymax, resolution);
+
+		Polygon copy = (Polygon) poly.copy();
+		assertTrue(copy.isCompactXY());
+		assertEquals(poly.hashCode(), copy.hashCode());
+		assertTrue(poly.isCompactXY());
+
+		assertEquals(original.calculateArea2D(), poly.calculateArea2D(), 1e-12);
+		assertTrue(poly.isCompactXY());
+
+		// direct access to the position stream converts the storage
+		MultiPathImpl impl = (MultiPathImpl) poly._getImpl();
+		AttributeStreamOfDbl xy = (AttributeStreamOfDbl) impl
+				.getAttributeStreamRef(VertexDescription.Semantics.POSITION);
+		assertFalse(poly.isCompactXY());
+		assertEquals(original.getXY(2).y, xy.read(5), resolution);
+		assertTrue(poly.equals(copy));
+
+		// modification converts the storage
+		copy.setXY(0, new Point2D(-117.2, 34.1));
+		assertFalse(copy.isCompactXY());
+		assertEquals(-117.2, copy.getXY(0).x);
+		assertEquals(original.getXY(1).x, copy.getXY(1).x, resolution);
+
+		// the extent does not fit 32 bit offsets on the resolution grid
+		Polyline large = new Polyline();
+		large.startPath(-170, 0);
+		large.lineTo(170, 0);
+		assertFalse(large.compactXY(sr));
+		assertFalse(large.isCompactXY());
+		assertEquals(-170.0, large.getXY(0).x);
+
+		MultiPoint mp = new MultiPoint();
+		mp.add(10, 10);
+		mp.add(10.5, 11);
+		assertTrue(mp.compactXY(sr));
+		mp.add(11, 12);
+		assertFalse(mp.isCompactXY());
+		assertEquals(3, mp.getPointCount());
+		assertEquals(10.5, mp.getXY(1).x, resolution);
+		assertEquals(12.0, mp.getXY(2).y);
+	}
+
+	@Test
+	public void testDirectAttributeStreams() throws IOException {
+		Polygon poly = new Polygon();
+		poly.startPath(0, 0);
+		poly.lineTo(0, 10);
+		poly.lineTo(10, 10);
+		poly.lineTo(10, 0);
+		poly.startPath(2, 2);
+		poly.lineTo(8, 2);
+		poly.lineTo(8, 8);
+		Polygon original = (Polygon) poly.copy();
+		MultiPathImpl impl = (MultiPathImpl) poly._getImpl();
+		int count = poly.getPointCount() * 2;
+
+		File file = File.createTempFile("geometry", ".bin");
+		file.deleteOnExit();
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			ByteBuffer bytes = ByteBuffer.allocate(count * 8).order(
+					ByteOrder.LITTLE_ENDIAN);
+			impl.getAttributeStreamRef(VertexDescription.Semantics.POSITION)
+					.readRange(0, count, bytes, 0, true);
+			raf.write(bytes.array());
+			MappedByteBuffer mapped = raf.getChannel().map(
+					FileChannel.MapMode.READ_ONLY, 0, count * 8);
+			mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+			AttributeStreamOfDbl direct = (AttributeStreamOfDbl) AttributeStreamBase
+					.createDirectAttributeStreamWithSemantics(
+							VertexDescription.Semantics.POSITION, mapped,
+							poly.getPointCount());
+			impl.setAttributeStreamRef(VertexDescription.Semantics.POSITION,
+					direct);
+			assertTrue(direct.isDirect());
+			assertEquals(SizeOf.SIZE_OF_ATTRIBUTE_STREAM_OF_DBL,
+					direct.estimateMemorySize());
+
+			assertTrue(poly.equals(original));
+			assertEquals(original.calculateArea2D(), poly.calculateArea2D());
+			assertEquals(original.getXY(4), poly.getXY(4));
+			assertTrue(direct.isDirect());
+
+			// the copy shares the buffer
+			Polygon copy = (Polygon) poly.copy();
+			AttributeStreamOfDbl copyStream = (AttributeStreamOfDbl) ((MultiPathImpl) copy
+					._getImpl())
+					.getAttributeStreamRef(VertexDescription.Semantics.POSITION);
+			assertTrue(copyStream.isDirect());
+
+			// modification moves the elements to the heap, the file is not
+			// written to
+			poly.setXY(0, new Point2D(-1, -1));
+			assertFalse(direct.isDirect());
+			assertEquals(-1.0, poly.getXY(0).x);
+			assertEquals(0.0, mapped.getDouble(0));
+			assertTrue(copy.equals(original));
+			assertEquals(original.getXY(6), poly.getXY(6));
+
+			poly.lineTo(5, 5);
+			assertEquals(original.getPointCount() + 1, poly.getPointCount());
+		} finally {
+			raf.close();
+		}
+	}
+
+	@Test
+	public void testFreeze() throws InterruptedException {
+		Polygon poly = new Polygon();
+		poly.startPath(0, 0);
+		poly.lineTo(0, 10);
+		poly.lineTo(10, 10);
+		poly.lineTo(10, 0);
+		poly.startPath(2, 2);
+		poly.lineTo(8, 2);
+		poly.lineTo(8, 8);
+		for (int i = 0; i < 100; i++)
+			poly.insertPoint(0, 1, new Point2D(0, 0.05 * (i + 1)));
+		poly.setAttribute(VertexDescription.Semantics.ID, 0, 0, 7);
+		Polygon original = (Polygon) poly.copy();
+
+		assertFalse(poly.isFrozen());
+		poly.freeze();
+		assertTrue(poly.isFrozen());
+		assertTrue(poly.equals(original));
+		AttributeStreamOfDbl xy = (AttributeStreamOfDbl) ((MultiPathImpl) poly
+				._getImpl())
+				.getAttributeStreamRef(VertexDescription.Semantics.POSITION);
+		assertEquals(poly.getPointCount() * 2, xy.capacity());
+		int state = poly.getStateFlag();
+
+		try {
+			poly.setXY(0, new Point2D(1, 1));
+			fail();
+		} catch (RuntimeException ex) {
+		}
+		try {
+			poly.lineTo(5, 5);
+			fail();
+		} catch (GeometryException ex) {
+		}
+		try {
+			poly.setEmpty();
+			fail();
+		} catch (GeometryException ex) {
+		}
+		try {
+			poly.addAttribute(VertexDescription.Semantics.M);
+			fail();
+		} catch (GeometryException ex) {
+		}
+		assertTrue(poly.equals(original));
+		assertEquals(state, poly.getStateFlag());
+
+		// the copy is not frozen and does not share the streams
+		Polygon copy = (Polygon) poly.copy();
+		assertFalse(copy.isFrozen());
+		copy.setXY(0, new Point2D(-1, -1));
+		copy.setAttribute(VertexDescription.Semantics.ID, 0, 0, 8);
+		assertEquals(original.calculateArea2D(), poly.calculateArea2D());
+		assertEquals(7, poly.getAttributeAsInt(VertexDescription.Semantics.ID, 0, 0));
+
+		// one frozen instance is shared by threads that accelerate it
+		final Polygon shared = poly;
+		final SpatialReference sr = SpatialReference.create(4326);
+		final int[] errors = new int[1];
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					OperatorContains contains = OperatorContains.local();
+					contains.accelerateGeometry(shared, sr,
+							Geometry.GeometryAccelerationDegree.enumMedium);
+					for (int i = 0; i < 200; i++) {
+						boolean inside = contains.execute(shared, new Point(
+								1 + (i % 9) * 0.01, 1), sr, null);
+						boolean hole = contains.execute(shared, new Point(5,
+								5), sr, null);
+						Envelope2D env = new Envelope2D();
+						shared.queryEnvelope2D(env);
+						if (!inside || hole || env.xmax != 10
+								|| shared.calculateLength2D() <= 0) {
+							synchronized (errors) {
+								errors[0]++;
+							}
+						}
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (int t = 0; t < threads.length; t++)
+			threads[t].join();
+		assertEquals(0, errors[0]);
+		assertTrue(poly.equals(original));
+	}
+
+	@Test
+	public void testFreezeRejectsMutations() {
+		Polygon poly = new Polygon();
+		poly.startPath(0, 0);
+		poly.lineTo(0, 10);
+		poly.lineTo(10, 10);
+		poly.lineTo(10, 0);
+		poly.setAttribute(VertexDescription.Semantics.Z, 0, 0, 3);
+		final Polygon original = (Polygon) poly.copy();
+		final Polygon frozen = poly;
+		frozen.freeze();
+		SpatialReference sr = SpatialReference.create(4326);
+		OperatorContains.local().accelerateGeometry(frozen, sr,
+				Geometry.GeometryAccelerationDegree.enumMedium);
+		final MultiPathImpl impl = (MultiPathImpl) frozen._getImpl();
+		GeometryAccelerators accelerators = impl._getAccelerators();
+		assertTrue(accelerators != null);
+		int state = frozen.getStateFlag();
+
+		final Transformation2D transform = new Transformation2D();
+		transform.setShift(1, 1);
+		Runnable[] mutations = { new Runnable() {
+			public void run() {
+				frozen.insertPoint(0, 1, new Point2D(0, 5));
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.insertPoint(0, 1, new Point(0, 5));
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.insertPoints(0, 1, original, 0, 0, 2, true);
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.add(original, false);
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.addPath(original, 0, true);
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.insertPath(0, original, 0, true);
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.addSegment(new Line(0, 0, 1, 1), true);
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.addEnvelope(new Envelope2D(0, 0, 1, 1), false);
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.startPath(20, 20);
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.lineTo(new double[] { 1, 1, 2, 2 }, 0, 2);
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.removePoint(0, 1);
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.removePath(0);
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.reversePath(0);
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.reverseAllPaths();
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.closeAllPaths();
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.setXY(1, 5, 5);
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.setXYZ(1, new Point3D(5, 5, 5));
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.setPoint(1, new Point(5, 5));
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.setPointByVal(1, new Point(5, 5));
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.setAttribute(VertexDescription.Semantics.Z, 1, 0, 4);
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.interpolateAttributes(0, 0, 2);
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.replaceNaNs(VertexDescription.Semantics.Z, 0);
+			}
+		}, new Runnable() {
+			public void run() {
+				frozen.applyTransformation(transform);
+			}
+		}, new Runnable() {
+			public void run() {
+				impl.notifyModified(MultiVertexGeometryImpl.DirtyFlags.DirtyCoordinates);
+			}
+		}, new Runnable() {
+			public void run() {
+				impl.setEnvelope(new Envelope(0, 0, 1, 1));
+			}
+		} };
+
+		for (int i = 0; i < mutations.length; i++) {
+			try {
+				mutations[i].run();
+				fail("mutation " + i);
+			} catch (GeometryException ex) {
+			}
+
+			// the rejected mutation leaves the shared state unchanged
+			assertEquals(4, frozen.getPointCount());
+			assertEquals(4, frozen.getPathSize(0));
+			assertTrue("mutation " + i, frozen.equals(original));
+			assertEquals(original.calculateArea2D(), frozen.calculateArea2D());
+			assertEquals(state, frozen.getStateFlag());
+			assertTrue(impl._getAccelerators() == accelerators);
+		}
+
+		final MultiPoint multipoint = new MultiPoint();
+		multipoint.add(1, 1);
+		multipoint.add(2, 2);
+		multipoint.freeze();
+		Runnable[] multipointMutations = { new Runnable() {
+			public void run() {
+				multipoint.add(3, 3);
+			}
+		}, new Runnable() {
+			public void run() {
+				multipoint.add(new double[] { 3, 3 }, 0, 1);
+			}
+		}, new Runnable() {
+			public void run() {
+				multipoint.insertPoint(0, new Point(3, 3));
+			}
+		}, new Runnable() {
+			public void run() {
+				multipoint.removePoint(0);
+			}
+		}, new Runnable() {
+			public void run() {
+				multipoint.resize(5);
+			}
+		}, new Runnable() {
+			public void run() {
+				multipoint.applyTransformation(transform);
+			}
+		} };
+		for (int i = 0; i < multipointMutations.length; i++) {
+			try {
+				multipointMutations[i].run();
+				fail("multipoint mutation " + i);
+			} catch (GeometryException ex) {
+			}
+
+			assertEquals(2, multipoint.getPointCount());
+			assertEquals(2.0, multipoint.getXY(1).x);
+		}
+	}
+
+	@Test
+	public void testStateFlag() {
+		Polyline line = new Polyline();
+		int state = line.getStateFlag();
+		line.startPath(0, 0);
+		line.lineTo(1, 1);
+		line.lineTo(2, 2);
+		int state1 = line.getStateFlag();
+		assertEquals(state + 1, state1);// changes in between count once
+		assertEquals(state1, line.getStateFlag());
+		line.addAttribute(VertexDescription.Semantics.Z);
+		int state2 = line.getStateFlag();
+		assertEquals(state1 + 1, state2);
+		line.addAttribute(VertexDescription.Semantics.Z);// no change
+		assertEquals(state2, line.getStateFlag());
+
+		((MultiPathImpl) line._getImpl()).m_touchFlag = Integer.MAX_VALUE;
+		line.setXY(0, new Point2D(5, 5));
+		assertEquals(0, line.getStateFlag());
+	}
+
+	@Test
+	public void testBulkLineTo() {
+		int n = 100000;
+		double[] xy = new double[n * 2];
+		for (int i = 0; i < n; i++) {
+			xy[2 * i] = i;
+			xy[2 * i + 1] = (i * 7) % 13;
+		}
+
+		Polyline single = new Polyline();
+		single.startPath(-1, -1);
+		for (int i = 0; i < n; i++)
+			single.lineTo(xy[2 * i], xy[2 * i + 1]);
+
+		Polyline bulk = new Polyline();
+		bulk.startPath(-1, -1);
+		for (int i = 0; i < n; i += 1000)
+			bulk.lineTo(xy, i, 1000);
+
+		assertTrue(single.equals(bulk));
+		assertEquals(single.calculateLength2D(), bulk.calculateLength2D());
+
+		Polygon poly = new Polygon();
+		poly.startPath(0, 0);
+		poly.lineTo(new double[] { 0, 10, 10, 10, 10, 0 }, 0, 3);
+		poly.startPath(2, 2);
+		poly.lineTo(new double[] { 99, 99, 8, 2, 8, 8 }, 1, 2);
+		assertEquals(2, poly.getPathCount());
+		assertEquals(7, poly.getPointCount());
+		assertEquals(100.0 - 18.0, poly.calculateArea2D());
+		assertTrue(poly.isClosedPath(1));
+	}
+
 	private static Polygon birmingham() {
 		Polygon poly = new Polygon();
 		poly.addEnvelope(new Envelope(-1.954245, 52.513531, -1.837357,
@@ -153,4 +153,150 @@ public class TestPolygonUtils extends TestCase {
 			assertTrue(res == PolygonUtils.PiPResult.PiPInside);
 		}
 	}
+	@Test
+	public static void testPointsInArea2DBatch() {
+		Polygon polygon = new Polygon();
+		int n = 2000;
+		for (int i = 0; i < n; i++) {
+			double angle = 2 * Math.PI * i / n;
+			double r = 100 + 10 * Math.sin(angle * 40);
+			if (i == 0)
+				polygon.startPath(r * Math.cos(angle), r * Math.sin(angle));
+			else
+				polygon.lineTo(r * Math.cos(angle), r * Math.sin(angle));
+		}
+		// hole
+		polygon.startPath(-20, -20);
+		polygon.lineTo(-20, 20);
+		polygon.lineTo(20, 20);
+		polygon.lineTo(20, -20);
+
+		java.util.Random rnd = new java.util.Random(7);
+		int count = 40000;
+		double[] xy = new double[count * 2];
+		for (int i = 0; i < count; i++) {
+			xy[i * 2] = -120 + 240 * rnd.nextDouble();
+			xy[i * 2 + 1] = -120 + 240 * rnd.nextDouble();
+		}
+		// points on the boundary
+		xy[0] = -20;
+		xy[1] = 0;
+		xy[2] = 100;
+		xy[3] = 0;
+
+		for (int pass = 0; pass < 2; pass++) {
+			double tolerance = pass == 0 ? 0 : 0.5;
+			byte[] expected = new byte[count];
+			for (int i = 0; i < count; i++)
+				expected[i] = (byte) PolygonUtils.isPointInPolygon2D(polygon,
+						xy[i * 2], xy[i * 2 + 1], tolerance).ordinal();
+
+			byte[] res = new byte[count];
+			PolygonUtils.testPointsInArea2D(polygon, xy, count, tolerance, res);
+			assertTrue(java.util.Arrays.equals(expected, res));
+
+			res = new byte[count];
+			PolygonUtils.testPointsInArea2D(polygon, xy, count, tolerance,
+					res, 4);
+			assertTrue(java.util.Arrays.equals(expected, res));
+
+			PolygonUtils.PiPResult[] pip = new PolygonUtils.PiPResult[count];
+			PolygonUtils.testPointsInArea2D(polygon, xy, count, tolerance, pip);
+			for (int i = 0; i < count; i++)
+				assertEquals(expected[i], pip[i].ordinal());
+		}
+		assertNull(((MultiPathImpl) polygon._getImpl())._getAccelerators());
+
+		// uses the accelerators of the polygon
+		OperatorContains.local().accelerateGeometry(polygon, null,
+				Geometry.GeometryAccelerationDegree.enumHot);
+		byte[] res = new byte[count];
+		PolygonUtils.testPointsInArea2D(polygon, xy, count, 0, res, 0);
+		for (int i = 0; i < count; i++)
+			assertEquals(PolygonUtils.isPointInPolygon2D(polygon, xy[i * 2],
+					xy[i * 2 + 1], 0).ordinal(), res[i]);
+
+		Envelope env = new Envelope(-10, -10, 10, 10);
+		res = new byte[3];
+		PolygonUtils.testPointsInArea2D(env, new double[] { 0, 0, 10, 0, 20,
+				0 }, 3, 1, res);
+		assertEquals(PolygonUtils.PiPResult.PiPInside.ordinal(), res[0]);
+		assertEquals(PolygonUtils.PiPResult.PiPBoundary.ordinal(), res[1]);
+		assertEquals(PolygonUtils.PiPResult.PiPOutside.ordinal(), res[2]);
+	}
+	@Test
+	public static void testPointsInArea2DEnvelope() {
+		// The PiPResult and the byte[] overloads agree near the boundary.
+		Envelope env = new Envelope(-10, -10, 10, 10);
+		double tolerance = 1;
+		double[] xy = { 0, 0, 9.4, 0, 9.6, 0, 10, 10, 10.4, 0, 10.6, 0, 0, -10.6, 20, 0 };
+		int count = xy.length / 2;
+		byte[] expected = { 1, 1, 2, 2, 2, 0, 0, 0 };
+
+		byte[] res = new byte[count];
+		PolygonUtils.testPointsInArea2D(env, xy, count, tolerance, res, 1);
+		assertTrue(java.util.Arrays.equals(expected, res));
+
+		PolygonUtils.PiPResult[] pip = new PolygonUtils.PiPResult[count];
+		PolygonUtils.testPointsInArea2D(env, xy, count, tolerance, pip);
+		Point2D[] points = new Point2D[count];
+		PolygonUtils.PiPResult[] pipPoints = new PolygonUtils.PiPResult[count];
+		for (int i = 0; i < count; i++)
+			points[i] = Point2D.construct(xy[i * 2], xy[i * 2 + 1]);
+		PolygonUtils.testPointsInArea2D(env, points, count, tolerance, pipPoints);
+		for (int i = 0; i < count; i++) {
+			assertEquals(expected[i], pip[i].ordinal());
+			assertEquals(expected[i], pipPoints[i].ordinal());
+		}
+	}
+	@Test
+	public static void testLinearRingKernel() {
+		java.util.Random rnd = new java.util.Random(3);
+		for (int ipoly = 0; ipoly < 50; ipoly++) {
+			Polygon polygon = new Polygon();
+			// integer coordinates give many vertices on the test rays
+			int n = 2 + rnd.nextInt(30);
+			for (int i = 0; i < n; i++) {
+				if (i == 0 || rnd.nextInt(8) == 0)
+					polygon.startPath(rnd.nextInt(10), rnd.nextInt(10));
+				else
+					polygon.lineTo(rnd.nextInt(10), rnd.nextInt(10));
+			}
+
+			int pathCount = polygon.getPathCount();
+			Polygon[] rings = new Polygon[pathCount];
+			for (int ipath = 0; ipath < pathCount; ipath++) {
+				rings[ipath] = new Polygon();
+				for (int i = polygon.getPathStart(ipath); i < polygon
+						.getPathEnd(ipath); i++) {
+					if (i == polygon.getPathStart(ipath))
+						rings[ipath].startPath(polygon.getXY(i));
+					else
+						rings[ipath].lineTo(polygon.getXY(i));
+				}
+			}
+
+			if (ipoly % 2 == 1)
+				polygon.setFillRule(Polygon.FillRule.enumFillRuleWinding);
+
+			for (int itol = 0; itol < 2; itol++) {
+				double tolerance = itol * 0.5;
+				for (int i = 0; i < 200; i++) {
+					Point2D pt = i < 100 ? Point2D.construct(rnd.nextInt(11),
+							rnd.nextInt(11)) : Point2D.construct(
+							rnd.nextDouble() * 10, rnd.nextDouble() * 10);
+					assertEquals(PointInPolygonHelper
+							._isPointInPolygonBySegments(polygon, pt, tolerance),
+							PointInPolygonHelper._isPointInPolygonInternal(
+									polygon, pt, tolerance));
+					for (int iring = 0; iring < pathCount; iring++)
+						assertEquals(PointInPolygonHelper
+								._isPointInPolygonBySegments(rings[iring], pt,
+										tolerance), PointInPolygonHelper.isPointInRing(
+								(MultiPathImpl) polygon._getImpl(), iring, pt,
+								tolerance, null));
+				}
+			}
+		}
+	}
 }
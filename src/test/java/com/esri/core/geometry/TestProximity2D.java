@@ -283,4 +283,108 @@ public class TestProximity2D extends TestCase {
 				inputPoint, false, true);
 		assertTrue(result.isRightSide() == false);
 	}
+
+	@Test
+	public static void testProximity2DQuadTree() {
+		// A zigzag with repeated vertices and a single point path, so that
+		// the ties and the vertices outside of the segment quad tree are
+		// tested.
+		java.util.Random random = new java.util.Random(3);
+		Polyline polyline = new Polyline();
+		for (int ipath = 0; ipath < 5; ipath++) {
+			polyline.startPath(ipath * 10, 0);
+			for (int i = 0; i < 400; i++) {
+				polyline.lineTo(ipath * 10 + random.nextInt(20),
+						random.nextInt(20));
+			}
+		}
+		polyline.startPath(70, 70);
+		polyline.lineTo(75, 75);
+		polyline.removePoint(polyline.getPathCount() - 1, 1);
+
+		Polyline accelerated = (Polyline) polyline.copy();
+		OperatorProximity2D proximity = OperatorProximity2D.local();
+		assertTrue(proximity.accelerateGeometry(accelerated, null,
+				Geometry.GeometryAccelerationDegree.enumMedium));
+
+		int count = 300;
+		double[] xy = new double[2 * count];
+		for (int i = 0; i < 2 * count; i++)
+			xy[i] = random.nextInt(160) * 0.5 - 5;
+		xy[0] = 71;
+		xy[1] = 71;
+
+		int[] indices = new int[count];
+		double[] distances = new double[count];
+		double[] nearestXY = new double[2 * count];
+		proximity.getNearestCoordinates(polyline, xy, false, indices,
+				distances, nearestXY);
+		for (int i = 0; i < count; i++) {
+			Point pt = new Point(xy[2 * i], xy[2 * i + 1]);
+			Proximity2DResult expected = proximity.getNearestCoordinate(
+					polyline, pt, false, true);
+			Proximity2DResult result = proximity.getNearestCoordinate(
+					accelerated, pt, false, true);
+			assertEquals(expected.getVertexIndex(), result.getVertexIndex());
+			assertEquals(expected.getDistance(), result.getDistance());
+			assertEquals(expected.isRightSide(), result.isRightSide());
+			assertTrue(expected.getCoordinate().equals(result.getCoordinate()));
+			assertEquals(expected.getVertexIndex(), indices[i]);
+			assertEquals(expected.getDistance(), distances[i]);
+			assertEquals(expected.getCoordinate().getX(), nearestXY[2 * i]);
+
+			expected = proximity.getNearestVertex(polyline, pt);
+			result = proximity.getNearestVertex(accelerated, pt);
+			assertEquals(expected.getVertexIndex(), result.getVertexIndex());
+			assertEquals(expected.getDistance(), result.getDistance());
+
+			Proximity2DResult[] expectedArray = proximity.getNearestVertices(
+					polyline, pt, 3, 7);
+			Proximity2DResult[] resultArray = proximity.getNearestVertices(
+					accelerated, pt, 3, 7);
+			assertEquals(expectedArray.length, resultArray.length);
+			for (int j = 0; j < expectedArray.length; j++) {
+				assertEquals(expectedArray[j].getVertexIndex(),
+						resultArray[j].getVertexIndex());
+			}
+		}
+
+		proximity.getNearestVertexIndices(polyline, xy, indices, distances,
+				null);
+		for (int i = 0; i < count; i++) {
+			Proximity2DResult expected = proximity.getNearestVertex(polyline,
+					new Point(xy[2 * i], xy[2 * i + 1]));
+			assertEquals(expected.getVertexIndex(), indices[i]);
+			assertEquals(expected.getDistance(), distances[i]);
+		}
+		assertEquals(polyline.getPointCount() - 1, indices[0]);
+
+		// The multipoint and the polygon interior
+		MultiPoint multipoint = new MultiPoint();
+		for (int i = 0; i < polyline.getPointCount(); i++)
+			multipoint.add(polyline.getPoint(i));
+
+		proximity.getNearestCoordinates(multipoint, xy, false, indices,
+				distances, null);
+		Polygon polygon = new Polygon();
+		polygon.add(polyline, false);
+		int[] polygonIndices = new int[count];
+		double[] polygonDistances = new double[count];
+		proximity.getNearestCoordinates(polygon, xy, true, polygonIndices,
+				polygonDistances, null);
+		for (int i = 0; i < count; i++) {
+			Point pt = new Point(xy[2 * i], xy[2 * i + 1]);
+			Proximity2DResult expected = proximity.getNearestVertex(polyline,
+					pt);
+			assertEquals(expected.getDistance(), distances[i]);
+			expected = proximity.getNearestCoordinate(polygon, pt, true);
+			assertEquals(expected.getVertexIndex(), polygonIndices[i]);
+			assertEquals(expected.getDistance(), polygonDistances[i]);
+		}
+
+		proximity.getNearestCoordinates(new Polyline(), xy, false, indices,
+				distances, null);
+		assertEquals(-1, indices[0]);
+		assertTrue(Double.isNaN(distances[0]));
+	}
 }
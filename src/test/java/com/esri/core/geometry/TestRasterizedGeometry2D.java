@@ -174,4 +174,118 @@ public class TestRasterizedGeometry2D extends TestCase {
 			for (;;){}
 		}*/
 	}
+	@Test
+	public void testHierarchical() {
+		{
+			Polygon poly = new Polygon();
+			poly.startPath(10, 10);
+			poly.lineTo(100, 10);
+			poly.lineTo(100, 100);
+			poly.lineTo(10, 100);
+
+			RasterizedGeometry2D rg = RasterizedGeometry2D.createHierarchical(
+					poly, 0, 1024, 0);
+			assertTrue(rg.queryPointInGeometry(7, 10) == RasterizedGeometry2D.HitType.Outside);
+			assertTrue(rg.queryPointInGeometry(10, 10) == RasterizedGeometry2D.HitType.Border);
+			assertTrue(rg.queryPointInGeometry(50, 50) == RasterizedGeometry2D.HitType.Inside);
+			assertTrue(rg.queryEnvelopeInGeometry(Envelope2D.construct(40, 40, 60, 60)) == RasterizedGeometry2D.HitType.Inside);
+			assertTrue(rg.queryEnvelopeInGeometry(Envelope2D.construct(-40, -40, 5, 5)) == RasterizedGeometry2D.HitType.Outside);
+			assertTrue(rg.queryEnvelopeInGeometry(Envelope2D.construct(5, 40, 60, 60)) == RasterizedGeometry2D.HitType.Border);
+			assertTrue(rg.queryEnvelopeInGeometry(Envelope2D.construct(200, 200, 300, 300)) == RasterizedGeometry2D.HitType.Outside);
+			assertTrue(rg.estimateMemorySize() <= 1024 + SizeOf.SIZE_OF_HIERARCHICAL_RASTERIZED_GEOMETRY_2D_IMPL + 16);
+			assertTrue(rgHelper(rg, poly));
+		}
+
+		{
+			Polygon poly = new Polygon();
+			// create a star (non-simple)
+			poly.startPath(1, 0);
+			poly.lineTo(5, 10);
+			poly.lineTo(9, 0);
+			poly.lineTo(0, 6);
+			poly.lineTo(10, 6);
+
+			RasterizedGeometry2D rg = RasterizedGeometry2D.createHierarchical(
+					poly, 0, 16 * 1024, 0);
+			assertTrue(rg.queryPointInGeometry(5, 5.5) == RasterizedGeometry2D.HitType.Outside);
+			assertTrue(rg.queryPointInGeometry(5, 8) == RasterizedGeometry2D.HitType.Inside);
+			assertTrue(rg.queryPointInGeometry(1.63, 0.77) == RasterizedGeometry2D.HitType.Inside);
+			assertTrue(rg.queryPointInGeometry(1, 3) == RasterizedGeometry2D.HitType.Outside);
+			assertTrue(rg.queryPointInGeometry(1.6, 0.1) == RasterizedGeometry2D.HitType.Outside);
+			assertTrue(rgHelper(rg, poly));
+		}
+
+		{
+			// the cell centers lie on the diagonal edge of the hole
+			Polygon poly = new Polygon();
+			poly.startPath(0, 0);
+			poly.lineTo(0, 10);
+			poly.lineTo(10, 10);
+			poly.lineTo(10, 0);
+			poly.startPath(2, 2);
+			poly.lineTo(8, 2);
+			poly.lineTo(8, 8);
+			RasterizedGeometry2D rg = RasterizedGeometry2D.createHierarchical(
+					poly, 1e-8, 16 * 1024, 0);
+			assertTrue(rg.queryPointInGeometry(1.01, 1) == RasterizedGeometry2D.HitType.Inside);
+			assertTrue(rg.queryPointInGeometry(5, 5) == RasterizedGeometry2D.HitType.Border);
+			assertTrue(rg.queryPointInGeometry(7, 3) == RasterizedGeometry2D.HitType.Outside);
+			assertTrue(rgHelper(rg, poly));
+		}
+
+		{
+			Polyline line = new Polyline();
+			line.startPath(0, 0);
+			line.lineTo(10, 10);
+			line.lineTo(20, 0);
+			RasterizedGeometry2D rg = RasterizedGeometry2D.createHierarchical(
+					line, 0.1, 4 * 1024, 0);
+			assertTrue(rg.queryPointInGeometry(10, 0) == RasterizedGeometry2D.HitType.Outside);
+			assertTrue(rg.queryPointInGeometry(10, 10) == RasterizedGeometry2D.HitType.Border);
+			assertTrue(rg.queryPointInGeometry(5.05, 5) == RasterizedGeometry2D.HitType.Border);
+			assertTrue(rgHelper(rg, line));
+		}
+	}
+
+	@Test
+	public void testHierarchicalHitRate() {
+		// A large polygon with a detailed boundary.
+		Polygon poly = new Polygon();
+		java.util.Random rnd = new java.util.Random(1);
+		int count = 20000;
+		for (int i = 0; i < count; i++) {
+			double angle = 2 * Math.PI * i / count;
+			double r = 1000 + 30 * Math.sin(angle * 50) + rnd.nextDouble() * 5;
+			if (i == 0)
+				poly.startPath(r * Math.cos(angle), r * Math.sin(angle));
+			else
+				poly.lineTo(r * Math.cos(angle), r * Math.sin(angle));
+		}
+
+		RasterizedGeometry2D hrg = RasterizedGeometry2D.createHierarchical(
+				poly, 0, 256 * 1024, 0);
+		RasterizedGeometry2D rg = RasterizedGeometry2D.create(poly, 0, 256 * 1024);
+		hrg.queryPointInGeometry(0, 0);// not counted
+		assertEquals(0, hrg.getQueryCount());
+		hrg.setCollectStatistics(true);
+		rg.setCollectStatistics(true);
+		int pointCount = 20000;
+		for (int i = 0; i < pointCount; i++) {
+			double x = -1100 + 2200 * rnd.nextDouble();
+			double y = -1100 + 2200 * rnd.nextDouble();
+			RasterizedGeometry2D.HitType hit = hrg.queryPointInGeometry(x, y);
+			rg.queryPointInGeometry(x, y);
+			if (hit != RasterizedGeometry2D.HitType.Border) {
+				PolygonUtils.PiPResult res = PolygonUtils.isPointInPolygon2D(
+						poly, new Point2D(x, y), 0);
+				assertTrue(res == (hit == RasterizedGeometry2D.HitType.Inside ? PolygonUtils.PiPResult.PiPInside
+						: PolygonUtils.PiPResult.PiPOutside));
+			}
+		}
+
+		assertEquals(hrg.getQueryCount(), pointCount);
+		assertEquals(rg.getQueryCount(), pointCount);
+		assertTrue(hrg.getHitRate() > 0.99);
+		assertTrue(hrg.getHitRate() > rg.getHitRate());
+	}
 }
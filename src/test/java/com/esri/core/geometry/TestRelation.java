@@ -25,6 +25,7 @@
 package com.esri.core.geometry;
 
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 
 import junit.framework.TestCase;
 
@@ -5528,4 +5529,230 @@ public class TestRelation extends TestCase {
 		boolean res = OperatorDisjoint.local().execute(geometry1.getGeometry(), geometry2.getGeometry(), geometry1.getSpatialReference(), null);
 		assertTrue(!res);
 	}
+
+	@Test
+	public void testRelatePatternEarlyExit() {
+		// A pattern holds if and only if each of its cells holds on its own.
+		// This checks that stopping the evaluation as soon as the pattern is
+		// decided does not change the result.
+		OperatorRelate relate = OperatorRelate.local();
+		SpatialReference sr = SpatialReference.create(4326);
+		Polygon polygon = (Polygon) OperatorImportFromWkt.local().execute(0,
+				Geometry.Type.Polygon,
+				"POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (4 4, 6 4, 6 6, 4 6, 4 4))", null);
+		Geometry[] geoms = new Geometry[] {
+				polygon,
+				OperatorImportFromWkt.local().execute(0, Geometry.Type.Unknown,
+						"POLYGON ((5 -5, 15 -5, 15 5, 5 5, 5 -5))", null),
+				OperatorImportFromWkt.local().execute(0, Geometry.Type.Unknown,
+						"LINESTRING (-5 5, 5 5, 5 15)", null),
+				OperatorImportFromWkt.local().execute(0, Geometry.Type.Unknown,
+						"MULTILINESTRING ((0 0, 10 10), (2 8, 8 2))", null),
+				OperatorImportFromWkt.local().execute(0, Geometry.Type.Unknown,
+						"MULTIPOINT (1 1, 5 5, 10 5, 20 20)", null),
+				OperatorImportFromWkt.local().execute(0, Geometry.Type.Unknown,
+						"POINT (10 5)", null) };
+
+		char[] values = { 'T', 'F', '0', '1', '2' };
+		java.util.Random rnd = new java.util.Random(2019);
+		for (int a = 0; a < geoms.length; a++) {
+			for (int b = 0; b < geoms.length; b++) {
+				boolean[][] cell = new boolean[9][values.length];
+				for (int i = 0; i < 9; i++) {
+					int matches = 0;
+					for (int v = 0; v < values.length; v++) {
+						char[] scl = "*********".toCharArray();
+						scl[i] = values[v];
+						cell[i][v] = relate.execute(geoms[a], geoms[b], sr,
+								new String(scl), null);
+						if (v > 0 && cell[i][v])
+							matches++;
+					}
+					// exactly one of F, 0, 1, 2 holds, and T is not F
+					assertEquals(1, matches);
+					assertEquals(cell[i][0], !cell[i][1]);
+				}
+
+				for (int k = 0; k < 200; k++) {
+					char[] scl = new char[9];
+					boolean expected = true;
+					for (int i = 0; i < 9; i++) {
+						int v = rnd.nextInt(values.length + 2);
+						if (v >= values.length) {
+							scl[i] = '*';
+						} else {
+							scl[i] = values[v];
+							expected &= cell[i][v];
+						}
+					}
+
+					assertEquals(expected, relate.execute(geoms[a], geoms[b],
+							sr, new String(scl), null));
+				}
+			}
+		}
+
+		// Patterns that cannot hold for the dimensions are rejected up front.
+		assertFalse(relate.execute(geoms[2], geoms[3], sr, "2********", null));
+		assertFalse(relate.execute(geoms[4], geoms[5], sr, "****T****", null));
+		assertFalse(relate.execute(geoms[0], geoms[2], sr, "********F", null));
+
+		// The per point raster test of an accelerated polygon gives the same
+		// answers as the topology graph.
+		MultiPoint mp = new MultiPoint();
+		for (int i = 0; i < 100; i++)
+			mp.add(rnd.nextDouble() * 14 - 2, rnd.nextDouble() * 14 - 2);
+		String[] patterns = { "T********", "F********", "******T**",
+				"******F**", "0*****0**", "T*****F**", "*T*******" };
+		boolean[] expected = new boolean[patterns.length];
+		for (int i = 0; i < patterns.length; i++)
+			expected[i] = relate.execute(polygon, mp, sr, patterns[i], null);
+
+		Polygon accelerated = (Polygon) polygon.copy();
+		assertTrue(relate.accelerateGeometry(accelerated, sr,
+				GeometryAccelerationDegree.enumHot));
+		for (int i = 0; i < patterns.length; i++)
+			assertEquals(expected[i], relate.execute(accelerated, mp, sr,
+					patterns[i], null));
+	}
+
+	@Test
+	public void testSimpleRelationBatch() {
+		SpatialReference sr = SpatialReference.create(4326);
+		Polygon fence = new Polygon();
+		fence.startPath(0, 0);
+		for (int i = 1; i < 64; i++) {
+			double a = 2 * Math.PI * i / 64;
+			double r = (i % 2 == 0) ? 10 : 6;
+			fence.lineTo(10 - r * Math.cos(a) + r, r * Math.sin(a));
+		}
+
+		java.util.Random rnd = new java.util.Random(36);
+		Geometry[] geoms = new Geometry[300];
+		for (int i = 0; i < geoms.length; i++) {
+			double x = rnd.nextDouble() * 30 - 5;
+			double y = rnd.nextDouble() * 30 - 15;
+			switch (i % 3) {
+			case 0:
+				geoms[i] = new Point(x, y);
+				break;
+			case 1:
+				geoms[i] = new Envelope(x, y, x + rnd.nextDouble() * 5, y
+						+ rnd.nextDouble() * 5);
+				break;
+			default:
+				Polyline line = new Polyline();
+				line.startPath(x, y);
+				line.lineTo(x + rnd.nextDouble() * 8 - 4, y + rnd.nextDouble() * 8 - 4);
+				geoms[i] = line;
+				break;
+			}
+		}
+
+		Operator.Type[] types = { Operator.Type.Contains,
+				Operator.Type.Within, Operator.Type.Intersects,
+				Operator.Type.Disjoint, Operator.Type.Touches,
+				Operator.Type.Crosses, Operator.Type.Overlaps,
+				Operator.Type.Equals };
+		for (Operator.Type type : types) {
+			OperatorSimpleRelation op = (OperatorSimpleRelation) OperatorFactoryLocal
+					.getInstance().getOperator(type);
+			boolean[] expected = new boolean[geoms.length];
+			int count = 0;
+			for (int i = 0; i < geoms.length; i++) {
+				expected[i] = op.execute(fence, geoms[i], sr, null);
+				if (expected[i])
+					count++;
+			}
+
+			if (type == Operator.Type.Intersects || type == Operator.Type.Disjoint)
+				assertTrue(count > 0 && count < geoms.length);
+
+			boolean[] res = op.execute(fence, new SimpleGeometryCursor(geoms), sr, null);
+			assertTrue(java.util.Arrays.equals(expected, res));
+			res = op.execute(fence, new SimpleGeometryCursor(geoms), sr, 4, null);
+			assertTrue(java.util.Arrays.equals(expected, res));
+		}
+
+		// The left geometry is not modified by the batch
+		assertFalse(fence.isFrozen());
+		assertNull(((MultiVertexGeometryImpl) fence._getImpl())._getAccelerators());
+		assertEquals(0, OperatorContains.local().execute(fence,
+				new SimpleGeometryCursor(new Geometry[0]), sr, null).length);
+	}
+
+	@Test
+	public void testRelationResultCache() throws InterruptedException {
+		SpatialReference sr = SpatialReference.create(4326);
+		RelationResultCache cache = new RelationResultCache(4, 0);
+		Polygon zone = new Polygon();
+		zone.startPath(0, 0);
+		zone.lineTo(0, 10);
+		zone.lineTo(10, 10);
+		zone.lineTo(10, 0);
+		Point asset = new Point(5, 5);
+
+		OperatorContains contains = OperatorContains.local();
+		assertTrue(cache.execute(contains, zone, asset, sr, null));
+		assertEquals(0, cache.getHitCount());
+		assertTrue(cache.execute(contains, zone, asset, sr, null));
+		assertEquals(1, cache.getHitCount());
+
+		// an equal geometry hits the same entry
+		assertTrue(cache.execute(contains, (Geometry) zone.copy(), new Point(5,
+				5), sr, null));
+		assertEquals(2, cache.getHitCount());
+
+		// the relation and the pattern are part of the key
+		assertFalse(cache.execute(OperatorWithin.local(), zone, asset, sr, null));
+		assertTrue(cache.execute(OperatorRelate.local(), zone, asset, sr,
+				"T*****FF*", null));
+		assertFalse(cache.execute(OperatorRelate.local(), zone, asset, sr,
+				"F********", null));
+		assertEquals(2, cache.getHitCount());
+		assertEquals(4, cache.getMissCount());
+		assertEquals(4, cache.size());
+
+		// a change of the geometry is detected through the state flag
+		zone.setXY(2, new Point2D(4, 4));
+		assertFalse(cache.execute(contains, zone, asset, sr, null));
+		assertEquals(5, cache.getMissCount());
+		assertFalse(cache.execute(contains, zone, asset, sr, null));
+		assertEquals(3, cache.getHitCount());
+		assertEquals(0.375, cache.getHitRate());
+
+		// the size is bounded
+		for (int i = 0; i < 10; i++)
+			cache.execute(contains, zone, new Point(i, 1), sr, null);
+		assertEquals(4, cache.size());
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0.0, cache.getHitRate());
+
+		// the results expire
+		RelationResultCache shortCache = new RelationResultCache(10, 1);
+		shortCache.execute(contains, zone, asset, sr, null);
+		Thread.sleep(20);
+		shortCache.execute(contains, zone, asset, sr, null);
+		assertEquals(0, shortCache.getHitCount());
+		assertEquals(2, shortCache.getMissCount());
+
+		// the hash is kept on the geometry, and the cache does not hold the
+		// geometries
+		RelationResultCache.Fingerprint fp = ((MultiVertexGeometryImpl) zone
+				._getImpl()).m_fingerprint;
+		assertTrue(fp != null);
+		cache.execute(contains, zone, new Point(1, 1), sr, null);
+		assertTrue(((MultiVertexGeometryImpl) zone._getImpl()).m_fingerprint == fp);
+		Polygon temp = (Polygon) zone.copy();
+		WeakReference<Polygon> ref = new WeakReference<Polygon>(temp);
+		cache.execute(contains, temp, asset, sr, null);
+		temp = null;
+		for (int i = 0; i < 100 && ref.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(ref.get());
+	}
 }
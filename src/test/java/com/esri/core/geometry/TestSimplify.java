@@ -1365,4 +1365,114 @@ public class TestSimplify extends TestCase {
 		assertTrue(equals);
 	}
 
+	@Test
+	public void testParallelCracking() {
+		java.util.Random random = new java.util.Random(1);
+		Polyline polyline = new Polyline();
+		for (int ipath = 0; ipath < 100; ipath++) {
+			double x = random.nextDouble() * 1000;
+			double y = random.nextDouble() * 1000;
+			polyline.startPath(x, y);
+			for (int i = 0; i < 49; i++) {
+				x += random.nextDouble() * 40 - 20;
+				y += random.nextDouble() * 40 - 20;
+				polyline.lineTo(x, y);
+			}
+		}
+
+		SpatialReference sr = SpatialReference.create(102100);
+		double tolerance = sr.getTolerance();
+		Polyline sequential = crackAndCluster_(polyline, tolerance, 1);
+		Polyline parallel = crackAndCluster_(polyline, tolerance, 4);
+		assertTrue(sequential.getPointCount() > polyline.getPointCount());
+		assertEquals(sequential.getPointCount(), parallel.getPointCount());
+		assertEquals(sequential.calculateLength2D(),
+				parallel.calculateLength2D(), 1e-2);
+		assertTrue(OperatorEquals.local().execute(sequential, parallel, sr,
+				null));
+
+		// The parallel cracking is used only when asked for.
+		Geometry simplified = OperatorSimplify.local()
+				.execute(new SimpleGeometryCursor(polyline), sr, true, 4, null)
+				.next();
+		assertTrue(OperatorEquals.local().execute(simplified,
+				OperatorSimplify.local().execute(polyline, sr, true, null), sr,
+				null));
+	}
+
+	@Test
+	public void testParallelClusteringLargeInput() {
+		// A third of the vertices lands within the tolerance of an earlier
+		// one.
+		java.util.Random random = new java.util.Random(1);
+		int n = 100000;
+		double tolerance = 0.01;
+		double[] xy = new double[2 * n];
+		for (int i = 0; i < n; i++) {
+			if (i > 0 && random.nextInt(3) == 0) {
+				int j = random.nextInt(i);
+				xy[2 * i] = xy[2 * j] + (random.nextDouble() - 0.5) * tolerance;
+				xy[2 * i + 1] = xy[2 * j + 1] + (random.nextDouble() - 0.5)
+						* tolerance;
+			} else {
+				xy[2 * i] = random.nextDouble() * 100;
+				xy[2 * i + 1] = random.nextDouble() * 100;
+			}
+		}
+
+		Polyline polyline = new Polyline();
+		for (int i = 0; i < n; i += 100) {
+			polyline.startPath(xy[2 * i], xy[2 * i + 1]);
+			polyline.lineTo(xy, i + 1, 99);
+		}
+
+		Polyline[] results = new Polyline[2];
+		for (int k = 0; k < 2; k++) {
+			EditShape shape = new EditShape();
+			int geometry = shape.addGeometry(polyline);
+			assertTrue(Clusterer.executeNonReciprocal(shape, tolerance,
+					k == 0 ? 1 : 4));
+			results[k] = (Polyline) shape.getGeometry(geometry);
+		}
+
+		java.util.HashSet<Point2D> sequential = new java.util.HashSet<Point2D>();
+		java.util.HashSet<Point2D> parallel = new java.util.HashSet<Point2D>();
+		for (int i = 0; i < n; i++) {
+			Point2D pt = results[0].getXY(i);
+			assertTrue(Point2D.distance(pt, results[1].getXY(i)) <= 2 * tolerance);
+			sequential.add(pt);
+			parallel.add(results[1].getXY(i));
+		}
+
+		// The clusters at the strip boundaries are formed in a different
+		// order, which can split or join a few of them.
+		assertTrue(sequential.size() < n * 3 / 4);
+		assertTrue(Math.abs(sequential.size() - parallel.size()) <= n / 1000);
+	}
+
+	// Runs the cracking and clustering loop of CrackAndCluster with the given
+	// number of threads for the cracking.
+	private static Polyline crackAndCluster_(Polyline polyline,
+			double tolerance, int threadCount) {
+		EditShape shape = new EditShape();
+		int geometry = shape.addGeometry(polyline);
+		double toleranceCluster = InternalUtils
+				.adjust_tolerance_for_TE_clustering(tolerance);
+		double toleranceCrack = InternalUtils
+				.adjust_tolerance_for_TE_cracking(tolerance);
+		for (int iter = 0;; iter++) {
+			Clusterer.executeNonReciprocal(shape, toleranceCluster);
+			shape.filterClosePoints(toleranceCluster, true, false);
+			if (iter > 0
+					&& !Cracker.needsCracking(true, shape, toleranceCrack
+							* (1.0 + 1e-6), null, null))
+				break;
+
+			if (!Cracker.execute(shape, toleranceCrack * (1.0 + 1e-5),
+					threadCount, null))
+				break;
+		}
+
+		return (Polyline) shape.getGeometry(geometry);
+	}
 }